@@ -1,12 +1,36 @@
 package com.toolrentals.pos;
 
+import com.toolrentals.pos.business.cache.QuoteCache;
+import com.toolrentals.pos.business.catalog.ToolCatalog;
+import com.toolrentals.pos.business.clock.BusinessClock;
+import com.toolrentals.pos.business.inventory.AvailabilityCalendar;
+import com.toolrentals.pos.business.inventory.DueDateIndex;
+import com.toolrentals.pos.business.inventory.ToolInventory;
+import com.toolrentals.pos.business.inventory.ToolUnavailableException;
+import com.toolrentals.pos.business.journal.RentalJournal;
+import com.toolrentals.pos.business.scheduler.ScheduledEvent;
+import com.toolrentals.pos.business.util.DateUtil;
 import com.toolrentals.pos.common.enums.ToolCode;
+import com.toolrentals.pos.common.model.CartAgreement;
+import com.toolrentals.pos.common.model.CartLine;
+import com.toolrentals.pos.common.model.Money;
+import com.toolrentals.pos.common.model.Quote;
 import com.toolrentals.pos.common.model.RentalAgreement;
 import com.toolrentals.pos.common.model.Tool;
 import com.toolrentals.pos.service.RentalAgreementSvc;
 import com.toolrentals.pos.service.RentalAgreementSvcImpl;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 /**
  * Process for checking out a customer and creating the rental agreement for renting a tool.
@@ -14,9 +38,57 @@ import java.util.Date;
 public class CheckoutProcess {
 
     RentalAgreementSvc rentalAgreementSvc;
+    ToolCatalog toolCatalog;
+    ToolInventory toolInventory;
+    AvailabilityCalendar availabilityCalendar;
+    DueDateIndex dueDateIndex;
+    RentalJournal rentalJournal;
+    QuoteCache quoteCache;
+    Consumer<ToolCode> quoteCacheInvalidator;
+    ConcurrentMap<RentalAgreement, List<ScheduledEvent>> reminders;
+    // agreements booked ahead whose unit is not yet out, by checkout epoch day, guarded by itself
+    TreeMap<Long, Set<RentalAgreement>> pendingStarts;
+    BusinessClock businessClock;
+    DateUtil dateUtil;
 
     public CheckoutProcess() {
-        rentalAgreementSvc = new RentalAgreementSvcImpl();
+        this(new ToolCatalog());
+    }
+
+    /**
+     * @param toolCatalog ToolCatalog - the catalog of tools to rent, which may be shared with other checkouts.
+     */
+    public CheckoutProcess(ToolCatalog toolCatalog) {
+        this(toolCatalog, new ToolInventory());
+    }
+
+    /**
+     * @param toolCatalog   ToolCatalog - the catalog of tools to rent, which may be shared with other checkouts.
+     * @param toolInventory ToolInventory - the units of each tool available to rent, shared with other checkouts.
+     */
+    public CheckoutProcess(ToolCatalog toolCatalog, ToolInventory toolInventory) {
+        this(toolCatalog, toolInventory, new RentalAgreementSvcImpl());
+    }
+
+    /**
+     * @param toolCatalog        ToolCatalog - the catalog of tools to rent, which may be shared with other checkouts.
+     * @param toolInventory      ToolInventory - the units of each tool available to rent, shared with other checkouts.
+     * @param rentalAgreementSvc RentalAgreementSvcImpl - the service creating the rental agreements, e.g. configured
+     *                           with a receipt sink or reminder scheduler. It is set to find tools in the catalog.
+     */
+    public CheckoutProcess(ToolCatalog toolCatalog, ToolInventory toolInventory, RentalAgreementSvcImpl rentalAgreementSvc) {
+        this.toolInventory = toolInventory;
+        rentalAgreementSvc.setToolCatalog(toolCatalog);
+        this.rentalAgreementSvc = rentalAgreementSvc;
+        this.toolCatalog = toolCatalog;
+        quoteCache = new QuoteCache();
+        // quotes priced with a tool's old charges must not be reused
+        quoteCacheInvalidator = quoteCache::invalidate;
+        toolCatalog.addChangeListener(quoteCacheInvalidator);
+        reminders = new ConcurrentHashMap<>();
+        pendingStarts = new TreeMap<>();
+        businessClock = BusinessClock.system();
+        dateUtil = new DateUtil();
     }
 
     /**
@@ -27,20 +99,517 @@ public class CheckoutProcess {
      * @param checkoutDate    Date - the date that the customer wishes to start renting the tool
      * @param discountPercent int - the discount amount (whole number from 0 - 100) that the sales representative is
      *                        applying to the rental agreement
+     * @return RentalAgreement - the completed rental agreement.
      * @throws Exception - if any errors occur during the checkout process or an invalid value has been supplied.
      */
-    public void checkout(ToolCode toolCode, int rentalDays, Date checkoutDate, int discountPercent) throws Exception {
-        RentalAgreement rentalAgreement = rentalAgreementSvc.createRentalAgreement();
+    public RentalAgreement checkout(ToolCode toolCode, int rentalDays, Date checkoutDate, int discountPercent) throws Exception {
+        RentalAgreement rentalAgreement = createRentalAgreement(toolCode, rentalDays, checkoutDate, discountPercent);
+        CompletableFuture<Long> journaled = null;
+        try {
+            journaled = journal(rentalAgreement);
+            rentalAgreementSvc.printRentalAgreement(rentalAgreement);
+            // the journal writes while the agreement prints, and the checkout is done once both are
+            journaled.get();
+        } catch (Exception e) {
+            abandon(rentalAgreement, journaled, e);
+            throw e;
+        }
+        return rentalAgreement;
+    }
+
+    /**
+     * Checkout process that returns once the rental agreement is complete, leaving it to be printed in the background.
+     *
+     * @param toolCode        ToolCode - enum value representing the code of the tool that the customer desires to rent
+     * @param rentalDays      int - the number of days that the customer wishes to rent the tool for
+     * @param checkoutDate    Date - the date that the customer wishes to start renting the tool
+     * @param discountPercent int - the discount amount (whole number from 0 - 100) that the sales representative is
+     *                        applying to the rental agreement
+     * @return CompletableFuture - completed once the rental agreement has been printed and journaled.
+     * @throws Exception - if any errors occur during the checkout process or an invalid value has been supplied.
+     */
+    public CompletableFuture<Void> checkoutAsync(ToolCode toolCode, int rentalDays, Date checkoutDate, int discountPercent) throws Exception {
+        RentalAgreement rentalAgreement = createRentalAgreement(toolCode, rentalDays, checkoutDate, discountPercent);
+        CompletableFuture<Long> journaled = null;
+        CompletableFuture<Void> done;
+        try {
+            journaled = journal(rentalAgreement);
+            done = CompletableFuture.allOf(journaled, rentalAgreementSvc.printRentalAgreementAsync(rentalAgreement));
+        } catch (Exception e) {
+            abandon(rentalAgreement, journaled, e);
+            throw e;
+        }
+        return abandonOnFailure(rentalAgreement, journaled, done);
+    }
+
+    /**
+     * Checkout process for a rental already priced as a quote, e.g. by a bulk import, creating its rental agreement
+     * without pricing it again. The agreement holds a unit, is indexed and is journaled as any other checkout, so it
+     * can be checked in, but it is not printed.
+     *
+     * @param quote Quote - the priced rental, whose daily charges may be left out.
+     * @return CompletableFuture - completed with the rental agreement once it has been journaled.
+     * @throws Exception - if an input of the quote is not valid or its tool is not available.
+     */
+    public CompletableFuture<RentalAgreement> checkoutQuote(Quote quote) throws Exception {
+        Tool tool = rentalAgreementSvc.findTool(quote.getToolCode());
+        RentalAgreement rentalAgreement = createRentalAgreement(tool, dateUtil.fromEpochDay(quote.getCheckoutEpochDay()), quote);
+        open(rentalAgreement);
+        CompletableFuture<Long> journaled;
+        try {
+            journaled = journal(rentalAgreement);
+        } catch (Exception e) {
+            abandon(rentalAgreement, null, e);
+            throw e;
+        }
+        return abandonOnFailure(rentalAgreement, journaled, journaled).thenApply(sequence -> rentalAgreement);
+    }
+
+    /**
+     * Checkout process for a cart of tools rented together, pricing every line at once. Each line is then checked out
+     * on its own rental agreement, holding a unit of its tool, indexed and journaled as any other checkout, so each
+     * tool can be checked in when it is returned. Either every line is checked out or, if any tool is not available,
+     * none is. The cart's discount is shared out over the lines, so their totals add up to the cart's.
+     *
+     * @param cart CartAgreement - the cart holding the checkout date, discount and the tool and rental days of each
+     *             line.
+     * @return CartAgreement - the priced cart, with the rental agreement of each line.
+     * @throws Exception - if any input of the cart is not valid or any of its tools is not available.
+     */
+    public CartAgreement checkoutCart(CartAgreement cart) throws Exception {
+        rentalAgreementSvc.priceCart(cart);
+        List<CartLine> lines = cart.getLines();
+        long checkoutEpochDay = dateUtil.toEpochDay(cart.getCheckoutDate());
+        int percentDiscount = cart.getPercentDiscount();
+        List<RentalAgreement> rentalAgreements = new ArrayList<>(lines.size());
+        long subtotalSoFar = 0;
+        long discountSoFar = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            CartLine line = lines.get(i);
+            // each line takes the discount on the subtotal up to and including it, less what the lines before it took,
+            // so no share is negative or more than its line, and the shares add up to the cart's rounded discount
+            subtotalSoFar = Math.addExact(subtotalSoFar, line.getSubtotalCents());
+            long discount = Money.percentOf(subtotalSoFar, percentDiscount) - discountSoFar;
+            discountSoFar += discount;
+            Quote quote = new Quote(line.getTool().getToolCode(), checkoutEpochDay, line.getRentalDays(), percentDiscount,
+                    dateUtil.toEpochDay(line.getDueDate()), line.getNumberChargeableDays(), null, line.getSubtotalCents(),
+                    discount, line.getSubtotalCents() - discount);
+            RentalAgreement rentalAgreement = createRentalAgreement(line.getTool(), cart.getCheckoutDate(), quote);
+            try {
+                open(rentalAgreement);
+            } catch (Exception e) {
+                // give back the lines already checked out
+                for (RentalAgreement opened : rentalAgreements) {
+                    discard(opened);
+                }
+                throw e;
+            }
+            rentalAgreements.add(rentalAgreement);
+        }
+
+        List<CompletableFuture<Long>> journaled = new ArrayList<>(lines.size());
+        try {
+            for (RentalAgreement rentalAgreement : rentalAgreements) {
+                journaled.add(journal(rentalAgreement));
+            }
+            for (CompletableFuture<Long> future : journaled) {
+                future.get();
+            }
+        } catch (Exception e) {
+            // every line is given back, so the cart can be checked out again as a whole
+            for (int i = 0; i < rentalAgreements.size(); i++) {
+                abandon(rentalAgreements.get(i), i < journaled.size() ? journaled.get(i) : null, e);
+            }
+            throw e;
+        }
+        for (int i = 0; i < lines.size(); i++) {
+            lines.get(i).setRentalAgreement(rentalAgreements.get(i));
+        }
+        return cart;
+    }
+
+    /**
+     * Check-in process for a cart, checking in the tool of every line not yet returned on its own.
+     *
+     * @param cart       CartAgreement - the checked out cart.
+     * @param returnDate Date - the date that the customer returned the tools
+     * @return CartAgreement - the cart, with every rental agreement closed.
+     * @throws Exception - if the cart has not been checked out, or the return date is not supplied or prior to the
+     *                   checkout date.
+     */
+    public CartAgreement checkinCart(CartAgreement cart, Date returnDate) throws Exception {
+        for (CartLine line : cart.getLines()) {
+            if (!line.hasRentalAgreement()) {
+                throw new Exception("Cart has not been checked out.");
+            }
+        }
+        for (CartLine line : cart.getLines()) {
+            if (!line.getRentalAgreement().hasReturnDate()) {
+                checkin(line.getRentalAgreement(), returnDate);
+            }
+        }
+        return cart;
+    }
+
+    /**
+     * Check-in process, closing the rental agreement of a returned tool and charging a late fee for each chargeable day
+     * from its due date up to the return date. The unit is released to be rented again, the rest of its booking in the
+     * availability calendar is cancelled, the agreement is taken out of the due date index and its reminders are
+     * cancelled. With a rental journal, the check-in is journaled before returning, so the unit counts as returned
+     * after a restart.
+     *
+     * @param rentalAgreement RentalAgreement - the agreement created when the tool was checked out.
+     * @param returnDate      Date - the date that the customer returned the tool
+     * @return RentalAgreement - the closed rental agreement, with its return date and late fee.
+     * @throws Exception - if the agreement is not complete or has already been returned, or the return date is not
+     *                   supplied or prior to the checkout date.
+     */
+    public RentalAgreement checkin(RentalAgreement rentalAgreement, Date returnDate) throws Exception {
+        ToolCode toolCode = rentalAgreement.getTool().getToolCode();
+        // locked as the service locks it, so a second check-in cannot release the unit again
+        synchronized (rentalAgreement) {
+            rentalAgreementSvc.validateCheckin(rentalAgreement, returnDate);
+            // released before the agreement is closed, so a failed release leaves it open to be checked in again
+            if (!removePendingStart(rentalAgreement)) {
+                toolInventory.release(toolCode);
+            }
+            if (availabilityCalendar != null && rentalAgreement.hasBookedUnit()) {
+                // the unit is free from the return date, not the due date
+                availabilityCalendar.trim(toolCode, rentalAgreement.getBookedUnit(),
+                        dateUtil.toEpochDay(rentalAgreement.getCheckoutDate()), dateUtil.toEpochDay(returnDate));
+            }
+            rentalAgreementSvc.checkin(rentalAgreement, returnDate);
+        }
+        CompletableFuture<Long> journaled = rentalJournal == null ? null : rentalJournal.appendCheckin(rentalAgreement);
+        forget(rentalAgreement);
+        if (journaled != null) {
+            journaled.get();
+        }
+        return rentalAgreement;
+    }
+
+    /**
+     * Take the unit of every rental booked ahead that starts on or before a day out of the inventory, as the tool is
+     * handed over. With an availability calendar, a rental booked for a later day only holds its booking until then,
+     * so it does not keep a unit from being rented today. Checkouts run this for 'today' themselves, so it only needs
+     * to be run when the units out must be current without a checkout, e.g. at the start of each business day.
+     *
+     * @param epochDay long - the day rentals have started by, typically today.
+     * @return long - the number of rentals that could not start because every unit of their tool is still out, e.g.
+     * with an overdue rental. They are tried again on the next run.
+     */
+    public long startRentals(long epochDay) {
+        List<RentalAgreement> starting = new ArrayList<>();
+        synchronized (pendingStarts) {
+            for (Set<RentalAgreement> agreements : pendingStarts.headMap(epochDay, true).values()) {
+                starting.addAll(agreements);
+            }
+        }
+        long waiting = 0;
+        for (RentalAgreement rentalAgreement : starting) {
+            // locked as check-in locks it, so the unit is taken once and released once
+            synchronized (rentalAgreement) {
+                if (removePendingStart(rentalAgreement) && !toolInventory.tryReserve(rentalAgreement.getTool().getToolCode())) {
+                    addPendingStart(rentalAgreement, dateUtil.toEpochDay(rentalAgreement.getCheckoutDate()));
+                    waiting++;
+                }
+            }
+        }
+        return waiting;
+    }
+
+    /**
+     * Replace the clock deciding which day is 'today', both when validating checkout dates and when deciding whether a
+     * rental booked in the availability calendar has started.
+     *
+     * @param businessClock BusinessClock - the clock of the checkouts.
+     */
+    public void setBusinessClock(BusinessClock businessClock) {
+        this.businessClock = businessClock;
+        rentalAgreementSvc.setBusinessClock(businessClock);
+    }
+
+    /**
+     * Wait for every rental agreement queued by {@link #checkoutAsync} to be printed, and stop invalidating the quote
+     * cache when the catalog changes, so a catalog shared with other checkouts no longer holds on to it. Call once
+     * this checkout process is no longer used.
+     *
+     * @throws Exception - if interrupted while waiting.
+     */
+    public void shutdown() throws Exception {
+        toolCatalog.removeChangeListener(quoteCacheInvalidator);
+        rentalAgreementSvc.shutdownAsyncPrinting();
+    }
+
+    /**
+     * @return QuoteCache - the cache of quotes priced by this checkout process, to be invalidated when tool charges or
+     * holiday rules change.
+     */
+    public QuoteCache getQuoteCache() {
+        return quoteCache;
+    }
+
+    public RentalAgreementSvc getRentalAgreementSvc() {
+        return rentalAgreementSvc;
+    }
+
+    public ToolCatalog getToolCatalog() {
+        return toolCatalog;
+    }
+
+    public ToolInventory getToolInventory() {
+        return toolInventory;
+    }
+
+    /**
+     * Book a unit of the rented tool for the days of each rental, rejecting rentals when every unit is booked. A rental
+     * booked for a later day takes its unit out of the inventory only when it starts, see {@link #startRentals}.
+     * Without a calendar, rentals are not checked against bookings and every rental takes its unit at checkout.
+     *
+     * @param availabilityCalendar AvailabilityCalendar - the bookings of every tool unit, shared with other checkouts.
+     */
+    public void setAvailabilityCalendar(AvailabilityCalendar availabilityCalendar) {
+        this.availabilityCalendar = availabilityCalendar;
+    }
+
+    public AvailabilityCalendar getAvailabilityCalendar() {
+        return availabilityCalendar;
+    }
+
+    /**
+     * Index every completed rental agreement by its due date, so overdue rentals can be found without a scan.
+     * Without an index, agreements are not tracked once checked out.
+     *
+     * @param dueDateIndex DueDateIndex - the index of open agreements, shared with other checkouts.
+     */
+    public void setDueDateIndex(DueDateIndex dueDateIndex) {
+        this.dueDateIndex = dueDateIndex;
+    }
+
+    public DueDateIndex getDueDateIndex() {
+        return dueDateIndex;
+    }
+
+    /**
+     * Record every completed rental agreement and every check-in in a journal. Without a journal, agreements are only
+     * printed.
+     *
+     * @param rentalJournal RentalJournal - the journal to append agreements to, which may be shared with other
+     *                      checkouts.
+     */
+    public void setRentalJournal(RentalJournal rentalJournal) {
+        this.rentalJournal = rentalJournal;
+    }
+
+    public RentalJournal getRentalJournal() {
+        return rentalJournal;
+    }
+
+    private CompletableFuture<Long> journal(RentalAgreement rentalAgreement) throws InterruptedException {
+        return rentalJournal == null ? CompletableFuture.completedFuture(-1L) : rentalJournal.append(rentalAgreement);
+    }
+
+    private RentalAgreement createRentalAgreement(ToolCode toolCode, int rentalDays, Date checkoutDate, int discountPercent) throws Exception {
+        // read before the tool is found, so a charge change made while pricing keeps the quote out of the cache
+        long generation = quoteCache.getGeneration();
         Tool tool = rentalAgreementSvc.findTool(toolCode);
+        Quote quote = checkoutDate == null ? null : quoteCache.get(toolCode, dateUtil.toEpochDay(checkoutDate), rentalDays, discountPercent);
+
+        RentalAgreement rentalAgreement;
+        if (quote != null) {
+            rentalAgreement = createRentalAgreement(tool, checkoutDate, quote);
+        } else {
+            rentalAgreement = rentalAgreementSvc.checkout(tool, rentalDays, checkoutDate, discountPercent);
+            quoteCache.put(createQuote(toolCode, dateUtil.toEpochDay(checkoutDate), rentalAgreement), generation);
+        }
+        open(rentalAgreement);
+        return rentalAgreement;
+    }
+
+    private RentalAgreement createRentalAgreement(Tool tool, Date checkoutDate, Quote quote) throws Exception {
+        RentalAgreement rentalAgreement = rentalAgreementSvc.createRentalAgreement();
         rentalAgreementSvc.assignToolToRentalAgreement(rentalAgreement, tool);
-        rentalAgreementSvc.assignRentalDaysToRentalAgreement(rentalAgreement, rentalDays);
+        rentalAgreementSvc.assignRentalDaysToRentalAgreement(rentalAgreement, quote.getRentalDays());
         rentalAgreementSvc.assignCheckoutDateToRentalAgreement(rentalAgreement, checkoutDate);
-        rentalAgreementSvc.calculateDueDate(rentalAgreement);
-        rentalAgreementSvc.calculateDailyRentalCharges(rentalAgreement);
-        rentalAgreementSvc.assignPercentDiscount(rentalAgreement, discountPercent);
-        rentalAgreementSvc.calculateSubtotal(rentalAgreement);
-        rentalAgreementSvc.calculateDiscountAmount(rentalAgreement);
-        rentalAgreementSvc.calculateTotal(rentalAgreement);
-        rentalAgreementSvc.printRentalAgreement(rentalAgreement);
+        rentalAgreementSvc.assignPercentDiscount(rentalAgreement, quote.getPercentDiscount());
+        applyQuote(rentalAgreement, quote);
+        return rentalAgreement;
+    }
+
+    /**
+     * Reserve a unit for a priced rental agreement, index it and schedule its reminders, so it can be checked in.
+     */
+    private void open(RentalAgreement rentalAgreement) throws Exception {
+        // reserve only once the agreement is valid, so a rejected checkout never holds a unit
+        ToolCode toolCode = rentalAgreement.getTool().getToolCode();
+        long checkoutEpochDay = dateUtil.toEpochDay(rentalAgreement.getCheckoutDate());
+        boolean startsLater = startsLater(checkoutEpochDay);
+        int bookedUnit = reserve(toolCode, rentalAgreement.getCheckoutDate(), rentalAgreement.getRentalDays(), startsLater);
+        if (bookedUnit >= 0) {
+            rentalAgreement.setBookedUnit(bookedUnit);
+        }
+        if (startsLater) {
+            addPendingStart(rentalAgreement, checkoutEpochDay);
+        }
+        if (dueDateIndex != null) {
+            dueDateIndex.add(rentalAgreement);
+        }
+        List<ScheduledEvent> events = rentalAgreementSvc.scheduleReminders(rentalAgreement);
+        // kept to be cancelled at check-in; agreements are told apart by identity
+        if (!events.isEmpty()) {
+            reminders.put(rentalAgreement, events);
+        }
+    }
+
+    /**
+     * Undo a checkout that failed after its agreement was opened, e.g. because its receipt could not be printed. The
+     * unit and booking are given back and, if the checkout was journaled all the same, it is journaled as returned on
+     * its checkout date, so the unit does not count as out after a restart.
+     *
+     * @param journaled CompletableFuture - the journaling of the checkout, or null if it was never queued.
+     * @param failure   Throwable - the failure of the checkout, given any failure to undo it as suppressed.
+     */
+    private void abandon(RentalAgreement rentalAgreement, CompletableFuture<Long> journaled, Throwable failure) {
+        discard(rentalAgreement);
+        if (journaled == null || rentalJournal == null) {
+            return;
+        }
+        try {
+            // a record still being written counts the unit as out once it is
+            journaled.get();
+        } catch (ExecutionException e) {
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.addSuppressed(e);
+            return;
+        }
+        try {
+            rentalAgreementSvc.checkin(rentalAgreement, rentalAgreement.getCheckoutDate());
+            rentalJournal.appendCheckin(rentalAgreement).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.addSuppressed(e);
+        } catch (Exception e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    /**
+     * @return CompletableFuture - completed as the supplied one, once the checkout has been abandoned if it failed.
+     */
+    private <T> CompletableFuture<T> abandonOnFailure(RentalAgreement rentalAgreement, CompletableFuture<Long> journaled, CompletableFuture<T> done) {
+        // run apart from the journal writer, which would wait on itself to journal the agreement as returned
+        return done.whenCompleteAsync((result, failure) -> {
+            if (failure != null) {
+                abandon(rentalAgreement, journaled, failure);
+            }
+        });
+    }
+
+    /**
+     * Give back the unit and booking of an agreement opened by a checkout that then failed, as if it never happened.
+     */
+    private void discard(RentalAgreement rentalAgreement) {
+        ToolCode toolCode = rentalAgreement.getTool().getToolCode();
+        if (!removePendingStart(rentalAgreement)) {
+            toolInventory.release(toolCode);
+        }
+        if (rentalAgreement.hasBookedUnit()) {
+            availabilityCalendar.cancel(toolCode, rentalAgreement.getBookedUnit(), dateUtil.toEpochDay(rentalAgreement.getCheckoutDate()));
+        }
+        forget(rentalAgreement);
+    }
+
+    /**
+     * Take an agreement out of the due date index and cancel its reminders.
+     */
+    private void forget(RentalAgreement rentalAgreement) {
+        if (dueDateIndex != null) {
+            dueDateIndex.remove(rentalAgreement);
+        }
+        List<ScheduledEvent> events = reminders.remove(rentalAgreement);
+        if (events != null) {
+            for (ScheduledEvent event : events) {
+                event.cancel();
+            }
+        }
+    }
+
+    /**
+     * Book a unit of a tool for a rental in the availability calendar, and take a unit out of the inventory unless
+     * the rental starts later.
+     *
+     * @return int - the unit booked in the availability calendar, or -1 without a calendar.
+     */
+    private int reserve(ToolCode toolCode, Date checkoutDate, int rentalDays, boolean startsLater) throws Exception {
+        long checkoutEpochDay = dateUtil.toEpochDay(checkoutDate);
+        int bookedUnit = -1;
+        if (availabilityCalendar != null) {
+            bookedUnit = availabilityCalendar.book(toolCode, checkoutEpochDay, rentalDays);
+            if (bookedUnit < 0) {
+                throw new ToolUnavailableException("No " + toolCode + " is available from " + dateUtil.formatDateMMDDYY(checkoutDate) + " for " + rentalDays + " days.");
+            }
+        }
+        if (!startsLater && !toolInventory.tryReserve(toolCode)) {
+            if (bookedUnit >= 0) {
+                availabilityCalendar.cancel(toolCode, bookedUnit, checkoutEpochDay);
+            }
+            throw new ToolUnavailableException("No " + toolCode + " is available to rent.");
+        }
+        return bookedUnit;
+    }
+
+    /**
+     * @return boolean - true if a rental starting on the day is booked in the availability calendar ahead of time, so
+     * its unit is taken out of the inventory when it starts. Rentals starting earlier first take their units.
+     */
+    private boolean startsLater(long checkoutEpochDay) {
+        if (availabilityCalendar == null) {
+            return false;
+        }
+        long today = businessClock.getTodayEpochDay();
+        startRentals(today);
+        return checkoutEpochDay > today;
+    }
+
+    private void addPendingStart(RentalAgreement rentalAgreement, long checkoutEpochDay) {
+        synchronized (pendingStarts) {
+            pendingStarts.computeIfAbsent(checkoutEpochDay, day -> new LinkedHashSet<>()).add(rentalAgreement);
+        }
+    }
+
+    /**
+     * @return boolean - true if the agreement was waiting for its rental to start, so its unit is not out.
+     */
+    private boolean removePendingStart(RentalAgreement rentalAgreement) {
+        long checkoutEpochDay = dateUtil.toEpochDay(rentalAgreement.getCheckoutDate());
+        synchronized (pendingStarts) {
+            Set<RentalAgreement> agreements = pendingStarts.get(checkoutEpochDay);
+            if (agreements == null || !agreements.remove(rentalAgreement)) {
+                return false;
+            }
+            if (agreements.isEmpty()) {
+                pendingStarts.remove(checkoutEpochDay);
+            }
+            return true;
+        }
+    }
+
+    private void applyQuote(RentalAgreement rentalAgreement, Quote quote) {
+        // the due date keeps the time of day of the checkout date, as calculateDueDate does
+        rentalAgreement.setDueDate(dateUtil.addDaysToDate(rentalAgreement.getCheckoutDate(), rentalAgreement.getRentalDays()));
+        rentalAgreement.setNumberChargeableDays(quote.getNumberChargeableDays());
+        rentalAgreement.setDailyCharges(quote.getDailyCharges());
+        rentalAgreement.setSubtotalCents(quote.getSubtotalCents());
+        rentalAgreement.setDiscountCents(quote.getDiscountCents());
+        rentalAgreement.setTotalCents(quote.getTotalCents());
+    }
+
+    private Quote createQuote(ToolCode toolCode, long checkoutEpochDay, RentalAgreement rentalAgreement) {
+        return new Quote(toolCode, checkoutEpochDay, rentalAgreement.getRentalDays(), rentalAgreement.getPercentDiscount(),
+                dateUtil.toEpochDay(rentalAgreement.getDueDate()), rentalAgreement.getNumberChargeableDays(),
+                rentalAgreement.getDailyCharges(), rentalAgreement.getSubtotalCents(), rentalAgreement.getDiscountCents(),
+                rentalAgreement.getTotalCents());
     }
 }
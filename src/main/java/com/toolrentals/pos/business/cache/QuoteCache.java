@@ -0,0 +1,251 @@
+package com.toolrentals.pos.business.cache;
+
+import com.toolrentals.pos.common.enums.ToolCode;
+import com.toolrentals.pos.common.model.Quote;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded, thread safe cache of priced quotes keyed by tool code, checkout epoch day, rental days and discount percent.
+ * Entries are spread over independently locked segments, each evicting its least recently used entry once full, so
+ * concurrent terminals rarely contend. Cached quotes must be invalidated when a tool's charges or the holiday rules
+ * change.
+ */
+public class QuoteCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private static final int SEGMENT_COUNT = 16;
+
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    // bumped by every invalidation so quotes priced before it are not cached after it
+    private final AtomicLong generation = new AtomicLong();
+
+    public QuoteCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * @param maximumSize int - the most quotes the cache will hold.
+     */
+    public QuoteCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be at least 1.");
+        }
+        int segmentCount = Math.min(SEGMENT_COUNT, Integer.highestOneBit(maximumSize));
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            // spread any remainder over the first segments so the capacities add up to the maximum size
+            segments[i] = new Segment(maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0));
+        }
+    }
+
+    /**
+     * Find a cached quote.
+     *
+     * @param toolCode         ToolCode - the code of the tool rented.
+     * @param checkoutEpochDay long - the epoch day the rental starts.
+     * @param rentalDays       int - the number of days of the rental.
+     * @param percentDiscount  int - the discount percentage.
+     * @return Quote - the cached quote, or null if there is none.
+     */
+    public Quote get(ToolCode toolCode, long checkoutEpochDay, int rentalDays, int percentDiscount) {
+        QuoteKey key = new QuoteKey(toolCode, checkoutEpochDay, rentalDays, percentDiscount);
+        Quote quote = segmentFor(key).get(key);
+        if (quote == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return quote;
+    }
+
+    /**
+     * Cache a quote, keyed by its tool code, checkout epoch day, rental days and discount percent.
+     *
+     * @param quote Quote - the quote to cache.
+     */
+    public void put(Quote quote) {
+        put(quote, generation.get());
+    }
+
+    /**
+     * Cache a quote unless the cache has been invalidated since the quote started being priced.
+     *
+     * @param quote      Quote - the quote to cache.
+     * @param generation long - the {@link #getGeneration() generation} read before the quote was priced.
+     */
+    public void put(Quote quote, long generation) {
+        QuoteKey key = new QuoteKey(quote.getToolCode(), quote.getCheckoutEpochDay(), quote.getRentalDays(), quote.getPercentDiscount());
+        segmentFor(key).put(key, quote, generation);
+    }
+
+    /**
+     * @return long - the number of invalidations so far. Read it before pricing a quote and pass it to
+     * {@link #put(Quote, long)} so that a quote priced with outdated charges is never cached.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Remove every cached quote for a tool, e.g. after its daily charge has changed.
+     *
+     * @param toolCode ToolCode - the code of the tool.
+     */
+    public void invalidate(ToolCode toolCode) {
+        generation.incrementAndGet();
+        for (Segment segment : segments) {
+            segment.removeTool(toolCode);
+        }
+    }
+
+    /**
+     * Remove every cached quote, e.g. after the holiday rules have changed.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * @return int - the number of quotes currently cached.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private Segment segmentFor(QuoteKey key) {
+        int hash = key.hashCode();
+        // mix the high bits in, as the segment is chosen from the low bits
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    /**
+     * A least recently used map guarded by its own lock.
+     */
+    private class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<QuoteKey, Quote> entries;
+
+        private Segment(int capacity) {
+            entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<QuoteKey, Quote> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private Quote get(QuoteKey key) {
+            lock.lock();
+            try {
+                return entries.get(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void put(QuoteKey key, Quote quote, long pricedGeneration) {
+            lock.lock();
+            try {
+                // checked under the lock, so an invalidation either sees this entry or this put sees the invalidation
+                if (pricedGeneration == generation.get()) {
+                    entries.put(key, quote);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void removeTool(ToolCode toolCode) {
+            lock.lock();
+            try {
+                entries.keySet().removeIf(key -> key.toolCode == toolCode);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void clear() {
+            lock.lock();
+            try {
+                entries.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * The identity of a quote.
+     */
+    private static final class QuoteKey {
+        private final ToolCode toolCode;
+        private final long checkoutEpochDay;
+        private final int rentalDays;
+        private final int percentDiscount;
+
+        private QuoteKey(ToolCode toolCode, long checkoutEpochDay, int rentalDays, int percentDiscount) {
+            this.toolCode = toolCode;
+            this.checkoutEpochDay = checkoutEpochDay;
+            this.rentalDays = rentalDays;
+            this.percentDiscount = percentDiscount;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof QuoteKey other
+                    && toolCode == other.toolCode
+                    && checkoutEpochDay == other.checkoutEpochDay
+                    && rentalDays == other.rentalDays
+                    && percentDiscount == other.percentDiscount;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = toolCode.ordinal();
+            hash = 31 * hash + Long.hashCode(checkoutEpochDay);
+            hash = 31 * hash + rentalDays;
+            return 31 * hash + percentDiscount;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.toolrentals.pos.business.calculator;
+
+import com.toolrentals.pos.common.enums.ToolCode;
+import com.toolrentals.pos.common.model.Money;
+import com.toolrentals.pos.common.model.QuoteBatch;
+import com.toolrentals.pos.common.model.Tool;
+
+/**
+ * Prices a whole {@link QuoteBatch} in one call. The charge rules of each tool are looked up once per batch and every
+ * row is priced with the closed form {@link ChargeableDayCounter}, so no per-day work or per-row objects are needed.
+ * The batch is expected to have been validated beforehand.
+ */
+public class BatchQuoteCalculator {
+
+    private ChargeableDayCounter chargeableDayCounter;
+
+    public BatchQuoteCalculator() {
+        init();
+    }
+
+    private void init() {
+        chargeableDayCounter = new ChargeableDayCounter();
+    }
+
+    /**
+     * Price every row of the batch and record the results in the batch.
+     *
+     * @param batch QuoteBatch - the validated batch to price.
+     * @param tools Tool[] - the tool for each {@link ToolCode}, indexed by ordinal.
+     */
+    public void price(QuoteBatch batch, Tool[] tools) {
+        price(batch, new ToolRates(tools), 0, batch.size());
+    }
+
+    /**
+     * Price a range of rows of the batch and record the results in the batch.
+     *
+     * @param batch QuoteBatch - the validated batch to price.
+     * @param rates ToolRates - the charge rules for each tool.
+     * @param from  int - the first row to price.
+     * @param to    int - the row after the last row to price.
+     */
+    public void price(QuoteBatch batch, ToolRates rates, int from, int to) {
+        for (int row = from; row < to; row++) {
+            int tool = batch.getToolCode(row).ordinal();
+            int rentalDays = batch.getRentalDays(row);
+            int chargeableDays = chargeableDayCounter.countChargeableDays(batch.getCheckoutEpochDay(row), rentalDays,
+                    rates.weekdayCharge[tool], rates.weekendCharge[tool], rates.holidayCharge[tool]);
+            long subtotal = Money.multiply(rates.dailyCharge[tool], chargeableDays);
+            long discount = Money.percentOf(subtotal, batch.getDiscountPercent(row));
+            batch.setResult(row, chargeableDays, subtotal, discount, subtotal - discount);
+        }
+    }
+
+    /**
+     * The charge rules of every tool, flattened into arrays indexed by {@link ToolCode} ordinal.
+     */
+    public static class ToolRates {
+        private final long[] dailyCharge;
+        private final boolean[] weekdayCharge;
+        private final boolean[] weekendCharge;
+        private final boolean[] holidayCharge;
+
+        /**
+         * @param tools Tool[] - the tool for each {@link ToolCode}, indexed by ordinal. Missing tools are left empty.
+         */
+        public ToolRates(Tool[] tools) {
+            dailyCharge = new long[tools.length];
+            weekdayCharge = new boolean[tools.length];
+            weekendCharge = new boolean[tools.length];
+            holidayCharge = new boolean[tools.length];
+            for (int i = 0; i < tools.length; i++) {
+                if (tools[i] != null) {
+                    dailyCharge[i] = tools[i].getDailyChargeCents();
+                    weekdayCharge[i] = tools[i].isWeekdayCharge();
+                    weekendCharge[i] = tools[i].isWeekendCharge();
+                    holidayCharge[i] = tools[i].isHolidayCharge();
+                }
+            }
+        }
+    }
+}
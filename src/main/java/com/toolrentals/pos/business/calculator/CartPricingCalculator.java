@@ -0,0 +1,102 @@
+package com.toolrentals.pos.business.calculator;
+
+import com.toolrentals.pos.business.util.DateUtil;
+import com.toolrentals.pos.common.model.CartAgreement;
+import com.toolrentals.pos.common.model.CartLine;
+import com.toolrentals.pos.common.model.Money;
+import com.toolrentals.pos.common.model.Tool;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Prices every line of a {@link CartAgreement} in one pass over the calendar. All lines start on the checkout date,
+ * so the period up to the longest rental is cut at each distinct rental length, and the weekdays, weekend days and
+ * holidays of each segment are counted once with the closed form {@link ChargeableDayCounter}. The counts up to a
+ * line's due date then give its chargeable days under its tool's weekday, weekend and holiday rules. The cost grows
+ * with the number of distinct rental lengths, not with the number of lines times their days.
+ */
+public class CartPricingCalculator {
+
+    private ChargeableDayCounter chargeableDayCounter;
+    private DateUtil dateUtil;
+
+    public CartPricingCalculator() {
+        init();
+    }
+
+    private void init() {
+        chargeableDayCounter = new ChargeableDayCounter();
+        dateUtil = new DateUtil();
+    }
+
+    /**
+     * Price every line of the cart, and the cart's subtotal, discount and total.
+     *
+     * @param cart CartAgreement - the validated cart to price.
+     */
+    public void price(CartAgreement cart) {
+        List<CartLine> lines = cart.getLines();
+        long startEpochDay = dateUtil.toEpochDay(cart.getCheckoutDate());
+
+        // the distinct rental lengths, in order, are the ends of the segments
+        int[] ends = new int[lines.size()];
+        for (int i = 0; i < ends.length; i++) {
+            ends[i] = lines.get(i).getRentalDays();
+        }
+        Arrays.sort(ends);
+        int segments = 0;
+        for (int i = 0; i < ends.length; i++) {
+            if (segments == 0 || ends[i] != ends[segments - 1]) {
+                ends[segments++] = ends[i];
+            }
+        }
+
+        // day counts from the checkout date up to the end of each segment
+        int[] weekdays = new int[segments];
+        int[] weekendDays = new int[segments];
+        int[] weekdayHolidays = new int[segments];
+        int[] weekendHolidays = new int[segments];
+        Date[] dueDates = new Date[segments];
+        int previousEnd = 0;
+        for (int segment = 0; segment < segments; segment++) {
+            long segmentStart = startEpochDay + previousEnd;
+            int days = ends[segment] - previousEnd;
+            int segmentWeekendDays = chargeableDayCounter.countWeekendDays(segmentStart, days);
+            int before = segment - 1;
+            weekdays[segment] = (segment > 0 ? weekdays[before] : 0) + days - segmentWeekendDays;
+            weekendDays[segment] = (segment > 0 ? weekendDays[before] : 0) + segmentWeekendDays;
+            weekdayHolidays[segment] = (segment > 0 ? weekdayHolidays[before] : 0)
+                    + chargeableDayCounter.countHolidays(segmentStart, days, true, false);
+            weekendHolidays[segment] = (segment > 0 ? weekendHolidays[before] : 0)
+                    + chargeableDayCounter.countHolidays(segmentStart, days, false, true);
+            dueDates[segment] = dateUtil.addDaysToDate(cart.getCheckoutDate(), ends[segment]);
+            previousEnd = ends[segment];
+        }
+
+        long subtotal = 0;
+        for (CartLine line : lines) {
+            int segment = Arrays.binarySearch(ends, 0, segments, line.getRentalDays());
+            Tool tool = line.getTool();
+            int chargeableDays = 0;
+            if (tool.isWeekdayCharge()) {
+                chargeableDays += tool.isHolidayCharge() ? weekdays[segment] : weekdays[segment] - weekdayHolidays[segment];
+            }
+            if (tool.isWeekendCharge()) {
+                chargeableDays += tool.isHolidayCharge() ? weekendDays[segment] : weekendDays[segment] - weekendHolidays[segment];
+            }
+            long lineSubtotal = Money.multiply(tool.getDailyChargeCents(), chargeableDays);
+            // each line gets its own copy, as dates are mutable
+            line.setDueDate(new Date(dueDates[segment].getTime()));
+            line.setNumberChargeableDays(chargeableDays);
+            line.setSubtotalCents(lineSubtotal);
+            subtotal = Math.addExact(subtotal, lineSubtotal);
+        }
+
+        long discount = Money.percentOf(subtotal, cart.getPercentDiscount());
+        cart.setSubtotalCents(subtotal);
+        cart.setDiscountCents(discount);
+        cart.setTotalCents(subtotal - discount);
+    }
+}
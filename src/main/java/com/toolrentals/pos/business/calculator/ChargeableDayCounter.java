@@ -0,0 +1,149 @@
+package com.toolrentals.pos.business.calculator;
+
+import com.toolrentals.pos.business.util.HolidayIndex;
+import com.toolrentals.pos.common.model.Tool;
+
+import java.time.LocalDate;
+
+/**
+ * Counts the chargeable days of a rental period without walking it one day at a time. Weekdays and weekend days are
+ * worked out from the number of whole weeks plus the remaining partial week, then adjusted for the holidays that fall
+ * inside the period, so the cost depends on the number of years spanned rather than the number of days.
+ */
+public class ChargeableDayCounter {
+
+    // epoch day 0 (January 1st, 1970) was a Thursday, i.e. day 3 of a week starting on Monday
+    private static final int EPOCH_DAY_OF_WEEK = 3;
+    private static final int DAYS_PER_WEEK = 7;
+    private static final int WEEKEND_DAYS_PER_WEEK = 2;
+    // Saturday and Sunday are days 5 and 6 of a week starting on Monday
+    private static final int FIRST_WEEKEND_DAY = 5;
+
+    private HolidayIndex holidayIndex;
+
+    public ChargeableDayCounter() {
+        init();
+    }
+
+    private void init() {
+        holidayIndex = new HolidayIndex();
+    }
+
+    /**
+     * Count the days of the rental period that the supplied tool will be charged for.
+     *
+     * @param tool          Tool - the tool being rented, supplying the weekday, weekend and holiday charge rules.
+     * @param startEpochDay long - the epoch day of the first day of the rental.
+     * @param rentalDays    int - the number of days in the rental.
+     * @return int - the number of chargeable days.
+     */
+    public int countChargeableDays(Tool tool, long startEpochDay, int rentalDays) {
+        return countChargeableDays(startEpochDay, rentalDays, tool.isWeekdayCharge(), tool.isWeekendCharge(), tool.isHolidayCharge());
+    }
+
+    /**
+     * Count the days of the rental period that are charged under the supplied charge rules.
+     *
+     * @param startEpochDay long - the epoch day of the first day of the rental.
+     * @param rentalDays    int - the number of days in the rental.
+     * @param weekdayCharge boolean - true if weekdays are charged.
+     * @param weekendCharge boolean - true if weekend days are charged.
+     * @param holidayCharge boolean - true if holidays are charged. When false, holidays are free whatever day of the
+     *                      week they fall on.
+     * @return int - the number of chargeable days.
+     */
+    public int countChargeableDays(long startEpochDay, int rentalDays, boolean weekdayCharge, boolean weekendCharge, boolean holidayCharge) {
+        if (rentalDays <= 0) {
+            return 0;
+        }
+        int weekendDays = countWeekendDays(startEpochDay, rentalDays);
+        int chargeableDays = (weekdayCharge ? rentalDays - weekendDays : 0) + (weekendCharge ? weekendDays : 0);
+        if (!holidayCharge && chargeableDays > 0) {
+            chargeableDays -= countHolidays(startEpochDay, rentalDays, weekdayCharge, weekendCharge);
+        }
+        return chargeableDays;
+    }
+
+    /**
+     * Count the weekday, weekend and holiday days of the rental period, along with the days the supplied tool will be
+     * charged for.
+     *
+     * @param tool          Tool - the tool being rented, supplying the weekday, weekend and holiday charge rules.
+     * @param startEpochDay long - the epoch day of the first day of the rental.
+     * @param rentalDays    int - the number of days in the rental.
+     * @return ChargeableDays - the day counts for the rental period.
+     */
+    public ChargeableDays count(Tool tool, long startEpochDay, int rentalDays) {
+        if (rentalDays <= 0) {
+            return new ChargeableDays(0, 0, 0, 0);
+        }
+        int weekendDays = countWeekendDays(startEpochDay, rentalDays);
+        int holidays = countHolidays(startEpochDay, rentalDays, true, true);
+        return new ChargeableDays(rentalDays - weekendDays, weekendDays, holidays, countChargeableDays(tool, startEpochDay, rentalDays));
+    }
+
+    /**
+     * Count the Saturdays and Sundays in a range of days.
+     *
+     * @param startEpochDay long - the epoch day of the first day in the range.
+     * @param days          int - the number of days in the range.
+     * @return int - the number of weekend days.
+     */
+    public int countWeekendDays(long startEpochDay, int days) {
+        int startDayOfWeek = dayOfWeek(startEpochDay);
+        // weekend days before the end of the range minus those before its start, both measured from the start's week
+        return weekendDaysBefore((long) startDayOfWeek + days) - weekendDaysBefore(startDayOfWeek);
+    }
+
+    /**
+     * Find the day of the week of an epoch day.
+     *
+     * @param epochDay long - the epoch day.
+     * @return int - the day of the week, 0 being Monday and 6 being Sunday.
+     */
+    public int dayOfWeek(long epochDay) {
+        return (int) Math.floorMod(epochDay + EPOCH_DAY_OF_WEEK, (long) DAYS_PER_WEEK);
+    }
+
+    /**
+     * Determine if an epoch day falls on a Saturday or Sunday.
+     *
+     * @param epochDay long - the epoch day.
+     * @return boolean - true if the day is a weekend day.
+     */
+    public boolean isWeekend(long epochDay) {
+        return dayOfWeek(epochDay) >= FIRST_WEEKEND_DAY;
+    }
+
+    /**
+     * Count the holidays in a range of days that land on a day of the week matching the supplied flags.
+     *
+     * @param startEpochDay long - the epoch day of the first day in the range.
+     * @param days          int - the number of days in the range.
+     * @param onWeekdays    boolean - true to count holidays falling on a weekday.
+     * @param onWeekends    boolean - true to count holidays falling on a Saturday or Sunday.
+     * @return int - the number of holidays.
+     */
+    public int countHolidays(long startEpochDay, int days, boolean onWeekdays, boolean onWeekends) {
+        long endEpochDay = startEpochDay + days; // exclusive
+        int lastYear = LocalDate.ofEpochDay(endEpochDay - 1).getYear();
+        int holidays = 0;
+        for (int year = LocalDate.ofEpochDay(startEpochDay).getYear(); year <= lastYear; year++) {
+            for (long holiday : holidayIndex.holidaysInYear(year)) {
+                if (holiday >= startEpochDay && holiday < endEpochDay && (isWeekend(holiday) ? onWeekends : onWeekdays)) {
+                    holidays++;
+                }
+            }
+        }
+        return holidays;
+    }
+
+    /**
+     * Number of weekend days in the first {@code dayCount} days of a run of weeks starting on a Monday.
+     */
+    private static int weekendDaysBefore(long dayCount) {
+        long weeks = dayCount / DAYS_PER_WEEK;
+        int remainder = (int) (dayCount % DAYS_PER_WEEK);
+        return (int) (weeks * WEEKEND_DAYS_PER_WEEK) + Math.max(0, remainder - FIRST_WEEKEND_DAY);
+    }
+}
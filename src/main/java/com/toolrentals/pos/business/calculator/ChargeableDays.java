@@ -0,0 +1,36 @@
+package com.toolrentals.pos.business.calculator;
+
+/**
+ * The breakdown of the days in a rental period. Holidays are also counted as a weekday or weekend day, depending on
+ * which day of the week they fall on.
+ */
+public class ChargeableDays {
+
+    private final int weekdays;
+    private final int weekendDays;
+    private final int holidays;
+    private final int chargeableDays;
+
+    public ChargeableDays(int weekdays, int weekendDays, int holidays, int chargeableDays) {
+        this.weekdays = weekdays;
+        this.weekendDays = weekendDays;
+        this.holidays = holidays;
+        this.chargeableDays = chargeableDays;
+    }
+
+    public int getWeekdays() {
+        return weekdays;
+    }
+
+    public int getWeekendDays() {
+        return weekendDays;
+    }
+
+    public int getHolidays() {
+        return holidays;
+    }
+
+    public int getChargeableDays() {
+        return chargeableDays;
+    }
+}
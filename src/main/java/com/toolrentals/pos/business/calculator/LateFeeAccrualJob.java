@@ -0,0 +1,88 @@
+package com.toolrentals.pos.business.calculator;
+
+import com.toolrentals.pos.business.inventory.DueDateIndex;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Nightly job accruing late fees on every open overdue rental agreement. The agreements due before the day are read
+ * from a {@link DueDateIndex} in parallel ranges on a {@link ForkJoinPool}, without copying them, and each agreement's
+ * late fee is recalculated up to the day by the {@link LateFeeCalculator}, whose cost does not grow with how late the
+ * tool is. Agreements returned while the job runs keep the late fee charged at check-in.
+ */
+public class LateFeeAccrualJob {
+
+    private final DueDateIndex dueDateIndex;
+    private final ForkJoinPool pool;
+
+    private LateFeeCalculator lateFeeCalculator;
+
+    public LateFeeAccrualJob(DueDateIndex dueDateIndex) {
+        this(dueDateIndex, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param dueDateIndex DueDateIndex - the index of open agreements to accrue late fees on.
+     * @param pool         ForkJoinPool - the pool to accrue on.
+     */
+    public LateFeeAccrualJob(DueDateIndex dueDateIndex, ForkJoinPool pool) {
+        this.dueDateIndex = dueDateIndex;
+        this.pool = pool;
+        init();
+    }
+
+    private void init() {
+        lateFeeCalculator = new LateFeeCalculator();
+    }
+
+    /**
+     * Recalculate the late chargeable days and late fee of every open agreement due before a day.
+     *
+     * @param asOfEpochDay long - the epoch day to accrue up to, typically today, which is not charged yet.
+     * @return AccrualSummary - the number of overdue agreements and their late fees.
+     */
+    public AccrualSummary accrue(long asOfEpochDay) {
+        LongAdder agreements = new LongAdder();
+        LongAdder lateFeeCents = new LongAdder();
+        dueDateIndex.forEachDueBefore(asOfEpochDay, pool, (rentalAgreement, dueEpochDay) -> {
+            // locked against a check-in of the same agreement, which sets the final late fee
+            synchronized (rentalAgreement) {
+                if (!rentalAgreement.hasReturnDate()) {
+                    lateFeeCalculator.calculateLateFee(rentalAgreement, dueEpochDay, asOfEpochDay);
+                    agreements.increment();
+                    lateFeeCents.add(rentalAgreement.getLateFeeCents());
+                }
+            }
+        });
+        return new AccrualSummary(agreements.sum(), lateFeeCents.sum());
+    }
+
+    /**
+     * The outcome of an accrual run.
+     */
+    public static class AccrualSummary {
+
+        private final long agreements;
+        private final long lateFeeCents;
+
+        public AccrualSummary(long agreements, long lateFeeCents) {
+            this.agreements = agreements;
+            this.lateFeeCents = lateFeeCents;
+        }
+
+        /**
+         * @return long - the number of overdue agreements that were accrued.
+         */
+        public long getAgreements() {
+            return agreements;
+        }
+
+        /**
+         * @return long - the late fees of those agreements as of the day, in cents.
+         */
+        public long getLateFeeCents() {
+            return lateFeeCents;
+        }
+    }
+}
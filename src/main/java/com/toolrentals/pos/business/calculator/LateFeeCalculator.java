@@ -0,0 +1,53 @@
+package com.toolrentals.pos.business.calculator;
+
+import com.toolrentals.pos.business.util.DateUtil;
+import com.toolrentals.pos.common.model.Money;
+import com.toolrentals.pos.common.model.RentalAgreement;
+import com.toolrentals.pos.common.model.Tool;
+
+/**
+ * Calculates the late fee of a rental agreement: the tool's daily charge for each chargeable day from the due date up
+ * to the day the tool is returned, under the same weekday, weekend and holiday rules as the rental. The days are
+ * counted with the closed form {@link ChargeableDayCounter}, so the cost does not grow with how late the tool is. The
+ * agreement's discount does not apply to late fees.
+ */
+public class LateFeeCalculator {
+
+    private ChargeableDayCounter chargeableDayCounter;
+    private DateUtil dateUtil;
+
+    public LateFeeCalculator() {
+        init();
+    }
+
+    private void init() {
+        chargeableDayCounter = new ChargeableDayCounter();
+        dateUtil = new DateUtil();
+    }
+
+    /**
+     * Calculate and assign the late chargeable days and late fee of the rental agreement.
+     *
+     * @param rentalAgreement RentalAgreement - the completed agreement to be modified.
+     * @param asOfEpochDay    long - the epoch day the tool is returned on, or the day to accrue up to while it is out.
+     */
+    public void calculateLateFee(RentalAgreement rentalAgreement, long asOfEpochDay) {
+        calculateLateFee(rentalAgreement, dateUtil.toEpochDay(rentalAgreement.getDueDate()), asOfEpochDay);
+    }
+
+    /**
+     * Calculate and assign the late chargeable days and late fee of the rental agreement. The rental covers the days up
+     * to its due date, so the due date is the first late day, and the day the tool is returned on is not charged.
+     *
+     * @param rentalAgreement RentalAgreement - the completed agreement to be modified.
+     * @param dueEpochDay     long - the epoch day of the agreement's due date.
+     * @param asOfEpochDay    long - the epoch day the tool is returned on, or the day to accrue up to while it is out.
+     */
+    public void calculateLateFee(RentalAgreement rentalAgreement, long dueEpochDay, long asOfEpochDay) {
+        Tool tool = rentalAgreement.getTool();
+        int lateDays = asOfEpochDay > dueEpochDay ? Math.toIntExact(asOfEpochDay - dueEpochDay) : 0;
+        int chargeableDays = chargeableDayCounter.countChargeableDays(tool, dueEpochDay, lateDays);
+        rentalAgreement.setNumberLateChargeableDays(chargeableDays);
+        rentalAgreement.setLateFeeCents(Money.multiply(tool.getDailyChargeCents(), chargeableDays));
+    }
+}
@@ -0,0 +1,201 @@
+package com.toolrentals.pos.business.calculator;
+
+import com.toolrentals.pos.business.util.DateUtil;
+import com.toolrentals.pos.common.model.DailyChargeLedger;
+import com.toolrentals.pos.common.model.QuoteBatch;
+import com.toolrentals.pos.common.model.RentalAgreement;
+import com.toolrentals.pos.common.model.Tool;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Prices large quote batches and very long rentals on a {@link ForkJoinPool}. Work is split into ranges of rows or
+ * days until a range is no larger than the split threshold, and partial results are combined with exact cents
+ * arithmetic, so the results are identical to pricing sequentially. Work below the threshold is priced on the calling
+ * thread.
+ */
+public class ParallelPricingEngine {
+
+    public static final int DEFAULT_BATCH_THRESHOLD = 8_192;
+    public static final int DEFAULT_DAY_THRESHOLD = 65_536;
+
+    private final ForkJoinPool pool;
+    private final int batchThreshold;
+    private final int dayThreshold;
+
+    private BatchQuoteCalculator batchQuoteCalculator;
+    private RentalChargeCalculator rentalChargeCalculator;
+    private ChargeableDayCounter chargeableDayCounter;
+    private DateUtil dateUtil;
+
+    public ParallelPricingEngine() {
+        this(ForkJoinPool.commonPool(), DEFAULT_BATCH_THRESHOLD, DEFAULT_DAY_THRESHOLD);
+    }
+
+    /**
+     * @param pool           ForkJoinPool - the pool to price on.
+     * @param batchThreshold int - the largest number of batch rows priced as a single task.
+     * @param dayThreshold   int - the largest number of rental days priced as a single task.
+     */
+    public ParallelPricingEngine(ForkJoinPool pool, int batchThreshold, int dayThreshold) {
+        if (batchThreshold < 1 || dayThreshold < 1) {
+            throw new IllegalArgumentException("Split thresholds must be at least 1.");
+        }
+        this.pool = pool;
+        this.batchThreshold = batchThreshold;
+        this.dayThreshold = dayThreshold;
+        init();
+    }
+
+    private void init() {
+        batchQuoteCalculator = new BatchQuoteCalculator();
+        rentalChargeCalculator = new RentalChargeCalculator();
+        chargeableDayCounter = new ChargeableDayCounter();
+        dateUtil = new DateUtil();
+    }
+
+    /**
+     * Price every row of a validated batch, recording the results in the batch.
+     *
+     * @param batch QuoteBatch - the validated batch to price.
+     * @param tools Tool[] - the tool for each tool code, indexed by ordinal.
+     */
+    public void priceBatch(QuoteBatch batch, Tool[] tools) {
+        BatchQuoteCalculator.ToolRates rates = new BatchQuoteCalculator.ToolRates(tools);
+        if (batch.size() <= batchThreshold) {
+            batchQuoteCalculator.price(batch, rates, 0, batch.size());
+        } else {
+            pool.invoke(new BatchTask(batch, rates, 0, batch.size()));
+        }
+    }
+
+    /**
+     * Determine the charge for every day of the rental period and the number of chargeable days, splitting long
+     * rentals into chunks of days.
+     *
+     * @param rentalAgreement RentalAgreement - the agreement to calculate the daily rates and chargeable days for.
+     */
+    public void calculateDailyRates(RentalAgreement rentalAgreement) {
+        int rentalDays = rentalAgreement.getRentalDays();
+        if (rentalDays <= dayThreshold) {
+            rentalChargeCalculator.calculateDailyRates(rentalAgreement);
+            return;
+        }
+        Tool tool = rentalAgreement.getTool();
+        long startEpochDay = dateUtil.toEpochDay(rentalAgreement.getCheckoutDate());
+        long[] charges = new long[rentalDays];
+        int chargeableDays = pool.invoke(new DailyRatesTask(tool, startEpochDay, charges, 0, rentalDays));
+        rentalAgreement.setNumberChargeableDays(chargeableDays);
+        rentalAgreement.setDailyCharges(new DailyChargeLedger(startEpochDay, charges));
+    }
+
+    /**
+     * Calculate the subtotal for the rental agreement, summing long ledgers in chunks of days.
+     *
+     * @param rentalAgreement RentalAgreement - the agreement to be modified.
+     */
+    public void calculateSubtotal(RentalAgreement rentalAgreement) {
+        DailyChargeLedger ledger = rentalAgreement.getDailyCharges();
+        if (ledger.size() <= dayThreshold) {
+            rentalChargeCalculator.calculateSubtotal(rentalAgreement);
+        } else {
+            rentalAgreement.setSubtotalCents(pool.invoke(new SubtotalTask(ledger, 0, ledger.size())));
+        }
+    }
+
+    public int getBatchThreshold() {
+        return batchThreshold;
+    }
+
+    public int getDayThreshold() {
+        return dayThreshold;
+    }
+
+    /**
+     * Prices a range of batch rows, each row being written by exactly one task.
+     */
+    private class BatchTask extends RecursiveAction {
+        private final QuoteBatch batch;
+        private final BatchQuoteCalculator.ToolRates rates;
+        private final int from;
+        private final int to;
+
+        private BatchTask(QuoteBatch batch, BatchQuoteCalculator.ToolRates rates, int from, int to) {
+            this.batch = batch;
+            this.rates = rates;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= batchThreshold) {
+                batchQuoteCalculator.price(batch, rates, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BatchTask(batch, rates, from, middle), new BatchTask(batch, rates, middle, to));
+        }
+    }
+
+    /**
+     * Fills the charges for a range of rental days and counts its chargeable days.
+     */
+    private class DailyRatesTask extends RecursiveTask<Integer> {
+        private final Tool tool;
+        private final long startEpochDay;
+        private final long[] charges;
+        private final int from;
+        private final int to;
+
+        private DailyRatesTask(Tool tool, long startEpochDay, long[] charges, int from, int to) {
+            this.tool = tool;
+            this.startEpochDay = startEpochDay;
+            this.charges = charges;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= dayThreshold) {
+                rentalChargeCalculator.fillDailyCharges(tool, startEpochDay, charges, from, to);
+                return chargeableDayCounter.countChargeableDays(tool, startEpochDay + from, to - from);
+            }
+            int middle = (from + to) >>> 1;
+            DailyRatesTask right = new DailyRatesTask(tool, startEpochDay, charges, middle, to);
+            right.fork();
+            int left = new DailyRatesTask(tool, startEpochDay, charges, from, middle).compute();
+            return left + right.join();
+        }
+    }
+
+    /**
+     * Sums the charges for a range of ledger days.
+     */
+    private class SubtotalTask extends RecursiveTask<Long> {
+        private final DailyChargeLedger ledger;
+        private final int from;
+        private final int to;
+
+        private SubtotalTask(DailyChargeLedger ledger, int from, int to) {
+            this.ledger = ledger;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= dayThreshold) {
+                return ledger.totalCharges(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            SubtotalTask right = new SubtotalTask(ledger, middle, to);
+            right.fork();
+            long left = new SubtotalTask(ledger, from, middle).compute();
+            return left + right.join();
+        }
+    }
+}
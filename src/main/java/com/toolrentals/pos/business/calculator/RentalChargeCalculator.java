@@ -1,18 +1,18 @@
 package com.toolrentals.pos.business.calculator;
 
 import com.toolrentals.pos.business.util.DateUtil;
+import com.toolrentals.pos.business.util.HolidayIndex;
+import com.toolrentals.pos.common.model.DailyChargeLedger;
+import com.toolrentals.pos.common.model.Money;
 import com.toolrentals.pos.common.model.RentalAgreement;
 import com.toolrentals.pos.common.model.Tool;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.Calendar;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.time.LocalDate;
 
 public class RentalChargeCalculator {
 
+    private HolidayIndex holidayIndex;
+    private ChargeableDayCounter chargeableDayCounter;
     private DateUtil dateUtil;
 
     public RentalChargeCalculator() {
@@ -20,6 +20,8 @@ public class RentalChargeCalculator {
     }
 
     private void init() {
+        holidayIndex = new HolidayIndex();
+        chargeableDayCounter = new ChargeableDayCounter();
         dateUtil = new DateUtil();
     }
 
@@ -30,45 +32,70 @@ public class RentalChargeCalculator {
      * @param rentalAgreement RentalAgreement - the agreement to calculate the daily rates and chargeable days for.
      */
     public void calculateDailyRates(RentalAgreement rentalAgreement) {
-        Map<Date, BigDecimal> dailyRentalCharges = new HashMap<Date, BigDecimal>();
         Tool tool = rentalAgreement.getTool();
+        long startEpochDay = dateUtil.toEpochDay(rentalAgreement.getCheckoutDate());
+        int rentalDays = rentalAgreement.getRentalDays();
 
-        // setup a Calendar with the start date of the rental
-        Calendar cal = Calendar.getInstance();
-        cal.setTime(rentalAgreement.getCheckoutDate());
-
-        int numberChargeableDays = 0; // number of days of the rental period that will be charged for
+        long[] charges = new long[rentalDays];
+        fillDailyCharges(tool, startEpochDay, charges, 0, rentalDays);
+        rentalAgreement.setNumberChargeableDays(chargeableDayCounter.countChargeableDays(tool, startEpochDay, rentalDays));
+        rentalAgreement.setDailyCharges(new DailyChargeLedger(startEpochDay, charges));
+    }
 
-        for (int i = 0; i < rentalAgreement.getRentalDays(); i++) {
-            if (!tool.isHolidayCharge() && dateUtil.isHoliday(cal)) {
-                // don't bill for Independence Day or Labor Day
-                dailyRentalCharges.put(cal.getTime(), new BigDecimal(0));
-            } else {
-                // otherwise, check the day of the week vs whether the charge applies
-                switch (cal.get(Calendar.DAY_OF_WEEK)) {
-                    // weekends
-                    case Calendar.SATURDAY:
-                    case Calendar.SUNDAY:
-                        if (tool.isWeekendCharge()) {
-                            dailyRentalCharges.put(cal.getTime(), tool.getDailyCharge());
-                            numberChargeableDays++;
-                        } else {
-                            dailyRentalCharges.put(cal.getTime(), new BigDecimal(0));
-                        }
-                        break;
-                    // weekdays
-                    default:
-                        if (tool.isWeekdayCharge()) {
-                            dailyRentalCharges.put(cal.getTime(), tool.getDailyCharge());
-                            numberChargeableDays++;
-                        }
+    /**
+     * Fill in the charge for a range of days of a rental period.
+     *
+     * @param tool          Tool - the tool being rented.
+     * @param startEpochDay long - the epoch day of the first day of the rental.
+     * @param charges       long[] - the charge in cents for each day of the rental, to be filled in.
+     * @param from          int - the first day of the range, 0 being the first day of the rental.
+     * @param to            int - the day after the last day of the range.
+     */
+    public void fillDailyCharges(Tool tool, long startEpochDay, long[] charges, int from, int to) {
+        long dailyCharge = tool.getDailyChargeCents();
+        for (int i = from; i < to; i++) {
+            // check the day of the week vs whether the charge applies
+            boolean charged = chargeableDayCounter.isWeekend(startEpochDay + i) ? tool.isWeekendCharge() : tool.isWeekdayCharge();
+            charges[i] = charged ? dailyCharge : 0;
+        }
+        if (!tool.isHolidayCharge()) {
+            // don't bill for Independence Day or Labor Day
+            long firstEpochDay = startEpochDay + from;
+            long endEpochDay = startEpochDay + to;
+            int lastYear = LocalDate.ofEpochDay(endEpochDay - 1).getYear();
+            for (int year = LocalDate.ofEpochDay(firstEpochDay).getYear(); year <= lastYear; year++) {
+                for (long holiday : holidayIndex.holidaysInYear(year)) {
+                    if (holiday >= firstEpochDay && holiday < endEpochDay) {
+                        charges[(int) (holiday - startEpochDay)] = 0;
+                    }
                 }
             }
-            // increment the Calendar by a day
-            cal.add(Calendar.DAY_OF_MONTH, 1);
         }
-        rentalAgreement.setNumberChargeableDays(numberChargeableDays);
-        rentalAgreement.setRentalChargesByDate(dailyRentalCharges);
+    }
+
+    /**
+     * Count the days within a rental period that are billable, without walking the period day by day.
+     *
+     * @param rentalAgreement RentalAgreement - the agreement containing the tool, checkout date and rental days.
+     * @return int - the number of chargeable days.
+     */
+    public int calculateChargeableDays(RentalAgreement rentalAgreement) {
+        return chargeableDayCounter.countChargeableDays(rentalAgreement.getTool(),
+                dateUtil.toEpochDay(rentalAgreement.getCheckoutDate()), rentalAgreement.getRentalDays());
+    }
+
+    /**
+     * Calculate the subtotal, discount and total of a rental agreement whose daily rates have been calculated, without
+     * summing the daily charges. Every chargeable day costs the daily charge, so the subtotal is their product.
+     *
+     * @param rentalAgreement RentalAgreement - the agreement to be modified.
+     */
+    public void calculateCharges(RentalAgreement rentalAgreement) {
+        long subtotal = Money.multiply(rentalAgreement.getTool().getDailyChargeCents(), rentalAgreement.getNumberChargeableDays());
+        long discount = Money.percentOf(subtotal, rentalAgreement.getPercentDiscount());
+        rentalAgreement.setSubtotalCents(subtotal);
+        rentalAgreement.setDiscountCents(discount);
+        rentalAgreement.setTotalCents(subtotal - discount);
     }
 
     /**
@@ -77,12 +104,7 @@ public class RentalChargeCalculator {
      * @param rentalAgreement RentalAgreement - the agreement to be modified.
      */
     public void calculateSubtotal(RentalAgreement rentalAgreement) {
-        BigDecimal subtotal = BigDecimal.ZERO;
-        Map<Date, BigDecimal> m = rentalAgreement.getRentalChargesByDate();
-        for (Map.Entry<Date, BigDecimal> entry : m.entrySet()) {
-            subtotal = subtotal.add(entry.getValue());
-        }
-        rentalAgreement.setSubtotal(subtotal);
+        rentalAgreement.setSubtotalCents(rentalAgreement.getDailyCharges().totalCharges());
     }
 
     /**
@@ -91,11 +113,11 @@ public class RentalChargeCalculator {
      * @param rentalAgreement RentalAgreement - the rental agreement to be modified.
      */
     public void calculateDiscount(RentalAgreement rentalAgreement) {
-        BigDecimal discountPercent = BigDecimal.ZERO;
+        int discountPercent = 0;
         if (rentalAgreement.hasPercentageDiscount()) {
-            discountPercent = new BigDecimal(rentalAgreement.getPercentDiscount()).divide(new BigDecimal(100), 2, RoundingMode.HALF_UP);
+            discountPercent = rentalAgreement.getPercentDiscount();
         }
-        rentalAgreement.setDiscount(rentalAgreement.getSubtotal().multiply(discountPercent).setScale(2, RoundingMode.HALF_UP));
+        rentalAgreement.setDiscountCents(Money.percentOf(rentalAgreement.getSubtotalCents(), discountPercent));
     }
 
     /**
@@ -104,10 +126,6 @@ public class RentalChargeCalculator {
      * @param rentalAgreement RentalAgreement - the rental agreement to be modified.
      */
     public void calculateTotal(RentalAgreement rentalAgreement) {
-        BigDecimal finalRate = rentalAgreement.getSubtotal();
-        finalRate = finalRate.subtract(rentalAgreement.getDiscount());
-        rentalAgreement.setTotal(finalRate);
+        rentalAgreement.setTotalCents(rentalAgreement.getSubtotalCents() - rentalAgreement.getDiscountCents());
     }
-
-
 }
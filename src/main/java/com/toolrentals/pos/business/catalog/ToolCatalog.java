@@ -0,0 +1,172 @@
+package com.toolrentals.pos.business.catalog;
+
+import com.toolrentals.pos.common.enums.ToolCode;
+import com.toolrentals.pos.common.model.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * The catalog of rentable tools, holding one immutable {@link CatalogTool} per {@link ToolCode} in an array indexed by
+ * ordinal. Readers take the current snapshot without locking or allocating. Changes copy the snapshot, replace the
+ * changed tool and publish the copy with an atomic swap, so a reader always sees a consistent set of tools.
+ * <p>
+ * A catalog loaded from a file also holds every SKU of the file in a {@link ToolCatalogIndex}, found by its code with
+ * {@link #findTool(String)}. SKUs matching a tool code replace the standard tool of that code.
+ */
+public class ToolCatalog {
+
+    private final AtomicReference<CatalogTool[]> snapshot = new AtomicReference<>();
+    private final List<Consumer<ToolCode>> changeListeners = new CopyOnWriteArrayList<>();
+    private final ToolCatalogIndex index;
+
+    /**
+     * Create a catalog holding the standard tools.
+     */
+    public ToolCatalog() {
+        this(null);
+    }
+
+    /**
+     * Create a catalog holding the standard tools and the tools of an index.
+     *
+     * @param index ToolCatalogIndex - the built index of loaded tools, or null for only the standard tools.
+     */
+    public ToolCatalog(ToolCatalogIndex index) {
+        this.index = index;
+        init();
+    }
+
+    /**
+     * Create a catalog from a tool catalog file, see {@link ToolCatalogLoader} for its format.
+     *
+     * @param path Path - the file to load.
+     * @return ToolCatalog - the loaded catalog.
+     * @throws IOException - if the file cannot be read or holds an invalid tool definition.
+     */
+    public static ToolCatalog load(Path path) throws IOException {
+        return new ToolCatalog(new ToolCatalogLoader().load(path));
+    }
+
+    private void init() {
+        CatalogTool[] tools = new CatalogTool[ToolCode.values().length];
+        for (Tool tool : new Tool[]{new StihlChainsaw(), new WernerLadder(), new DeWaltJackhammer(), new RidgidJackhammer()}) {
+            tools[tool.getToolCode().ordinal()] = CatalogTool.copyOf(tool);
+        }
+        if (index != null) {
+            for (ToolCode toolCode : ToolCode.values()) {
+                CatalogTool loaded = index.findTool(toolCode.name());
+                if (loaded != null) {
+                    tools[toolCode.ordinal()] = loaded;
+                }
+            }
+        }
+        snapshot.set(tools);
+    }
+
+    /**
+     * Find the tool for the supplied tool code.
+     *
+     * @param toolCode ToolCode - the code of the tool to find.
+     * @return Tool - the shared, immutable tool, or null if the code is null or not in the catalog.
+     */
+    public Tool findTool(ToolCode toolCode) {
+        return toolCode == null ? null : snapshot.get()[toolCode.ordinal()];
+    }
+
+    /**
+     * Find the tool for the supplied catalog code (SKU). Codes matching a tool code are served from the current
+     * snapshot, so they reflect any change made to the catalog.
+     *
+     * @param code String - the catalog code of the tool to find.
+     * @return Tool - the shared, immutable tool, or null if the code is null or not in the catalog.
+     */
+    public Tool findTool(String code) {
+        if (code == null) {
+            return null;
+        }
+        CatalogTool[] tools = snapshot.get();
+        for (CatalogTool tool : tools) {
+            if (tool != null && tool.getCode().equals(code)) {
+                return tool;
+            }
+        }
+        return index == null ? null : index.findTool(code);
+    }
+
+    /**
+     * Take the current set of tools, indexed by tool code ordinal. The array must not be modified.
+     *
+     * @return Tool[] - the tools in the catalog.
+     */
+    public Tool[] snapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Add or replace a tool in the catalog.
+     *
+     * @param tool Tool - the tool to publish, which is copied into an immutable catalog tool.
+     */
+    public void putTool(Tool tool) {
+        CatalogTool catalogTool = CatalogTool.copyOf(tool);
+        CatalogTool[] current;
+        CatalogTool[] updated;
+        do {
+            current = snapshot.get();
+            updated = current.clone();
+            updated[tool.getToolCode().ordinal()] = catalogTool;
+        } while (!snapshot.compareAndSet(current, updated));
+        fireChanged(tool.getToolCode());
+    }
+
+    /**
+     * Change the daily charge of a tool in the catalog.
+     *
+     * @param toolCode    ToolCode - the code of the tool to change.
+     * @param dailyCharge BigDecimal - the new daily charge.
+     */
+    public void updateDailyCharge(ToolCode toolCode, BigDecimal dailyCharge) {
+        CatalogTool[] current;
+        CatalogTool[] updated;
+        do {
+            current = snapshot.get();
+            CatalogTool tool = current[toolCode.ordinal()];
+            if (tool == null) {
+                throw new IllegalArgumentException("Tool " + toolCode + " is not in the catalog.");
+            }
+            updated = current.clone();
+            updated[toolCode.ordinal()] = tool.withDailyCharge(dailyCharge);
+        } while (!snapshot.compareAndSet(current, updated));
+        fireChanged(toolCode);
+    }
+
+    /**
+     * Register a listener to be told the code of every tool that changes, e.g. to invalidate cached quotes.
+     *
+     * @param listener Consumer - called with the code of the changed tool after the change has been published.
+     */
+    public void addChangeListener(Consumer<ToolCode> listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Stop telling a listener about changed tools, e.g. once the cache it invalidates is no longer used.
+     *
+     * @param listener Consumer - the listener to remove, as it was registered.
+     */
+    public void removeChangeListener(Consumer<ToolCode> listener) {
+        changeListeners.remove(listener);
+    }
+
+    private void fireChanged(ToolCode toolCode) {
+        for (Consumer<ToolCode> listener : changeListeners) {
+            listener.accept(toolCode);
+        }
+    }
+}
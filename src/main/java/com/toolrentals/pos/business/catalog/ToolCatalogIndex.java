@@ -0,0 +1,175 @@
+package com.toolrentals.pos.business.catalog;
+
+import com.toolrentals.pos.common.enums.Brand;
+import com.toolrentals.pos.common.enums.ToolCode;
+import com.toolrentals.pos.common.enums.ToolType;
+import com.toolrentals.pos.common.model.CatalogTool;
+import com.toolrentals.pos.common.model.Money;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Compact, array backed index of tool definitions keyed by their code. Each definition is stored column by column in
+ * primitive arrays and found through an open addressing hash table, so a catalog of many thousands of SKUs needs only
+ * one object per code. {@link CatalogTool} instances are only created the first time a code is looked up.
+ */
+public class ToolCatalogIndex {
+
+    private static final byte WEEKDAY_CHARGE = 1;
+    private static final byte WEEKEND_CHARGE = 2;
+    private static final byte HOLIDAY_CHARGE = 4;
+
+    private int size;
+    private String[] codes;
+    private byte[] toolTypes;
+    private byte[] brands;
+    private long[] dailyCharges;
+    private byte[] chargeFlags;
+
+    // open addressing table of row + 1, 0 marking an empty slot
+    private int[] table;
+    private AtomicReferenceArray<CatalogTool> tools;
+
+    public ToolCatalogIndex(int expectedSize) {
+        int capacity = Math.max(16, expectedSize);
+        codes = new String[capacity];
+        toolTypes = new byte[capacity];
+        brands = new byte[capacity];
+        dailyCharges = new long[capacity];
+        chargeFlags = new byte[capacity];
+    }
+
+    /**
+     * Add a tool definition to the index. A later definition of the same code replaces the earlier one.
+     *
+     * @param code             String - the code of the tool.
+     * @param toolType         ToolType - the type of the tool.
+     * @param brand            Brand - the brand of the tool.
+     * @param dailyChargeCents long - the daily charge in cents.
+     * @param weekdayCharge    boolean - true if weekdays are charged.
+     * @param weekendCharge    boolean - true if weekend days are charged.
+     * @param holidayCharge    boolean - true if holidays are charged.
+     */
+    public void add(String code, ToolType toolType, Brand brand, long dailyChargeCents, boolean weekdayCharge, boolean weekendCharge, boolean holidayCharge) {
+        if (table != null) {
+            throw new IllegalStateException("Tool definitions cannot be added once the index is built.");
+        }
+        if (size == codes.length) {
+            grow();
+        }
+        codes[size] = code;
+        toolTypes[size] = (byte) toolType.ordinal();
+        brands[size] = (byte) brand.ordinal();
+        dailyCharges[size] = dailyChargeCents;
+        chargeFlags[size] = (byte) ((weekdayCharge ? WEEKDAY_CHARGE : 0) | (weekendCharge ? WEEKEND_CHARGE : 0) | (holidayCharge ? HOLIDAY_CHARGE : 0));
+        size++;
+    }
+
+    /**
+     * Build the hash table once every definition has been added. The index is read only afterwards.
+     *
+     * @return ToolCatalogIndex - this index.
+     */
+    public ToolCatalogIndex build() {
+        // keep the table at most half full so probe sequences stay short
+        int[] built = new int[Integer.highestOneBit(Math.max(2, size) * 2 - 1) << 1];
+        int mask = built.length - 1;
+        for (int row = 0; row < size; row++) {
+            int slot = hash(codes[row]) & mask;
+            while (built[slot] != 0 && !codes[built[slot] - 1].equals(codes[row])) {
+                slot = (slot + 1) & mask;
+            }
+            built[slot] = row + 1;
+        }
+        tools = new AtomicReferenceArray<>(size);
+        table = built;
+        return this;
+    }
+
+    /**
+     * Find the row of a tool code.
+     *
+     * @param code String - the code of the tool.
+     * @return int - the row of the tool, or -1 if the code is not in the index.
+     */
+    public int indexOf(String code) {
+        int mask = table.length - 1;
+        int slot = hash(code) & mask;
+        int entry;
+        while ((entry = table[slot]) != 0) {
+            if (codes[entry - 1].equals(code)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Find the tool with the supplied code.
+     *
+     * @param code String - the code of the tool.
+     * @return CatalogTool - the shared, immutable tool, or null if the code is not in the index.
+     */
+    public CatalogTool findTool(String code) {
+        int row = code == null ? -1 : indexOf(code);
+        return row < 0 ? null : getTool(row);
+    }
+
+    /**
+     * Find the tool at a row of the index, creating it on first use.
+     *
+     * @param row int - the row of the tool.
+     * @return CatalogTool - the shared, immutable tool.
+     */
+    public CatalogTool getTool(int row) {
+        CatalogTool tool = tools.get(row);
+        if (tool == null) {
+            // the first tool published wins, so every caller shares one instance per code
+            tool = createTool(row);
+            if (!tools.compareAndSet(row, null, tool)) {
+                tool = tools.get(row);
+            }
+        }
+        return tool;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getCode(int row) {
+        return codes[row];
+    }
+
+    private CatalogTool createTool(int row) {
+        byte flags = chargeFlags[row];
+        return new CatalogTool(codes[row], toToolCode(codes[row]), ToolType.values()[toolTypes[row]], Brand.values()[brands[row]],
+                Money.toBigDecimal(dailyCharges[row]), (flags & WEEKDAY_CHARGE) != 0, (flags & WEEKEND_CHARGE) != 0,
+                (flags & HOLIDAY_CHARGE) != 0);
+    }
+
+    private static ToolCode toToolCode(String code) {
+        for (ToolCode toolCode : ToolCode.values()) {
+            if (toolCode.name().equals(code)) {
+                return toolCode;
+            }
+        }
+        return null;
+    }
+
+    private static int hash(String code) {
+        int hash = code.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private void grow() {
+        int capacity = codes.length * 2;
+        codes = Arrays.copyOf(codes, capacity);
+        toolTypes = Arrays.copyOf(toolTypes, capacity);
+        brands = Arrays.copyOf(brands, capacity);
+        dailyCharges = Arrays.copyOf(dailyCharges, capacity);
+        chargeFlags = Arrays.copyOf(chargeFlags, capacity);
+    }
+}
@@ -0,0 +1,205 @@
+package com.toolrentals.pos.business.catalog;
+
+import com.toolrentals.pos.common.enums.Brand;
+import com.toolrentals.pos.common.enums.ToolType;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Loads tool definitions from a comma separated file into a {@link ToolCatalogIndex}. The file is memory mapped and
+ * parsed in place, so only the tool code of each line is copied out of the file.
+ * <p>
+ * Each line holds {@code code,type,brand,dailyCharge,weekdayCharge,weekendCharge,holidayCharge}, e.g.
+ * {@code LADW,LADDER,Werner,1.99,true,true,false}. The type is a {@link ToolType} name. The brand is a {@link Brand}
+ * name or display name, and an unknown brand is loaded as {@link Brand#UNDEFINED}. The charge flags accept
+ * true/false, yes/no, y/n or 1/0. Blank lines, lines starting with '#' and a header on the first line, whose first
+ * field is "code", are skipped.
+ */
+public class ToolCatalogLoader {
+
+    private static final int FIELDS = 7;
+    private static final ToolType[] TOOL_TYPES = ToolType.values();
+    private static final Brand[] BRANDS = Brand.values();
+
+    /**
+     * Load the tool definitions in a file.
+     *
+     * @param path Path - the file to load.
+     * @return ToolCatalogIndex - the built index of the tools in the file.
+     * @throws IOException - if the file cannot be read or a line is not a valid tool definition.
+     */
+    public ToolCatalogIndex load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Tool catalog " + path + " is too large to load.");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            // about 30 bytes a line is a fair first guess at the number of tools
+            ToolCatalogIndex index = new ToolCatalogIndex((int) (length / 30));
+            parse(buffer, (int) length, index);
+            return index.build();
+        }
+    }
+
+    private void parse(MappedByteBuffer buffer, int length, ToolCatalogIndex index) throws IOException {
+        int[] starts = new int[FIELDS];
+        int[] ends = new int[FIELDS];
+        byte[] scratch = new byte[64];
+        int lineNumber = 0;
+        int position = 0;
+        while (position < length) {
+            lineNumber++;
+            int lineEnd = position;
+            while (lineEnd < length && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int next = lineEnd + 1;
+            if (lineEnd > position && buffer.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            int lineStart = skipSpaces(buffer, position, lineEnd);
+            if (lineStart < lineEnd && buffer.get(lineStart) != '#') {
+                split(buffer, lineStart, lineEnd, starts, ends, lineNumber);
+                if (lineNumber > 1 || !matches(buffer, starts[0], ends[0], "code")) {
+                    scratch = addTool(buffer, starts, ends, scratch, index, lineNumber);
+                }
+            }
+            position = next;
+        }
+    }
+
+    private byte[] addTool(MappedByteBuffer buffer, int[] starts, int[] ends, byte[] scratch, ToolCatalogIndex index, int lineNumber) throws IOException {
+        int codeLength = ends[0] - starts[0];
+        if (codeLength == 0) {
+            throw invalid(lineNumber, "a tool code is required");
+        }
+        if (codeLength > scratch.length) {
+            scratch = new byte[codeLength];
+        }
+        buffer.get(starts[0], scratch, 0, codeLength);
+        String code = new String(scratch, 0, codeLength, StandardCharsets.UTF_8);
+
+        index.add(code, parseToolType(buffer, starts[1], ends[1], lineNumber), parseBrand(buffer, starts[2], ends[2]),
+                parseCents(buffer, starts[3], ends[3], lineNumber), parseFlag(buffer, starts[4], ends[4], lineNumber),
+                parseFlag(buffer, starts[5], ends[5], lineNumber), parseFlag(buffer, starts[6], ends[6], lineNumber));
+        return scratch;
+    }
+
+    private void split(MappedByteBuffer buffer, int lineStart, int lineEnd, int[] starts, int[] ends, int lineNumber) throws IOException {
+        int field = 0;
+        int fieldStart = lineStart;
+        for (int i = lineStart; i <= lineEnd; i++) {
+            if (i == lineEnd || buffer.get(i) == ',') {
+                if (field == FIELDS) {
+                    throw invalid(lineNumber, "expected " + FIELDS + " fields");
+                }
+                int start = skipSpaces(buffer, fieldStart, i);
+                int end = i;
+                while (end > start && buffer.get(end - 1) == ' ') {
+                    end--;
+                }
+                starts[field] = start;
+                ends[field] = end;
+                field++;
+                fieldStart = i + 1;
+            }
+        }
+        if (field != FIELDS) {
+            throw invalid(lineNumber, "expected " + FIELDS + " fields");
+        }
+    }
+
+    private ToolType parseToolType(MappedByteBuffer buffer, int start, int end, int lineNumber) throws IOException {
+        for (ToolType toolType : TOOL_TYPES) {
+            if (matches(buffer, start, end, toolType.name())) {
+                return toolType;
+            }
+        }
+        throw invalid(lineNumber, "unknown tool type");
+    }
+
+    private Brand parseBrand(MappedByteBuffer buffer, int start, int end) {
+        for (Brand brand : BRANDS) {
+            if (matches(buffer, start, end, brand.name()) || matches(buffer, start, end, brand.getName())) {
+                return brand;
+            }
+        }
+        return Brand.UNDEFINED;
+    }
+
+    private long parseCents(MappedByteBuffer buffer, int start, int end, int lineNumber) throws IOException {
+        long cents = 0;
+        int decimals = -1;
+        boolean roundUp = false;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (b >= '0' && b <= '9') {
+                if (decimals < 2) {
+                    cents = cents * 10 + (b - '0');
+                    if (cents > Integer.MAX_VALUE) {
+                        throw invalid(lineNumber, "daily charge is too large");
+                    }
+                    if (decimals >= 0) {
+                        decimals++;
+                    }
+                } else if (decimals == 2) {
+                    // round half up to cents, as Money does
+                    roundUp = b >= '5';
+                    decimals++;
+                }
+            } else {
+                throw invalid(lineNumber, "daily charge must be a positive amount");
+            }
+        }
+        if (start == end) {
+            throw invalid(lineNumber, "a daily charge is required");
+        }
+        for (int i = Math.max(decimals, 0); i < 2; i++) {
+            cents *= 10;
+        }
+        return roundUp ? cents + 1 : cents;
+    }
+
+    private boolean parseFlag(MappedByteBuffer buffer, int start, int end, int lineNumber) throws IOException {
+        if (matches(buffer, start, end, "true") || matches(buffer, start, end, "yes") || matches(buffer, start, end, "y") || matches(buffer, start, end, "1")) {
+            return true;
+        }
+        if (matches(buffer, start, end, "false") || matches(buffer, start, end, "no") || matches(buffer, start, end, "n") || matches(buffer, start, end, "0")) {
+            return false;
+        }
+        throw invalid(lineNumber, "charge flags must be true or false");
+    }
+
+    private static boolean matches(MappedByteBuffer buffer, int start, int end, String value) {
+        if (end - start != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            int b = buffer.get(start + i);
+            char c = value.charAt(i);
+            if (b != c && Character.toLowerCase(b) != Character.toLowerCase(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipSpaces(MappedByteBuffer buffer, int start, int end) {
+        while (start < end && buffer.get(start) == ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static IOException invalid(int lineNumber, String reason) {
+        return new IOException("Tool catalog line " + lineNumber + ": " + reason + ".");
+    }
+}
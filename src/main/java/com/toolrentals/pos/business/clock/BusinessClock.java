@@ -0,0 +1,25 @@
+package com.toolrentals.pos.business.clock;
+
+/**
+ * Source of the current business day, e.g. the day checkouts may not start before. Reading it must be cheap enough
+ * for every validation, so implementations hand out a value computed ahead of time.
+ */
+public interface BusinessClock {
+
+    /**
+     * @return long - the epoch day of 'today'.
+     */
+    public long getTodayEpochDay();
+
+    /**
+     * @return long - the start of 'today' in the clock's time zone, in milliseconds since the epoch.
+     */
+    public long getStartOfTodayMillis();
+
+    /**
+     * @return BusinessClock - the clock following the system clock in the system time zone, shared by every user.
+     */
+    public static BusinessClock system() {
+        return CachedBusinessClock.system();
+    }
+}
@@ -0,0 +1,32 @@
+package com.toolrentals.pos.business.clock;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * A business day and the instants it starts and ends at, replaced as a whole so readers never see the start of one
+ * day with the epoch day of another.
+ */
+class BusinessDay {
+
+    final long epochDay;
+    final long startMillis;
+    final long endMillis;
+
+    private BusinessDay(long epochDay, long startMillis, long endMillis) {
+        this.epochDay = epochDay;
+        this.startMillis = startMillis;
+        this.endMillis = endMillis;
+    }
+
+    /**
+     * @param date LocalDate - the day.
+     * @param zone ZoneId - the time zone the day starts and ends in, which decides its length around daylight saving
+     *             changes.
+     * @return BusinessDay - the day.
+     */
+    static BusinessDay of(LocalDate date, ZoneId zone) {
+        return new BusinessDay(date.toEpochDay(), date.atStartOfDay(zone).toInstant().toEpochMilli(),
+                date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli());
+    }
+}
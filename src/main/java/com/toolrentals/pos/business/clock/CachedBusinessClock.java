@@ -0,0 +1,87 @@
+package com.toolrentals.pos.business.clock;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Business clock following a {@link Clock}, with today's epoch day and start of day computed once a day rather than
+ * on every read. A daemon thread ticks at midnight in the clock's time zone to move on to the next day. The thread
+ * also ticks at least every minute, so the day is caught up soon after the machine wakes from sleep or the clock is
+ * set forward.
+ */
+public class CachedBusinessClock implements BusinessClock, AutoCloseable {
+
+    // the longest the thread waits between ticks
+    private static final long MAX_TICK_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final Clock clock;
+    private final ScheduledExecutorService ticker;
+    private volatile BusinessDay today;
+
+    /**
+     * Create a clock and start its ticks.
+     *
+     * @param clock Clock - the clock to follow, supplying the time zone days start in.
+     */
+    public CachedBusinessClock(Clock clock) {
+        this.clock = clock;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("business-clock").daemon().factory());
+        tickAndReschedule();
+    }
+
+    static BusinessClock system() {
+        return SystemClockHolder.SYSTEM;
+    }
+
+    public long getTodayEpochDay() {
+        return today.epochDay;
+    }
+
+    public long getStartOfTodayMillis() {
+        return today.startMillis;
+    }
+
+    /**
+     * Stop ticking. The day is no longer moved on once closed.
+     */
+    public void close() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Move on to the day of the clock's current time, if it has changed.
+     */
+    void tick() {
+        long nowMillis = clock.millis();
+        BusinessDay current = today;
+        if (current == null || nowMillis < current.startMillis || nowMillis >= current.endMillis) {
+            LocalDate date = LocalDate.ofInstant(Instant.ofEpochMilli(nowMillis), clock.getZone());
+            today = BusinessDay.of(date, clock.getZone());
+        }
+    }
+
+    /**
+     * Tick, then schedule the next tick for midnight, or sooner.
+     */
+    private void tickAndReschedule() {
+        tick();
+        long delay = Math.min(Math.max(1, today.endMillis - clock.millis()), MAX_TICK_MILLIS);
+        try {
+            ticker.schedule(this::tickAndReschedule, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // closed, so no more ticks
+        }
+    }
+
+    /**
+     * Holds the shared system clock, created on first use.
+     */
+    private static class SystemClockHolder {
+        private static final CachedBusinessClock SYSTEM = new CachedBusinessClock(Clock.systemDefaultZone());
+    }
+}
@@ -0,0 +1,47 @@
+package com.toolrentals.pos.business.clock;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Business clock that stays on a set day until it is moved, for tests and for replaying journals as of the days they
+ * were written on.
+ */
+public class FixedBusinessClock implements BusinessClock {
+
+    private final ZoneId zone;
+    private volatile BusinessDay today;
+
+    /**
+     * @param today LocalDate - the day the clock stays on, starting in the system time zone.
+     */
+    public FixedBusinessClock(LocalDate today) {
+        this(today, ZoneId.systemDefault());
+    }
+
+    /**
+     * @param today LocalDate - the day the clock stays on.
+     * @param zone  ZoneId - the time zone the day starts in.
+     */
+    public FixedBusinessClock(LocalDate today, ZoneId zone) {
+        this.zone = zone;
+        setToday(today);
+    }
+
+    /**
+     * Move the clock to another day, e.g. to the day of the next journal record being replayed.
+     *
+     * @param today LocalDate - the day the clock stays on from now.
+     */
+    public void setToday(LocalDate today) {
+        this.today = BusinessDay.of(today, zone);
+    }
+
+    public long getTodayEpochDay() {
+        return today.epochDay;
+    }
+
+    public long getStartOfTodayMillis() {
+        return today.startMillis;
+    }
+}
@@ -0,0 +1,354 @@
+package com.toolrentals.pos.business.codec;
+
+import com.toolrentals.pos.business.util.DateUtil;
+import com.toolrentals.pos.common.enums.Brand;
+import com.toolrentals.pos.common.enums.ToolCode;
+import com.toolrentals.pos.common.enums.ToolType;
+import com.toolrentals.pos.common.model.CatalogTool;
+import com.toolrentals.pos.common.model.DailyChargeLedger;
+import com.toolrentals.pos.common.model.Money;
+import com.toolrentals.pos.common.model.RentalAgreement;
+import com.toolrentals.pos.common.model.Tool;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact, versioned binary encoding of a {@link RentalAgreement}, read and written directly in a {@link ByteBuffer}.
+ * <p>
+ * An encoding is a version byte followed by tagged fields and a closing 0 tag. Each tag is a varint of the field
+ * number shifted left 3 bits, or'ed with the wire type: {@link #VARINT} for a varint, or {@link #BYTES} for a varint
+ * length followed by that many bytes. Fields that are not set are left out, and a reader skips fields it does not know,
+ * so fields can be added in later versions without breaking older readers. The version only changes when existing
+ * fields change meaning.
+ * <p>
+ * Enums are encoded by ordinal, dates as epoch days in the system time zone, so the time of day is not kept, and money
+ * as zig-zag varint cents. The daily charges are run length encoded, as most rentals charge the same amount on most
+ * days. The tool is decoded as an immutable {@link CatalogTool}.
+ */
+public class RentalAgreementCodec {
+
+    public static final int VERSION = 1;
+
+    static final int VARINT = 0;
+    static final int BYTES = 2;
+
+    private static final int TOOL_CODE = 1;
+    private static final int TOOL_TYPE = 2;
+    private static final int BRAND = 3;
+    private static final int DAILY_CHARGE = 4;
+    private static final int CHARGE_FLAGS = 5;
+    private static final int CATALOG_CODE = 6;
+    private static final int RENTAL_DAYS = 7;
+    private static final int CHECKOUT_DATE = 8;
+    private static final int DUE_DATE = 9;
+    private static final int DAILY_CHARGES = 10;
+    private static final int SUBTOTAL = 11;
+    private static final int PERCENT_DISCOUNT = 12;
+    private static final int DISCOUNT = 13;
+    private static final int TOTAL = 14;
+    private static final int CHARGEABLE_DAYS = 15;
+    private static final int RETURN_DATE = 16;
+    private static final int LATE_CHARGEABLE_DAYS = 17;
+    private static final int LATE_FEE = 18;
+    private static final int BOOKED_UNIT = 19;
+
+    private static final int WEEKDAY_CHARGE = 1;
+    private static final int WEEKEND_CHARGE = 2;
+    private static final int HOLIDAY_CHARGE = 4;
+
+    // values() copies the array on every call
+    private static final ToolCode[] TOOL_CODES = ToolCode.values();
+    private static final ToolType[] TOOL_TYPES = ToolType.values();
+    private static final Brand[] BRANDS = Brand.values();
+
+    private DateUtil dateUtil;
+
+    public RentalAgreementCodec() {
+        init();
+    }
+
+    private void init() {
+        dateUtil = new DateUtil();
+    }
+
+    /**
+     * Encode a rental agreement at the position of a buffer, advancing the position past it.
+     *
+     * @param rentalAgreement RentalAgreement - the agreement to encode.
+     * @param out             ByteBuffer - receives the encoding.
+     * @return int - the number of bytes written.
+     * @throws java.nio.BufferOverflowException - if the buffer has no room for the encoding.
+     */
+    public int encode(RentalAgreement rentalAgreement, ByteBuffer out) {
+        int start = out.position();
+        out.put((byte) VERSION);
+
+        Tool tool = rentalAgreement.getTool();
+        if (tool != null) {
+            if (tool.hasToolCode()) {
+                putVarintField(out, TOOL_CODE, tool.getToolCode().ordinal());
+            }
+            if (tool.hasToolType()) {
+                putVarintField(out, TOOL_TYPE, tool.getToolType().ordinal());
+            }
+            if (tool.hasBrand()) {
+                putVarintField(out, BRAND, tool.getBrand().ordinal());
+            }
+            if (tool.hasDailyCharge()) {
+                putVarintField(out, DAILY_CHARGE, zigZag(tool.getDailyChargeCents()));
+            }
+            putVarintField(out, CHARGE_FLAGS, (tool.isWeekdayCharge() ? WEEKDAY_CHARGE : 0)
+                    | (tool.isWeekendCharge() ? WEEKEND_CHARGE : 0) | (tool.isHolidayCharge() ? HOLIDAY_CHARGE : 0));
+            // the catalog code is only written when it is not just the name of the tool code
+            if (tool instanceof CatalogTool catalogTool && catalogTool.getCode() != null
+                    && !(tool.hasToolCode() && catalogTool.getCode().equals(tool.getToolCode().name()))) {
+                putString(out, CATALOG_CODE, catalogTool.getCode());
+            }
+        }
+        if (rentalAgreement.hasRentalDays()) {
+            putVarintField(out, RENTAL_DAYS, rentalAgreement.getRentalDays());
+        }
+        if (rentalAgreement.hasCheckoutDate()) {
+            putVarintField(out, CHECKOUT_DATE, zigZag(dateUtil.toEpochDay(rentalAgreement.getCheckoutDate())));
+        }
+        if (rentalAgreement.hasDueDate()) {
+            putVarintField(out, DUE_DATE, zigZag(dateUtil.toEpochDay(rentalAgreement.getDueDate())));
+        }
+        if (rentalAgreement.getDailyCharges() != null) {
+            putLedger(out, rentalAgreement.getDailyCharges());
+        }
+        if (rentalAgreement.hasSubtotal()) {
+            putVarintField(out, SUBTOTAL, zigZag(rentalAgreement.getSubtotalCents()));
+        }
+        if (rentalAgreement.hasPercentageDiscount()) {
+            putVarintField(out, PERCENT_DISCOUNT, zigZag(rentalAgreement.getPercentDiscount()));
+        }
+        if (rentalAgreement.hasDiscount()) {
+            putVarintField(out, DISCOUNT, zigZag(rentalAgreement.getDiscountCents()));
+        }
+        if (rentalAgreement.hasTotal()) {
+            putVarintField(out, TOTAL, zigZag(rentalAgreement.getTotalCents()));
+        }
+        if (rentalAgreement.hasNumberChargeableDays()) {
+            putVarintField(out, CHARGEABLE_DAYS, rentalAgreement.getNumberChargeableDays());
+        }
+        if (rentalAgreement.hasReturnDate()) {
+            putVarintField(out, RETURN_DATE, zigZag(dateUtil.toEpochDay(rentalAgreement.getReturnDate())));
+        }
+        if (rentalAgreement.getNumberLateChargeableDays() != null) {
+            putVarintField(out, LATE_CHARGEABLE_DAYS, rentalAgreement.getNumberLateChargeableDays());
+        }
+        if (rentalAgreement.hasLateFee()) {
+            putVarintField(out, LATE_FEE, zigZag(rentalAgreement.getLateFeeCents()));
+        }
+        if (rentalAgreement.hasBookedUnit()) {
+            putVarintField(out, BOOKED_UNIT, rentalAgreement.getBookedUnit());
+        }
+        putVarint(out, 0);
+        return out.position() - start;
+    }
+
+    /**
+     * Decode a rental agreement at the position of a buffer, advancing the position past it.
+     *
+     * @param in ByteBuffer - holds the encoding.
+     * @return RentalAgreement - the decoded agreement.
+     * @throws IllegalArgumentException - if the encoding is of an unsupported version or is malformed.
+     * @throws java.nio.BufferUnderflowException - if the encoding is cut short.
+     */
+    public RentalAgreement decode(ByteBuffer in) {
+        int version = in.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported rental agreement encoding version " + version + ".");
+        }
+        RentalAgreement rentalAgreement = new RentalAgreement();
+        boolean hasTool = false;
+        ToolCode toolCode = null;
+        ToolType toolType = null;
+        Brand brand = null;
+        long dailyChargeCents = Money.UNSET;
+        int chargeFlags = 0;
+        String catalogCode = null;
+
+        long tag;
+        while ((tag = getVarint(in)) != 0) {
+            int wireType = (int) (tag & 7);
+            int field = (int) (tag >>> 3);
+            if (wireType == BYTES) {
+                int length = Math.toIntExact(getVarint(in));
+                if (field == CATALOG_CODE) {
+                    catalogCode = getString(in, length);
+                    hasTool = true;
+                } else if (field == DAILY_CHARGES) {
+                    rentalAgreement.setDailyCharges(getLedger(in, length));
+                } else {
+                    in.position(in.position() + length);
+                }
+                continue;
+            }
+            if (wireType != VARINT) {
+                throw new IllegalArgumentException("Unknown wire type " + wireType + " for field " + field + ".");
+            }
+            long value = getVarint(in);
+            switch (field) {
+                case TOOL_CODE -> toolCode = TOOL_CODES[(int) value];
+                case TOOL_TYPE -> toolType = TOOL_TYPES[(int) value];
+                case BRAND -> brand = BRANDS[(int) value];
+                case DAILY_CHARGE -> dailyChargeCents = unZigZag(value);
+                case CHARGE_FLAGS -> chargeFlags = (int) value;
+                case RENTAL_DAYS -> rentalAgreement.setRentalDays((int) value);
+                case CHECKOUT_DATE -> rentalAgreement.setCheckoutDate(dateUtil.fromEpochDay(unZigZag(value)));
+                case DUE_DATE -> rentalAgreement.setDueDate(dateUtil.fromEpochDay(unZigZag(value)));
+                case SUBTOTAL -> rentalAgreement.setSubtotalCents(unZigZag(value));
+                case PERCENT_DISCOUNT -> rentalAgreement.setPercentDiscount((int) unZigZag(value));
+                case DISCOUNT -> rentalAgreement.setDiscountCents(unZigZag(value));
+                case TOTAL -> rentalAgreement.setTotalCents(unZigZag(value));
+                case CHARGEABLE_DAYS -> rentalAgreement.setNumberChargeableDays((int) value);
+                case RETURN_DATE -> rentalAgreement.setReturnDate(dateUtil.fromEpochDay(unZigZag(value)));
+                case LATE_CHARGEABLE_DAYS -> rentalAgreement.setNumberLateChargeableDays((int) value);
+                case LATE_FEE -> rentalAgreement.setLateFeeCents(unZigZag(value));
+                case BOOKED_UNIT -> rentalAgreement.setBookedUnit((int) value);
+                default -> {
+                    // a field added in a later version
+                }
+            }
+            hasTool |= field <= CHARGE_FLAGS;
+        }
+
+        if (hasTool) {
+            rentalAgreement.setTool(new CatalogTool(catalogCode != null || toolCode == null ? catalogCode : toolCode.name(), toolCode,
+                    toolType, brand, Money.toBigDecimal(dailyChargeCents), (chargeFlags & WEEKDAY_CHARGE) != 0,
+                    (chargeFlags & WEEKEND_CHARGE) != 0, (chargeFlags & HOLIDAY_CHARGE) != 0));
+        }
+        return rentalAgreement;
+    }
+
+    private static void putLedger(ByteBuffer out, DailyChargeLedger ledger) {
+        // the runs are written twice, first only to find their length
+        int length = varintSize(zigZag(ledger.getStartEpochDay())) + varintSize(ledger.size());
+        for (int day = 0; day < ledger.size(); ) {
+            int run = runLength(ledger, day);
+            length += varintSize(run) + varintSize(zigZag(ledger.getCharge(day)));
+            day += run;
+        }
+        putVarint(out, tag(DAILY_CHARGES, BYTES));
+        putVarint(out, length);
+        putVarint(out, zigZag(ledger.getStartEpochDay()));
+        putVarint(out, ledger.size());
+        for (int day = 0; day < ledger.size(); ) {
+            int run = runLength(ledger, day);
+            putVarint(out, run);
+            putVarint(out, zigZag(ledger.getCharge(day)));
+            day += run;
+        }
+    }
+
+    private static DailyChargeLedger getLedger(ByteBuffer in, int length) {
+        int end = in.position() + length;
+        long startEpochDay = unZigZag(getVarint(in));
+        long[] charges = new long[Math.toIntExact(getVarint(in))];
+        int day = 0;
+        while (day < charges.length) {
+            int run = Math.toIntExact(getVarint(in));
+            long charge = unZigZag(getVarint(in));
+            if (run < 1 || day + run > charges.length) {
+                throw new IllegalArgumentException("Daily charge run of " + run + " days does not fit the ledger.");
+            }
+            for (int i = 0; i < run; i++) {
+                charges[day++] = charge;
+            }
+        }
+        // anything a later version appends to the ledger is skipped
+        in.position(end);
+        return new DailyChargeLedger(startEpochDay, charges);
+    }
+
+    private static int runLength(DailyChargeLedger ledger, int day) {
+        long charge = ledger.getCharge(day);
+        int end = day + 1;
+        while (end < ledger.size() && ledger.getCharge(end) == charge) {
+            end++;
+        }
+        return end - day;
+    }
+
+    private static void putString(ByteBuffer out, int field, String value) {
+        putVarint(out, tag(field, BYTES));
+        if (isAscii(value)) {
+            putVarint(out, value.length());
+            for (int i = 0; i < value.length(); i++) {
+                out.put((byte) value.charAt(i));
+            }
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putVarint(out, bytes.length);
+            out.put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer in, int length) {
+        String value;
+        if (in.hasArray()) {
+            value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void putVarintField(ByteBuffer out, int field, long value) {
+        putVarint(out, tag(field, VARINT));
+        putVarint(out, value);
+    }
+
+    static long tag(int field, int wireType) {
+        return (long) field << 3 | wireType;
+    }
+
+    static void putVarint(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static long getVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint is longer than 10 bytes.");
+    }
+
+    private static int varintSize(long value) {
+        // 7 bits a byte, and at least 1 byte for 0
+        return Math.max(1, (64 - Long.numberOfLeadingZeros(value) + 6) / 7);
+    }
+
+    private static long zigZag(long value) {
+        // small negative numbers become small positive ones, so they stay short as varints
+        return value << 1 ^ value >> 63;
+    }
+
+    private static long unZigZag(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+}
@@ -0,0 +1,582 @@
+package com.toolrentals.pos.business.importer;
+
+import com.toolrentals.pos.CheckoutProcess;
+import com.toolrentals.pos.business.clock.BusinessClock;
+import com.toolrentals.pos.business.validation.RentalAgreementValidator;
+import com.toolrentals.pos.business.validation.ValidationResult;
+import com.toolrentals.pos.common.enums.ToolCode;
+import com.toolrentals.pos.common.enums.ValidationError;
+import com.toolrentals.pos.common.model.Quote;
+import com.toolrentals.pos.common.model.QuoteBatch;
+import com.toolrentals.pos.common.model.RentalAgreement;
+import com.toolrentals.pos.service.RentalAgreementSvc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Imports checkouts in bulk from a comma separated file, such as the month's contractor rentals exported from a
+ * spreadsheet. The file is streamed through a fixed buffer and each line is parsed in place, so neither the file size
+ * nor the number of rows changes the memory used by the import itself, apart from the agreements the checkout keeps
+ * open, e.g. in its due date index. Valid rows are priced a batch at a time with
+ * {@link RentalAgreementSvc#quoteBatch} and then checked out with {@link CheckoutProcess#checkoutQuote}, so each
+ * accepted row holds a unit, is journaled and can be checked in as any other rental agreement. Each accepted agreement
+ * is written to one file once it has been journaled, and each rejected row, with the reason, to another, so one bad
+ * row, or one the journal could not write, does not stop the import.
+ * <p>
+ * Each line holds {@code toolCode,rentalDays,checkoutDate,discountPercent}, e.g. {@code LADW,3,2026-07-02,10}. The
+ * checkout date is yyyy-MM-dd, or MM/dd/yy as printed on rental agreements. Fields may be quoted. Blank lines, lines
+ * starting with '#' and a header on the first line, whose first field is "toolCode", are skipped.
+ * <p>
+ * The accepted file holds
+ * {@code line,toolCode,rentalDays,checkoutDate,dueDate,chargeableDays,subtotal,discountPercent,discount,total} and the
+ * rejected file {@code line,reason}, where line is the line number in the imported file.
+ */
+public class CheckoutImporter {
+
+    public static final int DEFAULT_BATCH_SIZE = 16_384;
+    public static final int BUFFER_SIZE = 65_536;
+
+    private static final int FIELDS = 4;
+    private static final long INVALID = Long.MIN_VALUE;
+    private static final ToolCode[] TOOL_CODES = ToolCode.values();
+    // the most of an unknown tool code repeated in its rejection
+    private static final int MAX_ECHOED_BYTES = 32;
+
+    private final CheckoutProcess checkoutProcess;
+    private final RentalAgreementSvc rentalAgreementSvc;
+    private final int batchSize;
+    private RentalAgreementValidator validation;
+    private BusinessClock businessClock;
+
+    /**
+     * @param checkoutProcess CheckoutProcess - the checkout whose service prices the rows and which reserves, indexes
+     *                        and journals the accepted ones.
+     */
+    public CheckoutImporter(CheckoutProcess checkoutProcess) {
+        this(checkoutProcess, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param checkoutProcess CheckoutProcess - the checkout whose service prices the rows and which reserves, indexes
+     *                        and journals the accepted ones.
+     * @param batchSize       int - the most rows priced together.
+     */
+    public CheckoutImporter(CheckoutProcess checkoutProcess, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be at least 1.");
+        }
+        this.checkoutProcess = checkoutProcess;
+        this.rentalAgreementSvc = checkoutProcess.getRentalAgreementSvc();
+        this.batchSize = batchSize;
+        init();
+    }
+
+    private void init() {
+        validation = new RentalAgreementValidator();
+        businessClock = BusinessClock.system();
+    }
+
+    /**
+     * Replace the clock deciding which day is 'today', before which checkouts are rejected, e.g. with a fixed clock to
+     * import a file as of the day it was written.
+     *
+     * @param businessClock BusinessClock - the clock to validate checkout dates against.
+     */
+    public void setBusinessClock(BusinessClock businessClock) {
+        this.businessClock = businessClock;
+    }
+
+    /**
+     * Import every checkout in a file.
+     *
+     * @param input    Path - the file of checkouts to import.
+     * @param accepted Path - the file to write the accepted agreements to, replaced if it exists.
+     * @param rejected Path - the file to write the rejected rows to, replaced if it exists.
+     * @return ImportSummary - the number of rows accepted and rejected.
+     * @throws Exception - if a file cannot be read or written.
+     */
+    public ImportSummary importCheckouts(Path input, Path accepted, Path rejected) throws Exception {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             CsvOutput acceptedOut = new CsvOutput(accepted);
+             CsvOutput rejectedOut = new CsvOutput(rejected)) {
+            acceptedOut.ascii("line,toolCode,rentalDays,checkoutDate,dueDate,chargeableDays,subtotal,discountPercent,discount,total").endLine();
+            rejectedOut.ascii("line,reason").endLine();
+            Run run = new Run(acceptedOut, rejectedOut);
+            run.read(in);
+            return new ImportSummary(run.lineNumber, run.accepted, run.rejected, run.totalCents);
+        }
+    }
+
+    /**
+     * The state of one import.
+     */
+    private class Run {
+
+        private final CsvOutput acceptedOut;
+        private final CsvOutput rejectedOut;
+        private final QuoteBatch batch = new QuoteBatch(batchSize);
+        private final long[] lineNumbers = new long[batchSize];
+        private final CompletableFuture<?>[] journaled = new CompletableFuture<?>[batchSize];
+        private final int[] openedRows = new int[batchSize];
+        private final int[] starts = new int[FIELDS];
+        private final int[] ends = new int[FIELDS];
+        private final ValidationResult validationResult = new ValidationResult();
+        private final long today = businessClock.getTodayEpochDay();
+        private long lineNumber;
+        private long accepted;
+        private long rejected;
+        private long totalCents;
+
+        private Run(CsvOutput acceptedOut, CsvOutput rejectedOut) {
+            this.acceptedOut = acceptedOut;
+            this.rejectedOut = rejectedOut;
+        }
+
+        private void read(FileChannel in) throws Exception {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            byte[] bytes = buffer.array();
+            int filled = 0;
+            // the rest of a line too long for the buffer is dropped
+            boolean skipping = false;
+            boolean end = false;
+            while (!end) {
+                buffer.clear().position(filled);
+                int read = in.read(buffer);
+                end = read < 0;
+                int scanFrom = filled;
+                filled += Math.max(read, 0);
+
+                int lineStart = 0;
+                for (int i = scanFrom; i < filled; i++) {
+                    if (bytes[i] == '\n') {
+                        if (!skipping) {
+                            line(bytes, lineStart, i);
+                        }
+                        skipping = false;
+                        lineStart = i + 1;
+                    }
+                }
+                if (end) {
+                    if (lineStart < filled && !skipping) {
+                        line(bytes, lineStart, filled);
+                    }
+                } else if (lineStart == 0 && filled == bytes.length) {
+                    if (!skipping) {
+                        lineNumber++;
+                        reject("Line is longer than " + BUFFER_SIZE + " bytes.");
+                    }
+                    skipping = true;
+                    filled = 0;
+                } else {
+                    System.arraycopy(bytes, lineStart, bytes, 0, filled - lineStart);
+                    filled -= lineStart;
+                }
+            }
+            price();
+        }
+
+        private void line(byte[] bytes, int start, int end) throws Exception {
+            lineNumber++;
+            if (end > start && bytes[end - 1] == '\r') {
+                end--;
+            }
+            start = skipSpaces(bytes, start, end);
+            if (start == end || bytes[start] == '#') {
+                return;
+            }
+            if (!split(bytes, start, end)) {
+                reject("Expected " + FIELDS + " fields.");
+                return;
+            }
+            if (lineNumber == 1 && matches(bytes, starts[0], ends[0], "toolCode")) {
+                return;
+            }
+
+            ToolCode toolCode = parseToolCode(bytes, starts[0], ends[0]);
+            if (toolCode == null) {
+                int length = Math.min(ends[0] - starts[0], MAX_ECHOED_BYTES);
+                reject("Unknown tool code " + new String(bytes, starts[0], length, StandardCharsets.UTF_8) + ".");
+                return;
+            }
+            long rentalDays = parseWhole(bytes, starts[1], ends[1]);
+            if (rentalDays == INVALID) {
+                reject("Rental days must be a whole number.");
+                return;
+            }
+            long checkoutEpochDay = parseDate(bytes, starts[2], ends[2]);
+            if (checkoutEpochDay == INVALID) {
+                reject("Checkout date must be yyyy-MM-dd or MM/dd/yy.");
+                return;
+            }
+            // a missing discount is no discount
+            long discountPercent = starts[3] == ends[3] ? 0 : parseWhole(bytes, starts[3], ends[3]);
+            if (discountPercent == INVALID) {
+                reject("Percent discount must be a whole number.");
+                return;
+            }
+            // every reason a row is rejected is reported at once, so it can be fixed in one go
+            if (!validation.checkQuote(toolCode, (int) rentalDays, checkoutEpochDay, (int) discountPercent, today, validationResult)) {
+                reject(validationResult.getMessages());
+                return;
+            }
+            if (rentalAgreementSvc.findTool(toolCode) == null) {
+                reject(ValidationError.NO_TOOL.getMessage());
+                return;
+            }
+
+            lineNumbers[batch.add(toolCode, (int) rentalDays, checkoutEpochDay, (int) discountPercent)] = lineNumber;
+            if (batch.size() == batchSize) {
+                price();
+            }
+        }
+
+        private void price() throws Exception {
+            if (batch.size() == 0) {
+                return;
+            }
+            rentalAgreementSvc.quoteBatch(batch);
+            int opened = 0;
+            for (int row = 0; row < batch.size(); row++) {
+                ToolCode toolCode = batch.getToolCode(row);
+                long checkoutEpochDay = batch.getCheckoutEpochDay(row);
+                int rentalDays = batch.getRentalDays(row);
+                Quote quote = new Quote(toolCode, checkoutEpochDay, rentalDays, batch.getDiscountPercent(row), batch.getDueEpochDay(row),
+                        batch.getChargeableDays(row), null, batch.getSubtotalCents(row), batch.getDiscountCents(row), batch.getTotalCents(row));
+                // reserve only priced rows, so a rejected row never holds a unit
+                CompletableFuture<RentalAgreement> checkedOut;
+                try {
+                    checkedOut = checkoutProcess.checkoutQuote(quote);
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    reject(lineNumbers[row], e.getMessage());
+                    continue;
+                }
+                journaled[opened] = checkedOut;
+                openedRows[opened++] = row;
+            }
+            // the journal writes the batch while it is checked out, and a row is accepted only once its record is
+            for (int i = 0; i < opened; i++) {
+                int row = openedRows[i];
+                try {
+                    journaled[i].get();
+                } catch (ExecutionException e) {
+                    // the checkout has already given back the unit of a row it could not journal
+                    reject(lineNumbers[row], "The checkout could not be journaled: " + e.getCause().getMessage());
+                    continue;
+                } finally {
+                    journaled[i] = null;
+                }
+                acceptedOut.number(lineNumbers[row]).comma()
+                        .ascii(batch.getToolCode(row).name()).comma()
+                        .number(batch.getRentalDays(row)).comma()
+                        .date(batch.getCheckoutEpochDay(row)).comma()
+                        .date(batch.getDueEpochDay(row)).comma()
+                        .number(batch.getChargeableDays(row)).comma()
+                        .cents(batch.getSubtotalCents(row)).comma()
+                        .number(batch.getDiscountPercent(row)).comma()
+                        .cents(batch.getDiscountCents(row)).comma()
+                        .cents(batch.getTotalCents(row)).endLine();
+                accepted++;
+                totalCents += batch.getTotalCents(row);
+            }
+            batch.clear();
+        }
+
+        private void reject(String reason) throws IOException {
+            reject(lineNumber, reason);
+        }
+
+        private void reject(long line, String reason) throws IOException {
+            rejectedOut.number(line).comma().quoted(reason).endLine();
+            rejected++;
+        }
+
+        private boolean split(byte[] bytes, int start, int end) {
+            int field = 0;
+            int fieldStart = start;
+            for (int i = start; i <= end; i++) {
+                if (i == end || bytes[i] == ',') {
+                    if (field == FIELDS) {
+                        return false;
+                    }
+                    int s = skipSpaces(bytes, fieldStart, i);
+                    int e = i;
+                    while (e > s && bytes[e - 1] == ' ') {
+                        e--;
+                    }
+                    if (e - s >= 2 && bytes[s] == '"' && bytes[e - 1] == '"') {
+                        s++;
+                        e--;
+                    }
+                    starts[field] = s;
+                    ends[field] = e;
+                    field++;
+                    fieldStart = i + 1;
+                }
+            }
+            return field == FIELDS;
+        }
+    }
+
+    private static ToolCode parseToolCode(byte[] bytes, int start, int end) {
+        for (ToolCode toolCode : TOOL_CODES) {
+            if (matches(bytes, start, end, toolCode.name())) {
+                return toolCode;
+            }
+        }
+        return null;
+    }
+
+    private static long parseWhole(byte[] bytes, int start, int end) {
+        boolean negative = start < end && bytes[start] == '-';
+        if (negative) {
+            start++;
+        }
+        // up to 9 digits always fits in an int
+        if (start == end || end - start > 9) {
+            return INVALID;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID;
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    private static long parseDate(byte[] bytes, int start, int end) {
+        long year;
+        long month;
+        long day;
+        if (end - start == 10 && bytes[start + 4] == '-' && bytes[start + 7] == '-') {
+            year = parseWhole(bytes, start, start + 4);
+            month = parseWhole(bytes, start + 5, start + 7);
+            day = parseWhole(bytes, start + 8, end);
+        } else {
+            int firstSlash = indexOf(bytes, start, end, '/');
+            int secondSlash = indexOf(bytes, firstSlash + 1, end, '/');
+            if (firstSlash < 0 || secondSlash < 0) {
+                return INVALID;
+            }
+            month = parseWhole(bytes, start, firstSlash);
+            day = parseWhole(bytes, firstSlash + 1, secondSlash);
+            year = parseWhole(bytes, secondSlash + 1, end);
+            if (end - secondSlash - 1 == 2) {
+                year += 2000;
+            } else if (end - secondSlash - 1 != 4) {
+                return INVALID;
+            }
+        }
+        if (year < 1 || month < 1 || month > 12 || day < 1
+                || day > Month.of((int) month).length(Year.isLeap(year))) {
+            return INVALID;
+        }
+        return epochDay(year, (int) month, (int) day);
+    }
+
+    /**
+     * The epoch day of a date in the proleptic Gregorian calendar, as {@link LocalDate#toEpochDay()} computes it,
+     * without creating the date.
+     */
+    private static long epochDay(long year, int month, int day) {
+        // count from March, so the leap day is the last day of the year
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    private static int indexOf(byte[] bytes, int start, int end, char c) {
+        for (int i = start; i < end; i++) {
+            if (bytes[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean matches(byte[] bytes, int start, int end, String value) {
+        if (end - start != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            int b = bytes[start + i];
+            char c = value.charAt(i);
+            if (b != c && Character.toLowerCase(b) != Character.toLowerCase(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipSpaces(byte[] bytes, int start, int end) {
+        while (start < end && bytes[start] == ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    /**
+     * The result of an import.
+     */
+    public static class ImportSummary {
+
+        private final long lines;
+        private final long accepted;
+        private final long rejected;
+        private final long totalCents;
+
+        private ImportSummary(long lines, long accepted, long rejected, long totalCents) {
+            this.lines = lines;
+            this.accepted = accepted;
+            this.rejected = rejected;
+            this.totalCents = totalCents;
+        }
+
+        /**
+         * @return long - the number of lines read, including blank lines, comments and the header.
+         */
+        public long getLines() {
+            return lines;
+        }
+
+        public long getAccepted() {
+            return accepted;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        /**
+         * @return long - the sum of the totals of the accepted agreements, in cents.
+         */
+        public long getTotalCents() {
+            return totalCents;
+        }
+    }
+
+    /**
+     * Comma separated output, encoded into a fixed buffer that is written to the file whenever it fills.
+     */
+    private static class CsvOutput implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final byte[] digits = new byte[20];
+
+        private CsvOutput(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        }
+
+        private CsvOutput ascii(String value) throws IOException {
+            for (int i = 0; i < value.length(); i++) {
+                put(value.charAt(i));
+            }
+            return this;
+        }
+
+        private CsvOutput quoted(String value) throws IOException {
+            put('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    put('"');
+                }
+                // reasons are ASCII apart from echoed input, which is replaced rather than re-encoded
+                put(c < 0x80 ? c : '?');
+            }
+            put('"');
+            return this;
+        }
+
+        private CsvOutput number(long value) throws IOException {
+            if (value < 0) {
+                put('-');
+                value = -value;
+            }
+            int length = 0;
+            do {
+                digits[length++] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value > 0);
+            while (length > 0) {
+                put(digits[--length]);
+            }
+            return this;
+        }
+
+        private CsvOutput cents(long cents) throws IOException {
+            if (cents < 0) {
+                put('-');
+                cents = -cents;
+            }
+            number(cents / 100);
+            put('.');
+            put('0' + (int) (cents % 100) / 10);
+            put('0' + (int) (cents % 10));
+            return this;
+        }
+
+        private CsvOutput date(long epochDay) throws IOException {
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+            number(date.getYear());
+            put('-');
+            twoDigits(date.getMonthValue());
+            put('-');
+            twoDigits(date.getDayOfMonth());
+            return this;
+        }
+
+        private CsvOutput comma() throws IOException {
+            put(',');
+            return this;
+        }
+
+        private void endLine() throws IOException {
+            put('\n');
+        }
+
+        private void twoDigits(int value) throws IOException {
+            put('0' + value / 10);
+            put('0' + value % 10);
+        }
+
+        private void put(int b) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put((byte) b);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        public void close() throws IOException {
+            try (channel) {
+                flush();
+            }
+        }
+    }
+}
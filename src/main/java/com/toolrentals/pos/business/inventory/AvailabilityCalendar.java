@@ -0,0 +1,379 @@
+package com.toolrentals.pos.business.inventory;
+
+import com.toolrentals.pos.common.enums.ToolCode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Tracks which units of each tool are booked for which days, so rentals can be booked ahead. The bookings of a unit
+ * are kept as a sorted run of non-overlapping epoch day ranges in two primitive arrays, 16 bytes a booking, so whether
+ * a unit is free for a rental is a binary search. Bookings that have ended can be pruned to bound the memory used.
+ */
+public class AvailabilityCalendar {
+
+    private final ToolBookings[] tools;
+
+    public AvailabilityCalendar() {
+        tools = new ToolBookings[ToolCode.values().length];
+        for (int i = 0; i < tools.length; i++) {
+            tools[i] = new ToolBookings();
+        }
+    }
+
+    /**
+     * Set the number of units of a tool that can be booked. Units can only be added.
+     *
+     * @param toolCode ToolCode - the tool to stock.
+     * @param units    int - the number of units.
+     */
+    public void setUnits(ToolCode toolCode, int units) {
+        ToolBookings tool = tools[toolCode.ordinal()];
+        tool.lock.writeLock().lock();
+        try {
+            if (units < tool.units.size()) {
+                throw new IllegalArgumentException("Units of " + toolCode + " cannot be removed from the calendar.");
+            }
+            while (tool.units.size() < units) {
+                tool.units.add(new UnitBookings());
+            }
+        } finally {
+            tool.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param toolCode ToolCode - the tool to check.
+     * @return int - the number of units of the tool that can be booked.
+     */
+    public int getUnits(ToolCode toolCode) {
+        ToolBookings tool = tools[toolCode.ordinal()];
+        tool.lock.readLock().lock();
+        try {
+            return tool.units.size();
+        } finally {
+            tool.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Check whether any unit of a tool is free for a whole rental.
+     *
+     * @param toolCode      ToolCode - the tool to rent.
+     * @param startEpochDay long - the epoch day of the first day of the rental.
+     * @param rentalDays    int - the number of days of the rental.
+     * @return boolean - true if a unit is free for every day of the rental.
+     */
+    public boolean isAvailable(ToolCode toolCode, long startEpochDay, int rentalDays) {
+        return findFreeUnit(toolCode, startEpochDay, rentalDays) >= 0;
+    }
+
+    /**
+     * Find a unit of a tool that is free for a whole rental.
+     *
+     * @param toolCode      ToolCode - the tool to rent.
+     * @param startEpochDay long - the epoch day of the first day of the rental.
+     * @param rentalDays    int - the number of days of the rental.
+     * @return int - the first free unit, or -1 if every unit is booked on at least one day of the rental.
+     */
+    public int findFreeUnit(ToolCode toolCode, long startEpochDay, int rentalDays) {
+        ToolBookings tool = tools[toolCode.ordinal()];
+        tool.lock.readLock().lock();
+        try {
+            return tool.findFreeUnit(startEpochDay, startEpochDay + rentalDays);
+        } finally {
+            tool.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Book a free unit of a tool for a rental.
+     *
+     * @param toolCode      ToolCode - the tool to rent.
+     * @param startEpochDay long - the epoch day of the first day of the rental.
+     * @param rentalDays    int - the number of days of the rental.
+     * @return int - the unit booked, or -1 if no unit is free for the whole rental.
+     */
+    public int book(ToolCode toolCode, long startEpochDay, int rentalDays) {
+        if (rentalDays < 1) {
+            throw new IllegalArgumentException("Must book at least 1 day.");
+        }
+        ToolBookings tool = tools[toolCode.ordinal()];
+        long endEpochDay = startEpochDay + rentalDays;
+        tool.lock.writeLock().lock();
+        try {
+            int unit = tool.findFreeUnit(startEpochDay, endEpochDay);
+            if (unit >= 0) {
+                UnitBookings bookings = tool.units.get(unit);
+                bookings.insert(bookings.position(startEpochDay), startEpochDay, endEpochDay);
+            }
+            return unit;
+        } finally {
+            tool.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Cancel a booking made with {@link #book}.
+     *
+     * @param toolCode      ToolCode - the tool that was booked.
+     * @param unit          int - the unit that was booked.
+     * @param startEpochDay long - the epoch day of the first day of the booking.
+     * @return boolean - true if the booking was found and cancelled.
+     */
+    public boolean cancel(ToolCode toolCode, int unit, long startEpochDay) {
+        ToolBookings tool = tools[toolCode.ordinal()];
+        tool.lock.writeLock().lock();
+        try {
+            UnitBookings bookings = tool.units.get(unit);
+            int position = bookings.position(startEpochDay);
+            if (position == bookings.size || bookings.starts[position] != startEpochDay) {
+                return false;
+            }
+            bookings.remove(position);
+            return true;
+        } finally {
+            tool.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * End a booking made with {@link #book} early, e.g. when the tool is returned before its due date, freeing the
+     * unit from that day on. A booking ended on its first day is cancelled.
+     *
+     * @param toolCode      ToolCode - the tool that was booked.
+     * @param unit          int - the unit that was booked.
+     * @param startEpochDay long - the epoch day of the first day of the booking.
+     * @param endEpochDay   long - the epoch day the unit is free again.
+     * @return boolean - true if the booking was found and shortened or cancelled.
+     */
+    public boolean trim(ToolCode toolCode, int unit, long startEpochDay, long endEpochDay) {
+        ToolBookings tool = tools[toolCode.ordinal()];
+        tool.lock.writeLock().lock();
+        try {
+            UnitBookings bookings = tool.units.get(unit);
+            int position = bookings.position(startEpochDay);
+            if (position == bookings.size || bookings.starts[position] != startEpochDay || bookings.ends[position] <= endEpochDay) {
+                return false;
+            }
+            if (endEpochDay <= startEpochDay) {
+                bookings.remove(position);
+            } else {
+                bookings.ends[position] = endEpochDay;
+            }
+            return true;
+        } finally {
+            tool.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add existing bookings of a unit in bulk, e.g. when loading the calendar. The bookings need not be sorted, but
+     * must not overlap each other or the bookings the unit already has.
+     *
+     * @param toolCode       ToolCode - the tool that is booked.
+     * @param unit           int - the unit that is booked.
+     * @param startEpochDays long[] - the epoch day of the first day of each booking.
+     * @param rentalDays     int[] - the number of days of each booking.
+     */
+    public void addBookings(ToolCode toolCode, int unit, long[] startEpochDays, int[] rentalDays) {
+        if (startEpochDays.length != rentalDays.length) {
+            throw new IllegalArgumentException("Every booking must have a start day and a number of days.");
+        }
+        int count = startEpochDays.length;
+        // sort the new bookings by packing each start day with its index into one long
+        long[] order = new long[count];
+        long minStart = Long.MAX_VALUE;
+        for (long start : startEpochDays) {
+            minStart = Math.min(minStart, start);
+        }
+        for (int i = 0; i < count; i++) {
+            if (rentalDays[i] < 1) {
+                throw new IllegalArgumentException("Must book at least 1 day.");
+            }
+            order[i] = ((startEpochDays[i] - minStart) << 32) | i;
+        }
+        Arrays.sort(order);
+        long[] starts = new long[count];
+        long[] ends = new long[count];
+        for (int i = 0; i < count; i++) {
+            int index = (int) order[i];
+            starts[i] = startEpochDays[index];
+            ends[i] = starts[i] + rentalDays[index];
+        }
+
+        ToolBookings tool = tools[toolCode.ordinal()];
+        tool.lock.writeLock().lock();
+        try {
+            tool.units.get(unit).merge(starts, ends, count);
+        } finally {
+            tool.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop every booking that ended before a day, releasing the memory it used.
+     *
+     * @param epochDay long - the first day whose bookings are kept, typically today.
+     * @return int - the number of bookings dropped.
+     */
+    public int pruneBefore(long epochDay) {
+        int pruned = 0;
+        for (ToolBookings tool : tools) {
+            tool.lock.writeLock().lock();
+            try {
+                for (UnitBookings bookings : tool.units) {
+                    pruned += bookings.pruneBefore(epochDay);
+                }
+            } finally {
+                tool.lock.writeLock().unlock();
+            }
+        }
+        return pruned;
+    }
+
+    /**
+     * @param toolCode ToolCode - the tool to check.
+     * @return long - the number of bookings held for every unit of the tool.
+     */
+    public long getBookings(ToolCode toolCode) {
+        ToolBookings tool = tools[toolCode.ordinal()];
+        tool.lock.readLock().lock();
+        try {
+            long bookings = 0;
+            for (UnitBookings unit : tool.units) {
+                bookings += unit.size;
+            }
+            return bookings;
+        } finally {
+            tool.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The units of one tool, guarded by one lock so checking and booking a unit is atomic.
+     */
+    private static class ToolBookings {
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final List<UnitBookings> units = new ArrayList<>();
+
+        private int findFreeUnit(long startEpochDay, long endEpochDay) {
+            for (int unit = 0; unit < units.size(); unit++) {
+                if (units.get(unit).isFree(startEpochDay, endEpochDay)) {
+                    return unit;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * The bookings of one unit as sorted, non-overlapping [start, end) epoch day ranges.
+     */
+    private static class UnitBookings {
+
+        private long[] starts = new long[4];
+        private long[] ends = new long[4];
+        private int size;
+
+        /**
+         * @return int - the position of the first booking starting on or after the day.
+         */
+        private int position(long epochDay) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (starts[middle] < epochDay) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private boolean isFree(long startEpochDay, long endEpochDay) {
+            int position = position(startEpochDay);
+            // free if the booking before ends in time and the booking after starts late enough
+            return (position == 0 || ends[position - 1] <= startEpochDay) && (position == size || starts[position] >= endEpochDay);
+        }
+
+        private void insert(int position, long startEpochDay, long endEpochDay) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            System.arraycopy(starts, position, starts, position + 1, size - position);
+            System.arraycopy(ends, position, ends, position + 1, size - position);
+            starts[position] = startEpochDay;
+            ends[position] = endEpochDay;
+            size++;
+        }
+
+        private void remove(int position) {
+            System.arraycopy(starts, position + 1, starts, position, size - position - 1);
+            System.arraycopy(ends, position + 1, ends, position, size - position - 1);
+            size--;
+        }
+
+        private void merge(long[] newStarts, long[] newEnds, int count) {
+            long[] mergedStarts = new long[Math.max(4, size + count)];
+            long[] mergedEnds = new long[mergedStarts.length];
+            int i = 0;
+            int j = 0;
+            int merged = 0;
+            while (i < size || j < count) {
+                boolean takeExisting = j == count || (i < size && starts[i] <= newStarts[j]);
+                long start = takeExisting ? starts[i] : newStarts[j];
+                long end = takeExisting ? ends[i++] : newEnds[j++];
+                if (merged > 0 && mergedEnds[merged - 1] > start) {
+                    throw new IllegalArgumentException("Bookings starting on epoch days " + mergedStarts[merged - 1] + " and " + start + " overlap.");
+                }
+                mergedStarts[merged] = start;
+                mergedEnds[merged] = end;
+                merged++;
+            }
+            starts = mergedStarts;
+            ends = mergedEnds;
+            size = merged;
+        }
+
+        private int pruneBefore(long epochDay) {
+            // bookings are sorted and do not overlap, so their ends are sorted too
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (ends[middle] <= epochDay) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            int ended = low;
+            if (ended > 0) {
+                removeFirst(ended);
+            }
+            return ended;
+        }
+
+        private void removeFirst(int count) {
+            int remaining = size - count;
+            int capacity = Math.max(4, remaining * 2);
+            if (capacity < starts.length) {
+                // shrink arrays left mostly empty by pruning
+                starts = Arrays.copyOfRange(starts, count, count + capacity);
+                ends = Arrays.copyOfRange(ends, count, count + capacity);
+            } else {
+                System.arraycopy(starts, count, starts, 0, remaining);
+                System.arraycopy(ends, count, ends, 0, remaining);
+            }
+            size = remaining;
+        }
+    }
+}
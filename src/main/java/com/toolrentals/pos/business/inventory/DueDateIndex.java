@@ -0,0 +1,219 @@
+package com.toolrentals.pos.business.inventory;
+
+import com.toolrentals.pos.business.util.DateUtil;
+import com.toolrentals.pos.common.model.RentalAgreement;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Index of the open rental agreements ordered by due date, so the agreements due on or before a day are a range read
+ * instead of a scan of every agreement. Agreements are kept in a skip list keyed by due epoch day and the order they
+ * were added in, making adding and removing an agreement O(log n) and safe from any thread.
+ * <p>
+ * Agreements are told apart by identity, and must not have their due date changed while they are in the index.
+ */
+public class DueDateIndex {
+
+    private final ConcurrentSkipListMap<DueKey, RentalAgreement> byDueDate = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<RentalAgreement, DueKey> keys = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private DateUtil dateUtil;
+
+    public DueDateIndex() {
+        init();
+    }
+
+    private void init() {
+        dateUtil = new DateUtil();
+    }
+
+    /**
+     * Add an open rental agreement.
+     *
+     * @param rentalAgreement RentalAgreement - the agreement, which must have a due date.
+     * @return boolean - true if added, false if the agreement was already in the index.
+     */
+    public boolean add(RentalAgreement rentalAgreement) {
+        if (!rentalAgreement.hasDueDate()) {
+            throw new IllegalArgumentException("Only rental agreements with a due date can be indexed.");
+        }
+        DueKey key = new DueKey(dateUtil.toEpochDay(rentalAgreement.getDueDate()), sequence.getAndIncrement());
+        // in the skip list before it can be found to remove, so a concurrent remove never leaves it behind
+        byDueDate.put(key, rentalAgreement);
+        if (keys.putIfAbsent(rentalAgreement, key) != null) {
+            byDueDate.remove(key);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Remove an agreement, e.g. once the tool has been returned.
+     *
+     * @param rentalAgreement RentalAgreement - the agreement to remove.
+     * @return boolean - true if the agreement was in the index.
+     */
+    public boolean remove(RentalAgreement rentalAgreement) {
+        DueKey key = keys.remove(rentalAgreement);
+        if (key == null) {
+            return false;
+        }
+        byDueDate.remove(key);
+        return true;
+    }
+
+    public boolean contains(RentalAgreement rentalAgreement) {
+        return keys.containsKey(rentalAgreement);
+    }
+
+    /**
+     * @return int - the number of open agreements.
+     */
+    public int size() {
+        return keys.size();
+    }
+
+    /**
+     * Iterate over the agreements due on or before a day, earliest due first. The agreements are read from the index
+     * as the iteration goes, so none are copied, and agreements added or removed meanwhile may or may not be seen.
+     *
+     * @param epochDay long - the last due day to include, e.g. today for the overdue agreements.
+     * @return Iterator - the agreements due by the day.
+     */
+    public Iterator<RentalAgreement> dueOnOrBefore(long epochDay) {
+        return dueBefore(epochDay + 1).values().iterator();
+    }
+
+    /**
+     * Pass each agreement due on or before a day to a consumer, earliest due first, without copying them.
+     *
+     * @param epochDay long - the last due day to include.
+     * @param consumer Consumer - called with each agreement.
+     * @return long - the number of agreements passed to the consumer.
+     */
+    public long forEachDueOnOrBefore(long epochDay, Consumer<RentalAgreement> consumer) {
+        long count = 0;
+        for (RentalAgreement rentalAgreement : dueBefore(epochDay + 1).values()) {
+            consumer.accept(rentalAgreement);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Pass each agreement due before a day, with its due epoch day, to a consumer on the workers of a pool, e.g. to
+     * accrue late fees on every overdue agreement. The skip list is split into ranges along its index levels while the
+     * pool has idle workers, and each range is read in place, so none of the agreements are copied. The consumer is
+     * called concurrently and in no particular order, and agreements added or removed meanwhile may or may not be
+     * seen.
+     *
+     * @param epochDay long - the day after the last due day to include, e.g. today for the overdue agreements.
+     * @param pool     ForkJoinPool - the pool to call the consumer on.
+     * @param consumer ObjLongConsumer - called with each agreement and its due epoch day, from any worker of the pool.
+     * @return long - the number of agreements passed to the consumer.
+     */
+    public long forEachDueBefore(long epochDay, ForkJoinPool pool, ObjLongConsumer<RentalAgreement> consumer) {
+        // a head map cannot be split, so the whole map is and each range stops at the day
+        return pool.invoke(new DueBeforeTask(byDueDate.entrySet().spliterator(), epochDay, consumer));
+    }
+
+    /**
+     * Iterate over the agreements due within a range of days, earliest due first.
+     *
+     * @param fromEpochDay long - the first due day to include.
+     * @param toEpochDay   long - the day after the last due day to include.
+     * @return Iterator - the agreements due in the range.
+     */
+    public Iterator<RentalAgreement> dueBetween(long fromEpochDay, long toEpochDay) {
+        return byDueDate.subMap(new DueKey(fromEpochDay, Long.MIN_VALUE), new DueKey(toEpochDay, Long.MIN_VALUE)).values().iterator();
+    }
+
+    private ConcurrentNavigableMap<DueKey, RentalAgreement> dueBefore(long epochDay) {
+        return byDueDate.headMap(new DueKey(epochDay, Long.MIN_VALUE));
+    }
+
+    /**
+     * Reads a range of the skip list up to the first agreement due on or after the day, splitting off lower ranges to
+     * other workers while they are idle.
+     */
+    private static class DueBeforeTask extends RecursiveTask<Long> implements Consumer<Map.Entry<DueKey, RentalAgreement>> {
+        // forked ranges left queued before splitting stops, so busy workers still have work to steal
+        private static final int SURPLUS_TASKS = 2;
+
+        private final Spliterator<Map.Entry<DueKey, RentalAgreement>> spliterator;
+        private final long epochDay;
+        private final ObjLongConsumer<RentalAgreement> consumer;
+        private long count;
+        private boolean reachedDay;
+
+        private DueBeforeTask(Spliterator<Map.Entry<DueKey, RentalAgreement>> spliterator, long epochDay,
+                              ObjLongConsumer<RentalAgreement> consumer) {
+            this.spliterator = spliterator;
+            this.epochDay = epochDay;
+            this.consumer = consumer;
+        }
+
+        @Override
+        protected Long compute() {
+            List<DueBeforeTask> forked = new ArrayList<>();
+            Spliterator<Map.Entry<DueKey, RentalAgreement>> lower;
+            while (getSurplusQueuedTaskCount() <= SURPLUS_TASKS && (lower = spliterator.trySplit()) != null) {
+                DueBeforeTask task = new DueBeforeTask(lower, epochDay, consumer);
+                task.fork();
+                forked.add(task);
+            }
+            while (!reachedDay && spliterator.tryAdvance(this)) {
+                // each agreement is passed on by accept
+            }
+            long total = count;
+            for (DueBeforeTask task : forked) {
+                total += task.join();
+            }
+            return total;
+        }
+
+        @Override
+        public void accept(Map.Entry<DueKey, RentalAgreement> entry) {
+            long dueEpochDay = entry.getKey().dueEpochDay;
+            if (dueEpochDay >= epochDay) {
+                reachedDay = true;
+                return;
+            }
+            consumer.accept(entry.getValue(), dueEpochDay);
+            count++;
+        }
+    }
+
+    /**
+     * Orders agreements by due day, then by the order they were added in, so agreements due the same day are kept.
+     */
+    private static class DueKey implements Comparable<DueKey> {
+
+        private final long dueEpochDay;
+        private final long sequence;
+
+        private DueKey(long dueEpochDay, long sequence) {
+            this.dueEpochDay = dueEpochDay;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(DueKey other) {
+            int compared = Long.compare(dueEpochDay, other.dueEpochDay);
+            return compared != 0 ? compared : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.toolrentals.pos.business.inventory;
+
+import com.toolrentals.pos.common.enums.ToolCode;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The number of units of each tool available to rent, shared by every checkout terminal. Units are reserved and
+ * released with compare-and-set on a counter per tool code, so two terminals can never rent out the same last unit
+ * and no terminal ever waits on a lock.
+ * <p>
+ * The counters are spread through a padded {@link AtomicLongArray}, one cache line apart, so terminals renting
+ * different tools do not slow each other down by writing to the same cache line. Tools have unlimited units until
+ * their units are set. The units rented out are counted even then, so they stay reserved once the units are set.
+ */
+public class ToolInventory {
+
+    /**
+     * Available units of a tool that is never out of stock.
+     */
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    // 16 longs, 128 bytes, keeps each tool's counters off the cache lines of its neighbours, even with prefetching
+    private static final int STRIDE = 16;
+    private static final int RENTED = 0;
+    private static final int TOTAL = 1;
+
+    private final AtomicLongArray counters;
+
+    /**
+     * Create an inventory with unlimited units of every tool.
+     */
+    public ToolInventory() {
+        counters = new AtomicLongArray((ToolCode.values().length + 1) * STRIDE);
+        for (ToolCode toolCode : ToolCode.values()) {
+            counters.set(slot(toolCode, TOTAL), UNLIMITED);
+        }
+    }
+
+    /**
+     * Set the number of units of a tool the store owns. Units already rented out stay reserved, whether or not the
+     * tool was stocked when they were rented, so the units available are the units owned less the units rented out.
+     *
+     * @param toolCode ToolCode - the tool to stock.
+     * @param units    long - the number of units owned, or {@link #UNLIMITED}.
+     */
+    public void setUnits(ToolCode toolCode, long units) {
+        if (units < 0) {
+            throw new IllegalArgumentException("Units cannot be negative.");
+        }
+        counters.set(slot(toolCode, TOTAL), units);
+    }
+
+    /**
+     * Reserve one unit of a tool for a rental. A reservation made while the units owned are being changed may be
+     * checked against the units owned before the change.
+     *
+     * @param toolCode ToolCode - the tool to reserve.
+     * @return boolean - true if a unit was reserved, false if every unit is rented out.
+     */
+    public boolean tryReserve(ToolCode toolCode) {
+        int slot = slot(toolCode, RENTED);
+        while (true) {
+            long total = counters.get(slot(toolCode, TOTAL));
+            long rented = counters.get(slot);
+            if (total != UNLIMITED && rented >= total) {
+                return false;
+            }
+            if (counters.compareAndSet(slot, rented, rented + 1)) {
+                return true;
+            }
+            // another terminal took a unit first, back off briefly before trying again
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Release a reserved unit of a tool, e.g. when it is returned.
+     *
+     * @param toolCode ToolCode - the tool to release.
+     * @throws IllegalStateException - if no unit of the tool is rented out.
+     */
+    public void release(ToolCode toolCode) {
+        int slot = slot(toolCode, RENTED);
+        while (true) {
+            long rented = counters.get(slot);
+            if (rented <= 0) {
+                throw new IllegalStateException("No unit of " + toolCode + " is reserved.");
+            }
+            if (counters.compareAndSet(slot, rented, rented - 1)) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * @param toolCode ToolCode - the tool to check.
+     * @return long - the units of the tool available to rent, which may be negative after the units owned have been
+     * reduced below the units rented out, or {@link #UNLIMITED}.
+     */
+    public long getAvailable(ToolCode toolCode) {
+        long total = counters.get(slot(toolCode, TOTAL));
+        return total == UNLIMITED ? UNLIMITED : total - counters.get(slot(toolCode, RENTED));
+    }
+
+    /**
+     * @param toolCode ToolCode - the tool to check.
+     * @return long - the units of the tool rented out.
+     */
+    public long getRentedOut(ToolCode toolCode) {
+        return counters.get(slot(toolCode, RENTED));
+    }
+
+    /**
+     * @param toolCode ToolCode - the tool to check.
+     * @return long - the units of the tool the store owns, or {@link #UNLIMITED}.
+     */
+    public long getUnits(ToolCode toolCode) {
+        return counters.get(slot(toolCode, TOTAL));
+    }
+
+    private static int slot(ToolCode toolCode, int counter) {
+        // the first stride is left empty, so the first tool does not share a line with the array header
+        return (toolCode.ordinal() + 1) * STRIDE + counter;
+    }
+}
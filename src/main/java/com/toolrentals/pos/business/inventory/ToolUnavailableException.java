@@ -0,0 +1,12 @@
+package com.toolrentals.pos.business.inventory;
+
+/**
+ * Thrown when a valid checkout cannot be reserved because every unit of its tool is rented out or booked, so callers
+ * can tell a tool that is out apart from input that is not valid.
+ */
+public class ToolUnavailableException extends Exception {
+
+    public ToolUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,65 @@
+package com.toolrentals.pos.business.journal;
+
+import java.time.Duration;
+
+/**
+ * How often the {@link RentalJournal} forces appended records to the storage device.
+ */
+public final class DurabilityPolicy {
+
+    private static final DurabilityPolicy EVERY_RECORD = new DurabilityPolicy(0);
+    private static final DurabilityPolicy OS_MANAGED = new DurabilityPolicy(-1);
+
+    // 0 forces every batch of records, a positive interval forces at most that often, -1 never forces
+    private final long intervalNanos;
+
+    private DurabilityPolicy(long intervalNanos) {
+        this.intervalNanos = intervalNanos;
+    }
+
+    /**
+     * Every record is on the storage device before its append completes. Records appended at the same time share one
+     * force.
+     *
+     * @return DurabilityPolicy - the policy.
+     */
+    public static DurabilityPolicy everyRecord() {
+        return EVERY_RECORD;
+    }
+
+    /**
+     * Records are forced to the storage device at most once an interval. Appends complete once written to the
+     * mapped file, so a crash of the machine loses at most the last interval of records.
+     *
+     * @param interval Duration - the longest time between forces.
+     * @return DurabilityPolicy - the policy.
+     */
+    public static DurabilityPolicy every(Duration interval) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("The interval between forces must be positive.");
+        }
+        return new DurabilityPolicy(interval.toNanos());
+    }
+
+    /**
+     * Records are left for the operating system to write back, and only forced when the journal is closed. A crash
+     * of the process loses nothing, a crash of the machine may lose recent records.
+     *
+     * @return DurabilityPolicy - the policy.
+     */
+    public static DurabilityPolicy osManaged() {
+        return OS_MANAGED;
+    }
+
+    boolean isEveryRecord() {
+        return intervalNanos == 0;
+    }
+
+    boolean isOsManaged() {
+        return intervalNanos < 0;
+    }
+
+    long getIntervalNanos() {
+        return intervalNanos;
+    }
+}
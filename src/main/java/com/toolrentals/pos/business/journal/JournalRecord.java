@@ -0,0 +1,297 @@
+package com.toolrentals.pos.business.journal;
+
+import com.toolrentals.pos.common.enums.Brand;
+import com.toolrentals.pos.common.enums.JournalRecordType;
+import com.toolrentals.pos.common.enums.ToolType;
+import com.toolrentals.pos.common.model.CatalogTool;
+import com.toolrentals.pos.common.model.RentalAgreement;
+import com.toolrentals.pos.common.model.Tool;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * A rental agreement checked out or checked in, as stored in the {@link RentalJournal}. Every record has the same
+ * fixed layout of {@link #SIZE} bytes, so the journal can find any record by its sequence number:
+ * <pre>
+ *   0 int    magic
+ *   4 int    CRC32C of bytes 8 - 127
+ *   8 long   sequence
+ *  16 byte[] tool code, UTF-8 padded with zeros (24 bytes)
+ *  40 byte   tool type ordinal
+ *  41 byte   brand ordinal
+ *  42 byte   charge flags (1 weekday, 2 weekend, 4 holiday)
+ *  43 byte   discount percent
+ *  44 int    rental days
+ *  48 long   checkout epoch day
+ *  56 long   due epoch day
+ *  64 int    chargeable days
+ *  68 int    record type ordinal, 0 for a checkout
+ *  72 long   daily charge cents
+ *  80 long   subtotal cents
+ *  88 long   discount cents
+ *  96 long   total cents
+ * 104 long   return epoch day, check-ins only
+ * 112 long   late fee cents, check-ins only
+ * 120 int    late chargeable days, check-ins only
+ * 124        unused up to 128
+ * </pre>
+ * A check-in repeats the fields of its checkout, so it can be matched to it. The daily charges are not stored, as they
+ * follow from the tool and the rental period.
+ */
+public class JournalRecord {
+
+    public static final int SIZE = 128;
+    public static final int MAX_CODE_LENGTH = 24;
+
+    static final int MAGIC = 0x52414731;
+
+    private static final int CRC_OFFSET = 4;
+    private static final int CHECKED_OFFSET = 8;
+    private static final int CODE_OFFSET = 16;
+    private static final byte WEEKDAY_CHARGE = 1;
+    private static final byte WEEKEND_CHARGE = 2;
+    private static final byte HOLIDAY_CHARGE = 4;
+
+    // values() copies the array on every call
+    private static final JournalRecordType[] TYPES = JournalRecordType.values();
+
+    private final long sequence;
+    private final JournalRecordType type;
+    private final String toolCode;
+    private final ToolType toolType;
+    private final Brand brand;
+    private final boolean weekdayCharge;
+    private final boolean weekendCharge;
+    private final boolean holidayCharge;
+    private final int percentDiscount;
+    private final int rentalDays;
+    private final long checkoutEpochDay;
+    private final long dueEpochDay;
+    private final int numberChargeableDays;
+    private final long dailyChargeCents;
+    private final long subtotalCents;
+    private final long discountCents;
+    private final long totalCents;
+    private final long returnEpochDay;
+    private final long lateFeeCents;
+    private final int numberLateChargeableDays;
+
+    public JournalRecord(long sequence, JournalRecordType type, String toolCode, ToolType toolType, Brand brand, boolean weekdayCharge,
+                         boolean weekendCharge, boolean holidayCharge, int percentDiscount, int rentalDays, long checkoutEpochDay,
+                         long dueEpochDay, int numberChargeableDays, long dailyChargeCents, long subtotalCents, long discountCents,
+                         long totalCents, long returnEpochDay, long lateFeeCents, int numberLateChargeableDays) {
+        this.sequence = sequence;
+        this.type = type;
+        this.toolCode = toolCode;
+        this.toolType = toolType;
+        this.brand = brand;
+        this.weekdayCharge = weekdayCharge;
+        this.weekendCharge = weekendCharge;
+        this.holidayCharge = holidayCharge;
+        this.percentDiscount = percentDiscount;
+        this.rentalDays = rentalDays;
+        this.checkoutEpochDay = checkoutEpochDay;
+        this.dueEpochDay = dueEpochDay;
+        this.numberChargeableDays = numberChargeableDays;
+        this.dailyChargeCents = dailyChargeCents;
+        this.subtotalCents = subtotalCents;
+        this.discountCents = discountCents;
+        this.totalCents = totalCents;
+        this.returnEpochDay = returnEpochDay;
+        this.lateFeeCents = lateFeeCents;
+        this.numberLateChargeableDays = numberLateChargeableDays;
+    }
+
+    /**
+     * Encode the checkout of a completed rental agreement into a record.
+     *
+     * @param sequence         long - the sequence number of the record.
+     * @param rentalAgreement  RentalAgreement - the completed rental agreement.
+     * @param checkoutEpochDay long - the epoch day of the checkout date.
+     * @param dueEpochDay      long - the epoch day of the due date.
+     * @param out              ByteBuffer - receives the {@link #SIZE} bytes of the record at its position.
+     */
+    static void encode(long sequence, RentalAgreement rentalAgreement, long checkoutEpochDay, long dueEpochDay, ByteBuffer out) {
+        encode(sequence, JournalRecordType.CHECKOUT, rentalAgreement, checkoutEpochDay, dueEpochDay, 0, out);
+    }
+
+    /**
+     * Encode the checkout or check-in of a rental agreement into a record.
+     *
+     * @param sequence         long - the sequence number of the record.
+     * @param type             JournalRecordType - whether the tool was checked out or checked in.
+     * @param rentalAgreement  RentalAgreement - the completed rental agreement, with its late fee if checked in.
+     * @param checkoutEpochDay long - the epoch day of the checkout date.
+     * @param dueEpochDay      long - the epoch day of the due date.
+     * @param returnEpochDay   long - the epoch day of the return date, if checked in.
+     * @param out              ByteBuffer - receives the {@link #SIZE} bytes of the record at its position.
+     */
+    static void encode(long sequence, JournalRecordType type, RentalAgreement rentalAgreement, long checkoutEpochDay, long dueEpochDay,
+                       long returnEpochDay, ByteBuffer out) {
+        Tool tool = rentalAgreement.getTool();
+        String code = tool instanceof CatalogTool catalogTool ? catalogTool.getCode() : tool.getToolCode().name();
+        byte[] codeBytes = code.getBytes(StandardCharsets.UTF_8);
+        if (codeBytes.length > MAX_CODE_LENGTH) {
+            throw new IllegalArgumentException("Tool code " + code + " is too long to journal.");
+        }
+        boolean checkin = type == JournalRecordType.CHECKIN;
+        int start = out.position();
+        out.putInt(MAGIC).putInt(0).putLong(sequence).put(codeBytes);
+        for (int i = codeBytes.length; i < MAX_CODE_LENGTH; i++) {
+            out.put((byte) 0);
+        }
+        out.put((byte) tool.getToolType().ordinal())
+                .put((byte) tool.getBrand().ordinal())
+                .put((byte) ((tool.isWeekdayCharge() ? WEEKDAY_CHARGE : 0) | (tool.isWeekendCharge() ? WEEKEND_CHARGE : 0) | (tool.isHolidayCharge() ? HOLIDAY_CHARGE : 0)))
+                .put((byte) (int) rentalAgreement.getPercentDiscount())
+                .putInt(rentalAgreement.getRentalDays())
+                .putLong(checkoutEpochDay)
+                .putLong(dueEpochDay)
+                .putInt(rentalAgreement.getNumberChargeableDays())
+                .putInt(type.ordinal())
+                .putLong(tool.getDailyChargeCents())
+                .putLong(rentalAgreement.getSubtotalCents())
+                .putLong(rentalAgreement.getDiscountCents())
+                .putLong(rentalAgreement.getTotalCents())
+                .putLong(checkin ? returnEpochDay : 0)
+                .putLong(checkin ? rentalAgreement.getLateFeeCents() : 0)
+                .putInt(checkin ? rentalAgreement.getNumberLateChargeableDays() : 0);
+        while (out.position() < start + SIZE) {
+            out.put((byte) 0);
+        }
+        out.putInt(start + CRC_OFFSET, checksum(out, start));
+    }
+
+    /**
+     * Check that the bytes at an offset hold an intact record with the expected sequence number.
+     *
+     * @param in       ByteBuffer - the bytes to check.
+     * @param offset   int - the offset of the record.
+     * @param sequence long - the sequence number of the record at that position in the journal.
+     * @return boolean - true if the record was completely written, and written at that position.
+     */
+    static boolean isValid(ByteBuffer in, int offset, long sequence) {
+        return in.getInt(offset) == MAGIC && in.getLong(offset + CHECKED_OFFSET) == sequence
+                && in.getInt(offset + CRC_OFFSET) == checksum(in, offset);
+    }
+
+    /**
+     * Decode the intact record at an offset.
+     *
+     * @param in     ByteBuffer - the bytes to decode.
+     * @param offset int - the offset of the record.
+     * @return JournalRecord - the decoded record.
+     */
+    static JournalRecord decode(ByteBuffer in, int offset) {
+        int codeLength = 0;
+        while (codeLength < MAX_CODE_LENGTH && in.get(offset + CODE_OFFSET + codeLength) != 0) {
+            codeLength++;
+        }
+        byte[] codeBytes = new byte[codeLength];
+        in.get(offset + CODE_OFFSET, codeBytes);
+        byte flags = in.get(offset + 42);
+        return new JournalRecord(in.getLong(offset + 8), TYPES[in.getInt(offset + 68)], new String(codeBytes, StandardCharsets.UTF_8),
+                ToolType.values()[in.get(offset + 40)], Brand.values()[in.get(offset + 41)], (flags & WEEKDAY_CHARGE) != 0,
+                (flags & WEEKEND_CHARGE) != 0, (flags & HOLIDAY_CHARGE) != 0, in.get(offset + 43), in.getInt(offset + 44),
+                in.getLong(offset + 48), in.getLong(offset + 56), in.getInt(offset + 64), in.getLong(offset + 72),
+                in.getLong(offset + 80), in.getLong(offset + 88), in.getLong(offset + 96), in.getLong(offset + 104),
+                in.getLong(offset + 112), in.getInt(offset + 120));
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + CHECKED_OFFSET, SIZE - CHECKED_OFFSET));
+        return (int) crc.getValue();
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public JournalRecordType getType() {
+        return type;
+    }
+
+    public String getToolCode() {
+        return toolCode;
+    }
+
+    public ToolType getToolType() {
+        return toolType;
+    }
+
+    public Brand getBrand() {
+        return brand;
+    }
+
+    public boolean isWeekdayCharge() {
+        return weekdayCharge;
+    }
+
+    public boolean isWeekendCharge() {
+        return weekendCharge;
+    }
+
+    public boolean isHolidayCharge() {
+        return holidayCharge;
+    }
+
+    public int getPercentDiscount() {
+        return percentDiscount;
+    }
+
+    public int getRentalDays() {
+        return rentalDays;
+    }
+
+    public long getCheckoutEpochDay() {
+        return checkoutEpochDay;
+    }
+
+    public long getDueEpochDay() {
+        return dueEpochDay;
+    }
+
+    public int getNumberChargeableDays() {
+        return numberChargeableDays;
+    }
+
+    public long getDailyChargeCents() {
+        return dailyChargeCents;
+    }
+
+    public long getSubtotalCents() {
+        return subtotalCents;
+    }
+
+    public long getDiscountCents() {
+        return discountCents;
+    }
+
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    /**
+     * @return long - the epoch day the tool was returned on, for a check-in.
+     */
+    public long getReturnEpochDay() {
+        return returnEpochDay;
+    }
+
+    /**
+     * @return long - the late fee charged at check-in in cents, for a check-in.
+     */
+    public long getLateFeeCents() {
+        return lateFeeCents;
+    }
+
+    /**
+     * @return int - the chargeable days from the due date up to the return date, for a check-in.
+     */
+    public int getNumberLateChargeableDays() {
+        return numberLateChargeableDays;
+    }
+}
@@ -0,0 +1,352 @@
+package com.toolrentals.pos.business.journal;
+
+import com.toolrentals.pos.business.util.DateUtil;
+import com.toolrentals.pos.common.enums.JournalRecordType;
+import com.toolrentals.pos.common.model.RentalAgreement;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Append-only journal of completed rental agreements and their check-ins, stored as fixed size {@link JournalRecord}s in
+ * a memory mapped file. Checkouts and check-ins hand their agreements to a single writer thread, which copies whatever has queued up into the
+ * mapping in one batch and then forces the batch to the storage device as the {@link DurabilityPolicy} asks, so
+ * concurrent checkouts share the cost of each force.
+ * <p>
+ * The file is mapped in regions of {@link #REGION_SIZE} bytes and grows a region at a time. On opening, the records
+ * are read up to the first one that is not intact or not at its own position, and appending carries on from there,
+ * dropping records torn by a crash. Every record after that point is cleared, so none of them can be read back later.
+ */
+public class RentalJournal implements AutoCloseable {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 65_536;
+    public static final long REGION_SIZE = (long) JournalRecord.SIZE << 19;
+
+    private static final int MAX_BATCH = 4_096;
+    private static final int RECORDS_PER_REGION = (int) (REGION_SIZE / JournalRecord.SIZE);
+    private static final byte[] EMPTY_RECORD = new byte[JournalRecord.SIZE];
+
+    // tells the writer to stop once everything queued before it has been written
+    private static final PendingAppend CLOSE = new PendingAppend(null, null, null);
+
+    private final Path path;
+    private final DurabilityPolicy durabilityPolicy;
+    private final FileChannel channel;
+    private final BlockingQueue<PendingAppend> queue;
+    private final Thread writer;
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private final ByteBuffer recordBuffer = ByteBuffer.allocate(JournalRecord.SIZE);
+    private boolean closed;
+    private DateUtil dateUtil;
+
+    // only touched by the writer thread once it has started
+    private MappedByteBuffer region;
+    private long regionIndex;
+    private long nextSequence;
+    private boolean unforced;
+    private long lastForceNanos;
+
+    private volatile long recordCount;
+
+    /**
+     * Open a journal, creating the file if it does not exist.
+     *
+     * @param path             Path - the journal file.
+     * @param durabilityPolicy DurabilityPolicy - how often appended records are forced to the storage device.
+     * @throws IOException - if the file cannot be opened or mapped.
+     */
+    public RentalJournal(Path path, DurabilityPolicy durabilityPolicy) throws IOException {
+        this(path, durabilityPolicy, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param path             Path - the journal file.
+     * @param durabilityPolicy DurabilityPolicy - how often appended records are forced to the storage device.
+     * @param queueCapacity    int - the most checkouts and check-ins waiting to be written before appends are blocked.
+     * @throws IOException - if the file cannot be opened or mapped.
+     */
+    public RentalJournal(Path path, DurabilityPolicy durabilityPolicy, int queueCapacity) throws IOException {
+        this.path = path;
+        this.durabilityPolicy = durabilityPolicy;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        init();
+        recover();
+        this.writer = Thread.ofPlatform().name("rental-journal-writer").daemon().start(this::writeLoop);
+    }
+
+    private void init() {
+        dateUtil = new DateUtil();
+    }
+
+    /**
+     * Queue a completed rental agreement to be appended, waiting for room if the writer has fallen behind.
+     *
+     * @param rentalAgreement RentalAgreement - the completed rental agreement, which must not be changed afterwards.
+     * @return CompletableFuture - completed with the sequence number of the record once it has been written, and
+     * forced if the durability policy forces every record.
+     * @throws InterruptedException - if interrupted while waiting for room.
+     */
+    public CompletableFuture<Long> append(RentalAgreement rentalAgreement) throws InterruptedException {
+        return append(JournalRecordType.CHECKOUT, rentalAgreement);
+    }
+
+    /**
+     * Queue the check-in of a rental agreement to be appended, waiting for room if the writer has fallen behind.
+     *
+     * @param rentalAgreement RentalAgreement - the checked in rental agreement, with its return date and late fee, which
+     *                        must not be changed afterwards.
+     * @return CompletableFuture - completed with the sequence number of the record once it has been written, and
+     * forced if the durability policy forces every record.
+     * @throws InterruptedException - if interrupted while waiting for room.
+     */
+    public CompletableFuture<Long> appendCheckin(RentalAgreement rentalAgreement) throws InterruptedException {
+        return append(JournalRecordType.CHECKIN, rentalAgreement);
+    }
+
+    private CompletableFuture<Long> append(JournalRecordType type, RentalAgreement rentalAgreement) throws InterruptedException {
+        PendingAppend append = new PendingAppend(type, rentalAgreement, new CompletableFuture<>());
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("The rental journal has been closed.");
+            }
+            queue.put(append);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        return append.appended;
+    }
+
+    /**
+     * @return long - the number of records written, which is also the sequence number of the next record.
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Read a range of the records written so far, in sequence order.
+     *
+     * @param fromSequence long - the sequence number of the first record to read.
+     * @param toSequence   long - the sequence number after the last record to read, at most {@link #getRecordCount()}.
+     * @param consumer     Consumer - called with each record.
+     * @throws IOException - if the file cannot be read.
+     */
+    public void read(long fromSequence, long toSequence, Consumer<JournalRecord> consumer) throws IOException {
+        if (fromSequence < 0 || toSequence > recordCount || fromSequence > toSequence) {
+            throw new IndexOutOfBoundsException("Records " + fromSequence + " - " + toSequence + " are not in the journal.");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(JournalRecord.SIZE * 1_024);
+        long sequence = fromSequence;
+        while (sequence < toSequence) {
+            int records = (int) Math.min(toSequence - sequence, 1_024);
+            buffer.clear().limit(records * JournalRecord.SIZE);
+            long position = sequence * JournalRecord.SIZE;
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Journal " + path + " ended before record " + (sequence + buffer.position() / JournalRecord.SIZE) + ".");
+                }
+            }
+            for (int i = 0; i < records; i++) {
+                consumer.accept(JournalRecord.decode(buffer, i * JournalRecord.SIZE));
+            }
+            sequence += records;
+        }
+    }
+
+    /**
+     * Stop accepting agreements, write and force everything already queued, and close the file.
+     *
+     * @throws IOException - if the file cannot be closed.
+     * @throws InterruptedException - if interrupted while waiting for queued agreements to be written.
+     */
+    public void close() throws IOException, InterruptedException {
+        closeLock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.put(CLOSE);
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        writer.join();
+        channel.close();
+    }
+
+    private void recover() throws IOException {
+        long regions = (channel.size() + REGION_SIZE - 1) / REGION_SIZE;
+        long sequence = 0;
+        for (long index = 0; index < Math.max(regions, 1); index++) {
+            mapRegion(index);
+            int offset = 0;
+            while (offset < REGION_SIZE && JournalRecord.isValid(region, offset, sequence)) {
+                offset += JournalRecord.SIZE;
+                sequence++;
+            }
+            if (offset < REGION_SIZE) {
+                break;
+            }
+        }
+        clearTail(sequence, regions);
+        nextSequence = sequence;
+        recordCount = sequence;
+        lastForceNanos = System.nanoTime();
+    }
+
+    private void clearTail(long sequence, long regions) throws IOException {
+        // pages reach the device in any order, so intact records can follow a gap of any length of torn or missing
+        // ones. Every record after the last intact one is cleared up to the end of the file, as it would otherwise be
+        // mistaken for a record written after recovery once appends fill the gap
+        long firstRegion = sequence / RECORDS_PER_REGION;
+        for (long index = firstRegion; index < regions; index++) {
+            if (index != regionIndex) {
+                mapRegion(index);
+            }
+            boolean cleared = false;
+            for (int record = index == firstRegion ? (int) (sequence % RECORDS_PER_REGION) : 0; record < RECORDS_PER_REGION; record++) {
+                int offset = record * JournalRecord.SIZE;
+                // a record without its magic can never be read as intact, so only records with one are cleared
+                if (region.getInt(offset) != 0) {
+                    region.put(offset, EMPTY_RECORD);
+                    cleared = true;
+                }
+            }
+            if (cleared) {
+                region.force();
+            }
+        }
+        if (firstRegion != regionIndex && firstRegion < regions) {
+            mapRegion(firstRegion);
+        }
+    }
+
+    private void mapRegion(long index) throws IOException {
+        // mapping past the end of the file grows it, with the new region zeroed
+        region = channel.map(FileChannel.MapMode.READ_WRITE, index * REGION_SIZE, REGION_SIZE);
+        regionIndex = index;
+    }
+
+    private void writeLoop() {
+        List<PendingAppend> batch = new ArrayList<>(MAX_BATCH);
+        List<PendingAppend> written = new ArrayList<>(MAX_BATCH);
+        boolean closing = false;
+        while (!closing) {
+            try {
+                PendingAppend first = unforced && !durabilityPolicy.isOsManaged()
+                        ? queue.poll(Math.max(0, lastForceNanos + durabilityPolicy.getIntervalNanos() - System.nanoTime()), TimeUnit.NANOSECONDS)
+                        : queue.take();
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                }
+            } catch (InterruptedException e) {
+                // the writer only stops once it reaches the close marker
+                continue;
+            }
+
+            for (PendingAppend append : batch) {
+                if (append == CLOSE) {
+                    closing = true;
+                } else if (write(append)) {
+                    written.add(append);
+                }
+            }
+            batch.clear();
+            recordCount = nextSequence;
+
+            if (!durabilityPolicy.isEveryRecord()) {
+                // the records are in the mapped file, which is all these policies promise
+                complete(written);
+            }
+            if (unforced && (closing || !durabilityPolicy.isOsManaged() && System.nanoTime() - lastForceNanos >= durabilityPolicy.getIntervalNanos())) {
+                try {
+                    force();
+                } catch (RuntimeException e) {
+                    fail(written, e);
+                }
+            }
+            complete(written);
+        }
+    }
+
+    private boolean write(PendingAppend append) {
+        try {
+            RentalAgreement rentalAgreement = append.rentalAgreement;
+            recordBuffer.clear();
+            long returnEpochDay = append.type == JournalRecordType.CHECKIN ? dateUtil.toEpochDay(rentalAgreement.getReturnDate()) : 0;
+            JournalRecord.encode(nextSequence, append.type, rentalAgreement, dateUtil.toEpochDay(rentalAgreement.getCheckoutDate()),
+                    dateUtil.toEpochDay(rentalAgreement.getDueDate()), returnEpochDay, recordBuffer);
+            int offset = (int) (nextSequence % RECORDS_PER_REGION) * JournalRecord.SIZE;
+            if (offset == 0 && nextSequence / RECORDS_PER_REGION != regionIndex) {
+                if (unforced && !durabilityPolicy.isOsManaged()) {
+                    force();
+                }
+                mapRegion(nextSequence / RECORDS_PER_REGION);
+            }
+            region.put(offset, recordBuffer, 0, JournalRecord.SIZE);
+            append.sequence = nextSequence++;
+            unforced = true;
+            return true;
+        } catch (Exception e) {
+            append.appended.completeExceptionally(e);
+            return false;
+        }
+    }
+
+    private void force() {
+        region.force();
+        unforced = false;
+        lastForceNanos = System.nanoTime();
+    }
+
+    private static void complete(List<PendingAppend> written) {
+        for (PendingAppend append : written) {
+            append.appended.complete(append.sequence);
+        }
+        written.clear();
+    }
+
+    private static void fail(List<PendingAppend> written, RuntimeException e) {
+        for (PendingAppend append : written) {
+            append.appended.completeExceptionally(e);
+        }
+        written.clear();
+    }
+
+    /**
+     * A checkout or check-in waiting to be written and the future to complete once it has been.
+     */
+    private static class PendingAppend {
+
+        private final JournalRecordType type;
+        private final RentalAgreement rentalAgreement;
+        private final CompletableFuture<Long> appended;
+        private long sequence;
+
+        private PendingAppend(JournalRecordType type, RentalAgreement rentalAgreement, CompletableFuture<Long> appended) {
+            this.type = type;
+            this.rentalAgreement = rentalAgreement;
+            this.appended = appended;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.toolrentals.pos.business.journal;
+
+import com.toolrentals.pos.business.inventory.ToolInventory;
+import com.toolrentals.pos.common.enums.JournalRecordType;
+import com.toolrentals.pos.common.enums.ToolCode;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The state derived from every journaled checkout and check-in: per tool code, how many agreements there were, the
+ * revenue they brought in and how many of them have been returned. Every figure is a sum over the records, so states
+ * built from different parts of the journal can be merged in any order.
+ */
+public class RentalState {
+
+    private final Map<String, ToolState> tools = new HashMap<>();
+    private long appliedRecords;
+
+    /**
+     * Add a journal record to the state.
+     *
+     * @param record JournalRecord - the record to add.
+     */
+    public void apply(JournalRecord record) {
+        ToolState tool = tools.get(record.getToolCode());
+        if (tool == null) {
+            tool = new ToolState();
+            tools.put(record.getToolCode(), tool);
+        }
+        if (record.getType() == JournalRecordType.CHECKIN) {
+            tool.returns++;
+            tool.lateFeeCents += record.getLateFeeCents();
+            return;
+        }
+        tool.agreements++;
+        tool.rentalDays += record.getRentalDays();
+        tool.chargeableDays += record.getNumberChargeableDays();
+        tool.subtotalCents += record.getSubtotalCents();
+        tool.discountCents += record.getDiscountCents();
+        tool.totalCents += record.getTotalCents();
+    }
+
+    /**
+     * Add the figures of another state to this one.
+     *
+     * @param other RentalState - the state to add, which is left unchanged.
+     */
+    public void merge(RentalState other) {
+        for (Map.Entry<String, ToolState> entry : other.tools.entrySet()) {
+            ToolState tool = tools.get(entry.getKey());
+            if (tool == null) {
+                tool = new ToolState();
+                tools.put(entry.getKey(), tool);
+            }
+            tool.merge(entry.getValue());
+        }
+    }
+
+    /**
+     * @return long - the number of journal records the state covers, which is the sequence number of the first record
+     * still to be applied.
+     */
+    public long getAppliedRecords() {
+        return appliedRecords;
+    }
+
+    public void setAppliedRecords(long appliedRecords) {
+        this.appliedRecords = appliedRecords;
+    }
+
+    /**
+     * @return Set - the codes of every tool that has been rented.
+     */
+    public Set<String> getToolCodes() {
+        return Collections.unmodifiableSet(tools.keySet());
+    }
+
+    /**
+     * @param toolCode String - the code of the tool.
+     * @return ToolState - the figures of the tool, or null if it has never been rented.
+     */
+    public ToolState getToolState(String toolCode) {
+        return tools.get(toolCode);
+    }
+
+    void putToolState(String toolCode, ToolState tool) {
+        tools.put(toolCode, tool);
+    }
+
+    /**
+     * @return long - the total charged for every rental, after discounts, in cents.
+     */
+    public long getTotalRevenueCents() {
+        long total = 0;
+        for (ToolState tool : tools.values()) {
+            total += tool.totalCents;
+        }
+        return total;
+    }
+
+    /**
+     * @param toolCode String - the code of the tool.
+     * @return long - the number of rentals of the tool checked out and not yet checked in, however overdue.
+     */
+    public long getOpenRentals(String toolCode) {
+        ToolState tool = tools.get(toolCode);
+        return tool == null ? 0 : tool.agreements - tool.returns;
+    }
+
+    /**
+     * Reserve a unit in the inventory for every rental not yet checked in, e.g. after a restart.
+     *
+     * @param toolInventory ToolInventory - the inventory to reserve units in.
+     * @return long - the number of open rentals for which no unit was left to reserve.
+     */
+    public long restoreInventory(ToolInventory toolInventory) {
+        long unreserved = 0;
+        for (ToolCode toolCode : ToolCode.values()) {
+            long open = getOpenRentals(toolCode.name());
+            for (long i = 0; i < open; i++) {
+                if (!toolInventory.tryReserve(toolCode)) {
+                    unreserved++;
+                }
+            }
+        }
+        return unreserved;
+    }
+
+    /**
+     * The figures of the rentals of one tool.
+     */
+    public static class ToolState {
+
+        private long agreements;
+        private long rentalDays;
+        private long chargeableDays;
+        private long subtotalCents;
+        private long discountCents;
+        private long totalCents;
+        private long returns;
+        private long lateFeeCents;
+
+        ToolState() {
+        }
+
+        ToolState(long agreements, long rentalDays, long chargeableDays, long subtotalCents, long discountCents, long totalCents, long returns, long lateFeeCents) {
+            this.agreements = agreements;
+            this.rentalDays = rentalDays;
+            this.chargeableDays = chargeableDays;
+            this.subtotalCents = subtotalCents;
+            this.discountCents = discountCents;
+            this.totalCents = totalCents;
+            this.returns = returns;
+            this.lateFeeCents = lateFeeCents;
+        }
+
+        public long getAgreements() {
+            return agreements;
+        }
+
+        public long getRentalDays() {
+            return rentalDays;
+        }
+
+        public long getChargeableDays() {
+            return chargeableDays;
+        }
+
+        public long getSubtotalCents() {
+            return subtotalCents;
+        }
+
+        public long getDiscountCents() {
+            return discountCents;
+        }
+
+        public long getTotalCents() {
+            return totalCents;
+        }
+
+        /**
+         * @return long - the number of rentals checked in.
+         */
+        public long getReturns() {
+            return returns;
+        }
+
+        /**
+         * @return long - the late fees charged at check-in, in cents, which are not part of the total.
+         */
+        public long getLateFeeCents() {
+            return lateFeeCents;
+        }
+
+        private void merge(ToolState other) {
+            agreements += other.agreements;
+            rentalDays += other.rentalDays;
+            chargeableDays += other.chargeableDays;
+            subtotalCents += other.subtotalCents;
+            discountCents += other.discountCents;
+            totalCents += other.totalCents;
+            returns += other.returns;
+            lateFeeCents += other.lateFeeCents;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.toolrentals.pos.business.journal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Keeps compact snapshots of the {@link RentalState} in a directory, so a restart only replays the journal records
+ * written since the latest snapshot. Replay splits those records into ranges read and applied in parallel, and merges
+ * the partial states per tool code.
+ */
+public class RentalStateStore {
+
+    public static final int DEFAULT_REPLAY_CHUNK = 262_144;
+
+    private static final int MAGIC = 0x52535331;
+    private static final int VERSION = 2;
+    private static final String PREFIX = "rental-state-";
+    private static final String SUFFIX = ".snapshot";
+    private static final int SNAPSHOTS_KEPT = 2;
+
+    private final Path directory;
+    private final ForkJoinPool pool;
+    private final int replayChunk;
+
+    /**
+     * Create a store replaying on the common fork/join pool.
+     *
+     * @param directory Path - the directory holding the snapshots.
+     */
+    public RentalStateStore(Path directory) {
+        this(directory, ForkJoinPool.commonPool(), DEFAULT_REPLAY_CHUNK);
+    }
+
+    /**
+     * @param directory   Path - the directory holding the snapshots.
+     * @param pool        ForkJoinPool - the pool to replay on.
+     * @param replayChunk int - the number of records each replay task reads.
+     */
+    public RentalStateStore(Path directory, ForkJoinPool pool, int replayChunk) {
+        if (replayChunk < 1) {
+            throw new IllegalArgumentException("The replay chunk must be at least 1 record.");
+        }
+        this.directory = directory;
+        this.pool = pool;
+        this.replayChunk = replayChunk;
+    }
+
+    /**
+     * Rebuild the state after a restart from the latest snapshot and the journal records written after it.
+     *
+     * @param journal RentalJournal - the journal of every rental agreement.
+     * @return RentalState - the state covering every record in the journal.
+     * @throws IOException - if the snapshots or the journal cannot be read.
+     */
+    public RentalState recover(RentalJournal journal) throws IOException {
+        RentalState state = loadLatest();
+        if (state.getAppliedRecords() > journal.getRecordCount()) {
+            // the journal lost records the snapshot covered, so it cannot be trusted
+            state = new RentalState();
+        }
+        replay(state, journal, journal.getRecordCount());
+        return state;
+    }
+
+    /**
+     * Bring the latest snapshot up to date with the journal and save it, e.g. periodically so restarts stay fast.
+     *
+     * @param journal RentalJournal - the journal of every rental agreement.
+     * @return RentalState - the state that was saved.
+     * @throws IOException - if the snapshots or the journal cannot be read, or the snapshot cannot be written.
+     */
+    public RentalState checkpoint(RentalJournal journal) throws IOException {
+        RentalState state = recover(journal);
+        save(state);
+        return state;
+    }
+
+    /**
+     * Apply journal records to a state, reading and applying ranges of records in parallel.
+     *
+     * @param state      RentalState - the state to bring up to date, from its applied records on.
+     * @param journal    RentalJournal - the journal to read.
+     * @param toSequence long - the sequence number after the last record to apply.
+     * @throws IOException - if the journal cannot be read.
+     */
+    public void replay(RentalState state, RentalJournal journal, long toSequence) throws IOException {
+        long fromSequence = state.getAppliedRecords();
+        List<ForkJoinTask<RentalState>> tasks = new ArrayList<>();
+        for (long start = fromSequence; start < toSequence; start += replayChunk) {
+            long from = start;
+            long to = Math.min(toSequence, start + replayChunk);
+            tasks.add(pool.submit(() -> {
+                RentalState partial = new RentalState();
+                try {
+                    journal.read(from, to, partial::apply);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return partial;
+            }));
+        }
+        try {
+            for (ForkJoinTask<RentalState> task : tasks) {
+                state.merge(task.join());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        state.setAppliedRecords(Math.max(fromSequence, toSequence));
+    }
+
+    /**
+     * Save a snapshot of a state, replacing older snapshots.
+     *
+     * @param state RentalState - the state to save.
+     * @return Path - the snapshot file.
+     * @throws IOException - if the snapshot cannot be written.
+     */
+    public Path save(RentalState state) throws IOException {
+        Files.createDirectories(directory);
+        Path snapshot = directory.resolve(String.format("%s%020d%s", PREFIX, state.getAppliedRecords(), SUFFIX));
+        Path temporary = directory.resolve(snapshot.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile())) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file), new CRC32C());
+            DataOutputStream out = new DataOutputStream(checked);
+            write(state, out);
+            out.flush();
+            long crc = checked.getChecksum().getValue();
+            out.writeLong(crc);
+            out.flush();
+            file.getFD().sync();
+        }
+        // a snapshot only appears under its name once it is complete
+        Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        List<Path> snapshots = listSnapshots();
+        for (int i = SNAPSHOTS_KEPT; i < snapshots.size(); i++) {
+            Files.deleteIfExists(snapshots.get(i));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Load the latest intact snapshot, skipping any that are damaged.
+     *
+     * @return RentalState - the state of the latest snapshot, or an empty state if there is none.
+     * @throws IOException - if the snapshot directory cannot be read.
+     */
+    public RentalState loadLatest() throws IOException {
+        for (Path snapshot : listSnapshots()) {
+            try (InputStream file = Files.newInputStream(snapshot)) {
+                CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(file), new CRC32C());
+                DataInputStream in = new DataInputStream(checked);
+                RentalState state = read(in);
+                long crc = checked.getChecksum().getValue();
+                if (in.readLong() == crc) {
+                    return state;
+                }
+            } catch (IOException | RuntimeException e) {
+                // a damaged snapshot is skipped in favour of an older one
+            }
+        }
+        return new RentalState();
+    }
+
+    private List<Path> listSnapshots() throws IOException {
+        List<Path> snapshots = new ArrayList<>();
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+                files.forEach(snapshots::add);
+            }
+        }
+        // the zero padded record count in the name sorts the newest first
+        snapshots.sort(Comparator.comparing((Path path) -> path.getFileName().toString()).reversed());
+        return snapshots;
+    }
+
+    private static void write(RentalState state, DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(state.getAppliedRecords());
+        out.writeInt(state.getToolCodes().size());
+        for (String toolCode : state.getToolCodes()) {
+            RentalState.ToolState tool = state.getToolState(toolCode);
+            out.writeUTF(toolCode);
+            out.writeLong(tool.getAgreements());
+            out.writeLong(tool.getRentalDays());
+            out.writeLong(tool.getChargeableDays());
+            out.writeLong(tool.getSubtotalCents());
+            out.writeLong(tool.getDiscountCents());
+            out.writeLong(tool.getTotalCents());
+            out.writeLong(tool.getReturns());
+            out.writeLong(tool.getLateFeeCents());
+        }
+    }
+
+    private static RentalState read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a rental state snapshot.");
+        }
+        RentalState state = new RentalState();
+        state.setAppliedRecords(in.readLong());
+        int tools = in.readInt();
+        for (int t = 0; t < tools; t++) {
+            String toolCode = in.readUTF();
+            long agreements = in.readLong();
+            long rentalDays = in.readLong();
+            long chargeableDays = in.readLong();
+            long subtotalCents = in.readLong();
+            long discountCents = in.readLong();
+            long totalCents = in.readLong();
+            long returns = in.readLong();
+            long lateFeeCents = in.readLong();
+            state.putToolState(toolCode, new RentalState.ToolState(agreements, rentalDays, chargeableDays, subtotalCents,
+                    discountCents, totalCents, returns, lateFeeCents));
+        }
+        return state;
+    }
+}
@@ -0,0 +1,173 @@
+package com.toolrentals.pos.business.receipt;
+
+import com.toolrentals.pos.common.model.RentalAgreement;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prints receipts off the checkout thread. Completed rental agreements are put on a bounded queue that is drained by
+ * virtual threads, which render each receipt and write it to the sink. A full queue blocks the caller until a printer
+ * catches up, so a slow printer slows checkouts down instead of letting receipts pile up in memory.
+ * <p>
+ * With a single printer thread receipts are written in the order they were queued. With more, the sink must accept
+ * writes from several threads at once.
+ */
+public class AsyncReceiptPrinter implements AutoCloseable {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1_024;
+
+    // marks the end of the queue for one printer thread
+    private static final PrintJob END = new PrintJob(null, null);
+
+    private final ReceiptRenderer receiptRenderer;
+    private final ReceiptSink receiptSink;
+    private final BlockingQueue<PrintJob> queue;
+    private final Thread[] printers;
+    // print holds the read lock while queueing, so close cannot queue the end markers ahead of a receipt
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private boolean closed;
+
+    /**
+     * Create a printer with one printer thread and the default queue capacity.
+     */
+    public AsyncReceiptPrinter(ReceiptRenderer receiptRenderer, ReceiptSink receiptSink) {
+        this(receiptRenderer, receiptSink, DEFAULT_QUEUE_CAPACITY, 1);
+    }
+
+    /**
+     * @param receiptRenderer ReceiptRenderer - renders the receipts.
+     * @param receiptSink     ReceiptSink - where the receipts are written.
+     * @param queueCapacity   int - the most receipts waiting to be printed before callers are blocked.
+     * @param printerThreads  int - the number of virtual threads printing receipts.
+     */
+    public AsyncReceiptPrinter(ReceiptRenderer receiptRenderer, ReceiptSink receiptSink, int queueCapacity, int printerThreads) {
+        if (queueCapacity < 1 || printerThreads < 1) {
+            throw new IllegalArgumentException("Queue capacity and printer threads must be at least 1.");
+        }
+        this.receiptRenderer = receiptRenderer;
+        this.receiptSink = receiptSink;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.printers = new Thread[printerThreads];
+        for (int i = 0; i < printerThreads; i++) {
+            printers[i] = Thread.ofVirtual().name("receipt-printer-" + i).start(this::drain);
+        }
+    }
+
+    /**
+     * Queue the receipt of a completed rental agreement to be printed, waiting for room in the queue if it is full.
+     * The agreement must not be changed once it is queued.
+     *
+     * @param rentalAgreement RentalAgreement - the completed rental agreement.
+     * @return CompletableFuture - completed once the receipt has been written, or exceptionally if writing failed.
+     * @throws InterruptedException - if interrupted while waiting for room in the queue.
+     */
+    public CompletableFuture<Void> print(RentalAgreement rentalAgreement) throws InterruptedException {
+        PrintJob job = new PrintJob(rentalAgreement, new CompletableFuture<>());
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("The receipt printer has been closed.");
+            }
+            queue.put(job);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        return job.delivered;
+    }
+
+    /**
+     * @return int - the number of receipts waiting to be printed.
+     */
+    public int getQueuedReceipts() {
+        int queued = 0;
+        for (PrintJob job : queue) {
+            if (job != END) {
+                queued++;
+            }
+        }
+        return queued;
+    }
+
+    /**
+     * Stop accepting receipts and wait until every receipt already queued has been printed.
+     *
+     * @throws InterruptedException - if interrupted while waiting for the queued receipts.
+     */
+    public void close() throws InterruptedException {
+        stopAccepting();
+        for (Thread printer : printers) {
+            printer.join();
+        }
+    }
+
+    /**
+     * Close the printer, waiting at most the supplied time for queued receipts to be printed.
+     *
+     * @param timeout Duration - the longest time to wait.
+     * @return boolean - true if every queued receipt was printed in time.
+     * @throws InterruptedException - if interrupted while waiting for the queued receipts.
+     */
+    public boolean close(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        stopAccepting();
+        for (Thread printer : printers) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !printer.join(Duration.ofNanos(remaining))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void stopAccepting() throws InterruptedException {
+        closeLock.writeLock().lock();
+        try {
+            if (!closed) {
+                closed = true;
+                // queued behind every receipt, and the printers keep draining while the markers wait for room
+                for (int i = 0; i < printers.length; i++) {
+                    queue.put(END);
+                }
+            }
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            PrintJob job;
+            try {
+                job = queue.take();
+            } catch (InterruptedException e) {
+                // printers only stop once they reach their end marker
+                continue;
+            }
+            if (job == END) {
+                return;
+            }
+            try {
+                receiptRenderer.print(job.rentalAgreement, receiptSink);
+                job.delivered.complete(null);
+            } catch (Throwable e) {
+                job.delivered.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static class PrintJob {
+
+        private final RentalAgreement rentalAgreement;
+        private final CompletableFuture<Void> delivered;
+
+        private PrintJob(RentalAgreement rentalAgreement, CompletableFuture<Void> delivered) {
+            this.rentalAgreement = rentalAgreement;
+            this.delivered = delivered;
+        }
+    }
+}
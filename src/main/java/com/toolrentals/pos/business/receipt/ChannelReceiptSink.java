@@ -0,0 +1,23 @@
+package com.toolrentals.pos.business.receipt;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes receipts to a channel, e.g. a {@link java.nio.channels.FileChannel} opened for appending.
+ */
+public class ChannelReceiptSink implements ReceiptSink {
+
+    private final WritableByteChannel channel;
+
+    public ChannelReceiptSink(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    public void write(ByteBuffer receipt) throws IOException {
+        while (receipt.hasRemaining()) {
+            channel.write(receipt);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.toolrentals.pos.business.receipt;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps receipts in memory, decoded to text, e.g. to check them in tests.
+ */
+public class CollectingReceiptSink implements ReceiptSink {
+
+    private final Charset charset;
+    private final List<String> receipts = new ArrayList<>();
+
+    public CollectingReceiptSink(Charset charset) {
+        this.charset = charset;
+    }
+
+    public synchronized void write(ByteBuffer receipt) {
+        receipts.add(charset.decode(receipt).toString());
+    }
+
+    /**
+     * @return List - a copy of the receipts written so far, in the order they were written.
+     */
+    public synchronized List<String> getReceipts() {
+        return new ArrayList<>(receipts);
+    }
+}
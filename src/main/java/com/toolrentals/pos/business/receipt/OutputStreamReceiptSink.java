@@ -0,0 +1,29 @@
+package com.toolrentals.pos.business.receipt;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes receipts to an output stream, e.g. {@code System.out}, flushing after each receipt.
+ */
+public class OutputStreamReceiptSink implements ReceiptSink {
+
+    private final OutputStream out;
+
+    public OutputStreamReceiptSink(OutputStream out) {
+        this.out = out;
+    }
+
+    public void write(ByteBuffer receipt) throws IOException {
+        // one write per receipt, so receipts of concurrent checkouts are not interleaved on a PrintStream
+        if (receipt.hasArray()) {
+            out.write(receipt.array(), receipt.arrayOffset() + receipt.position(), receipt.remaining());
+        } else {
+            byte[] bytes = new byte[receipt.remaining()];
+            receipt.get(bytes);
+            out.write(bytes);
+        }
+        out.flush();
+    }
+}
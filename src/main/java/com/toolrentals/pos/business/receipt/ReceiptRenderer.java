@@ -0,0 +1,224 @@
+package com.toolrentals.pos.business.receipt;
+
+import com.toolrentals.pos.business.util.DateUtil;
+import com.toolrentals.pos.common.model.CatalogTool;
+import com.toolrentals.pos.common.model.RentalAgreement;
+import com.toolrentals.pos.common.model.Tool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Renders the receipt of a rental agreement into a reusable buffer and hands it to a {@link ReceiptSink} in a single
+ * write. The buffers are pooled rather than kept per thread, so a new virtual thread per request reuses them too, and
+ * no more than {@link #POOLED_BUFFERS} are kept. The text is the same, byte for byte, as printing the receipt with {@code printf} in the locale of
+ * the renderer, but money, counts and dates are formatted by hand instead of parsing format strings.
+ */
+public class ReceiptRenderer {
+
+    public static final int POOLED_BUFFERS = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+
+    private static final String TOOL_CODE = "Tool code: ";
+    private static final String TOOL_TYPE = "Tool type: ";
+    private static final String TOOL_BRAND = "Tool brand: ";
+    private static final String RENTAL_DAYS = "Rental days: ";
+    private static final String CHECKOUT_DATE = "Checkout date: ";
+    private static final String DUE_DATE = "Due date: ";
+    private static final String DAILY_CHARGE = "Daily rental charge: $";
+    private static final String CHARGE_DAYS = "Charge days: ";
+    private static final String SUBTOTAL = "Pre-discount charge: $";
+    private static final String DISCOUNT_PERCENT = "Discount percent: ";
+    private static final String DISCOUNT = "Discount amount: $";
+    private static final String TOTAL = "Final charge: $";
+
+    private final Charset charset;
+    private final String lineSeparator;
+    private final char zeroDigit;
+    private final char groupingSeparator;
+    private final int groupingSize;
+    private final char decimalSeparator;
+    private final char minusSign;
+    private final BlockingQueue<ReceiptBuffer> buffers;
+    private DateUtil dateUtil;
+
+    /**
+     * Create a renderer for {@code System.out}, in its charset and the default format locale.
+     */
+    public ReceiptRenderer() {
+        this(System.out.charset(), Locale.getDefault(Locale.Category.FORMAT));
+    }
+
+    /**
+     * @param charset Charset - the charset to encode receipts in.
+     * @param locale  Locale - the locale whose digits and separators are used, as printf would.
+     */
+    public ReceiptRenderer(Charset charset, Locale locale) {
+        this.charset = charset;
+        this.lineSeparator = System.lineSeparator();
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        this.zeroDigit = symbols.getZeroDigit();
+        this.groupingSeparator = symbols.getGroupingSeparator();
+        this.decimalSeparator = symbols.getDecimalSeparator();
+        this.minusSign = symbols.getMinusSign();
+        NumberFormat integerFormat = NumberFormat.getIntegerInstance(locale);
+        if (integerFormat instanceof DecimalFormat decimalFormat) {
+            this.groupingSize = decimalFormat.isGroupingUsed() ? decimalFormat.getGroupingSize() : 0;
+        } else {
+            this.groupingSize = 3;
+        }
+        this.buffers = new ArrayBlockingQueue<>(POOLED_BUFFERS);
+        init();
+    }
+
+    private void init() {
+        dateUtil = new DateUtil();
+    }
+
+    /**
+     * Render the receipt of a rental agreement and write it to a sink.
+     *
+     * @param rentalAgreement RentalAgreement - the completed rental agreement.
+     * @param sink            ReceiptSink - where to write the receipt.
+     * @throws IOException - if the sink cannot write the receipt.
+     */
+    public void print(RentalAgreement rentalAgreement, ReceiptSink sink) throws IOException {
+        // more threads printing at once than there are pooled buffers get buffers of their own
+        ReceiptBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            buffer = new ReceiptBuffer(charset);
+        }
+        try {
+            buffer.text.setLength(0);
+            render(rentalAgreement, buffer.text);
+            sink.write(buffer.encode());
+        } finally {
+            // returned once the sink is done with its bytes, and dropped if the pool is already full
+            buffers.offer(buffer);
+        }
+    }
+
+    /**
+     * @return int - the number of buffers waiting in the pool to be reused.
+     */
+    int getPooledBuffers() {
+        return buffers.size();
+    }
+
+    /**
+     * Render the receipt of a rental agreement as text.
+     *
+     * @param rentalAgreement RentalAgreement - the completed rental agreement.
+     * @param out             StringBuilder - the builder to append the receipt to.
+     */
+    public void render(RentalAgreement rentalAgreement, StringBuilder out) {
+        Tool tool = rentalAgreement.getTool();
+        // catalog tools loaded from a file may have a SKU but no tool code
+        String toolCode = tool instanceof CatalogTool catalogTool ? catalogTool.getCode() : String.valueOf(tool.getToolCode());
+        out.append(TOOL_CODE).append(toolCode).append(lineSeparator);
+        out.append(TOOL_TYPE).append(tool.getToolType()).append(lineSeparator);
+        out.append(TOOL_BRAND).append(tool.getBrand()).append(lineSeparator);
+        appendNumber(out.append(RENTAL_DAYS), rentalAgreement.getRentalDays(), true).append(lineSeparator);
+        appendDate(out.append(CHECKOUT_DATE), dateUtil.toEpochDay(rentalAgreement.getCheckoutDate())).append(lineSeparator);
+        appendDate(out.append(DUE_DATE), dateUtil.toEpochDay(rentalAgreement.getDueDate())).append(lineSeparator);
+        appendMoney(out.append(DAILY_CHARGE), tool.getDailyChargeCents()).append(lineSeparator);
+        appendNumber(out.append(CHARGE_DAYS), rentalAgreement.getNumberChargeableDays(), false).append(lineSeparator);
+        appendMoney(out.append(SUBTOTAL), rentalAgreement.getSubtotalCents()).append(lineSeparator);
+        appendNumber(out.append(DISCOUNT_PERCENT), rentalAgreement.getPercentDiscount(), false).append('%').append(lineSeparator);
+        appendMoney(out.append(DISCOUNT), rentalAgreement.getDiscountCents()).append(lineSeparator);
+        appendMoney(out.append(TOTAL), rentalAgreement.getTotalCents()).append(lineSeparator);
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    private StringBuilder appendMoney(StringBuilder out, long cents) {
+        if (cents < 0) {
+            out.append(minusSign);
+        }
+        long magnitude = Math.abs(cents);
+        appendDigits(out, magnitude / 100, true);
+        out.append(decimalSeparator);
+        long fraction = magnitude % 100;
+        return out.append((char) (zeroDigit + fraction / 10)).append((char) (zeroDigit + fraction % 10));
+    }
+
+    private StringBuilder appendNumber(StringBuilder out, long value, boolean grouped) {
+        if (value < 0) {
+            out.append(minusSign);
+        }
+        return appendDigits(out, Math.abs(value), grouped);
+    }
+
+    private StringBuilder appendDigits(StringBuilder out, long value, boolean grouped) {
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        int separators = grouped && groupingSize > 0 ? (digits - 1) / groupingSize : 0;
+        // size the number up front, then fill it in from its last digit
+        int position = out.length() + digits + separators;
+        out.setLength(position);
+        for (int digit = 0; digit < digits; digit++) {
+            if (separators > 0 && digit > 0 && digit % groupingSize == 0) {
+                out.setCharAt(--position, groupingSeparator);
+            }
+            out.setCharAt(--position, (char) (zeroDigit + value % 10));
+            value /= 10;
+        }
+        return out;
+    }
+
+    private StringBuilder appendDate(StringBuilder out, long epochDay) {
+        // MM/dd/yy, as DateUtil.formatDateMMDDYY
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        appendTwoDigits(out, date.getMonthValue()).append('/');
+        appendTwoDigits(out, date.getDayOfMonth()).append('/');
+        return appendTwoDigits(out, date.getYear() % 100);
+    }
+
+    private StringBuilder appendTwoDigits(StringBuilder out, int value) {
+        return out.append((char) (zeroDigit + value / 10)).append((char) (zeroDigit + value % 10));
+    }
+
+    /**
+     * The reusable text and byte buffers of one receipt being printed.
+     */
+    private static class ReceiptBuffer {
+
+        private final StringBuilder text = new StringBuilder(512);
+        private final CharsetEncoder encoder;
+        private ByteBuffer bytes = ByteBuffer.allocate(512);
+
+        private ReceiptBuffer(Charset charset) {
+            encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+
+        private ByteBuffer encode() {
+            while (true) {
+                encoder.reset();
+                bytes.clear();
+                CoderResult result = encoder.encode(CharBuffer.wrap(text), bytes, true);
+                if (!result.isOverflow()) {
+                    result = encoder.flush(bytes);
+                }
+                if (!result.isOverflow()) {
+                    return bytes.flip();
+                }
+                bytes = ByteBuffer.allocate(bytes.capacity() * 2);
+            }
+        }
+    }
+}
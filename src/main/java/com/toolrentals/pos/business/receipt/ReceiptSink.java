@@ -0,0 +1,19 @@
+package com.toolrentals.pos.business.receipt;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Destination of rendered rental agreement receipts. Each receipt is handed over in a single write.
+ */
+public interface ReceiptSink {
+
+    /**
+     * Write a complete receipt.
+     *
+     * @param receipt ByteBuffer - the encoded receipt, from its position to its limit. The buffer is reused once the
+     *                write returns, so it must not be kept.
+     * @throws IOException - if the receipt cannot be written.
+     */
+    public void write(ByteBuffer receipt) throws IOException;
+}
@@ -0,0 +1,14 @@
+package com.toolrentals.pos.business.scheduler;
+
+/**
+ * Notified when a scheduled rental event is due, e.g. to send the customer a reminder.
+ */
+public interface RentalEventListener {
+
+    /**
+     * Handle an event that is due. Called on a virtual thread, possibly for several events at once.
+     *
+     * @param event ScheduledEvent - the event that is due.
+     */
+    void onEvent(ScheduledEvent event);
+}
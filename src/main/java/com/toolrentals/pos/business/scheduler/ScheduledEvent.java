@@ -0,0 +1,79 @@
+package com.toolrentals.pos.business.scheduler;
+
+import com.toolrentals.pos.common.enums.RentalEvent;
+import com.toolrentals.pos.common.model.RentalAgreement;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A rental event scheduled on a {@link TimingWheelScheduler}, which doubles as the handle to cancel it. The event is
+ * also the node linking it into its slot of the wheel, so scheduling allocates nothing else.
+ */
+public class ScheduledEvent {
+
+    static final int PENDING = 0;
+    static final int FIRED = 1;
+    static final int CANCELLED = 2;
+
+    private static final AtomicIntegerFieldUpdater<ScheduledEvent> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(ScheduledEvent.class, "state");
+
+    private final RentalAgreement rentalAgreement;
+    private final RentalEvent rentalEvent;
+    private final long deadlineMillis;
+    private final TimingWheelScheduler scheduler;
+    private volatile int state;
+
+    // only touched by the thread advancing the wheel
+    long deadlineTick;
+    int slot = -1;
+    ScheduledEvent previous;
+    ScheduledEvent next;
+
+    ScheduledEvent(RentalAgreement rentalAgreement, RentalEvent rentalEvent, long deadlineMillis, TimingWheelScheduler scheduler) {
+        this.rentalAgreement = rentalAgreement;
+        this.rentalEvent = rentalEvent;
+        this.deadlineMillis = deadlineMillis;
+        this.scheduler = scheduler;
+    }
+
+    public RentalAgreement getRentalAgreement() {
+        return rentalAgreement;
+    }
+
+    public RentalEvent getRentalEvent() {
+        return rentalEvent;
+    }
+
+    /**
+     * @return long - when the event is due, in milliseconds since the epoch.
+     */
+    public long getDeadlineMillis() {
+        return deadlineMillis;
+    }
+
+    /**
+     * Cancel the event, e.g. once the tool has been returned.
+     *
+     * @return boolean - true if cancelled, false if the event has already fired or been cancelled.
+     */
+    public boolean cancel() {
+        if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+            return false;
+        }
+        scheduler.cancelled(this);
+        return true;
+    }
+
+    public boolean isCancelled() {
+        return state == CANCELLED;
+    }
+
+    public boolean isFired() {
+        return state == FIRED;
+    }
+
+    boolean fire() {
+        return STATE.compareAndSet(this, PENDING, FIRED);
+    }
+}
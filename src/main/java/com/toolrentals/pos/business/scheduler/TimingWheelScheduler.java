@@ -0,0 +1,317 @@
+package com.toolrentals.pos.business.scheduler;
+
+import com.toolrentals.pos.common.enums.RentalEvent;
+import com.toolrentals.pos.common.model.RentalAgreement;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Schedules rental events, such as due date reminders and late notices, on a hierarchical timing wheel, so millions of
+ * events cost one small node each instead of a task and a heap entry each.
+ * <p>
+ * Time is cut into ticks. The wheel has {@link #LEVELS} levels of 64 slots, each slot of a level spanning all 64
+ * slots of the level below, so the wheel covers 64<sup>6</sup> ticks. An event goes into the slot of the lowest level
+ * that reaches its deadline. Each time the ticks wrap around a level, the events of the next slot of the level above
+ * are moved down, until they reach the lowest level and fire at their tick. Scheduling and cancelling are O(1):
+ * scheduling pushes the event on a lock free stack, and the thread advancing the wheel links it into its slot;
+ * cancelling marks the event, which is unlinked on the next tick.
+ * <p>
+ * The events firing on a tick are handed to the listener in batches, each on its own virtual thread.
+ */
+public class TimingWheelScheduler implements AutoCloseable {
+
+    public static final int LEVELS = 6;
+    public static final int DEFAULT_BATCH_SIZE = 1_024;
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final long HORIZON = 1L << (BITS * LEVELS);
+
+    private final RentalEventListener listener;
+    private final long tickMillis;
+    private final long startMillis;
+    private final int batchSize;
+    private final ScheduledEvent[] slots = new ScheduledEvent[LEVELS * SLOTS];
+    private final AtomicReference<ScheduledEvent> pending = new AtomicReference<>();
+    private final Queue<ScheduledEvent> cancellations = new ConcurrentLinkedQueue<>();
+    private final AtomicLong scheduled = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final ExecutorService firing = Executors.newVirtualThreadPerTaskExecutor();
+    private long currentTick;
+    private Thread ticker;
+    private volatile boolean closed;
+
+    /**
+     * Create a scheduler with one second ticks, starting now. Call {@link #start()} to fire events as they come due.
+     *
+     * @param listener RentalEventListener - notified of each event when it is due.
+     */
+    public TimingWheelScheduler(RentalEventListener listener) {
+        this(listener, Duration.ofSeconds(1), System.currentTimeMillis(), DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param listener    RentalEventListener - notified of each event when it is due.
+     * @param tick        Duration - the length of a tick, the precision events fire with.
+     * @param startMillis long - the time of tick 0, in milliseconds since the epoch.
+     * @param batchSize   int - the most events handed to the listener on one virtual thread.
+     */
+    public TimingWheelScheduler(RentalEventListener listener, Duration tick, long startMillis, int batchSize) {
+        if (tick.toMillis() < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("The tick must be at least 1 millisecond and the batch size at least 1.");
+        }
+        this.listener = listener;
+        this.tickMillis = tick.toMillis();
+        this.startMillis = startMillis;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Start a thread advancing the wheel with the system clock.
+     */
+    public synchronized void start() {
+        if (ticker != null || closed) {
+            throw new IllegalStateException("The scheduler has already been started or closed.");
+        }
+        ticker = Thread.ofPlatform().name("timing-wheel").daemon().start(this::tickLoop);
+    }
+
+    /**
+     * Schedule an event. Events already due fire on the next tick.
+     *
+     * @param rentalAgreement RentalAgreement - the agreement the event is for.
+     * @param rentalEvent     RentalEvent - the kind of event.
+     * @param deadlineMillis  long - when the event is due, in milliseconds since the epoch.
+     * @return ScheduledEvent - the event, to cancel it with.
+     */
+    public ScheduledEvent schedule(RentalAgreement rentalAgreement, RentalEvent rentalEvent, long deadlineMillis) {
+        if (closed) {
+            throw new IllegalStateException("The scheduler has been closed.");
+        }
+        ScheduledEvent event = new ScheduledEvent(rentalAgreement, rentalEvent, deadlineMillis, this);
+        // the first tick at or after the deadline
+        event.deadlineTick = Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis);
+        scheduled.incrementAndGet();
+        ScheduledEvent head;
+        do {
+            head = pending.get();
+            event.next = head;
+        } while (!pending.compareAndSet(head, event));
+        return event;
+    }
+
+    /**
+     * @return long - the number of events scheduled that have neither fired nor been cancelled.
+     */
+    public long getScheduledEvents() {
+        return scheduled.get();
+    }
+
+    /**
+     * @return long - the number of events whose listener threw an exception.
+     */
+    public long getFailedEvents() {
+        return failed.get();
+    }
+
+    /**
+     * Advance the wheel to a time, firing every event due by then. Called by the thread started with {@link #start()},
+     * or directly to drive the wheel with another clock.
+     *
+     * @param nowMillis long - the current time, in milliseconds since the epoch.
+     * @return int - the number of events fired.
+     */
+    public synchronized int advanceTo(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        List<ScheduledEvent> due = new ArrayList<>();
+        int fired = 0;
+        drainPending(due);
+        drainCancellations();
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (BITS * level)) - 1)) == 0) {
+                    cascade(level * SLOTS + (int) ((currentTick >>> (BITS * level)) & MASK), due);
+                }
+            }
+            expire(slotIndex(0, currentTick), due);
+            if (due.size() >= batchSize) {
+                fired += dispatch(due);
+            }
+        }
+        return fired + dispatch(due);
+    }
+
+    /**
+     * Stop the ticker, fire nothing more, and wait for the events already handed to the listener.
+     *
+     * @throws InterruptedException - if interrupted while waiting.
+     */
+    public void close() throws InterruptedException {
+        Thread running;
+        synchronized (this) {
+            closed = true;
+            running = ticker;
+        }
+        if (running != null) {
+            running.interrupt();
+            running.join();
+        }
+        firing.shutdown();
+        firing.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    void cancelled(ScheduledEvent event) {
+        scheduled.decrementAndGet();
+        cancellations.add(event);
+    }
+
+    private void tickLoop() {
+        while (!closed) {
+            long nextTickMillis;
+            synchronized (this) {
+                advanceTo(System.currentTimeMillis());
+                nextTickMillis = startMillis + (currentTick + 1) * tickMillis;
+            }
+            try {
+                Thread.sleep(Math.max(1, nextTickMillis - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                // closing
+            }
+        }
+    }
+
+    private void drainPending(List<ScheduledEvent> due) {
+        ScheduledEvent event = pending.getAndSet(null);
+        while (event != null) {
+            ScheduledEvent next = event.next;
+            event.next = null;
+            if (!event.isCancelled()) {
+                place(event, due);
+            }
+            event = next;
+        }
+    }
+
+    private void drainCancellations() {
+        ScheduledEvent event;
+        while ((event = cancellations.poll()) != null) {
+            if (event.slot >= 0) {
+                unlink(event);
+            }
+        }
+    }
+
+    private void place(ScheduledEvent event, List<ScheduledEvent> due) {
+        long delta = event.deadlineTick - currentTick;
+        if (delta <= 0) {
+            due.add(event);
+            return;
+        }
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (BITS * (level + 1))) {
+            level++;
+        }
+        // beyond the wheel, the event waits in the farthest slot and is placed again when it is moved down
+        long tick = delta < HORIZON ? event.deadlineTick : currentTick + HORIZON - 1;
+        int slot = slotIndex(level, tick);
+        event.slot = slot;
+        event.previous = null;
+        event.next = slots[slot];
+        if (slots[slot] != null) {
+            slots[slot].previous = event;
+        }
+        slots[slot] = event;
+    }
+
+    private void unlink(ScheduledEvent event) {
+        if (event.previous != null) {
+            event.previous.next = event.next;
+        } else {
+            slots[event.slot] = event.next;
+        }
+        if (event.next != null) {
+            event.next.previous = event.previous;
+        }
+        event.slot = -1;
+        event.previous = null;
+        event.next = null;
+    }
+
+    private void cascade(int slot, List<ScheduledEvent> due) {
+        ScheduledEvent event = slots[slot];
+        slots[slot] = null;
+        while (event != null) {
+            ScheduledEvent next = event.next;
+            event.slot = -1;
+            event.previous = null;
+            event.next = null;
+            if (!event.isCancelled()) {
+                place(event, due);
+            }
+            event = next;
+        }
+    }
+
+    private void expire(int slot, List<ScheduledEvent> due) {
+        ScheduledEvent event = slots[slot];
+        slots[slot] = null;
+        while (event != null) {
+            ScheduledEvent next = event.next;
+            event.slot = -1;
+            event.previous = null;
+            event.next = null;
+            due.add(event);
+            event = next;
+        }
+    }
+
+    private int dispatch(List<ScheduledEvent> due) {
+        List<ScheduledEvent> batch = new ArrayList<>(Math.min(batchSize, due.size()));
+        int fired = 0;
+        for (ScheduledEvent event : due) {
+            // an event cancelled after it was linked in is dropped here
+            if (event.fire()) {
+                scheduled.decrementAndGet();
+                batch.add(event);
+                fired++;
+                if (batch.size() == batchSize) {
+                    submit(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            submit(batch);
+        }
+        due.clear();
+        return fired;
+    }
+
+    private void submit(List<ScheduledEvent> batch) {
+        firing.execute(() -> {
+            for (ScheduledEvent event : batch) {
+                try {
+                    listener.onEvent(event);
+                } catch (RuntimeException e) {
+                    // one failing notice must not hold up the rest of the batch
+                    failed.incrementAndGet();
+                }
+            }
+        });
+    }
+
+    private static int slotIndex(int level, long tick) {
+        return level * SLOTS + (int) ((tick >>> (BITS * level)) & MASK);
+    }
+}
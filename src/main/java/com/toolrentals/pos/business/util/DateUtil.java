@@ -1,6 +1,8 @@
 package com.toolrentals.pos.business.util;
 
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Calendar;
 import java.util.Date;
 
@@ -86,4 +88,24 @@ public class DateUtil {
     public String formatDateMMDDYY(Date date) {
         return new SimpleDateFormat("MM/dd/yy").format(date);
     }
+
+    /**
+     * Find the epoch day (days since January 1st, 1970) of the supplied date in the system time zone.
+     *
+     * @param date Date - the date to convert.
+     * @return long - the epoch day of the date.
+     */
+    public long toEpochDay(Date date) {
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+
+    /**
+     * Create a date at the start of the supplied epoch day in the system time zone.
+     *
+     * @param epochDay long - the epoch day (days since January 1st, 1970).
+     * @return Date - the start of the day.
+     */
+    public Date fromEpochDay(long epochDay) {
+        return Date.from(LocalDate.ofEpochDay(epochDay).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
 }
@@ -0,0 +1,121 @@
+package com.toolrentals.pos.business.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Calendar;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Index of the observed holidays (Independence Day and Labor Day). The holidays for a year are computed once, stored
+ * as a bitmap keyed by day-of-year and shared by every instance, so checking a day is a single bit test.
+ */
+public class HolidayIndex {
+
+    // years inside this window are cached in a flat array, anything outside falls back to a map
+    private static final int MIN_INDEXED_YEAR = 1900;
+    private static final int MAX_INDEXED_YEAR = 2299;
+
+    // 366 possible days in a year, 64 days per word
+    private static final int WORDS_PER_YEAR = 6;
+
+    private static final AtomicReferenceArray<HolidayYear> INDEXED_YEARS = new AtomicReferenceArray<>(MAX_INDEXED_YEAR - MIN_INDEXED_YEAR + 1);
+    private static final ConcurrentHashMap<Integer, HolidayYear> OTHER_YEARS = new ConcurrentHashMap<>();
+
+    /**
+     * Determine if the supplied calendar date is a holiday.
+     *
+     * @param calendar Calendar - the calendar date in question
+     * @return boolean - true if a holiday
+     */
+    public boolean isHoliday(Calendar calendar) {
+        return isHoliday(calendar.get(Calendar.YEAR), calendar.get(Calendar.DAY_OF_YEAR));
+    }
+
+    /**
+     * Determine if the supplied date is a holiday.
+     *
+     * @param date LocalDate - the date in question
+     * @return boolean - true if a holiday
+     */
+    public boolean isHoliday(LocalDate date) {
+        return isHoliday(date.getYear(), date.getDayOfYear());
+    }
+
+    /**
+     * Determine if the supplied day of the supplied year is a holiday.
+     *
+     * @param year      int - the year the day falls in
+     * @param dayOfYear int - the day of the year, starting at 1
+     * @return boolean - true if a holiday
+     */
+    public boolean isHoliday(int year, int dayOfYear) {
+        int bit = dayOfYear - 1;
+        return (holidayBits(year)[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Find the holidays that fall in the supplied year.
+     *
+     * @param year int - the year to find the holidays for
+     * @return long[] - the epoch days of the holidays in the year, in ascending order. Must not be modified.
+     */
+    public long[] holidaysInYear(int year) {
+        return holidayYear(year).epochDays;
+    }
+
+    private long[] holidayBits(int year) {
+        return holidayYear(year).bits;
+    }
+
+    /**
+     * Find the holidays for the supplied year, computing and caching it on first use.
+     *
+     * @param year int - the year to find the holidays for
+     * @return HolidayYear - the holidays of the year
+     */
+    private HolidayYear holidayYear(int year) {
+        if (year >= MIN_INDEXED_YEAR && year <= MAX_INDEXED_YEAR) {
+            int slot = year - MIN_INDEXED_YEAR;
+            HolidayYear holidayYear = INDEXED_YEARS.get(slot);
+            if (holidayYear == null) {
+                // racing threads compute identical years, so whichever one lands is fine
+                holidayYear = computeHolidayYear(year);
+                INDEXED_YEARS.lazySet(slot, holidayYear);
+            }
+            return holidayYear;
+        }
+        return OTHER_YEARS.computeIfAbsent(year, HolidayIndex::computeHolidayYear);
+    }
+
+    private static HolidayYear computeHolidayYear(int year) {
+        LocalDate independenceDay = LocalDate.of(year, Month.JULY, 4);
+        // Labor Day is the first Monday of September
+        LocalDate laborDay = LocalDate.of(year, Month.SEPTEMBER, 1).with(TemporalAdjusters.firstInMonth(DayOfWeek.MONDAY));
+
+        long[] bits = new long[WORDS_PER_YEAR];
+        setBit(bits, independenceDay.getDayOfYear());
+        setBit(bits, laborDay.getDayOfYear());
+        return new HolidayYear(bits, new long[]{independenceDay.toEpochDay(), laborDay.toEpochDay()});
+    }
+
+    private static void setBit(long[] bits, int dayOfYear) {
+        int bit = dayOfYear - 1;
+        bits[bit >>> 6] |= 1L << bit;
+    }
+
+    /**
+     * The holidays of a single year, as a day-of-year bitmap and as a sorted list of epoch days.
+     */
+    private static final class HolidayYear {
+        private final long[] bits;
+        private final long[] epochDays;
+
+        private HolidayYear(long[] bits, long[] epochDays) {
+            this.bits = bits;
+            this.epochDays = epochDays;
+        }
+    }
+}
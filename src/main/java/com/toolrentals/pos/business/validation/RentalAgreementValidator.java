@@ -1,16 +1,44 @@
 package com.toolrentals.pos.business.validation;
 
+import com.toolrentals.pos.business.clock.BusinessClock;
+import com.toolrentals.pos.business.util.DateUtil;
+import com.toolrentals.pos.common.enums.ToolCode;
+import com.toolrentals.pos.common.enums.ValidationError;
+import com.toolrentals.pos.common.model.CartAgreement;
+import com.toolrentals.pos.common.model.CartLine;
+import com.toolrentals.pos.common.model.QuoteBatch;
 import com.toolrentals.pos.common.model.RentalAgreement;
 import com.toolrentals.pos.common.model.Tool;
 
-import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
 
 /**
  * This class holds the functions which are used to validate the rental agreement.
  */
 public class RentalAgreementValidator {
 
+    private DateUtil dateUtil;
+    private BusinessClock businessClock;
+
+    public RentalAgreementValidator() {
+        init();
+    }
+
+    private void init() {
+        dateUtil = new DateUtil();
+        businessClock = BusinessClock.system();
+    }
+
+    /**
+     * Replace the clock deciding which day is 'today', e.g. with a fixed clock to validate as of a past day.
+     *
+     * @param businessClock BusinessClock - the clock to validate checkout dates against.
+     */
+    public void setBusinessClock(BusinessClock businessClock) {
+        this.businessClock = businessClock;
+    }
+
     /**
      * Validate that the supplied rental agreement is not null.
      *
@@ -32,10 +60,26 @@ public class RentalAgreementValidator {
     public void validateRentableTool(Tool tool) throws Exception {
         // the tool must be a valid tool
         if (tool == null) {
-            throw new Exception("Must select a tool.");
+            throw new Exception(ValidationError.NO_TOOL.getMessage());
         }
     }
 
+    /**
+     * Validate all of the inputs of a checkout at once, in the order the checkout process assigns them.
+     *
+     * @param tool            Tool - the tool to rent.
+     * @param rentalDays      int - the number of rental days.
+     * @param checkoutDate    Date - the checkout date.
+     * @param percentDiscount int - the discount percent.
+     * @throws Exception - if any of the inputs is not valid.
+     */
+    public void validateCheckout(Tool tool, int rentalDays, Date checkoutDate, int percentDiscount) throws Exception {
+        validateRentableTool(tool);
+        validateRentalDays(rentalDays);
+        validateCheckoutDate(checkoutDate);
+        validateDiscountPercent(percentDiscount);
+    }
+
     /**
      * Validate the rental days for the rental agreement.
      *
@@ -46,7 +90,7 @@ public class RentalAgreementValidator {
 
         // number of days to rent a tool must be greater than 0
         if (numberOfRentalDays < 1) {
-            throw new Exception("Must rent tool for at least 1 day.");
+            throw new Exception(ValidationError.TOO_FEW_RENTAL_DAYS.getMessage());
         }
     }
 
@@ -59,18 +103,10 @@ public class RentalAgreementValidator {
     public void validateCheckoutDate(Date checkoutDate) throws Exception {
         // checkout date cannot be null or prior to 'today'
         if (checkoutDate == null) {
-            throw new Exception("Must select a checkout date.");
+            throw new Exception(ValidationError.NO_CHECKOUT_DATE.getMessage());
         }
-
-        Calendar cal = Calendar.getInstance();
-        cal.setTime(new Date());
-        cal.set(Calendar.MILLISECOND, 0);
-        cal.set(Calendar.SECOND, 0);
-        cal.set(Calendar.MINUTE, 0);
-        cal.set(Calendar.HOUR_OF_DAY, 0);
-
-        if (checkoutDate.before(cal.getTime())) {
-            throw new Exception("Checkout cannot be prior to current date.");
+        if (checkoutDate.getTime() < businessClock.getStartOfTodayMillis()) {
+            throw new Exception(ValidationError.CHECKOUT_BEFORE_TODAY.getMessage());
         }
     }
 
@@ -99,7 +135,7 @@ public class RentalAgreementValidator {
      */
     public void validateDiscountPercent(Integer discountPercent) throws Exception {
         if (discountPercent == null || discountPercent < 0 || discountPercent > 100) {
-            throw new Exception("Percent discount must be between 0 and 100.");
+            throw new Exception(ValidationError.DISCOUNT_OUT_OF_RANGE.getMessage());
         }
     }
 
@@ -163,4 +199,135 @@ public class RentalAgreementValidator {
             throw new Exception("Must complete rental agreement.");
         }
     }
+
+    /**
+     * Validate that the tool of a completed rental agreement can be checked in on the return date.
+     *
+     * @param rentalAgreement RentalAgreement - the completed rental agreement.
+     * @param returnDate      Date - the date the tool was returned.
+     * @throws Exception - if the return date is null or prior to the checkout date, or the agreement has already been
+     *                   returned.
+     */
+    public void validateReturn(RentalAgreement rentalAgreement, Date returnDate) throws Exception {
+        if (returnDate == null) {
+            throw new Exception("Must select a return date.");
+        }
+        if (rentalAgreement.hasReturnDate()) {
+            throw new Exception("Rental agreement has already been returned.");
+        }
+        // compared by day, so a return later on the checkout day is allowed whatever the times
+        if (dateUtil.toEpochDay(returnDate) < dateUtil.toEpochDay(rentalAgreement.getCheckoutDate())) {
+            throw new Exception("Return cannot be prior to checkout date.");
+        }
+    }
+
+    /**
+     * Validate a cart before it is priced: the checkout date and discount shared by its lines, and the tool and rental
+     * days of each line.
+     *
+     * @param cart CartAgreement - the cart to validate.
+     * @throws Exception - if the cart is not supplied or has no lines, if its checkout date or discount is not valid,
+     *                   or for the first line with no tool or fewer than 1 rental day.
+     */
+    public void validateCart(CartAgreement cart) throws Exception {
+        if (cart == null) {
+            throw new Exception("Must create a cart.");
+        }
+        if (!cart.hasLines()) {
+            throw new Exception("Must add a tool to the cart.");
+        }
+        validateCheckoutDate(cart.getCheckoutDate());
+        validateDiscountPercent(cart.getPercentDiscount());
+        List<CartLine> lines = cart.getLines();
+        for (int i = 0; i < lines.size(); i++) {
+            CartLine line = lines.get(i);
+            if (line.getTool() == null) {
+                throw new Exception("Line " + (i + 1) + ": " + ValidationError.NO_TOOL.getMessage());
+            }
+            if (line.getRentalDays() < 1) {
+                throw new Exception("Line " + (i + 1) + ": " + ValidationError.TOO_FEW_RENTAL_DAYS.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Validate every request of a quote batch in a single pass, so the batch can be priced without any further checks.
+     *
+     * @param batch QuoteBatch - the batch of quote requests to validate.
+     * @throws Exception - if the batch is not supplied, or for the first request with no tool, fewer than 1 rental
+     *                   day, a checkout date prior to 'today', or a discount percent outside 0 to 100.
+     */
+    public void validateQuoteBatch(QuoteBatch batch) throws Exception {
+        if (batch == null) {
+            throw new Exception("Must supply a batch of quotes.");
+        }
+        long today = businessClock.getTodayEpochDay();
+        ValidationResult result = new ValidationResult();
+        for (int row = 0; row < batch.size(); row++) {
+            if (!checkQuote(batch.getToolCode(row), batch.getRentalDays(row), batch.getCheckoutEpochDay(row),
+                    batch.getDiscountPercent(row), today, result)) {
+                throw new Exception("Quote " + row + ": " + result.getError(0).getMessage());
+            }
+        }
+    }
+
+    /**
+     * Check all of the inputs of a checkout without throwing, recording every input that is not valid. No exception is
+     * created and the errors are recorded without allocating, so bulk and untrusted requests can be rejected cheaply.
+     *
+     * @param tool            Tool - the tool to rent.
+     * @param rentalDays      int - the number of rental days.
+     * @param checkoutDate    Date - the checkout date.
+     * @param percentDiscount int - the discount percent.
+     * @param result          ValidationResult - cleared, then given every error found, in the order the checkout
+     *                        process assigns the inputs.
+     * @return boolean - true if every input is valid.
+     */
+    public boolean checkCheckout(Tool tool, int rentalDays, Date checkoutDate, int percentDiscount, ValidationResult result) {
+        result.clear();
+        if (tool == null) {
+            result.add(ValidationError.NO_TOOL);
+        }
+        if (rentalDays < 1) {
+            result.add(ValidationError.TOO_FEW_RENTAL_DAYS);
+        }
+        if (checkoutDate == null) {
+            result.add(ValidationError.NO_CHECKOUT_DATE);
+        } else if (checkoutDate.getTime() < businessClock.getStartOfTodayMillis()) {
+            result.add(ValidationError.CHECKOUT_BEFORE_TODAY);
+        }
+        if (percentDiscount < 0 || percentDiscount > 100) {
+            result.add(ValidationError.DISCOUNT_OUT_OF_RANGE);
+        }
+        return result.isValid();
+    }
+
+    /**
+     * Check one quote request, for callers that reject bad requests one by one instead of failing on the first.
+     *
+     * @param toolCode         ToolCode - the code of the tool to rent.
+     * @param rentalDays       int - the number of rental days.
+     * @param checkoutEpochDay long - the epoch day the rental starts.
+     * @param discountPercent  int - the discount percent.
+     * @param today            long - the epoch day of 'today'.
+     * @param result           ValidationResult - cleared, then given every error found.
+     * @return boolean - true if the request is valid.
+     */
+    public boolean checkQuote(ToolCode toolCode, int rentalDays, long checkoutEpochDay, int discountPercent, long today,
+                              ValidationResult result) {
+        result.clear();
+        if (toolCode == null) {
+            result.add(ValidationError.NO_TOOL);
+        }
+        if (rentalDays < 1) {
+            result.add(ValidationError.TOO_FEW_RENTAL_DAYS);
+        }
+        if (checkoutEpochDay < today) {
+            result.add(ValidationError.CHECKOUT_BEFORE_TODAY);
+        }
+        if (discountPercent < 0 || discountPercent > 100) {
+            result.add(ValidationError.DISCOUNT_OUT_OF_RANGE);
+        }
+        return result.isValid();
+    }
 }
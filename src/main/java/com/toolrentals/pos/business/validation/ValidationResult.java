@@ -0,0 +1,77 @@
+package com.toolrentals.pos.business.validation;
+
+import com.toolrentals.pos.common.enums.ValidationError;
+
+import java.util.Objects;
+
+/**
+ * Reusable holder for every {@link ValidationError} found by one check, in the order they were found. It has room for
+ * each error once, so recording errors never allocates, and it is cleared by each check it is passed to. Create one
+ * per thread and reuse it, e.g. for every row of a bulk import.
+ */
+public class ValidationResult {
+
+    private final ValidationError[] errors = new ValidationError[ValidationError.values().length];
+    private int errorCount;
+    // a bit for each error found, by ordinal, which holds up to 64 errors
+    private long found;
+
+    public ValidationResult() {
+    }
+
+    /**
+     * Forget the errors found, to check again.
+     */
+    public void clear() {
+        errorCount = 0;
+        found = 0;
+    }
+
+    /**
+     * Record an error, unless it has already been recorded.
+     *
+     * @param error ValidationError - the error found.
+     */
+    public void add(ValidationError error) {
+        long bit = 1L << error.ordinal();
+        if ((found & bit) == 0) {
+            found |= bit;
+            errors[errorCount++] = error;
+        }
+    }
+
+    public boolean isValid() {
+        return errorCount == 0;
+    }
+
+    public boolean contains(ValidationError error) {
+        return (found & (1L << error.ordinal())) != 0;
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * @param index int - the position of the error, from 0 for the first found.
+     * @return ValidationError - the error.
+     */
+    public ValidationError getError(int index) {
+        Objects.checkIndex(index, errorCount);
+        return errors[index];
+    }
+
+    /**
+     * @return String - the message of every error found, separated by spaces, or an empty string if none was.
+     */
+    public String getMessages() {
+        StringBuilder messages = new StringBuilder();
+        for (int i = 0; i < errorCount; i++) {
+            if (i > 0) {
+                messages.append(' ');
+            }
+            messages.append(errors[i].getMessage());
+        }
+        return messages.toString();
+    }
+}
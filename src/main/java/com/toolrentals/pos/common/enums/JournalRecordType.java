@@ -0,0 +1,8 @@
+package com.toolrentals.pos.common.enums;
+
+/**
+ * This class enumerates the kinds of records in the rental journal: a tool checked out, or a tool returned.
+ */
+public enum JournalRecordType {
+    CHECKOUT, CHECKIN
+}
@@ -0,0 +1,8 @@
+package com.toolrentals.pos.common.enums;
+
+/**
+ * This class enumerates the events in the life of a rental that customers are notified of.
+ */
+public enum RentalEvent {
+    DUE_REMINDER, LATE_NOTICE
+}
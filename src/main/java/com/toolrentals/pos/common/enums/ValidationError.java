@@ -0,0 +1,23 @@
+package com.toolrentals.pos.common.enums;
+
+/**
+ * This class enumerates the reasons the inputs of a checkout or quote are rejected, each with the message reported
+ * to the customer.
+ */
+public enum ValidationError {
+    NO_TOOL("Must select a tool."),
+    TOO_FEW_RENTAL_DAYS("Must rent tool for at least 1 day."),
+    NO_CHECKOUT_DATE("Must select a checkout date."),
+    CHECKOUT_BEFORE_TODAY("Checkout cannot be prior to current date."),
+    DISCOUNT_OUT_OF_RANGE("Percent discount must be between 0 and 100.");
+
+    private final String message;
+
+    ValidationError(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
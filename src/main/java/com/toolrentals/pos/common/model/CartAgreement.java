@@ -0,0 +1,130 @@
+package com.toolrentals.pos.common.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A rental agreement for several tools checked out together. Every line starts on the cart's checkout date and runs
+ * for its own number of days, and the discount applies to the cart's subtotal, giving a single total.
+ */
+public class CartAgreement implements Serializable {
+
+    Date checkoutDate;
+    Integer percentDiscount;
+    List<CartLine> lines = new ArrayList<>();
+    long subtotalCents = Money.UNSET;
+    long discountCents = Money.UNSET;
+    long totalCents = Money.UNSET;
+
+    public CartAgreement() {
+    }
+
+    public boolean hasCheckoutDate() {
+        return checkoutDate != null;
+    }
+
+    public boolean hasPercentageDiscount() {
+        return percentDiscount != null;
+    }
+
+    public boolean hasLines() {
+        return !lines.isEmpty();
+    }
+
+    public boolean hasSubtotal() {
+        return Money.isSet(subtotalCents);
+    }
+
+    public boolean hasDiscount() {
+        return Money.isSet(discountCents);
+    }
+
+    public boolean hasTotal() {
+        return Money.isSet(totalCents);
+    }
+
+    public Date getCheckoutDate() {
+        return checkoutDate;
+    }
+
+    public void setCheckoutDate(Date checkoutDate) {
+        this.checkoutDate = checkoutDate;
+    }
+
+    public CartAgreement checkoutDate(Date checkoutDate) {
+        this.setCheckoutDate(checkoutDate);
+        return this;
+    }
+
+    public Integer getPercentDiscount() {
+        return percentDiscount;
+    }
+
+    public void setPercentDiscount(Integer percentDiscount) {
+        this.percentDiscount = percentDiscount;
+    }
+
+    public CartAgreement percentDiscount(Integer percentDiscount) {
+        this.setPercentDiscount(percentDiscount);
+        return this;
+    }
+
+    /**
+     * @return List - a read only view of the lines, in the order they were added.
+     */
+    public List<CartLine> getLines() {
+        return Collections.unmodifiableList(lines);
+    }
+
+    /**
+     * Add a tool to the cart.
+     *
+     * @param tool       Tool - the tool to rent.
+     * @param rentalDays int - the number of days to rent it for.
+     * @return CartAgreement - this cart.
+     */
+    public CartAgreement addLine(Tool tool, int rentalDays) {
+        lines.add(new CartLine(tool, rentalDays));
+        return this;
+    }
+
+    public BigDecimal getSubtotal() {
+        return Money.toBigDecimal(subtotalCents);
+    }
+
+    public long getSubtotalCents() {
+        return subtotalCents;
+    }
+
+    public void setSubtotalCents(long subtotalCents) {
+        this.subtotalCents = subtotalCents;
+    }
+
+    public BigDecimal getDiscount() {
+        return Money.toBigDecimal(discountCents);
+    }
+
+    public long getDiscountCents() {
+        return discountCents;
+    }
+
+    public void setDiscountCents(long discountCents) {
+        this.discountCents = discountCents;
+    }
+
+    public BigDecimal getTotal() {
+        return Money.toBigDecimal(totalCents);
+    }
+
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    public void setTotalCents(long totalCents) {
+        this.totalCents = totalCents;
+    }
+}
@@ -0,0 +1,86 @@
+package com.toolrentals.pos.common.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * One tool rented on a {@link CartAgreement}, for its own number of days from the cart's checkout date.
+ */
+public class CartLine implements Serializable {
+
+    Tool tool;
+    int rentalDays;
+    Date dueDate;
+    Integer numberChargeableDays;
+    long subtotalCents = Money.UNSET;
+    RentalAgreement rentalAgreement;
+
+    public CartLine(Tool tool, int rentalDays) {
+        this.tool = tool;
+        this.rentalDays = rentalDays;
+    }
+
+    public boolean hasNumberChargeableDays() {
+        return numberChargeableDays != null;
+    }
+
+    public boolean hasSubtotal() {
+        return Money.isSet(subtotalCents);
+    }
+
+    public Tool getTool() {
+        return tool;
+    }
+
+    public int getRentalDays() {
+        return rentalDays;
+    }
+
+    public Date getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(Date dueDate) {
+        this.dueDate = dueDate;
+    }
+
+    public Integer getNumberChargeableDays() {
+        return numberChargeableDays;
+    }
+
+    public void setNumberChargeableDays(Integer numberChargeableDays) {
+        this.numberChargeableDays = numberChargeableDays;
+    }
+
+    public BigDecimal getSubtotal() {
+        return Money.toBigDecimal(subtotalCents);
+    }
+
+    /**
+     * @return long - the charge for the line before the cart's discount, in cents, or {@link Money#UNSET}.
+     */
+    public long getSubtotalCents() {
+        return subtotalCents;
+    }
+
+    public void setSubtotalCents(long subtotalCents) {
+        this.subtotalCents = subtotalCents;
+    }
+
+    public boolean hasRentalAgreement() {
+        return rentalAgreement != null;
+    }
+
+    /**
+     * @return RentalAgreement - the agreement the line was checked out on, to check the tool in with, or null before
+     * the cart is checked out.
+     */
+    public RentalAgreement getRentalAgreement() {
+        return rentalAgreement;
+    }
+
+    public void setRentalAgreement(RentalAgreement rentalAgreement) {
+        this.rentalAgreement = rentalAgreement;
+    }
+}
@@ -0,0 +1,98 @@
+package com.toolrentals.pos.common.model;
+
+import com.toolrentals.pos.common.enums.Brand;
+import com.toolrentals.pos.common.enums.ToolCode;
+import com.toolrentals.pos.common.enums.ToolType;
+
+import java.math.BigDecimal;
+
+/**
+ * An immutable tool held in the tool catalog. A single instance per tool code is shared by every rental agreement, so
+ * all of the setters are rejected; a changed tool is published as a new instance instead.
+ */
+public final class CatalogTool extends Tool {
+
+    private final String code;
+
+    public CatalogTool(ToolCode toolCode, ToolType toolType, Brand brand, BigDecimal dailyCharge, boolean weekdayCharge, boolean weekendCharge, boolean holidayCharge) {
+        this(toolCode.name(), toolCode, toolType, brand, dailyCharge, weekdayCharge, weekendCharge, holidayCharge);
+    }
+
+    /**
+     * @param code     String - the catalog code (SKU) of the tool.
+     * @param toolCode ToolCode - the matching tool code, or null if the SKU has no tool code.
+     */
+    public CatalogTool(String code, ToolCode toolCode, ToolType toolType, Brand brand, BigDecimal dailyCharge, boolean weekdayCharge, boolean weekendCharge, boolean holidayCharge) {
+        super(toolCode, toolType, brand, dailyCharge, weekdayCharge, weekendCharge, holidayCharge);
+        this.code = code;
+    }
+
+    /**
+     * Create an immutable copy of the supplied tool.
+     *
+     * @param tool Tool - the tool to copy.
+     * @return CatalogTool - the immutable copy.
+     */
+    public static CatalogTool copyOf(Tool tool) {
+        return new CatalogTool(tool.getToolCode(), tool.getToolType(), tool.getBrand(), tool.getDailyCharge(),
+                tool.isWeekdayCharge(), tool.isWeekendCharge(), tool.isHolidayCharge());
+    }
+
+    /**
+     * Create a copy of this tool with a different daily charge.
+     *
+     * @param dailyCharge BigDecimal - the new daily charge.
+     * @return CatalogTool - the changed copy.
+     */
+    public CatalogTool withDailyCharge(BigDecimal dailyCharge) {
+        return new CatalogTool(code, getToolCode(), getToolType(), getBrand(), dailyCharge, isWeekdayCharge(), isWeekendCharge(), isHolidayCharge());
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    @Override
+    public void setToolCode(ToolCode toolCode) {
+        throw immutable();
+    }
+
+    @Override
+    public void setToolType(ToolType toolType) {
+        throw immutable();
+    }
+
+    @Override
+    public void setBrand(Brand brand) {
+        throw immutable();
+    }
+
+    @Override
+    public void setDailyCharge(BigDecimal dailyCharge) {
+        throw immutable();
+    }
+
+    @Override
+    public void setDailyChargeCents(long dailyChargeCents) {
+        throw immutable();
+    }
+
+    @Override
+    public void setWeekdayCharge(boolean weekdayCharge) {
+        throw immutable();
+    }
+
+    @Override
+    public void setWeekendCharge(boolean weekendCharge) {
+        throw immutable();
+    }
+
+    @Override
+    public void setHolidayCharge(boolean holidayCharge) {
+        throw immutable();
+    }
+
+    private UnsupportedOperationException immutable() {
+        return new UnsupportedOperationException("Catalog tools cannot be modified.");
+    }
+}
@@ -0,0 +1,210 @@
+package com.toolrentals.pos.common.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The charge for each day of a rental period, held as the epoch day of the first day plus one amount in cents per
+ * day. Days are kept in order and a ledger is immutable once created, so it can be shared between agreements.
+ */
+public class DailyChargeLedger implements Serializable {
+
+    private final long startEpochDay;
+    private final long[] charges;
+
+    /**
+     * Create a ledger from the supplied daily charges.
+     *
+     * @param startEpochDay long - the epoch day (days since January 1st, 1970) of the first day of the ledger.
+     * @param charges       long[] - the charge in cents of each day, starting at the first day. The ledger takes
+     *                      ownership of the array, which must not be modified afterwards.
+     */
+    public DailyChargeLedger(long startEpochDay, long[] charges) {
+        this.startEpochDay = startEpochDay;
+        this.charges = charges;
+    }
+
+    /**
+     * Create a ledger from a map of daily charges. Any days missing between the first and last date are charged 0.
+     *
+     * @param chargesByDate Map - the charge for each date.
+     * @return DailyChargeLedger - the ledger holding the same charges.
+     */
+    public static DailyChargeLedger fromMap(Map<Date, BigDecimal> chargesByDate) {
+        if (chargesByDate.isEmpty()) {
+            return new DailyChargeLedger(0, new long[0]);
+        }
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (Date date : chargesByDate.keySet()) {
+            long epochDay = toEpochDay(date);
+            first = Math.min(first, epochDay);
+            last = Math.max(last, epochDay);
+        }
+        long[] charges = new long[Math.toIntExact(last - first + 1)];
+        for (Map.Entry<Date, BigDecimal> entry : chargesByDate.entrySet()) {
+            charges[(int) (toEpochDay(entry.getKey()) - first)] += Money.fromBigDecimal(entry.getValue());
+        }
+        return new DailyChargeLedger(first, charges);
+    }
+
+    public long getStartEpochDay() {
+        return startEpochDay;
+    }
+
+    /**
+     * @return int - the number of days in the ledger.
+     */
+    public int size() {
+        return charges.length;
+    }
+
+    public boolean isEmpty() {
+        return charges.length == 0;
+    }
+
+    /**
+     * Find the charge for a day of the ledger.
+     *
+     * @param index int - the day, 0 being the first day of the ledger.
+     * @return long - the charge in cents.
+     */
+    public long getCharge(int index) {
+        return charges[index];
+    }
+
+    /**
+     * Find the charge for the supplied epoch day.
+     *
+     * @param epochDay long - the epoch day (days since January 1st, 1970).
+     * @return long - the charge in cents, 0 if the day is not in the ledger.
+     */
+    public long getChargeForEpochDay(long epochDay) {
+        long index = epochDay - startEpochDay;
+        return index >= 0 && index < charges.length ? charges[(int) index] : 0;
+    }
+
+    /**
+     * Determine if the supplied epoch day is covered by the ledger.
+     *
+     * @param epochDay long - the epoch day (days since January 1st, 1970).
+     * @return boolean - true if the day is in the ledger.
+     */
+    public boolean containsEpochDay(long epochDay) {
+        long index = epochDay - startEpochDay;
+        return index >= 0 && index < charges.length;
+    }
+
+    /**
+     * @return long - the sum of every daily charge in cents.
+     */
+    public long totalCharges() {
+        return totalCharges(0, charges.length);
+    }
+
+    /**
+     * Sum the charges for a range of days of the ledger.
+     *
+     * @param from int - the first day of the range, 0 being the first day of the ledger.
+     * @param to   int - the day after the last day of the range.
+     * @return long - the sum of the daily charges in the range in cents.
+     */
+    public long totalCharges(int from, int to) {
+        long total = 0;
+        for (int i = from; i < to; i++) {
+            total += charges[i];
+        }
+        return total;
+    }
+
+    /**
+     * View the ledger as a map of the start of each day to its charge, in day order. The map is read only.
+     *
+     * @return Map - the daily charges keyed by date.
+     */
+    public Map<Date, BigDecimal> asMap() {
+        return new LedgerMap();
+    }
+
+    private BigDecimal chargeAsBigDecimal(int index) {
+        long charge = charges[index];
+        // days without a charge have always been reported as a plain zero
+        return charge == 0 ? BigDecimal.ZERO : Money.toBigDecimal(charge);
+    }
+
+    private static long toEpochDay(Date date) {
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+
+    private static Date toDate(long epochDay) {
+        return Date.from(LocalDate.ofEpochDay(epochDay).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * Read only map view over the ledger.
+     */
+    private class LedgerMap extends AbstractMap<Date, BigDecimal> {
+
+        @Override
+        public int size() {
+            return charges.length;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Date date && containsEpochDay(toEpochDay(date));
+        }
+
+        @Override
+        public BigDecimal get(Object key) {
+            if (key instanceof Date date) {
+                long index = toEpochDay(date) - startEpochDay;
+                if (index >= 0 && index < charges.length) {
+                    return chargeAsBigDecimal((int) index);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Set<Entry<Date, BigDecimal>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Date, BigDecimal>> iterator() {
+                    return new Iterator<>() {
+                        private int index;
+
+                        @Override
+                        public boolean hasNext() {
+                            return index < charges.length;
+                        }
+
+                        @Override
+                        public Entry<Date, BigDecimal> next() {
+                            if (index >= charges.length) {
+                                throw new NoSuchElementException();
+                            }
+                            Entry<Date, BigDecimal> entry = new SimpleImmutableEntry<>(toDate(startEpochDay + index), chargeAsBigDecimal(index));
+                            index++;
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return charges.length;
+                }
+            };
+        }
+    }
+}
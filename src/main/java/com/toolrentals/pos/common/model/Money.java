@@ -0,0 +1,85 @@
+package com.toolrentals.pos.common.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed point money arithmetic on a {@code long} count of cents. Amounts stay as primitives through the pricing
+ * calculations and are only converted to {@link BigDecimal} at the API and printing boundary.
+ */
+public final class Money {
+
+    /**
+     * Marker for an amount that has not been set yet.
+     */
+    public static final long UNSET = Long.MIN_VALUE;
+
+    private static final int SCALE = 2;
+    private static final long PERCENT = 100;
+
+    private Money() {
+    }
+
+    /**
+     * Convert an amount to cents, rounding half up to two decimal places.
+     *
+     * @param amount BigDecimal - the amount to convert, may be null.
+     * @return long - the amount in cents, or {@link #UNSET} if the amount is null.
+     */
+    public static long fromBigDecimal(BigDecimal amount) {
+        if (amount == null) {
+            return UNSET;
+        }
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Convert an amount in cents to a two decimal place amount.
+     *
+     * @param cents long - the amount in cents.
+     * @return BigDecimal - the amount, or null if the cents are {@link #UNSET}.
+     */
+    public static BigDecimal toBigDecimal(long cents) {
+        return cents == UNSET ? null : BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * Determine if an amount has been set.
+     *
+     * @param cents long - the amount in cents.
+     * @return boolean - true if the amount is not {@link #UNSET}.
+     */
+    public static boolean isSet(long cents) {
+        return cents != UNSET;
+    }
+
+    /**
+     * Calculate a whole number percentage of an amount, rounding half up to the cent. This gives the same result as
+     * {@code amount.multiply(percent / 100).setScale(2, RoundingMode.HALF_UP)}.
+     *
+     * @param cents   long - the amount in cents.
+     * @param percent int - the percentage to take.
+     * @return long - the percentage of the amount in cents.
+     */
+    public static long percentOf(long cents, int percent) {
+        long scaled = Math.multiplyExact(cents, percent);
+        long result = scaled / PERCENT;
+        long remainder = scaled % PERCENT;
+        // half up rounds away from zero, so the remainder is compared by magnitude
+        if (Math.abs(remainder) * 2 >= PERCENT) {
+            result += Long.signum(scaled);
+        }
+        return result;
+    }
+
+    /**
+     * Multiply an amount by a whole number quantity.
+     *
+     * @param cents    long - the amount in cents.
+     * @param quantity long - the quantity to multiply by.
+     * @return long - the product in cents.
+     */
+    public static long multiply(long cents, long quantity) {
+        return Math.multiplyExact(cents, quantity);
+    }
+}
@@ -0,0 +1,78 @@
+package com.toolrentals.pos.common.model;
+
+import com.toolrentals.pos.common.enums.ToolCode;
+
+import java.io.Serializable;
+
+/**
+ * The priced result of renting a tool for a number of days from a checkout date with a discount. A quote is immutable
+ * and can be shared, e.g. between a cache and the rental agreements it is applied to.
+ */
+public class Quote implements Serializable {
+
+    private final ToolCode toolCode;
+    private final long checkoutEpochDay;
+    private final int rentalDays;
+    private final int percentDiscount;
+    private final long dueEpochDay;
+    private final int numberChargeableDays;
+    private final DailyChargeLedger dailyCharges;
+    private final long subtotalCents;
+    private final long discountCents;
+    private final long totalCents;
+
+    public Quote(ToolCode toolCode, long checkoutEpochDay, int rentalDays, int percentDiscount, long dueEpochDay,
+                 int numberChargeableDays, DailyChargeLedger dailyCharges, long subtotalCents, long discountCents,
+                 long totalCents) {
+        this.toolCode = toolCode;
+        this.checkoutEpochDay = checkoutEpochDay;
+        this.rentalDays = rentalDays;
+        this.percentDiscount = percentDiscount;
+        this.dueEpochDay = dueEpochDay;
+        this.numberChargeableDays = numberChargeableDays;
+        this.dailyCharges = dailyCharges;
+        this.subtotalCents = subtotalCents;
+        this.discountCents = discountCents;
+        this.totalCents = totalCents;
+    }
+
+    public ToolCode getToolCode() {
+        return toolCode;
+    }
+
+    public long getCheckoutEpochDay() {
+        return checkoutEpochDay;
+    }
+
+    public int getRentalDays() {
+        return rentalDays;
+    }
+
+    public int getPercentDiscount() {
+        return percentDiscount;
+    }
+
+    public long getDueEpochDay() {
+        return dueEpochDay;
+    }
+
+    public int getNumberChargeableDays() {
+        return numberChargeableDays;
+    }
+
+    public DailyChargeLedger getDailyCharges() {
+        return dailyCharges;
+    }
+
+    public long getSubtotalCents() {
+        return subtotalCents;
+    }
+
+    public long getDiscountCents() {
+        return discountCents;
+    }
+
+    public long getTotalCents() {
+        return totalCents;
+    }
+}
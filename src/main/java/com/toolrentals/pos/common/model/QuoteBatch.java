@@ -0,0 +1,146 @@
+package com.toolrentals.pos.common.model;
+
+import com.toolrentals.pos.common.enums.ToolCode;
+
+import java.util.Arrays;
+
+/**
+ * A batch of quote requests and their results, stored column by column in primitive arrays so that large batches can
+ * be priced without creating an object per request. Rows are added with {@link #add} and the result columns are
+ * filled in when the batch is priced.
+ */
+public class QuoteBatch {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int size;
+
+    // request columns
+    private ToolCode[] toolCodes;
+    private int[] rentalDays;
+    private long[] checkoutEpochDays;
+    private int[] discountPercents;
+
+    // result columns
+    private int[] chargeableDays;
+    private long[] subtotals;
+    private long[] discounts;
+    private long[] totals;
+
+    public QuoteBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public QuoteBatch(int capacity) {
+        int initialCapacity = Math.max(1, capacity);
+        toolCodes = new ToolCode[initialCapacity];
+        rentalDays = new int[initialCapacity];
+        checkoutEpochDays = new long[initialCapacity];
+        discountPercents = new int[initialCapacity];
+        chargeableDays = new int[initialCapacity];
+        subtotals = new long[initialCapacity];
+        discounts = new long[initialCapacity];
+        totals = new long[initialCapacity];
+    }
+
+    /**
+     * Add a quote request to the batch.
+     *
+     * @param toolCode         ToolCode - the code of the tool to rent.
+     * @param rentalDays       int - the number of days to rent the tool for.
+     * @param checkoutEpochDay long - the epoch day (days since January 1st, 1970) the rental starts.
+     * @param discountPercent  int - the discount percentage, 0 to 100.
+     * @return int - the row of the request in the batch.
+     */
+    public int add(ToolCode toolCode, int rentalDays, long checkoutEpochDay, int discountPercent) {
+        if (size == toolCodes.length) {
+            grow();
+        }
+        int row = size++;
+        this.toolCodes[row] = toolCode;
+        this.rentalDays[row] = rentalDays;
+        this.checkoutEpochDays[row] = checkoutEpochDay;
+        this.discountPercents[row] = discountPercent;
+        return row;
+    }
+
+    /**
+     * Record the priced result of a row.
+     *
+     * @param row            int - the row of the request.
+     * @param chargeableDays int - the number of chargeable days.
+     * @param subtotal       long - the pre-discount charge in cents.
+     * @param discount       long - the discount amount in cents.
+     * @param total          long - the final charge in cents.
+     */
+    public void setResult(int row, int chargeableDays, long subtotal, long discount, long total) {
+        this.chargeableDays[row] = chargeableDays;
+        this.subtotals[row] = subtotal;
+        this.discounts[row] = discount;
+        this.totals[row] = total;
+    }
+
+    /**
+     * Remove every row, keeping the capacity, so the batch can be reused for the next requests.
+     */
+    public void clear() {
+        Arrays.fill(toolCodes, 0, size, null);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public ToolCode getToolCode(int row) {
+        return toolCodes[row];
+    }
+
+    public int getRentalDays(int row) {
+        return rentalDays[row];
+    }
+
+    public long getCheckoutEpochDay(int row) {
+        return checkoutEpochDays[row];
+    }
+
+    public int getDiscountPercent(int row) {
+        return discountPercents[row];
+    }
+
+    /**
+     * @param row int - the row of the request.
+     * @return long - the epoch day the tool is due back.
+     */
+    public long getDueEpochDay(int row) {
+        return checkoutEpochDays[row] + rentalDays[row];
+    }
+
+    public int getChargeableDays(int row) {
+        return chargeableDays[row];
+    }
+
+    public long getSubtotalCents(int row) {
+        return subtotals[row];
+    }
+
+    public long getDiscountCents(int row) {
+        return discounts[row];
+    }
+
+    public long getTotalCents(int row) {
+        return totals[row];
+    }
+
+    private void grow() {
+        int capacity = toolCodes.length * 2;
+        toolCodes = Arrays.copyOf(toolCodes, capacity);
+        rentalDays = Arrays.copyOf(rentalDays, capacity);
+        checkoutEpochDays = Arrays.copyOf(checkoutEpochDays, capacity);
+        discountPercents = Arrays.copyOf(discountPercents, capacity);
+        chargeableDays = Arrays.copyOf(chargeableDays, capacity);
+        subtotals = Arrays.copyOf(subtotals, capacity);
+        discounts = Arrays.copyOf(discounts, capacity);
+        totals = Arrays.copyOf(totals, capacity);
+    }
+}
@@ -14,12 +14,16 @@ public class RentalAgreement implements Serializable {
     Integer rentalDays;
     Date checkoutDate;
     Date dueDate;
-    Map<Date, BigDecimal> rentalChargesByDate;
-    BigDecimal subtotal;
+    DailyChargeLedger dailyCharges;
+    long subtotalCents = Money.UNSET;
     Integer percentDiscount;
-    BigDecimal discount;
-    BigDecimal total;
+    long discountCents = Money.UNSET;
+    long totalCents = Money.UNSET;
     Integer numberChargeableDays;
+    Date returnDate;
+    Integer numberLateChargeableDays;
+    long lateFeeCents = Money.UNSET;
+    Integer bookedUnit;
 
     public RentalAgreement() {
     }
@@ -41,7 +45,7 @@ public class RentalAgreement implements Serializable {
     }
 
     public boolean hasDailyRentalCharges() {
-        return rentalChargesByDate != null && !rentalChargesByDate.isEmpty();
+        return dailyCharges != null && !dailyCharges.isEmpty();
     }
 
     public boolean hasNumberChargeableDays() {
@@ -49,7 +53,7 @@ public class RentalAgreement implements Serializable {
     }
 
     public boolean hasSubtotal() {
-        return subtotal != null;
+        return Money.isSet(subtotalCents);
     }
 
     public boolean hasPercentageDiscount() {
@@ -57,11 +61,23 @@ public class RentalAgreement implements Serializable {
     }
 
     public boolean hasDiscount() {
-        return discount != null;
+        return Money.isSet(discountCents);
     }
 
     public boolean hasTotal() {
-        return total != null;
+        return Money.isSet(totalCents);
+    }
+
+    public boolean hasReturnDate() {
+        return returnDate != null;
+    }
+
+    public boolean hasLateFee() {
+        return Money.isSet(lateFeeCents);
+    }
+
+    public boolean hasBookedUnit() {
+        return bookedUnit != null;
     }
 
     public Tool getTool() {
@@ -116,12 +132,31 @@ public class RentalAgreement implements Serializable {
         return this;
     }
 
+    public DailyChargeLedger getDailyCharges() {
+        return dailyCharges;
+    }
+
+    public void setDailyCharges(DailyChargeLedger dailyCharges) {
+        this.dailyCharges = dailyCharges;
+    }
+
+    public RentalAgreement dailyCharges(DailyChargeLedger dailyCharges) {
+        this.setDailyCharges(dailyCharges);
+        return this;
+    }
+
+    /**
+     * @return Map - a read only view of the daily charges keyed by the start of each day, in day order.
+     */
     public Map<Date, BigDecimal> getRentalChargesByDate() {
-        return rentalChargesByDate;
+        return dailyCharges == null ? null : dailyCharges.asMap();
     }
 
+    /**
+     * @param rentalChargesByDate Map - the charge for each day, which is copied into a {@link DailyChargeLedger}.
+     */
     public void setRentalChargesByDate(Map<Date, BigDecimal> rentalChargesByDate) {
-        this.rentalChargesByDate = rentalChargesByDate;
+        this.dailyCharges = rentalChargesByDate == null ? null : DailyChargeLedger.fromMap(rentalChargesByDate);
     }
 
     public RentalAgreement rentalChargesByDate(Map<Date, BigDecimal> rentalChargesByDate) {
@@ -130,11 +165,19 @@ public class RentalAgreement implements Serializable {
     }
 
     public BigDecimal getSubtotal() {
-        return subtotal;
+        return Money.toBigDecimal(subtotalCents);
     }
 
     public void setSubtotal(BigDecimal subtotal) {
-        this.subtotal = subtotal;
+        this.subtotalCents = Money.fromBigDecimal(subtotal);
+    }
+
+    public long getSubtotalCents() {
+        return subtotalCents;
+    }
+
+    public void setSubtotalCents(long subtotalCents) {
+        this.subtotalCents = subtotalCents;
     }
 
     public RentalAgreement subtotal(BigDecimal subtotal) {
@@ -156,11 +199,19 @@ public class RentalAgreement implements Serializable {
     }
 
     public BigDecimal getDiscount() {
-        return discount;
+        return Money.toBigDecimal(discountCents);
     }
 
     public void setDiscount(BigDecimal discount) {
-        this.discount = discount;
+        this.discountCents = Money.fromBigDecimal(discount);
+    }
+
+    public long getDiscountCents() {
+        return discountCents;
+    }
+
+    public void setDiscountCents(long discountCents) {
+        this.discountCents = discountCents;
     }
 
     public RentalAgreement discount(BigDecimal discount) {
@@ -169,11 +220,19 @@ public class RentalAgreement implements Serializable {
     }
 
     public BigDecimal getTotal() {
-        return total;
+        return Money.toBigDecimal(totalCents);
     }
 
     public void setTotal(BigDecimal total) {
-        this.total = total;
+        this.totalCents = Money.fromBigDecimal(total);
+    }
+
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    public void setTotalCents(long totalCents) {
+        this.totalCents = totalCents;
     }
 
     public RentalAgreement total(BigDecimal total) {
@@ -193,4 +252,66 @@ public class RentalAgreement implements Serializable {
         this.setNumberChargeableDays(numberChargeableDays);
         return this;
     }
+
+    public Date getReturnDate() {
+        return returnDate;
+    }
+
+    public void setReturnDate(Date returnDate) {
+        this.returnDate = returnDate;
+    }
+
+    public RentalAgreement returnDate(Date returnDate) {
+        this.setReturnDate(returnDate);
+        return this;
+    }
+
+    /**
+     * @return Integer - the chargeable days from the due date up to the return date, or up to the last late fee accrual
+     * while the tool is still out.
+     */
+    public Integer getNumberLateChargeableDays() {
+        return numberLateChargeableDays;
+    }
+
+    public void setNumberLateChargeableDays(Integer numberLateChargeableDays) {
+        this.numberLateChargeableDays = numberLateChargeableDays;
+    }
+
+    public RentalAgreement numberLateChargeableDays(Integer numberLateChargeableDays) {
+        this.setNumberLateChargeableDays(numberLateChargeableDays);
+        return this;
+    }
+
+    public BigDecimal getLateFee() {
+        return Money.toBigDecimal(lateFeeCents);
+    }
+
+    /**
+     * @return long - the late fee in cents, charged on top of the total, or {@link Money#UNSET}.
+     */
+    public long getLateFeeCents() {
+        return lateFeeCents;
+    }
+
+    public void setLateFeeCents(long lateFeeCents) {
+        this.lateFeeCents = lateFeeCents;
+    }
+
+    /**
+     * @return Integer - the unit of the tool booked for the rental in the availability calendar, or null if the rental
+     * was not booked in a calendar.
+     */
+    public Integer getBookedUnit() {
+        return bookedUnit;
+    }
+
+    public void setBookedUnit(Integer bookedUnit) {
+        this.bookedUnit = bookedUnit;
+    }
+
+    public RentalAgreement bookedUnit(Integer bookedUnit) {
+        this.setBookedUnit(bookedUnit);
+        return this;
+    }
 }
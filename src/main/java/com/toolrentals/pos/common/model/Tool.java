@@ -15,7 +15,7 @@ public abstract class Tool implements Serializable {
     private ToolCode toolCode;
     private ToolType toolType;
     private Brand brand;
-    private BigDecimal dailyCharge;
+    private long dailyChargeCents = Money.UNSET;
     private boolean weekdayCharge;
     private boolean weekendCharge;
     private boolean holidayCharge;
@@ -27,7 +27,7 @@ public abstract class Tool implements Serializable {
         this.toolCode = toolCode;
         this.toolType = toolType;
         this.brand = brand;
-        this.dailyCharge = dailyCharge;
+        this.dailyChargeCents = Money.fromBigDecimal(dailyCharge);
         this.weekdayCharge = weekdayCharge;
         this.weekendCharge = weekendCharge;
         this.holidayCharge = holidayCharge;
@@ -70,15 +70,23 @@ public abstract class Tool implements Serializable {
     }
 
     public BigDecimal getDailyCharge() {
-        return dailyCharge;
+        return Money.toBigDecimal(dailyChargeCents);
     }
 
     public void setDailyCharge(BigDecimal dailyCharge) {
-        this.dailyCharge = dailyCharge;
+        this.dailyChargeCents = Money.fromBigDecimal(dailyCharge);
+    }
+
+    public long getDailyChargeCents() {
+        return dailyChargeCents;
+    }
+
+    public void setDailyChargeCents(long dailyChargeCents) {
+        this.dailyChargeCents = dailyChargeCents;
     }
 
     public boolean hasDailyCharge() {
-        return dailyCharge != null;
+        return Money.isSet(dailyChargeCents);
     }
 
     public boolean isWeekdayCharge() {
@@ -0,0 +1,257 @@
+package com.toolrentals.pos.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.toolrentals.pos.CheckoutProcess;
+import com.toolrentals.pos.business.inventory.ToolUnavailableException;
+import com.toolrentals.pos.business.util.DateUtil;
+import com.toolrentals.pos.business.validation.ValidationResult;
+import com.toolrentals.pos.common.enums.ToolCode;
+import com.toolrentals.pos.common.model.CatalogTool;
+import com.toolrentals.pos.common.model.RentalAgreement;
+import com.toolrentals.pos.common.model.Tool;
+import com.toolrentals.pos.service.RentalAgreementSvc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP/JSON endpoint for quoting and checking out rentals, served by the JDK's HTTP server with a virtual thread per
+ * request. Both endpoints take a POST of
+ * <pre>
+ * {"toolCode": "LADW", "rentalDays": 3, "checkoutDate": "2026-07-02", "discountPercent": 10}
+ * </pre>
+ * and answer with the priced rental agreement. {@code /quote} prices the rental without reserving a tool, and
+ * {@code /checkout} goes through the {@link CheckoutProcess}, reserving, journaling and printing as it is set up to.
+ * Invalid requests are answered with status 400 and {@code {"error": "..."}}, using the messages of the validation.
+ * Requests failing validation also list the code of every error found, as in
+ * {@code {"error": "Must select a tool.", "codes": ["NO_TOOL", "TOO_FEW_RENTAL_DAYS"]}}, and are rejected without
+ * creating an exception. A checkout of a tool with no unit left is answered with status 409, and a failure of the
+ * server itself, e.g. a journal that cannot be written, with status 500 and no detail.
+ * <p>
+ * The JDK server writes the headers and the body separately, and with Nagle's algorithm the body then waits for the
+ * client's delayed ack, about 40 ms a request. Launch the JVM with {@code -Dsun.net.httpserver.nodelay=true} to avoid
+ * it; the setting applies to every JDK HTTP server in the JVM and is read once, when the first one starts.
+ */
+public class CheckoutServer implements AutoCloseable {
+
+    public static final int MAX_REQUEST_BYTES = 16_384;
+
+    // looked up by name without the exception ToolCode.valueOf throws for an unknown code
+    private static final Map<String, ToolCode> TOOL_CODES = new HashMap<>();
+
+    static {
+        for (ToolCode toolCode : ToolCode.values()) {
+            TOOL_CODES.put(toolCode.name(), toolCode);
+        }
+    }
+
+    private final CheckoutProcess checkoutProcess;
+    private final RentalAgreementSvc rentalAgreementSvc;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private DateUtil dateUtil;
+
+    /**
+     * Create a server listening on an address. Call {@link #start()} to start serving.
+     *
+     * @param checkoutProcess CheckoutProcess - checks out the rentals, and quotes them with its rental agreement
+     *                        service.
+     * @param address         InetSocketAddress - the address to listen on, port 0 for any free port.
+     * @throws IOException - if the address cannot be bound.
+     */
+    public CheckoutServer(CheckoutProcess checkoutProcess, InetSocketAddress address) throws IOException {
+        this.checkoutProcess = checkoutProcess;
+        this.rentalAgreementSvc = checkoutProcess.getRentalAgreementSvc();
+        this.server = HttpServer.create(address, 0);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        init();
+    }
+
+    private void init() {
+        dateUtil = new DateUtil();
+        server.setExecutor(executor);
+        server.createContext("/quote", exchange -> handle(exchange, false));
+        server.createContext("/checkout", exchange -> handle(exchange, true));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * @return int - the port the server listens on.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stop accepting requests, and wait for the requests being served to finish.
+     */
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(HttpExchange exchange, boolean checkout) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, error("Only POST is supported."));
+                return;
+            }
+            if (!exchange.getRequestURI().getPath().equals(exchange.getHttpContext().getPath())) {
+                respond(exchange, 404, error("No such endpoint."));
+                return;
+            }
+
+            RentalRequest request;
+            try {
+                request = readRequest(exchange.getRequestBody());
+            } catch (IOException | DateTimeParseException e) {
+                respond(exchange, 400, error(e.getMessage()));
+                return;
+            }
+
+            Tool tool = null;
+            if (request.toolCode != null) {
+                tool = checkout ? findCheckoutTool(request.toolCode) : rentalAgreementSvc.findTool(request.toolCode);
+                if (tool == null) {
+                    respond(exchange, 400, error("Unknown tool code " + request.toolCode + "."));
+                    return;
+                }
+            }
+
+            ValidationResult result = new ValidationResult();
+            RentalAgreement rentalAgreement;
+            try {
+                rentalAgreement = checkout ? checkout(tool, request, result)
+                        : rentalAgreementSvc.checkout(tool, request.rentalDays, request.checkoutDate, request.discountPercent, result);
+            } catch (RuntimeException | ExecutionException | IOException e) {
+                // e.g. a journal or receipt that could not be written, which is no fault of the request
+                respond(exchange, 500, error("The request could not be processed."));
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                respond(exchange, 500, error("The request could not be processed."));
+                return;
+            } catch (ToolUnavailableException e) {
+                respond(exchange, 409, error(e.getMessage()));
+                return;
+            } catch (Exception e) {
+                respond(exchange, 400, error(e.getMessage()));
+                return;
+            }
+            if (rentalAgreement == null) {
+                respond(exchange, 400, errors(result));
+                return;
+            }
+            respond(exchange, 200, write(rentalAgreement));
+        }
+    }
+
+    /**
+     * @return RentalAgreement - the checked out agreement, or null if the request failed validation.
+     */
+    private RentalAgreement checkout(Tool tool, RentalRequest request, ValidationResult result) throws Exception {
+        // validated up front, so only requests that can be checked out reach the checkout process
+        if (!rentalAgreementSvc.checkCheckout(tool, request.rentalDays, request.checkoutDate, request.discountPercent, result)) {
+            return null;
+        }
+        return checkoutProcess.checkout(tool.getToolCode(), request.rentalDays, request.checkoutDate, request.discountPercent);
+    }
+
+    /**
+     * @return Tool - the tool with the code, or null if the code is not a tool that can be checked out.
+     */
+    private Tool findCheckoutTool(String code) {
+        ToolCode toolCode = TOOL_CODES.get(code);
+        return toolCode == null ? null : rentalAgreementSvc.findTool(toolCode);
+    }
+
+    private RentalRequest readRequest(InputStream body) throws IOException {
+        JsonReader reader = new JsonReader(body, MAX_REQUEST_BYTES);
+        RentalRequest request = new RentalRequest();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "toolCode" -> request.toolCode = reader.nextString();
+                case "rentalDays" -> request.rentalDays = reader.nextInt();
+                case "checkoutDate" -> {
+                    String checkoutDate = reader.nextString();
+                    request.checkoutDate = checkoutDate == null ? null : dateUtil.fromEpochDay(LocalDate.parse(checkoutDate).toEpochDay());
+                }
+                case "discountPercent" -> request.discountPercent = reader.nextInt();
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        reader.endDocument();
+        return request;
+    }
+
+    private JsonWriter write(RentalAgreement rentalAgreement) {
+        Tool tool = rentalAgreement.getTool();
+        JsonWriter writer = new JsonWriter().beginObject();
+        writer.name("toolCode").value(tool instanceof CatalogTool catalogTool ? catalogTool.getCode() : tool.getToolCode().name());
+        writer.name("toolType").value(tool.getToolType().name());
+        writer.name("brand").value(tool.getBrand().name());
+        writer.name("rentalDays").value(rentalAgreement.getRentalDays());
+        writer.name("checkoutDate").value(isoDate(rentalAgreement.getCheckoutDate()));
+        writer.name("dueDate").value(isoDate(rentalAgreement.getDueDate()));
+        writer.name("dailyCharge").cents(tool.getDailyChargeCents());
+        writer.name("chargeableDays").value(rentalAgreement.getNumberChargeableDays());
+        writer.name("subtotal").cents(rentalAgreement.getSubtotalCents());
+        writer.name("discountPercent").value(rentalAgreement.getPercentDiscount());
+        writer.name("discount").cents(rentalAgreement.getDiscountCents());
+        writer.name("total").cents(rentalAgreement.getTotalCents());
+        return writer.endObject();
+    }
+
+    private String isoDate(Date date) {
+        return LocalDate.ofEpochDay(dateUtil.toEpochDay(date)).toString();
+    }
+
+    private static JsonWriter error(String message) {
+        return new JsonWriter().beginObject().name("error").value(message).endObject();
+    }
+
+    private static JsonWriter errors(ValidationResult result) {
+        JsonWriter writer = new JsonWriter().beginObject().name("error").value(result.getError(0).getMessage());
+        writer.name("codes").beginArray();
+        for (int i = 0; i < result.getErrorCount(); i++) {
+            writer.value(result.getError(i).name());
+        }
+        return writer.endArray().endObject();
+    }
+
+    private static void respond(HttpExchange exchange, int status, JsonWriter body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.size());
+        try (OutputStream out = exchange.getResponseBody()) {
+            body.writeTo(out);
+        }
+    }
+
+    /**
+     * The fields of a quote or checkout request.
+     */
+    private static class RentalRequest {
+
+        private String toolCode;
+        private int rentalDays;
+        private Date checkoutDate;
+        private int discountPercent;
+    }
+}
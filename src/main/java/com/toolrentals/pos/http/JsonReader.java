@@ -0,0 +1,303 @@
+package com.toolrentals.pos.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streaming JSON parser reading tokens straight from a stream of UTF-8 bytes, so a request is bound to its fields
+ * as it is read, without reflection or an intermediate tree. Objects and arrays are walked with {@link #beginObject()},
+ * {@link #hasNext()} and {@link #endObject()}, and values that are not wanted are skipped with {@link #skipValue()}.
+ */
+public class JsonReader {
+
+    private static final int BUFFER_SIZE = 512;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final long maxBytes;
+    private int position;
+    private int limit;
+    private long consumed;
+    // a value has been read in the current object or array, so the next one must follow a comma
+    private boolean needsComma;
+
+    /**
+     * @param in       InputStream - the JSON text, in UTF-8.
+     * @param maxBytes long - the most bytes read before the document is rejected.
+     */
+    public JsonReader(InputStream in, long maxBytes) {
+        this.in = in;
+        this.maxBytes = maxBytes;
+    }
+
+    public void beginObject() throws IOException {
+        expect('{');
+        needsComma = false;
+    }
+
+    public void endObject() throws IOException {
+        expect('}');
+        needsComma = true;
+    }
+
+    public void beginArray() throws IOException {
+        expect('[');
+        needsComma = false;
+    }
+
+    public void endArray() throws IOException {
+        expect(']');
+        needsComma = true;
+    }
+
+    /**
+     * @return boolean - true if the current object or array has another member, false if it ends next.
+     * @throws IOException - if the stream cannot be read or the JSON is malformed.
+     */
+    public boolean hasNext() throws IOException {
+        int c = peekToken();
+        if (c == '}' || c == ']') {
+            return false;
+        }
+        if (needsComma) {
+            expect(',');
+            needsComma = false;
+        }
+        return true;
+    }
+
+    /**
+     * @return String - the name of the next member of the current object.
+     * @throws IOException - if the stream cannot be read or the JSON is malformed.
+     */
+    public String nextName() throws IOException {
+        String name = readString();
+        expect(':');
+        needsComma = false;
+        return name;
+    }
+
+    /**
+     * @return String - the next string value, or null for a JSON null.
+     * @throws IOException - if the stream cannot be read or the next value is not a string or null.
+     */
+    public String nextString() throws IOException {
+        if (peekToken() == 'n') {
+            readLiteral("null");
+            return null;
+        }
+        String value = readString();
+        needsComma = true;
+        return value;
+    }
+
+    /**
+     * @return long - the next value, which must be a whole number.
+     * @throws IOException - if the stream cannot be read or the next value is not a whole number.
+     */
+    public long nextLong() throws IOException {
+        int c = peekToken();
+        boolean negative = c == '-';
+        if (negative) {
+            read();
+        }
+        long value = 0;
+        int digits = 0;
+        while ((c = peek()) >= '0' && c <= '9') {
+            read();
+            if (value > (Long.MAX_VALUE - (c - '0')) / 10) {
+                throw malformed("a number that fits in 64 bits");
+            }
+            value = value * 10 + (c - '0');
+            digits++;
+        }
+        if (digits == 0 || c == '.' || c == 'e' || c == 'E') {
+            throw malformed("a whole number");
+        }
+        needsComma = true;
+        return negative ? -value : value;
+    }
+
+    /**
+     * @return int - the next value, which must be a whole number that fits in an int.
+     * @throws IOException - if the stream cannot be read or the next value is not such a number.
+     */
+    public int nextInt() throws IOException {
+        long value = nextLong();
+        if (value != (int) value) {
+            throw malformed("a number that fits in 32 bits");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Skip the next value, including any objects and arrays nested in it.
+     *
+     * @throws IOException - if the stream cannot be read or the JSON is malformed.
+     */
+    public void skipValue() throws IOException {
+        int c = peekToken();
+        switch (c) {
+            case '{' -> {
+                beginObject();
+                while (hasNext()) {
+                    nextName();
+                    skipValue();
+                }
+                endObject();
+            }
+            case '[' -> {
+                beginArray();
+                while (hasNext()) {
+                    skipValue();
+                }
+                endArray();
+            }
+            case '"' -> nextString();
+            case 't' -> readLiteral("true");
+            case 'f' -> readLiteral("false");
+            case 'n' -> readLiteral("null");
+            default -> {
+                // any number, whole or not
+                if (c != '-' && (c < '0' || c > '9')) {
+                    throw malformed("a value");
+                }
+                read();
+                while ((c = peek()) >= '0' && c <= '9' || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                    read();
+                }
+                needsComma = true;
+            }
+        }
+    }
+
+    /**
+     * Check that nothing but whitespace follows the document.
+     *
+     * @throws IOException - if the stream cannot be read or more JSON follows.
+     */
+    public void endDocument() throws IOException {
+        if (peekToken() != -1) {
+            throw malformed("the end of the document");
+        }
+    }
+
+    private String readString() throws IOException {
+        expect('"');
+        StringBuilder value = new StringBuilder();
+        while (true) {
+            int c = read();
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c == '\\') {
+                c = read();
+                switch (c) {
+                    case '"', '\\', '/' -> value.append((char) c);
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> value.append((char) (hexDigit() << 12 | hexDigit() << 8 | hexDigit() << 4 | hexDigit()));
+                    default -> throw malformed("an escape sequence");
+                }
+            } else if (c < 0x20) {
+                throw malformed("the rest of the string");
+            } else if (c < 0x80) {
+                value.append((char) c);
+            } else {
+                value.appendCodePoint(readUtf8(c));
+            }
+        }
+    }
+
+    private int readUtf8(int first) throws IOException {
+        int continuation;
+        int codePoint;
+        if ((first & 0xE0) == 0xC0) {
+            continuation = 1;
+            codePoint = first & 0x1F;
+        } else if ((first & 0xF0) == 0xE0) {
+            continuation = 2;
+            codePoint = first & 0x0F;
+        } else if ((first & 0xF8) == 0xF0) {
+            continuation = 3;
+            codePoint = first & 0x07;
+        } else {
+            throw malformed("UTF-8 text");
+        }
+        for (int i = 0; i < continuation; i++) {
+            int c = read();
+            if ((c & 0xC0) != 0x80) {
+                throw malformed("UTF-8 text");
+            }
+            codePoint = codePoint << 6 | c & 0x3F;
+        }
+        if (codePoint > Character.MAX_CODE_POINT) {
+            throw malformed("UTF-8 text");
+        }
+        return codePoint;
+    }
+
+    private int hexDigit() throws IOException {
+        int digit = Character.digit(read(), 16);
+        if (digit < 0) {
+            throw malformed("a hex digit");
+        }
+        return digit;
+    }
+
+    private void readLiteral(String literal) throws IOException {
+        peekToken();
+        for (int i = 0; i < literal.length(); i++) {
+            if (read() != literal.charAt(i)) {
+                throw malformed(literal);
+            }
+        }
+        needsComma = true;
+    }
+
+    private void expect(char expected) throws IOException {
+        if (peekToken() != expected) {
+            throw malformed("'" + expected + "'");
+        }
+        read();
+    }
+
+    private int peekToken() throws IOException {
+        int c;
+        while ((c = peek()) == ' ' || c == '\t' || c == '\n' || c == '\r') {
+            read();
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position] & 0xFF;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            throw malformed("more JSON");
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        consumed += limit;
+        position = 0;
+        limit = Math.max(0, in.read(buffer));
+        if (consumed + limit > maxBytes) {
+            throw new IOException("JSON document is longer than " + maxBytes + " bytes.");
+        }
+        return limit > 0;
+    }
+
+    private IOException malformed(String expected) {
+        return new IOException("Malformed JSON at byte " + (consumed + position) + ": expected " + expected + ".");
+    }
+}
@@ -0,0 +1,178 @@
+package com.toolrentals.pos.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streaming JSON writer that encodes values straight into a byte buffer in UTF-8, to be sent with its length once
+ * complete. Members are written in order with {@link #name(String)} followed by a value, and commas are added as
+ * needed.
+ */
+public class JsonWriter {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private byte[] buffer = new byte[256];
+    private int size;
+    // a value has been written in the current object or array, so the next one must follow a comma
+    private boolean needsComma;
+
+    public JsonWriter beginObject() {
+        beforeValue();
+        put('{');
+        needsComma = false;
+        return this;
+    }
+
+    public JsonWriter endObject() {
+        put('}');
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter beginArray() {
+        beforeValue();
+        put('[');
+        needsComma = false;
+        return this;
+    }
+
+    public JsonWriter endArray() {
+        put(']');
+        needsComma = true;
+        return this;
+    }
+
+    /**
+     * @param name String - the name of the next member of the current object.
+     * @return JsonWriter - this writer.
+     */
+    public JsonWriter name(String name) {
+        beforeValue();
+        putString(name);
+        put(':');
+        needsComma = false;
+        return this;
+    }
+
+    /**
+     * @param value String - the value to write, which may be null.
+     * @return JsonWriter - this writer.
+     */
+    public JsonWriter value(String value) {
+        beforeValue();
+        if (value == null) {
+            putAscii("null");
+        } else {
+            putString(value);
+        }
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter value(long value) {
+        beforeValue();
+        putAscii(Long.toString(value));
+        needsComma = true;
+        return this;
+    }
+
+    /**
+     * Write an amount of money as a number with two decimal places.
+     *
+     * @param cents long - the amount in cents.
+     * @return JsonWriter - this writer.
+     */
+    public JsonWriter cents(long cents) {
+        beforeValue();
+        if (cents < 0) {
+            put('-');
+        }
+        long whole = Math.abs(cents / 100);
+        int fraction = (int) Math.abs(cents % 100);
+        putAscii(Long.toString(whole));
+        put('.');
+        put('0' + fraction / 10);
+        put('0' + fraction % 10);
+        needsComma = true;
+        return this;
+    }
+
+    /**
+     * @return int - the number of bytes written.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Copy everything written to a stream.
+     *
+     * @param out OutputStream - the stream to copy to.
+     * @throws IOException - if the stream cannot be written.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, size);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, size, StandardCharsets.UTF_8);
+    }
+
+    private void beforeValue() {
+        if (needsComma) {
+            put(',');
+            needsComma = false;
+        }
+    }
+
+    private void putString(String value) {
+        put('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                put('\\');
+                put(c);
+            } else if (c < 0x20) {
+                put('\\');
+                put('u');
+                put('0');
+                put('0');
+                put(HEX[c >> 4]);
+                put(HEX[c & 0xF]);
+            } else if (c < 0x80) {
+                put(c);
+            } else if (c < 0x800) {
+                put(0xC0 | c >> 6);
+                put(0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                put(0xF0 | codePoint >> 18);
+                put(0x80 | codePoint >> 12 & 0x3F);
+                put(0x80 | codePoint >> 6 & 0x3F);
+                put(0x80 | codePoint & 0x3F);
+            } else {
+                put(0xE0 | c >> 12);
+                put(0x80 | c >> 6 & 0x3F);
+                put(0x80 | c & 0x3F);
+            }
+        }
+        put('"');
+    }
+
+    private void putAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            put(value.charAt(i));
+        }
+    }
+
+    private void put(int b) {
+        if (size == buffer.length) {
+            buffer = Arrays.copyOf(buffer, size * 2);
+        }
+        buffer[size++] = (byte) b;
+    }
+}
@@ -1,10 +1,17 @@
 package com.toolrentals.pos.service;
 
+import com.toolrentals.pos.business.clock.BusinessClock;
+import com.toolrentals.pos.business.scheduler.ScheduledEvent;
+import com.toolrentals.pos.business.validation.ValidationResult;
 import com.toolrentals.pos.common.enums.ToolCode;
+import com.toolrentals.pos.common.model.CartAgreement;
+import com.toolrentals.pos.common.model.QuoteBatch;
 import com.toolrentals.pos.common.model.RentalAgreement;
 import com.toolrentals.pos.common.model.Tool;
 
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interface for managing rental agreements. Provided implementation {@link RentalAgreementSvcImpl}
@@ -26,6 +33,15 @@ public interface RentalAgreementSvc {
      */
     public Tool findTool(ToolCode toolCode);
 
+    /**
+     * Find the {@Link Tool} with the supplied catalog code (SKU), including tools loaded from a catalog file that have
+     * no {@Link ToolCode}.
+     *
+     * @param code String - the catalog code of the tool to find.
+     * @return Tool - the shared, immutable tool, or null if the code is null or not in the catalog.
+     */
+    public Tool findTool(String code);
+
     /**
      * Assign a tool to the rental agreement.
      *
@@ -117,4 +133,125 @@ public interface RentalAgreementSvc {
      */
     public void printRentalAgreement(RentalAgreement rentalAgreement) throws Exception;
 
+    /**
+     * Queue the rental agreement to be printed by a background printer, so the checkout does not wait for the
+     * printer. Waits for room if too many receipts are already queued.
+     *
+     * @param rentalAgreement RentalAgreement - the completed rental agreement, which must not be changed afterwards.
+     * @return CompletableFuture - completed once the receipt has been printed, or exceptionally if printing failed.
+     * @throws Exception - if any of the required data in the rental agreement has not been completed, or the printer
+     *                   has been shut down.
+     */
+    public CompletableFuture<Void> printRentalAgreementAsync(RentalAgreement rentalAgreement) throws Exception;
+
+    /**
+     * Stop the background printer and wait until every queued receipt has been printed. An asynchronous receipt
+     * queued afterwards starts a new printer, printing with the current renderer and sink.
+     *
+     * @throws Exception - if interrupted while waiting for the queued receipts.
+     */
+    public void shutdownAsyncPrinting() throws Exception;
+
+    /**
+     * Price every request in a batch of quotes in one call. The whole batch is validated once up front, then each
+     * request is priced and its chargeable days, subtotal, discount and total are recorded in the batch.
+     *
+     * @param batch QuoteBatch - the quote requests to price.
+     * @throws Exception - if the batch is not supplied or any request in it is invalid.
+     */
+    public void quoteBatch(QuoteBatch batch) throws Exception;
+
+    /**
+     * Create a complete rental agreement in a single pass, validating the inputs once and calculating the due date,
+     * chargeable days, subtotal, discount and total. The result is the same as that of the individual assign and
+     * calculate steps, except that the chargeable days are counted without itemizing the charge of each day; call
+     * {@link #calculateDailyRentalCharges} on the agreement when the daily charges are needed.
+     *
+     * @param tool            Tool - the tool the customer wishes to rent.
+     * @param rentalDays      int - the number of days for the rental.
+     * @param checkoutDate    Date - the date the customer wishes to begin the rental of the tool.
+     * @param percentDiscount int - the discount (whole number from 0 - 100) to apply to the rental agreement.
+     * @return RentalAgreement - the completed rental agreement.
+     * @throws Exception - if any of the inputs is missing or not valid.
+     */
+    public RentalAgreement checkout(Tool tool, int rentalDays, Date checkoutDate, int percentDiscount) throws Exception;
+
+    /**
+     * Check the inputs of a checkout without throwing, recording every input that is not valid, e.g. to reject bulk or
+     * untrusted requests without the cost of creating an exception.
+     *
+     * @param tool            Tool - the tool the customer wishes to rent.
+     * @param rentalDays      int - the number of days for the rental.
+     * @param checkoutDate    Date - the date the customer wishes to begin the rental of the tool.
+     * @param percentDiscount int - the discount (whole number from 0 - 100) to apply to the rental agreement.
+     * @param result          ValidationResult - cleared, then given every error found. It may be reused.
+     * @return boolean - true if every input is valid.
+     */
+    public boolean checkCheckout(Tool tool, int rentalDays, Date checkoutDate, int percentDiscount, ValidationResult result);
+
+    /**
+     * Create a complete rental agreement in a single pass as {@link #checkout(Tool, int, Date, int)} does, reporting
+     * inputs that are not valid in a result instead of throwing.
+     *
+     * @param tool            Tool - the tool the customer wishes to rent.
+     * @param rentalDays      int - the number of days for the rental.
+     * @param checkoutDate    Date - the date the customer wishes to begin the rental of the tool.
+     * @param percentDiscount int - the discount (whole number from 0 - 100) to apply to the rental agreement.
+     * @param result          ValidationResult - cleared, then given every error found. It may be reused.
+     * @return RentalAgreement - the completed rental agreement, or null if any of the inputs is missing or not valid.
+     */
+    public RentalAgreement checkout(Tool tool, int rentalDays, Date checkoutDate, int percentDiscount, ValidationResult result);
+
+    /**
+     * Price every line of a cart of tools checked out together, along with the cart's subtotal, discount and total.
+     * Each line gets its due date, chargeable days and subtotal.
+     *
+     * @param cart CartAgreement - the cart holding the checkout date, discount and the tool and rental days of each
+     *             line.
+     * @throws Exception - if the cart is not supplied, has no lines, or any of its inputs is not valid.
+     */
+    public void priceCart(CartAgreement cart) throws Exception;
+
+    /**
+     * Schedule the reminder sent before a checked out rental agreement is due and the late notice sent after it is
+     * due. The times follow from the due date calculated for the agreement; the late notice is measured from the start
+     * of the day after it, in the system time zone.
+     *
+     * @param rentalAgreement RentalAgreement - the completed rental agreement.
+     * @return List - the scheduled events, to cancel once the tool is returned; empty without a reminder scheduler.
+     * @throws Exception - if any of the required data in the rental agreement has not been completed.
+     */
+    public List<ScheduledEvent> scheduleReminders(RentalAgreement rentalAgreement) throws Exception;
+
+    /**
+     * Replace the clock deciding which day is 'today' when validating checkout dates, e.g. with a fixed clock in tests
+     * or when replaying past checkouts.
+     *
+     * @param businessClock BusinessClock - the clock to validate checkout dates against.
+     */
+    public void setBusinessClock(BusinessClock businessClock);
+
+    /**
+     * Validate that the tool of a rental agreement can be checked in, without closing the agreement, e.g. to release
+     * its unit before the agreement is closed. Hold the agreement's lock until it is checked in, so no other check-in
+     * can interleave.
+     *
+     * @param rentalAgreement RentalAgreement - the completed rental agreement.
+     * @param returnDate      Date - the date the customer returned the tool.
+     * @throws Exception - if any of the required data in the rental agreement has not been completed, the return date
+     *                   is not supplied or prior to the checkout date, or the agreement has already been returned.
+     */
+    public void validateCheckin(RentalAgreement rentalAgreement, Date returnDate) throws Exception;
+
+    /**
+     * Check in the tool of a rental agreement, closing the agreement. A late fee is charged at the tool's daily charge
+     * for each chargeable day from the due date up to the return date, under the same weekday, weekend and holiday
+     * rules as the rental. The discount does not apply to the late fee.
+     *
+     * @param rentalAgreement RentalAgreement - the completed rental agreement.
+     * @param returnDate      Date - the date the customer returned the tool.
+     * @throws Exception - if any of the required data in the rental agreement has not been completed, the return date
+     *                   is not supplied or prior to the checkout date, or the agreement has already been returned.
+     */
+    public void checkin(RentalAgreement rentalAgreement, Date returnDate) throws Exception;
 }
@@ -1,12 +1,28 @@
 package com.toolrentals.pos.service;
 
+import com.toolrentals.pos.business.calculator.CartPricingCalculator;
+import com.toolrentals.pos.business.calculator.LateFeeCalculator;
+import com.toolrentals.pos.business.calculator.ParallelPricingEngine;
 import com.toolrentals.pos.business.calculator.RentalChargeCalculator;
+import com.toolrentals.pos.business.catalog.ToolCatalog;
+import com.toolrentals.pos.business.clock.BusinessClock;
+import com.toolrentals.pos.business.receipt.AsyncReceiptPrinter;
+import com.toolrentals.pos.business.receipt.OutputStreamReceiptSink;
+import com.toolrentals.pos.business.receipt.ReceiptRenderer;
+import com.toolrentals.pos.business.receipt.ReceiptSink;
+import com.toolrentals.pos.business.scheduler.ScheduledEvent;
+import com.toolrentals.pos.business.scheduler.TimingWheelScheduler;
 import com.toolrentals.pos.business.util.DateUtil;
 import com.toolrentals.pos.business.validation.RentalAgreementValidator;
+import com.toolrentals.pos.business.validation.ValidationResult;
+import com.toolrentals.pos.common.enums.RentalEvent;
 import com.toolrentals.pos.common.enums.ToolCode;
 import com.toolrentals.pos.common.model.*;
 
+import java.time.Duration;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Provided implementation for the rental agreement service.
@@ -15,7 +31,17 @@ public class RentalAgreementSvcImpl implements RentalAgreementSvc {
 
     private RentalAgreementValidator validation;
     private RentalChargeCalculator rentalChargeCalculator;
+    private ParallelPricingEngine parallelPricingEngine;
+    private CartPricingCalculator cartPricingCalculator;
+    private LateFeeCalculator lateFeeCalculator;
     private DateUtil dateUtil;
+    private ToolCatalog toolCatalog;
+    private ReceiptRenderer receiptRenderer;
+    private ReceiptSink receiptSink;
+    private AsyncReceiptPrinter asyncReceiptPrinter;
+    private TimingWheelScheduler reminderScheduler;
+    private Duration reminderLead;
+    private Duration lateNoticeDelay;
 
     public RentalAgreementSvcImpl() {
         init();
@@ -24,7 +50,86 @@ public class RentalAgreementSvcImpl implements RentalAgreementSvc {
     private void init() {
         validation = new RentalAgreementValidator();
         rentalChargeCalculator = new RentalChargeCalculator();
+        parallelPricingEngine = new ParallelPricingEngine();
+        cartPricingCalculator = new CartPricingCalculator();
+        lateFeeCalculator = new LateFeeCalculator();
         dateUtil = new DateUtil();
+        toolCatalog = new ToolCatalog();
+        receiptRenderer = new ReceiptRenderer();
+        receiptSink = new OutputStreamReceiptSink(System.out);
+        reminderLead = Duration.ofHours(24);
+        lateNoticeDelay = Duration.ZERO;
+    }
+
+    /**
+     * Replace the engine used to price daily charges, subtotals and quote batches, e.g. to tune its split thresholds
+     * or run it on a dedicated pool.
+     *
+     * @param parallelPricingEngine ParallelPricingEngine - the engine to price with.
+     */
+    public void setParallelPricingEngine(ParallelPricingEngine parallelPricingEngine) {
+        this.parallelPricingEngine = parallelPricingEngine;
+    }
+
+    /**
+     * Replace the catalog the tools are found in, e.g. to share one catalog between services.
+     *
+     * @param toolCatalog ToolCatalog - the catalog to find tools in.
+     */
+    public void setToolCatalog(ToolCatalog toolCatalog) {
+        this.toolCatalog = toolCatalog;
+    }
+
+    /**
+     * Replace the clock deciding which day is 'today' when validating checkout dates, e.g. with a fixed clock in tests
+     * or when replaying past checkouts.
+     *
+     * @param businessClock BusinessClock - the clock to validate checkout dates against.
+     */
+    public void setBusinessClock(BusinessClock businessClock) {
+        validation.setBusinessClock(businessClock);
+    }
+
+    /**
+     * Replace the renderer of printed rental agreements, e.g. to render in another charset or locale.
+     *
+     * @param receiptRenderer ReceiptRenderer - the renderer to print with.
+     */
+    public void setReceiptRenderer(ReceiptRenderer receiptRenderer) {
+        this.receiptRenderer = receiptRenderer;
+    }
+
+    /**
+     * Replace where printed rental agreements are written, {@code System.out} by default.
+     *
+     * @param receiptSink ReceiptSink - the sink to print to.
+     */
+    public void setReceiptSink(ReceiptSink receiptSink) {
+        this.receiptSink = receiptSink;
+    }
+
+    /**
+     * Replace the background printer of asynchronous receipts, e.g. to change its queue capacity. By default one is
+     * started on first use, printing with the current renderer and sink.
+     *
+     * @param asyncReceiptPrinter AsyncReceiptPrinter - the printer to queue receipts on.
+     */
+    public synchronized void setAsyncReceiptPrinter(AsyncReceiptPrinter asyncReceiptPrinter) {
+        this.asyncReceiptPrinter = asyncReceiptPrinter;
+    }
+
+    /**
+     * Schedule due date reminders and late notices for checked out agreements on the supplied scheduler. Without a
+     * scheduler, none are sent.
+     *
+     * @param reminderScheduler TimingWheelScheduler - the scheduler of rental events.
+     * @param reminderLead      Duration - how long before the due date the reminder is sent.
+     * @param lateNoticeDelay   Duration - how long after the end of the due date the late notice is sent.
+     */
+    public void setReminderScheduler(TimingWheelScheduler reminderScheduler, Duration reminderLead, Duration lateNoticeDelay) {
+        this.reminderScheduler = reminderScheduler;
+        this.reminderLead = reminderLead;
+        this.lateNoticeDelay = lateNoticeDelay;
     }
 
     public RentalAgreement createRentalAgreement() {
@@ -32,12 +137,11 @@ public class RentalAgreementSvcImpl implements RentalAgreementSvc {
     }
 
     public Tool findTool(ToolCode toolCode) {
-        return switch (toolCode) {
-            case ToolCode.CHNS -> new StihlChainsaw();
-            case ToolCode.JAKD -> new DeWaltJackhammer();
-            case ToolCode.JAKR -> new RidgidJackhammer();
-            case ToolCode.LADW -> new WernerLadder();
-        };
+        return toolCatalog.findTool(toolCode);
+    }
+
+    public Tool findTool(String code) {
+        return toolCatalog.findTool(code);
     }
 
     public void assignToolToRentalAgreement(RentalAgreement rentalAgreement, Tool tool) throws Exception {
@@ -68,13 +172,13 @@ public class RentalAgreementSvcImpl implements RentalAgreementSvc {
         validation.validateRentalAgreementStarted(rentalAgreement);
         validation.validateRentableTool(rentalAgreement.getTool());
         validation.validateDueDate(rentalAgreement);
-        rentalChargeCalculator.calculateDailyRates(rentalAgreement);
+        parallelPricingEngine.calculateDailyRates(rentalAgreement);
     }
 
     public void calculateSubtotal(RentalAgreement rentalAgreement) throws Exception {
         validation.validateRentalAgreementStarted(rentalAgreement);
         validation.validateDailyRentalCharges(rentalAgreement);
-        rentalChargeCalculator.calculateSubtotal(rentalAgreement);
+        parallelPricingEngine.calculateSubtotal(rentalAgreement);
     }
 
     public void assignPercentDiscount(RentalAgreement rentalAgreement, int percentDiscount) throws Exception {
@@ -97,18 +201,109 @@ public class RentalAgreementSvcImpl implements RentalAgreementSvc {
 
     public void printRentalAgreement(RentalAgreement rentalAgreement) throws Exception {
         validation.validateRentalAgreementComplete(rentalAgreement);
-        System.out.printf("Tool code: %s%n", rentalAgreement.getTool().getToolCode());
-        System.out.printf("Tool type: %s%n", rentalAgreement.getTool().getToolType());
-        System.out.printf("Tool brand: %s%n", rentalAgreement.getTool().getBrand());
-        System.out.printf("Rental days: %,d%n", rentalAgreement.getRentalDays());
-        System.out.printf("Checkout date: %s%n", dateUtil.formatDateMMDDYY(rentalAgreement.getCheckoutDate()));
-        System.out.printf("Due date: %s%n", dateUtil.formatDateMMDDYY(rentalAgreement.getDueDate()));
-        System.out.printf("Daily rental charge: $%,.2f%n", rentalAgreement.getTool().getDailyCharge());
-        System.out.printf("Charge days: %d%n", rentalAgreement.getNumberChargeableDays());
-        System.out.printf("Pre-discount charge: $%,.2f%n", rentalAgreement.getSubtotal());
-        System.out.printf("Discount percent: %d%%%n", rentalAgreement.getPercentDiscount());
-        System.out.printf("Discount amount: $%,.2f%n", rentalAgreement.getDiscount());
-        System.out.printf("Final charge: $%,.2f%n", rentalAgreement.getTotal());
+        receiptRenderer.print(rentalAgreement, receiptSink);
+    }
+
+    public CompletableFuture<Void> printRentalAgreementAsync(RentalAgreement rentalAgreement) throws Exception {
+        validation.validateRentalAgreementComplete(rentalAgreement);
+        AsyncReceiptPrinter printer = getAsyncReceiptPrinter();
+        try {
+            return printer.print(rentalAgreement);
+        } catch (IllegalStateException e) {
+            // shut down between being fetched and queued on, so the receipt goes to the printer started after it
+            AsyncReceiptPrinter restarted = getAsyncReceiptPrinter();
+            if (restarted == printer) {
+                throw e;
+            }
+            return restarted.print(rentalAgreement);
+        }
+    }
+
+    public synchronized void shutdownAsyncPrinting() throws Exception {
+        if (asyncReceiptPrinter != null) {
+            asyncReceiptPrinter.close();
+            // a later asynchronous receipt starts a new printer
+            asyncReceiptPrinter = null;
+        }
+    }
+
+    public void quoteBatch(QuoteBatch batch) throws Exception {
+        validation.validateQuoteBatch(batch);
+        parallelPricingEngine.priceBatch(batch, toolCatalog.snapshot());
+    }
+
+    public RentalAgreement checkout(Tool tool, int rentalDays, Date checkoutDate, int percentDiscount) throws Exception {
+        // throws the first error, as the step by step validation reports it, and allocates nothing when all are valid
+        validation.validateCheckout(tool, rentalDays, checkoutDate, percentDiscount);
+        return price(tool, rentalDays, checkoutDate, percentDiscount);
+    }
+
+    public boolean checkCheckout(Tool tool, int rentalDays, Date checkoutDate, int percentDiscount, ValidationResult result) {
+        return validation.checkCheckout(tool, rentalDays, checkoutDate, percentDiscount, result);
+    }
+
+    public RentalAgreement checkout(Tool tool, int rentalDays, Date checkoutDate, int percentDiscount, ValidationResult result) {
+        if (!validation.checkCheckout(tool, rentalDays, checkoutDate, percentDiscount, result)) {
+            return null;
+        }
+        return price(tool, rentalDays, checkoutDate, percentDiscount);
+    }
+
+    private RentalAgreement price(Tool tool, int rentalDays, Date checkoutDate, int percentDiscount) {
+        RentalAgreement rentalAgreement = new RentalAgreement();
+        rentalAgreement.setTool(tool);
+        rentalAgreement.setRentalDays(rentalDays);
+        rentalAgreement.setCheckoutDate(checkoutDate);
+        rentalAgreement.setPercentDiscount(percentDiscount);
+        rentalAgreement.setDueDate(dateUtil.addDaysToDate(checkoutDate, rentalDays));
+        // counted in closed form; the daily charges are only itemized on request, see calculateDailyRentalCharges
+        rentalAgreement.setNumberChargeableDays(rentalChargeCalculator.calculateChargeableDays(rentalAgreement));
+        rentalChargeCalculator.calculateCharges(rentalAgreement);
+        return rentalAgreement;
+    }
+
+    public void priceCart(CartAgreement cart) throws Exception {
+        validation.validateCart(cart);
+        cartPricingCalculator.price(cart);
+    }
+
+    public List<ScheduledEvent> scheduleReminders(RentalAgreement rentalAgreement) throws Exception {
+        validation.validateRentalAgreementComplete(rentalAgreement);
+        if (reminderScheduler == null) {
+            return List.of();
+        }
+        long dueMillis = rentalAgreement.getDueDate().getTime();
+        long reminderMillis = dueMillis - reminderLead.toMillis();
+        // the tool can be returned at any time on its due date, so it is only late from the start of the next day
+        long lateMillis = dateUtil.fromEpochDay(dateUtil.toEpochDay(rentalAgreement.getDueDate()) + 1).getTime();
+        ScheduledEvent lateNotice = reminderScheduler.schedule(rentalAgreement, RentalEvent.LATE_NOTICE, lateMillis + lateNoticeDelay.toMillis());
+        // a rental shorter than the reminder lead gets no reminder
+        if (reminderMillis <= rentalAgreement.getCheckoutDate().getTime()) {
+            return List.of(lateNotice);
+        }
+        return List.of(reminderScheduler.schedule(rentalAgreement, RentalEvent.DUE_REMINDER, reminderMillis), lateNotice);
+    }
+
+    public void validateCheckin(RentalAgreement rentalAgreement, Date returnDate) throws Exception {
+        validation.validateRentalAgreementComplete(rentalAgreement);
+        validation.validateReturn(rentalAgreement, returnDate);
+    }
+
+    public void checkin(RentalAgreement rentalAgreement, Date returnDate) throws Exception {
+        validation.validateRentalAgreementComplete(rentalAgreement);
+        // locked so neither a second check-in nor a late fee accrual can interleave with this one
+        synchronized (rentalAgreement) {
+            validation.validateReturn(rentalAgreement, returnDate);
+            lateFeeCalculator.calculateLateFee(rentalAgreement, dateUtil.toEpochDay(returnDate));
+            rentalAgreement.setReturnDate(returnDate);
+        }
+    }
+
+    private synchronized AsyncReceiptPrinter getAsyncReceiptPrinter() {
+        if (asyncReceiptPrinter == null) {
+            asyncReceiptPrinter = new AsyncReceiptPrinter(receiptRenderer, receiptSink);
+        }
+        return asyncReceiptPrinter;
     }
 
 }
@@ -1,13 +1,39 @@
 package com.toolrentals.pos;
 
+import com.toolrentals.pos.business.catalog.ToolCatalog;
+import com.toolrentals.pos.business.clock.FixedBusinessClock;
+import com.toolrentals.pos.business.inventory.AvailabilityCalendar;
+import com.toolrentals.pos.business.inventory.DueDateIndex;
+import com.toolrentals.pos.business.inventory.ToolInventory;
+import com.toolrentals.pos.business.journal.DurabilityPolicy;
+import com.toolrentals.pos.business.journal.RentalJournal;
+import com.toolrentals.pos.business.journal.RentalState;
+import com.toolrentals.pos.business.scheduler.TimingWheelScheduler;
+import com.toolrentals.pos.business.util.DateUtil;
 import com.toolrentals.pos.common.enums.ToolCode;
+import com.toolrentals.pos.common.model.CartAgreement;
+import com.toolrentals.pos.common.model.CartLine;
+import com.toolrentals.pos.common.model.RentalAgreement;
+import com.toolrentals.pos.service.RentalAgreementSvcImpl;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class CheckoutProcessTest {
 
@@ -48,13 +74,408 @@ public class CheckoutProcessTest {
 
     @Test
     public void testCheckoutProcessNoErrors() {
+        // validated as of the checkout date, so the date is never in the past
+        RentalAgreementSvcImpl svc = new RentalAgreementSvcImpl();
+        svc.setBusinessClock(new FixedBusinessClock(LocalDate.of(2025, 7, 1)));
+        CheckoutProcess terminal = new CheckoutProcess(new ToolCatalog(), new ToolInventory(), svc);
         Calendar cal = Calendar.getInstance();
         cal.set(Calendar.DAY_OF_MONTH, 1);
         cal.set(Calendar.MONTH, Calendar.JULY);
         cal.set(Calendar.YEAR, 2025);
         assertDoesNotThrow(
-                () -> checkoutProcess.checkout(ToolCode.JAKD, 7000, cal.getTime(), 0)
+                () -> terminal.checkout(ToolCode.JAKD, 7000, cal.getTime(), 0)
         );
     }
 
+    @Test
+    public void testCheckoutProcessOutOfStock() throws Exception {
+        ToolInventory toolInventory = new ToolInventory();
+        toolInventory.setUnits(ToolCode.JAKR, 1);
+        CheckoutProcess terminal = new CheckoutProcess(new ToolCatalog(), toolInventory);
+        CheckoutProcess otherTerminal = new CheckoutProcess(terminal.getToolCatalog(), toolInventory);
+
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        // a rejected checkout does not reserve the only unit
+        assertThrows(
+                Exception.class,
+                () -> terminal.checkout(ToolCode.JAKR, 0, cal.getTime(), 0),
+                "Must rent tool for at least 1 day."
+        );
+        assertDoesNotThrow(
+                () -> terminal.checkout(ToolCode.JAKR, 3, cal.getTime(), 0)
+        );
+        assertThrows(
+                Exception.class,
+                () -> otherTerminal.checkout(ToolCode.JAKR, 3, cal.getTime(), 0),
+                "No JAKR is available to rent."
+        );
+        assertDoesNotThrow(
+                () -> otherTerminal.checkout(ToolCode.JAKD, 3, cal.getTime(), 0)
+        );
+    }
+
+    @Test
+    public void testCheckoutProcessBookedAhead() throws Exception {
+        AvailabilityCalendar availabilityCalendar = new AvailabilityCalendar();
+        availabilityCalendar.setUnits(ToolCode.LADW, 1);
+        checkoutProcess.setAvailabilityCalendar(availabilityCalendar);
+
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, 10);
+        Date checkoutDate = cal.getTime();
+        assertDoesNotThrow(
+                () -> checkoutProcess.checkout(ToolCode.LADW, 5, checkoutDate, 0)
+        );
+        cal.add(Calendar.DAY_OF_MONTH, 4);
+        assertThrows(
+                Exception.class,
+                () -> checkoutProcess.checkout(ToolCode.LADW, 2, cal.getTime(), 0)
+        );
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        assertDoesNotThrow(
+                () -> checkoutProcess.checkout(ToolCode.LADW, 2, cal.getTime(), 0)
+        );
+    }
+
+    @Test
+    public void testCheckoutProcessIndexesDueDate() throws Exception {
+        DueDateIndex dueDateIndex = new DueDateIndex();
+        checkoutProcess.setDueDateIndex(dueDateIndex);
+
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        checkoutProcess.checkout(ToolCode.JAKR, 3, cal.getTime(), 0);
+        checkoutProcess.checkout(ToolCode.CHNS, 1, cal.getTime(), 0);
+        assertThrows(
+                Exception.class,
+                () -> checkoutProcess.checkout(ToolCode.CHNS, 0, cal.getTime(), 0)
+        );
+
+        long checkoutEpochDay = checkoutProcess.dateUtil.toEpochDay(cal.getTime());
+        assertEquals(2, dueDateIndex.size());
+        assertEquals(1, dueDateIndex.forEachDueOnOrBefore(checkoutEpochDay + 1, rentalAgreement -> {}));
+        assertEquals(2, dueDateIndex.forEachDueOnOrBefore(checkoutEpochDay + 3, rentalAgreement -> {}));
+    }
+
+    @Test
+    public void testCheckoutProcessShutdownLeavesSharedCatalog() throws Exception {
+        ToolCatalog toolCatalog = new ToolCatalog();
+        RentalAgreementSvcImpl svc = new RentalAgreementSvcImpl();
+        svc.setReceiptSink(receipt -> {});
+        CheckoutProcess terminal = new CheckoutProcess(toolCatalog, new ToolInventory(), svc);
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        terminal.checkout(ToolCode.JAKD, 3, cal.getTime(), 0);
+        assertEquals(1, terminal.getQuoteCache().size());
+
+        // once shut down, changes to the shared catalog no longer reach its cache
+        terminal.shutdown();
+        toolCatalog.updateDailyCharge(ToolCode.JAKD, new BigDecimal("3.49"));
+        assertEquals(1, terminal.getQuoteCache().size());
+        assertEquals(0, terminal.getQuoteCache().getGeneration());
+    }
+
+    @Test
+    public void testCheckoutProcessCartReservesAllOrNothing() throws Exception {
+        ToolInventory toolInventory = new ToolInventory();
+        toolInventory.setUnits(ToolCode.JAKR, 2);
+        toolInventory.setUnits(ToolCode.LADW, 1);
+        CheckoutProcess terminal = new CheckoutProcess(new ToolCatalog(), toolInventory);
+        ToolCatalog toolCatalog = terminal.getToolCatalog();
+
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        CartAgreement cart = terminal.checkoutCart(new CartAgreement().checkoutDate(cal.getTime()).percentDiscount(0)
+                .addLine(toolCatalog.findTool(ToolCode.JAKR), 3)
+                .addLine(toolCatalog.findTool(ToolCode.JAKR), 3)
+                .addLine(toolCatalog.findTool(ToolCode.CHNS), 5));
+        assertTrue(cart.hasTotal());
+        assertEquals(0, toolInventory.getAvailable(ToolCode.JAKR));
+
+        // the ladder is reserved first, and given back when no jackhammer is left
+        assertThrows(
+                Exception.class,
+                () -> terminal.checkoutCart(new CartAgreement().checkoutDate(cal.getTime()).percentDiscount(0)
+                        .addLine(toolCatalog.findTool(ToolCode.LADW), 2)
+                        .addLine(toolCatalog.findTool(ToolCode.JAKR), 2)),
+                "No JAKR is available to rent."
+        );
+        assertEquals(1, toolInventory.getAvailable(ToolCode.LADW));
+    }
+
+    @Test
+    public void testCheckoutProcessCartCheckin(@TempDir Path tempDir) throws Exception {
+        ToolInventory toolInventory = new ToolInventory();
+        toolInventory.setUnits(ToolCode.JAKR, 2);
+        toolInventory.setUnits(ToolCode.CHNS, 1);
+        CheckoutProcess terminal = new CheckoutProcess(new ToolCatalog(), toolInventory);
+        DueDateIndex dueDateIndex = new DueDateIndex();
+        terminal.setDueDateIndex(dueDateIndex);
+        RentalJournal rentalJournal = new RentalJournal(tempDir.resolve("rentals.journal"), DurabilityPolicy.osManaged());
+        terminal.setRentalJournal(rentalJournal);
+        ToolCatalog toolCatalog = terminal.getToolCatalog();
+
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        CartAgreement cart = terminal.checkoutCart(new CartAgreement().checkoutDate(cal.getTime()).percentDiscount(15)
+                .addLine(toolCatalog.findTool(ToolCode.JAKR), 3)
+                .addLine(toolCatalog.findTool(ToolCode.JAKR), 4)
+                .addLine(toolCatalog.findTool(ToolCode.CHNS), 5));
+        assertEquals(0, toolInventory.getAvailable(ToolCode.JAKR));
+        assertEquals(3, dueDateIndex.size());
+        assertEquals(3, rentalJournal.getRecordCount());
+
+        // each line is an agreement of its own, whose totals add up to the cart's
+        long total = 0;
+        for (CartLine line : cart.getLines()) {
+            RentalAgreement rentalAgreement = line.getRentalAgreement();
+            assertEquals(line.getTool(), rentalAgreement.getTool());
+            assertEquals(line.getDueDate(), rentalAgreement.getDueDate());
+            assertEquals(line.getSubtotalCents(), rentalAgreement.getSubtotalCents());
+            total += rentalAgreement.getTotalCents();
+        }
+        assertEquals(cart.getTotalCents(), total);
+
+        // one jackhammer comes back early, the rest with the cart
+        RentalAgreement early = cart.getLines().get(0).getRentalAgreement();
+        terminal.checkin(early, early.getDueDate());
+        assertEquals(1, toolInventory.getAvailable(ToolCode.JAKR));
+        terminal.checkinCart(cart, cart.getLines().get(2).getDueDate());
+        assertEquals(2, toolInventory.getAvailable(ToolCode.JAKR));
+        assertEquals(1, toolInventory.getAvailable(ToolCode.CHNS));
+        assertEquals(0, dueDateIndex.size());
+        assertEquals(6, rentalJournal.getRecordCount());
+        rentalJournal.close();
+    }
+
+    @Test
+    public void testCheckoutProcessCartDiscountShares() throws Exception {
+        CheckoutProcess terminal = new CheckoutProcess();
+        terminal.setBusinessClock(new FixedBusinessClock(LocalDate.of(2026, 10, 17)));
+        ToolCatalog toolCatalog = terminal.getToolCatalog();
+        DateUtil dateUtil = new DateUtil();
+
+        // checked out on a Saturday, each ladder charges Sunday and the jackhammer charges nothing
+        CartAgreement cart = terminal.checkoutCart(new CartAgreement()
+                .checkoutDate(dateUtil.fromEpochDay(LocalDate.of(2026, 10, 24).toEpochDay())).percentDiscount(50)
+                .addLine(toolCatalog.findTool(ToolCode.LADW), 1)
+                .addLine(toolCatalog.findTool(ToolCode.LADW), 1)
+                .addLine(toolCatalog.findTool(ToolCode.JAKD), 1));
+        assertEquals(199, cart.getDiscountCents());
+
+        long discount = 0;
+        long total = 0;
+        for (CartLine line : cart.getLines()) {
+            RentalAgreement rentalAgreement = line.getRentalAgreement();
+            assertTrue(rentalAgreement.getDiscountCents() >= 0);
+            assertTrue(rentalAgreement.getDiscountCents() <= rentalAgreement.getSubtotalCents());
+            discount += rentalAgreement.getDiscountCents();
+            total += rentalAgreement.getTotalCents();
+        }
+        assertEquals(0, cart.getLines().get(2).getRentalAgreement().getDiscountCents());
+        assertEquals(0, cart.getLines().get(2).getRentalAgreement().getTotalCents());
+        assertEquals(cart.getDiscountCents(), discount);
+        assertEquals(cart.getTotalCents(), total);
+    }
+
+    @Test
+    public void testCheckoutProcessFailedPrintGivesUnitBack(@TempDir Path tempDir) throws Exception {
+        ToolInventory toolInventory = new ToolInventory();
+        toolInventory.setUnits(ToolCode.JAKR, 1);
+        AtomicBoolean jammed = new AtomicBoolean(true);
+        RentalAgreementSvcImpl svc = new RentalAgreementSvcImpl();
+        svc.setReceiptSink(receipt -> {
+            if (jammed.get()) {
+                throw new IOException("printer jammed");
+            }
+        });
+        CheckoutProcess terminal = new CheckoutProcess(new ToolCatalog(), toolInventory, svc);
+        DueDateIndex dueDateIndex = new DueDateIndex();
+        terminal.setDueDateIndex(dueDateIndex);
+        RentalJournal rentalJournal = new RentalJournal(tempDir.resolve("rentals.journal"), DurabilityPolicy.osManaged());
+        terminal.setRentalJournal(rentalJournal);
+
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        assertThrows(
+                IOException.class,
+                () -> terminal.checkout(ToolCode.JAKR, 3, cal.getTime(), 0),
+                "printer jammed"
+        );
+        assertEquals(1, toolInventory.getAvailable(ToolCode.JAKR));
+        assertEquals(0, dueDateIndex.size());
+        ExecutionException failed = assertThrows(
+                ExecutionException.class,
+                () -> terminal.checkoutAsync(ToolCode.JAKR, 3, cal.getTime(), 0).get(5, TimeUnit.SECONDS)
+        );
+        assertTrue(failed.getCause() instanceof IOException);
+        assertEquals(1, toolInventory.getAvailable(ToolCode.JAKR));
+        assertEquals(0, dueDateIndex.size());
+
+        // the abandoned checkouts were journaled, so they are journaled as returned too
+        assertEquals(4, rentalJournal.getRecordCount());
+        RentalState rentalState = new RentalState();
+        rentalJournal.read(0, rentalJournal.getRecordCount(), rentalState::apply);
+        assertEquals(0, rentalState.getOpenRentals("JAKR"));
+
+        jammed.set(false);
+        assertDoesNotThrow(
+                () -> terminal.checkout(ToolCode.JAKR, 3, cal.getTime(), 0)
+        );
+        assertEquals(0, toolInventory.getAvailable(ToolCode.JAKR));
+        rentalJournal.close();
+
+        // a cart that cannot be journaled gives back every line
+        toolInventory.setUnits(ToolCode.LADW, 2);
+        CartAgreement cart = new CartAgreement().checkoutDate(cal.getTime()).percentDiscount(0)
+                .addLine(terminal.getToolCatalog().findTool(ToolCode.LADW), 2)
+                .addLine(terminal.getToolCatalog().findTool(ToolCode.LADW), 3);
+        assertThrows(IllegalStateException.class, () -> terminal.checkoutCart(cart));
+        assertEquals(2, toolInventory.getAvailable(ToolCode.LADW));
+        assertEquals(1, dueDateIndex.size());
+        assertFalse(cart.getLines().get(0).hasRentalAgreement());
+    }
+
+    @Test
+    public void testCheckoutProcessCheckin() throws Exception {
+        ToolInventory toolInventory = new ToolInventory();
+        toolInventory.setUnits(ToolCode.LADW, 1);
+        RentalAgreementSvcImpl svc = new RentalAgreementSvcImpl();
+        svc.setReceiptSink(receipt -> {});
+        TimingWheelScheduler scheduler = new TimingWheelScheduler(event -> {});
+        svc.setReminderScheduler(scheduler, Duration.ofHours(24), Duration.ZERO);
+        CheckoutProcess terminal = new CheckoutProcess(new ToolCatalog(), toolInventory, svc);
+        DueDateIndex dueDateIndex = new DueDateIndex();
+        terminal.setDueDateIndex(dueDateIndex);
+
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        RentalAgreement rentalAgreement = terminal.checkout(ToolCode.LADW, 3, cal.getTime(), 0);
+        assertEquals(0, toolInventory.getAvailable(ToolCode.LADW));
+        assertEquals(2, scheduler.getScheduledEvents());
+
+        terminal.checkin(rentalAgreement, rentalAgreement.getDueDate());
+        assertEquals(0, rentalAgreement.getLateFeeCents());
+        assertEquals(1, toolInventory.getAvailable(ToolCode.LADW));
+        assertFalse(dueDateIndex.contains(rentalAgreement));
+        assertEquals(0, scheduler.getScheduledEvents());
+
+        // a second check-in is rejected before the unit could be released twice
+        assertThrows(
+                Exception.class,
+                () -> terminal.checkin(rentalAgreement, rentalAgreement.getDueDate()),
+                "Rental agreement has already been returned."
+        );
+        assertEquals(1, toolInventory.getAvailable(ToolCode.LADW));
+        scheduler.close();
+    }
+
+    @Test
+    public void testCheckoutProcessCheckinAfterStocking() throws Exception {
+        ToolInventory toolInventory = new ToolInventory();
+        RentalAgreementSvcImpl svc = new RentalAgreementSvcImpl();
+        svc.setReceiptSink(receipt -> {});
+        CheckoutProcess terminal = new CheckoutProcess(new ToolCatalog(), toolInventory, svc);
+
+        // rented while the chainsaw was not yet stocked
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        RentalAgreement rentalAgreement = terminal.checkout(ToolCode.CHNS, 3, cal.getTime(), 0);
+        toolInventory.setUnits(ToolCode.CHNS, 1);
+        assertEquals(0, toolInventory.getAvailable(ToolCode.CHNS));
+
+        terminal.checkin(rentalAgreement, rentalAgreement.getDueDate());
+        assertTrue(rentalAgreement.hasReturnDate());
+        assertEquals(1, toolInventory.getAvailable(ToolCode.CHNS));
+    }
+
+    @Test
+    public void testCheckoutProcessBookedAheadHoldsNoUnitToday() throws Exception {
+        ToolInventory toolInventory = new ToolInventory();
+        toolInventory.setUnits(ToolCode.JAKR, 1);
+        AvailabilityCalendar availabilityCalendar = new AvailabilityCalendar();
+        availabilityCalendar.setUnits(ToolCode.JAKR, 1);
+        RentalAgreementSvcImpl svc = new RentalAgreementSvcImpl();
+        svc.setReceiptSink(receipt -> {});
+        CheckoutProcess terminal = new CheckoutProcess(new ToolCatalog(), toolInventory, svc);
+        terminal.setAvailabilityCalendar(availabilityCalendar);
+        FixedBusinessClock clock = new FixedBusinessClock(LocalDate.of(2030, 3, 1));
+        terminal.setBusinessClock(clock);
+        DateUtil dateUtil = new DateUtil();
+
+        // a booking for July keeps the only jackhammer free until then
+        RentalAgreement july = terminal.checkout(ToolCode.JAKR, 5, dateUtil.fromEpochDay(LocalDate.of(2030, 7, 1).toEpochDay()), 0);
+        assertEquals(0, july.getBookedUnit());
+        assertEquals(1, toolInventory.getAvailable(ToolCode.JAKR));
+        RentalAgreement today = terminal.checkout(ToolCode.JAKR, 10, dateUtil.fromEpochDay(clock.getTodayEpochDay()), 0);
+        assertEquals(0, toolInventory.getAvailable(ToolCode.JAKR));
+
+        // returned early, so the rest of its booking is cancelled
+        Date returnDate = dateUtil.fromEpochDay(LocalDate.of(2030, 3, 4).toEpochDay());
+        assertFalse(availabilityCalendar.isAvailable(ToolCode.JAKR, LocalDate.of(2030, 3, 5).toEpochDay(), 1));
+        terminal.checkin(today, returnDate);
+        assertTrue(availabilityCalendar.isAvailable(ToolCode.JAKR, LocalDate.of(2030, 3, 4).toEpochDay(), 7));
+        assertEquals(1, toolInventory.getAvailable(ToolCode.JAKR));
+
+        // the July rental takes the unit once it starts
+        assertEquals(0, terminal.startRentals(LocalDate.of(2030, 6, 30).toEpochDay()));
+        assertEquals(1, toolInventory.getAvailable(ToolCode.JAKR));
+        assertEquals(0, terminal.startRentals(LocalDate.of(2030, 7, 1).toEpochDay()));
+        assertEquals(0, toolInventory.getAvailable(ToolCode.JAKR));
+        terminal.checkin(july, july.getDueDate());
+        assertEquals(1, toolInventory.getAvailable(ToolCode.JAKR));
+    }
+
+    @Test
+    public void testCheckoutProcessBookedAheadReturnedBeforeStart() throws Exception {
+        ToolInventory toolInventory = new ToolInventory();
+        toolInventory.setUnits(ToolCode.LADW, 1);
+        AvailabilityCalendar availabilityCalendar = new AvailabilityCalendar();
+        availabilityCalendar.setUnits(ToolCode.LADW, 1);
+        RentalAgreementSvcImpl svc = new RentalAgreementSvcImpl();
+        svc.setReceiptSink(receipt -> {});
+        CheckoutProcess terminal = new CheckoutProcess(new ToolCatalog(), toolInventory, svc);
+        terminal.setAvailabilityCalendar(availabilityCalendar);
+        terminal.setBusinessClock(new FixedBusinessClock(LocalDate.of(2030, 3, 1)));
+        DateUtil dateUtil = new DateUtil();
+
+        // cancelled on its first day, before any run started it, so no unit is released
+        Date checkoutDate = dateUtil.fromEpochDay(LocalDate.of(2030, 3, 10).toEpochDay());
+        RentalAgreement rentalAgreement = terminal.checkout(ToolCode.LADW, 3, checkoutDate, 0);
+        terminal.checkin(rentalAgreement, checkoutDate);
+        assertEquals(1, toolInventory.getAvailable(ToolCode.LADW));
+        assertEquals(0, availabilityCalendar.getBookings(ToolCode.LADW));
+        assertEquals(0, terminal.startRentals(LocalDate.of(2030, 3, 10).toEpochDay()));
+        assertEquals(1, toolInventory.getAvailable(ToolCode.LADW));
+    }
+
+    @Test
+    public void testCheckoutProcessCheckinIsJournaled(@TempDir Path tempDir) throws Exception {
+        RentalAgreementSvcImpl svc = new RentalAgreementSvcImpl();
+        svc.setReceiptSink(receipt -> {});
+        CheckoutProcess terminal = new CheckoutProcess(new ToolCatalog(), new ToolInventory(), svc);
+        RentalJournal rentalJournal = new RentalJournal(tempDir.resolve("rentals.journal"), DurabilityPolicy.everyRecord());
+        terminal.setRentalJournal(rentalJournal);
+
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        RentalAgreement returned = terminal.checkout(ToolCode.LADW, 3, cal.getTime(), 0);
+        terminal.checkout(ToolCode.LADW, 2, cal.getTime(), 0);
+        terminal.checkin(returned, new DateUtil().addDaysToDate(returned.getDueDate(), 4));
+        rentalJournal.close();
+
+        // after a restart only the rental still out holds a unit, however long it is overdue
+        RentalState rentalState = new RentalState();
+        RentalJournal reopened = new RentalJournal(tempDir.resolve("rentals.journal"), DurabilityPolicy.osManaged());
+        reopened.read(0, reopened.getRecordCount(), rentalState::apply);
+        reopened.close();
+        assertEquals(3, reopened.getRecordCount());
+        assertEquals(1, rentalState.getOpenRentals("LADW"));
+        assertEquals(returned.getLateFeeCents(), rentalState.getToolState("LADW").getLateFeeCents());
+        ToolInventory restarted = new ToolInventory();
+        restarted.setUnits(ToolCode.LADW, 2);
+        assertEquals(0, rentalState.restoreInventory(restarted));
+        assertEquals(1, restarted.getAvailable(ToolCode.LADW));
+    }
 }
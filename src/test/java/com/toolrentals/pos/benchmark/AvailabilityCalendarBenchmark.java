@@ -0,0 +1,51 @@
+package com.toolrentals.pos.benchmark;
+
+import com.toolrentals.pos.business.inventory.AvailabilityCalendar;
+import com.toolrentals.pos.common.enums.ToolCode;
+
+import java.util.Random;
+
+/**
+ * Measures bulk loading bookings into {@link AvailabilityCalendar} and checking availability against them. Run with
+ * {@code java -cp target/classes:target/test-classes com.toolrentals.pos.benchmark.AvailabilityCalendarBenchmark [bookingsPerUnit]}.
+ */
+public class AvailabilityCalendarBenchmark {
+
+    private static final int UNITS = 10;
+
+    private static volatile long sink;
+
+    public static void main(String[] args) {
+        int bookingsPerUnit = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Random random = new Random(82024);
+        AvailabilityCalendar calendar = new AvailabilityCalendar();
+        calendar.setUnits(ToolCode.CHNS, UNITS);
+
+        long start = System.nanoTime();
+        for (int unit = 0; unit < UNITS; unit++) {
+            // back to back rentals of 1 - 7 days with a free day between
+            long[] starts = new long[bookingsPerUnit];
+            int[] days = new int[bookingsPerUnit];
+            long day = 0;
+            for (int i = 0; i < bookingsPerUnit; i++) {
+                starts[i] = day;
+                days[i] = 1 + random.nextInt(7);
+                day += days[i] + 1;
+            }
+            calendar.addBookings(ToolCode.CHNS, unit, starts, days);
+        }
+        double loadMillis = (System.nanoTime() - start) / 1e6;
+
+        int queries = 2_000_000;
+        long span = bookingsPerUnit * 5L;
+        for (int round = 0; round < 2; round++) {
+            start = System.nanoTime();
+            for (int i = 0; i < queries; i++) {
+                sink += calendar.findFreeUnit(ToolCode.CHNS, random.nextLong(span), 1 + random.nextInt(3));
+            }
+        }
+        double queryNanos = (double) (System.nanoTime() - start) / queries;
+        System.out.printf("%,d bookings loaded in %.1f ms, availability checked in %.0f ns%n",
+                calendar.getBookings(ToolCode.CHNS), loadMillis, queryNanos);
+    }
+}
@@ -0,0 +1,47 @@
+package com.toolrentals.pos.benchmark;
+
+import com.toolrentals.pos.common.enums.ToolCode;
+import com.toolrentals.pos.common.model.QuoteBatch;
+import com.toolrentals.pos.service.RentalAgreementSvcImpl;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Measures the single core throughput of {@link RentalAgreementSvcImpl#quoteBatch}, validation included. Run with
+ * {@code java -cp target/classes:target/test-classes com.toolrentals.pos.benchmark.BatchQuoteBenchmark [batchSize]}.
+ */
+public class BatchQuoteBenchmark {
+
+    private static volatile long sink;
+
+    public static void main(String[] args) throws Exception {
+        int batchSize = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        RentalAgreementSvcImpl svc = new RentalAgreementSvcImpl();
+        QuoteBatch batch = createBatch(batchSize);
+
+        for (int i = 0; i < 10; i++) {
+            svc.quoteBatch(batch);
+        }
+
+        int rounds = 10;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            svc.quoteBatch(batch);
+            sink += batch.getTotalCents(i);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%,d quotes in %.3f s: %,.0f quotes/s%n", (long) batchSize * rounds, seconds, batchSize * rounds / seconds);
+    }
+
+    static QuoteBatch createBatch(int batchSize) {
+        Random random = new Random(82024);
+        long today = LocalDate.now().toEpochDay();
+        QuoteBatch batch = new QuoteBatch(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(ToolCode.values()[random.nextInt(ToolCode.values().length)], 1 + random.nextInt(90),
+                    today + random.nextInt(730), random.nextInt(101));
+        }
+        return batch;
+    }
+}
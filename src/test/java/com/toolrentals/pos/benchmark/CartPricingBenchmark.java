@@ -0,0 +1,76 @@
+package com.toolrentals.pos.benchmark;
+
+import com.toolrentals.pos.common.model.CartAgreement;
+import com.toolrentals.pos.common.model.CartLine;
+import com.toolrentals.pos.common.model.Tool;
+import com.toolrentals.pos.common.enums.ToolCode;
+import com.toolrentals.pos.service.RentalAgreementSvcImpl;
+
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * Measures pricing carts with {@link RentalAgreementSvcImpl#priceCart}, varying the number of lines, the number of
+ * distinct rental lengths and the length of the longest rental, with each line checked out on its own for
+ * comparison. Run with
+ * {@code java -cp target/classes:target/test-classes com.toolrentals.pos.benchmark.CartPricingBenchmark}.
+ */
+public class CartPricingBenchmark {
+
+    private static volatile long sink;
+
+    public static void main(String[] args) throws Exception {
+        RentalAgreementSvcImpl svc = new RentalAgreementSvcImpl();
+        Tool[] tools = new Tool[ToolCode.values().length];
+        for (ToolCode toolCode : ToolCode.values()) {
+            tools[toolCode.ordinal()] = svc.findTool(toolCode);
+        }
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        Date checkoutDate = cal.getTime();
+
+        int[][] cases = {
+                // lines, distinct lengths, longest rental
+                {4, 1, 30}, {64, 1, 30}, {1024, 1, 30},
+                {4, 1, 3650}, {64, 1, 3650}, {1024, 1, 3650},
+                {1024, 16, 30}, {1024, 16, 3650}, {1024, 1024, 3650},
+        };
+        // warm up before measuring
+        for (int[] c : cases) {
+            measure(svc, tools, checkoutDate, c[0], c[1], c[2], false);
+        }
+        System.out.printf("%6s %9s %8s %14s %16s%n", "lines", "distinct", "days", "cart (us)", "line by line (us)");
+        for (int[] c : cases) {
+            System.out.printf("%6d %9d %8d %14.1f %16.1f%n", c[0], c[1], c[2],
+                    measure(svc, tools, checkoutDate, c[0], c[1], c[2], false) / 1e3,
+                    measure(svc, tools, checkoutDate, c[0], c[1], c[2], true) / 1e3);
+        }
+    }
+
+    /**
+     * @return double - the average nanoseconds to price a cart.
+     */
+    private static double measure(RentalAgreementSvcImpl svc, Tool[] tools, Date checkoutDate, int lines, int distinct,
+                                  int longestDays, boolean lineByLine) throws Exception {
+        CartAgreement cart = new CartAgreement().checkoutDate(checkoutDate).percentDiscount(10);
+        for (int i = 0; i < lines; i++) {
+            // lengths spread evenly up to the longest rental
+            int rentalDays = longestDays - (i % distinct) * (longestDays / distinct);
+            cart.addLine(tools[i % tools.length], rentalDays);
+        }
+        // about the same number of days priced line by line whatever the case
+        int iterations = Math.max(3, 20_000_000 / (lines * longestDays));
+        long start = System.nanoTime();
+        for (int n = 0; n < iterations; n++) {
+            if (lineByLine) {
+                for (CartLine line : cart.getLines()) {
+                    sink += svc.checkout(line.getTool(), line.getRentalDays(), checkoutDate, 10).getTotalCents();
+                }
+            } else {
+                svc.priceCart(cart);
+                sink += cart.getTotalCents();
+            }
+        }
+        return (double) (System.nanoTime() - start) / iterations;
+    }
+}
@@ -0,0 +1,122 @@
+package com.toolrentals.pos.benchmark;
+
+import com.toolrentals.pos.CheckoutProcess;
+import com.toolrentals.pos.business.catalog.ToolCatalog;
+import com.toolrentals.pos.business.importer.CheckoutImporter;
+import com.toolrentals.pos.business.inventory.ToolInventory;
+import com.toolrentals.pos.business.util.DateUtil;
+import com.toolrentals.pos.common.enums.ToolCode;
+import com.toolrentals.pos.service.RentalAgreementSvcImpl;
+
+import java.io.BufferedWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Measures importing a file of checkouts with {@link CheckoutImporter}, and its peak heap use at two file sizes, with
+ * each row scripted through {@link CheckoutProcess#checkout} for comparison. Run with
+ * {@code java -cp target/classes:target/test-classes com.toolrentals.pos.benchmark.CheckoutImportBenchmark [rows]}.
+ */
+public class CheckoutImportBenchmark {
+
+    private static final ToolCode[] TOOL_CODES = ToolCode.values();
+
+    private static volatile long sink;
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        Path dir = Files.createTempDirectory("checkout-import");
+        LocalDate start = LocalDate.now().plusDays(1);
+        try {
+            Path small = write(dir.resolve("small.csv"), rows / 10, start);
+            Path large = write(dir.resolve("large.csv"), rows, start);
+
+            // warm up before measuring
+            importFile(small, dir);
+            importFile(small, dir);
+            resetPeakHeap();
+            long nanos = importFile(small, dir);
+            long smallPeak = peakHeap();
+            System.out.printf("import %,d rows: %.0f ms, %,.0f rows/s, peak heap %,d KB%n", rows / 10, nanos / 1e6,
+                    rows / 10 / (nanos / 1e9), smallPeak / 1024);
+            resetPeakHeap();
+            nanos = importFile(large, dir);
+            long largePeak = peakHeap();
+            System.out.printf("import %,d rows: %.0f ms, %,.0f rows/s, peak heap %,d KB%n", rows, nanos / 1e6,
+                    rows / (nanos / 1e9), largePeak / 1024);
+
+            RentalAgreementSvcImpl rentalAgreementSvc = new RentalAgreementSvcImpl();
+            rentalAgreementSvc.setReceiptSink(receipt -> sink += receipt.remaining());
+            CheckoutProcess checkoutProcess = new CheckoutProcess(new ToolCatalog(), new ToolInventory(), rentalAgreementSvc);
+            DateUtil dateUtil = new DateUtil();
+            Random random = new Random(42);
+            int scripted = rows / 20;
+            long begin = System.nanoTime();
+            for (int i = 0; i < scripted; i++) {
+                checkoutProcess.checkout(TOOL_CODES[random.nextInt(TOOL_CODES.length)], 1 + random.nextInt(14),
+                        dateUtil.fromEpochDay(start.toEpochDay() + random.nextInt(60)), random.nextInt(4) * 5);
+            }
+            nanos = System.nanoTime() - begin;
+            System.out.printf("checkout %,d rows one by one: %.0f ms, %,.0f rows/s%n", scripted, nanos / 1e6,
+                    scripted / (nanos / 1e9));
+        } finally {
+            try (var files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(dir);
+        }
+    }
+
+    private static long importFile(Path input, Path dir) throws Exception {
+        CheckoutImporter importer = new CheckoutImporter(new CheckoutProcess(new ToolCatalog(), new ToolInventory()));
+        long start = System.nanoTime();
+        CheckoutImporter.ImportSummary summary = importer.importCheckouts(input, dir.resolve("accepted.csv"), dir.resolve("rejected.csv"));
+        long nanos = System.nanoTime() - start;
+        sink += summary.getTotalCents() + summary.getRejected();
+        return nanos;
+    }
+
+    private static Path write(Path path, int rows, LocalDate start) throws Exception {
+        Random random = new Random(42);
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write("toolCode,rentalDays,checkoutDate,discountPercent\n");
+            for (int i = 0; i < rows; i++) {
+                writer.write(TOOL_CODES[random.nextInt(TOOL_CODES.length)].name());
+                writer.write(',');
+                writer.write(Integer.toString(1 + random.nextInt(14)));
+                writer.write(',');
+                writer.write(start.plusDays(random.nextInt(60)).toString());
+                writer.write(',');
+                writer.write(Integer.toString(random.nextInt(4) * 5));
+                writer.write('\n');
+            }
+        }
+        return path;
+    }
+
+    private static void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
@@ -0,0 +1,114 @@
+package com.toolrentals.pos.benchmark;
+
+import com.toolrentals.pos.CheckoutProcess;
+import com.toolrentals.pos.business.catalog.ToolCatalog;
+import com.toolrentals.pos.business.inventory.ToolInventory;
+import com.toolrentals.pos.http.CheckoutServer;
+import com.toolrentals.pos.service.RentalAgreementSvcImpl;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Load test of {@link CheckoutServer} on the loopback interface: concurrent clients, each on a virtual thread, post
+ * quotes and then checkouts back to back, and the latency percentiles and throughput are reported for each. Run with
+ * {@code java -cp target/classes:target/test-classes com.toolrentals.pos.benchmark.CheckoutServerLoadBenchmark
+ * [clients] [requests per client]}.
+ */
+public class CheckoutServerLoadBenchmark {
+
+    private static volatile long sink;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        // see CheckoutServer, set before the first server starts unless given on the command line
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+
+        RentalAgreementSvcImpl rentalAgreementSvc = new RentalAgreementSvcImpl();
+        rentalAgreementSvc.setReceiptSink(receipt -> sink += receipt.remaining());
+        CheckoutProcess checkoutProcess = new CheckoutProcess(new ToolCatalog(), new ToolInventory(), rentalAgreementSvc);
+        String checkoutDate = LocalDate.now().plusDays(7).with(TemporalAdjusters.nextOrSame(DayOfWeek.WEDNESDAY)).toString();
+        String body = "{\"toolCode\": \"LADW\", \"rentalDays\": 5, \"checkoutDate\": \"" + checkoutDate + "\", \"discountPercent\": 10}";
+
+        try (CheckoutServer server = new CheckoutServer(checkoutProcess, new InetSocketAddress("localhost", 0));
+             HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build()) {
+            server.start();
+            // warm up both endpoints before measuring
+            run(client, server.getPort(), "/quote", body, clients, requests / 5);
+            run(client, server.getPort(), "/checkout", body, clients, requests / 5);
+            report("quote", run(client, server.getPort(), "/quote", body, clients, requests));
+            report("checkout", run(client, server.getPort(), "/checkout", body, clients, requests));
+        }
+    }
+
+    private static Result run(HttpClient client, int port, String path, String body, int clients, int requests) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        List<Future<long[]>> futures = new ArrayList<>(clients);
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                futures.add(executor.submit(() -> {
+                    long[] latencies = new long[requests];
+                    for (int i = 0; i < requests; i++) {
+                        long sent = System.nanoTime();
+                        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                        latencies[i] = System.nanoTime() - sent;
+                        if (response.statusCode() != 200) {
+                            throw new IllegalStateException(path + " answered " + response.statusCode() + ": "
+                                    + new String(response.body()));
+                        }
+                        sink += response.body().length;
+                    }
+                    return latencies;
+                }));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long[] latencies = new long[clients * requests];
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(futures.get(c).get(), 0, latencies, c * requests, requests);
+        }
+        Arrays.sort(latencies);
+        return new Result(latencies, elapsed);
+    }
+
+    private static void report(String name, Result result) {
+        long[] latencies = result.latencies;
+        System.out.printf("%s: %,d requests, p50 %.2f ms, p99 %.2f ms, %,.0f requests/s%n", name, latencies.length,
+                percentile(latencies, 0.50) / 1e6, percentile(latencies, 0.99) / 1e6,
+                latencies.length / (result.elapsedNanos / 1e9));
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))];
+    }
+
+    private static class Result {
+
+        private final long[] latencies;
+        private final long elapsedNanos;
+
+        private Result(long[] latencies, long elapsedNanos) {
+            this.latencies = latencies;
+            this.elapsedNanos = elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.toolrentals.pos.benchmark;
+
+import com.toolrentals.pos.business.util.DateUtil;
+import com.toolrentals.pos.business.util.HolidayIndex;
+
+import java.util.Calendar;
+
+/**
+ * Compares the cost per holiday lookup of {@link HolidayIndex} with {@link DateUtil} as the number of priced days
+ * grows. The calendars are built up front so only the lookups are measured. Run with
+ * {@code java -cp target/classes:target/test-classes com.toolrentals.pos.benchmark.HolidayIndexBenchmark}.
+ */
+public class HolidayIndexBenchmark {
+
+    private static final int[] DAY_COUNTS = {10, 100, 1_000, 10_000, 100_000};
+
+    // results are accumulated here so the JIT cannot discard the measured loops
+    private static volatile long sink;
+
+    public static void main(String[] args) {
+        HolidayIndex holidayIndex = new HolidayIndex();
+        DateUtil dateUtil = new DateUtil();
+        Calendar[] days = buildDays(DAY_COUNTS[DAY_COUNTS.length - 1]);
+
+        // warm up both paths before measuring
+        for (int i = 0; i < 50; i++) {
+            sink += runIndex(holidayIndex, days, 10_000);
+            sink += runDateUtil(dateUtil, days, 10_000);
+        }
+
+        System.out.printf("%10s %18s %18s%n", "days", "index ns/day", "DateUtil ns/day");
+        for (int dayCount : DAY_COUNTS) {
+            int repeats = Math.max(1, 2_000_000 / dayCount);
+            long start = System.nanoTime();
+            for (int r = 0; r < repeats; r++) {
+                sink += runIndex(holidayIndex, days, dayCount);
+            }
+            double indexNs = (System.nanoTime() - start) / (double) (repeats * (long) dayCount);
+
+            start = System.nanoTime();
+            for (int r = 0; r < repeats; r++) {
+                sink += runDateUtil(dateUtil, days, dayCount);
+            }
+            double dateUtilNs = (System.nanoTime() - start) / (double) (repeats * (long) dayCount);
+            System.out.printf("%10d %18.2f %18.2f%n", dayCount, indexNs, dateUtilNs);
+        }
+    }
+
+    private static int runIndex(HolidayIndex holidayIndex, Calendar[] days, int dayCount) {
+        int holidays = 0;
+        for (int i = 0; i < dayCount; i++) {
+            if (holidayIndex.isHoliday(days[i])) {
+                holidays++;
+            }
+        }
+        return holidays;
+    }
+
+    private static int runDateUtil(DateUtil dateUtil, Calendar[] days, int dayCount) {
+        int holidays = 0;
+        for (int i = 0; i < dayCount; i++) {
+            if (dateUtil.isHoliday(days[i])) {
+                holidays++;
+            }
+        }
+        return holidays;
+    }
+
+    private static Calendar[] buildDays(int dayCount) {
+        Calendar[] days = new Calendar[dayCount];
+        Calendar cal = Calendar.getInstance();
+        cal.clear();
+        cal.set(2024, Calendar.JANUARY, 1);
+        for (int i = 0; i < dayCount; i++) {
+            days[i] = (Calendar) cal.clone();
+            // force the fields to be computed so the lookups do not pay for it
+            days[i].get(Calendar.DAY_OF_YEAR);
+            cal.add(Calendar.DAY_OF_MONTH, 1);
+        }
+        return days;
+    }
+}
@@ -0,0 +1,83 @@
+package com.toolrentals.pos.benchmark;
+
+import com.toolrentals.pos.business.calculator.LateFeeAccrualJob;
+import com.toolrentals.pos.business.calculator.LateFeeCalculator;
+import com.toolrentals.pos.business.inventory.DueDateIndex;
+import com.toolrentals.pos.business.util.DateUtil;
+import com.toolrentals.pos.common.model.*;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures a {@link LateFeeAccrualJob} run over millions of open agreements from 1 to N cores, against accruing each
+ * overdue agreement in turn on one thread. Run with
+ * {@code java -Xmx4g -cp target/classes:target/test-classes com.toolrentals.pos.benchmark.LateFeeAccrualBenchmark [agreements]}.
+ */
+public class LateFeeAccrualBenchmark {
+
+    private static volatile long sink;
+
+    public static void main(String[] args) {
+        int agreements = args.length > 0 ? Integer.parseInt(args[0]) : 4_000_000;
+        int cores = Runtime.getRuntime().availableProcessors();
+        Tool[] tools = {new StihlChainsaw(), new WernerLadder(), new DeWaltJackhammer(), new RidgidJackhammer()};
+        DateUtil dateUtil = new DateUtil();
+        long asOfEpochDay = LocalDate.of(2024, 9, 10).toEpochDay();
+
+        // about a third overdue, some by more than a year
+        Random random = new Random(2024);
+        DueDateIndex index = new DueDateIndex();
+        for (int i = 0; i < agreements; i++) {
+            long dueEpochDay = asOfEpochDay - (random.nextInt(3) == 0 ? 1 + random.nextInt(random.nextInt(10) == 0 ? 500 : 30) : -random.nextInt(60));
+            index.add(new RentalAgreement().tool(tools[i % tools.length]).dueDate(dateUtil.fromEpochDay(dueEpochDay)));
+        }
+
+        LateFeeCalculator calculator = new LateFeeCalculator();
+        for (int i = 0; i < 3; i++) {
+            accrueInTurn(index, calculator, asOfEpochDay);
+        }
+        int rounds = 5;
+        long start = System.nanoTime();
+        long overdue = 0;
+        for (int i = 0; i < rounds; i++) {
+            overdue = accrueInTurn(index, calculator, asOfEpochDay);
+        }
+        double baseline = (double) overdue * rounds / ((System.nanoTime() - start) / 1e9);
+        System.out.printf("%,d agreements, %,d overdue%n", agreements, overdue);
+        System.out.printf("%6s %18s %9s %12s%n", "cores", "agreements/s", "speedup", "run (ms)");
+        System.out.printf("%6s %,18.0f %8.2fx %12.1f%n", "in turn", baseline, 1.0, overdue / baseline * 1e3);
+
+        for (int parallelism = 1; parallelism <= cores; parallelism *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            LateFeeAccrualJob job = new LateFeeAccrualJob(index, pool);
+            for (int i = 0; i < 3; i++) {
+                sink += job.accrue(asOfEpochDay).getLateFeeCents();
+            }
+            start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                sink += job.accrue(asOfEpochDay).getLateFeeCents();
+            }
+            double perSecond = (double) overdue * rounds / ((System.nanoTime() - start) / 1e9);
+            System.out.printf("%6d %,18.0f %8.2fx %12.1f%n", parallelism, perSecond, perSecond / baseline, overdue / perSecond * 1e3);
+            pool.shutdown();
+            if (parallelism < cores && parallelism * 2 > cores) {
+                parallelism = cores / 2;
+            }
+        }
+    }
+
+    /**
+     * @return long - the number of overdue agreements accrued.
+     */
+    private static long accrueInTurn(DueDateIndex index, LateFeeCalculator calculator, long asOfEpochDay) {
+        long[] lateFeeCents = new long[1];
+        long overdue = index.forEachDueOnOrBefore(asOfEpochDay - 1, rentalAgreement -> {
+            calculator.calculateLateFee(rentalAgreement, asOfEpochDay);
+            lateFeeCents[0] += rentalAgreement.getLateFeeCents();
+        });
+        sink += lateFeeCents[0];
+        return overdue;
+    }
+}
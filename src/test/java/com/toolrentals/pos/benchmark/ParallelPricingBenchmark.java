@@ -0,0 +1,48 @@
+package com.toolrentals.pos.benchmark;
+
+import com.toolrentals.pos.business.calculator.ParallelPricingEngine;
+import com.toolrentals.pos.common.model.*;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures how {@link ParallelPricingEngine} batch throughput scales from 1 to N cores. Run with
+ * {@code java -cp target/classes:target/test-classes com.toolrentals.pos.benchmark.ParallelPricingBenchmark [batchSize] [threshold]}.
+ */
+public class ParallelPricingBenchmark {
+
+    private static volatile long sink;
+
+    public static void main(String[] args) {
+        int batchSize = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int threshold = args.length > 1 ? Integer.parseInt(args[1]) : ParallelPricingEngine.DEFAULT_BATCH_THRESHOLD;
+        int cores = Runtime.getRuntime().availableProcessors();
+        Tool[] tools = {new StihlChainsaw(), new WernerLadder(), new DeWaltJackhammer(), new RidgidJackhammer()};
+        QuoteBatch batch = BatchQuoteBenchmark.createBatch(batchSize);
+
+        System.out.printf("%6s %18s %9s%n", "cores", "quotes/s", "speedup");
+        double baseline = 0;
+        for (int parallelism = 1; parallelism <= cores; parallelism *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            ParallelPricingEngine engine = new ParallelPricingEngine(pool, threshold, ParallelPricingEngine.DEFAULT_DAY_THRESHOLD);
+            for (int i = 0; i < 5; i++) {
+                engine.priceBatch(batch, tools);
+            }
+            int rounds = 10;
+            long start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                engine.priceBatch(batch, tools);
+                sink += batch.getTotalCents(i);
+            }
+            double quotesPerSecond = (double) batchSize * rounds / ((System.nanoTime() - start) / 1e9);
+            if (parallelism == 1) {
+                baseline = quotesPerSecond;
+            }
+            System.out.printf("%6d %,18.0f %8.2fx%n", parallelism, quotesPerSecond, quotesPerSecond / baseline);
+            pool.shutdown();
+            if (parallelism < cores && parallelism * 2 > cores) {
+                parallelism = cores / 2;
+            }
+        }
+    }
+}
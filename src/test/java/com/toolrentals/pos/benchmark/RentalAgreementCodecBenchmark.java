@@ -0,0 +1,81 @@
+package com.toolrentals.pos.benchmark;
+
+import com.toolrentals.pos.business.codec.RentalAgreementCodec;
+import com.toolrentals.pos.common.model.RentalAgreement;
+import com.toolrentals.pos.service.RentalAgreementSvcImpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Calendar;
+
+/**
+ * Compares {@link RentalAgreementCodec} with Java serialization through {@link ObjectOutputStream}, encoding and
+ * decoding the same agreement over and over. Run with
+ * {@code java -cp target/classes:target/test-classes com.toolrentals.pos.benchmark.RentalAgreementCodecBenchmark [iterations]}.
+ */
+public class RentalAgreementCodecBenchmark {
+
+    private static volatile long sink;
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        RentalAgreementSvcImpl svc = new RentalAgreementSvcImpl();
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        RentalAgreement rentalAgreement = svc.checkout(svc.findTool("JAKR"), 14, cal.getTime(), 10);
+        // itemized, so the ledger is encoded too
+        svc.calculateDailyRentalCharges(rentalAgreement);
+
+        RentalAgreementCodec codec = new RentalAgreementCodec();
+        ByteBuffer buffer = ByteBuffer.allocate(4_096);
+        int codecSize = codec.encode(rentalAgreement, buffer);
+        byte[] serialized = serialize(rentalAgreement);
+        System.out.printf("encoded size: codec %d bytes, serialization %d bytes%n", codecSize, serialized.length);
+
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                buffer.clear();
+                sink += codec.encode(rentalAgreement, buffer);
+            }
+            long encodeNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                buffer.flip();
+                sink += codec.decode(buffer).getTotalCents();
+            }
+            long decodeNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += serialize(rentalAgreement).length;
+            }
+            long serializeNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+                    sink += ((RentalAgreement) in.readObject()).getTotalCents();
+                }
+            }
+            long deserializeNanos = System.nanoTime() - start;
+
+            System.out.printf("codec encode %6.0f ns, decode %6.0f ns | serialization write %6.0f ns, read %6.0f ns%n",
+                    (double) encodeNanos / iterations, (double) decodeNanos / iterations,
+                    (double) serializeNanos / iterations, (double) deserializeNanos / iterations);
+        }
+    }
+
+    private static byte[] serialize(RentalAgreement rentalAgreement) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1_024);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(rentalAgreement);
+        }
+        return bytes.toByteArray();
+    }
+}
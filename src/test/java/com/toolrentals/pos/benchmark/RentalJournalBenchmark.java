@@ -0,0 +1,66 @@
+package com.toolrentals.pos.benchmark;
+
+import com.toolrentals.pos.business.journal.DurabilityPolicy;
+import com.toolrentals.pos.business.journal.RentalJournal;
+import com.toolrentals.pos.common.model.RentalAgreement;
+import com.toolrentals.pos.service.RentalAgreementSvcImpl;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Calendar;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Measures append throughput of {@link RentalJournal} under each durability policy, with several threads appending
+ * at once. Run with
+ * {@code java -cp target/classes:target/test-classes com.toolrentals.pos.benchmark.RentalJournalBenchmark [appends] [threads] [dir]}.
+ */
+public class RentalJournalBenchmark {
+
+    private static volatile long sink;
+
+    public static void main(String[] args) throws Exception {
+        int appends = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        Path dir = args.length > 2 ? Path.of(args[2]) : Path.of(System.getProperty("java.io.tmpdir"));
+
+        RentalAgreementSvcImpl svc = new RentalAgreementSvcImpl();
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        RentalAgreement rentalAgreement = svc.checkout(svc.findTool("JAKR"), 9, cal.getTime(), 10);
+
+        String[] names = {"every record", "every 10 ms", "OS managed"};
+        DurabilityPolicy[] policies = {DurabilityPolicy.everyRecord(), DurabilityPolicy.every(Duration.ofMillis(10)), DurabilityPolicy.osManaged()};
+        for (int p = 0; p < policies.length; p++) {
+            Path path = Files.createTempFile(dir, "rentals", ".journal");
+            try {
+                RentalJournal journal = new RentalJournal(path, policies[p]);
+                long start = System.nanoTime();
+                Thread[] workers = new Thread[threads];
+                for (int t = 0; t < threads; t++) {
+                    workers[t] = Thread.ofPlatform().start(() -> {
+                        CompletableFuture<Long> last = null;
+                        try {
+                            for (int i = 0; i < appends / threads; i++) {
+                                last = journal.append(rentalAgreement);
+                            }
+                            sink += last.get();
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    });
+                }
+                for (Thread worker : workers) {
+                    worker.join();
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                journal.close();
+                long written = new RentalJournal(path, DurabilityPolicy.osManaged()).getRecordCount();
+                System.out.printf("%-13s %,10d records %,12.0f appends/s%n", names[p], written, written / seconds);
+            } finally {
+                Files.delete(path);
+            }
+        }
+    }
+}
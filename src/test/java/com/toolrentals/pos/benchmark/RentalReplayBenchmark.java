@@ -0,0 +1,77 @@
+package com.toolrentals.pos.benchmark;
+
+import com.toolrentals.pos.business.journal.DurabilityPolicy;
+import com.toolrentals.pos.business.journal.RentalJournal;
+import com.toolrentals.pos.business.journal.RentalState;
+import com.toolrentals.pos.business.journal.RentalStateStore;
+import com.toolrentals.pos.common.model.RentalAgreement;
+import com.toolrentals.pos.service.RentalAgreementSvcImpl;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Calendar;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Measures how long a restart takes to rebuild the {@link RentalState}: replaying the whole journal, and loading a
+ * snapshot taken 1% of the records before the end and replaying only the rest. Run with
+ * {@code java -cp target/classes:target/test-classes com.toolrentals.pos.benchmark.RentalReplayBenchmark [agreements] [dir]}.
+ */
+public class RentalReplayBenchmark {
+
+    private static volatile long sink;
+
+    public static void main(String[] args) throws Exception {
+        int agreements = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        Path dir = Files.createTempDirectory(args.length > 1 ? Path.of(args[1]) : Path.of(System.getProperty("java.io.tmpdir")), "replay");
+        Path path = dir.resolve("rentals.journal");
+        RentalStateStore store = new RentalStateStore(dir.resolve("snapshots"));
+        try {
+            RentalAgreementSvcImpl svc = new RentalAgreementSvcImpl();
+            String[] codes = {"LADW", "CHNS", "JAKR", "JAKD"};
+            RentalAgreement[] rentalAgreements = new RentalAgreement[codes.length * 30];
+            for (int i = 0; i < rentalAgreements.length; i++) {
+                Calendar cal = Calendar.getInstance();
+                cal.add(Calendar.DAY_OF_MONTH, i % 30);
+                rentalAgreements[i] = svc.checkout(svc.findTool(codes[i % codes.length]), 1 + i % 30, cal.getTime(), i % 50);
+            }
+
+            RentalJournal journal = new RentalJournal(path, DurabilityPolicy.osManaged());
+            int snapshotAt = agreements - agreements / 100;
+            for (int i = 0; i < agreements; i++) {
+                CompletableFuture<Long> appended = journal.append(rentalAgreements[i % rentalAgreements.length]);
+                if (i + 1 == snapshotAt) {
+                    appended.get();
+                    store.checkpoint(journal);
+                }
+            }
+            journal.close();
+
+            for (int round = 0; round < 3; round++) {
+                RentalJournal reopened = new RentalJournal(path, DurabilityPolicy.osManaged());
+                long start = System.nanoTime();
+                RentalState full = new RentalState();
+                store.replay(full, reopened, reopened.getRecordCount());
+                long fullNanos = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                RentalState recovered = store.recover(reopened);
+                long recoverNanos = System.nanoTime() - start;
+                reopened.close();
+
+                if (full.getTotalRevenueCents() != recovered.getTotalRevenueCents()) {
+                    throw new IllegalStateException("Recovered revenue differs from a full replay.");
+                }
+                sink += recovered.getAppliedRecords();
+                System.out.printf("%,d records: full replay %,8.1f ms, snapshot + tail %,8.1f ms%n",
+                        recovered.getAppliedRecords(), fullNanos / 1e6, recoverNanos / 1e6);
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.toolrentals.pos.benchmark;
+
+import com.toolrentals.pos.business.scheduler.ScheduledEvent;
+import com.toolrentals.pos.business.scheduler.TimingWheelScheduler;
+import com.toolrentals.pos.common.enums.RentalEvent;
+import com.toolrentals.pos.common.model.RentalAgreement;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures scheduling, cancelling and firing rental events spread over 30 days on {@link TimingWheelScheduler}, and
+ * the memory each scheduled event takes, with scheduling and cancelling on a {@link ScheduledThreadPoolExecutor} for
+ * comparison. Run with
+ * {@code java -cp target/classes:target/test-classes com.toolrentals.pos.benchmark.TimingWheelBenchmark [events]}.
+ */
+public class TimingWheelBenchmark {
+
+    private static final long MONTH_MILLIS = Duration.ofDays(30).toMillis();
+
+    private static volatile long sink;
+
+    public static void main(String[] args) throws Exception {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        RentalAgreement rentalAgreement = new RentalAgreement();
+        Random random = new Random(42);
+        long[] deadlines = new long[events];
+        for (int i = 0; i < events; i++) {
+            deadlines[i] = (long) (random.nextDouble() * MONTH_MILLIS);
+        }
+
+        AtomicLong fired = new AtomicLong();
+        TimingWheelScheduler scheduler = new TimingWheelScheduler(event -> fired.incrementAndGet(), Duration.ofSeconds(1), 0,
+                TimingWheelScheduler.DEFAULT_BATCH_SIZE);
+        ScheduledEvent[] scheduled = new ScheduledEvent[events];
+        long before = usedMemory();
+        long start = System.nanoTime();
+        for (int i = 0; i < events; i++) {
+            scheduled[i] = scheduler.schedule(rentalAgreement, RentalEvent.DUE_REMINDER, deadlines[i]);
+        }
+        long scheduleNanos = System.nanoTime() - start;
+        // link the events into the wheel before measuring
+        scheduler.advanceTo(0);
+        long wheelBytes = usedMemory() - before;
+
+        start = System.nanoTime();
+        for (int i = 0; i < events; i += 10) {
+            scheduled[i].cancel();
+        }
+        long cancelNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        long firedByAdvance = 0;
+        for (long now = 0; now <= MONTH_MILLIS; now += Duration.ofHours(1).toMillis()) {
+            firedByAdvance += scheduler.advanceTo(now);
+        }
+        long advanceNanos = System.nanoTime() - start;
+        scheduler.close();
+        sink += fired.get();
+
+        System.out.printf("timing wheel: schedule %.0f ns, cancel %.0f ns, %d bytes an event (wheel and handle)%n",
+                (double) scheduleNanos / events, (double) cancelNanos / (events / 10), wheelBytes / events);
+        System.out.printf("timing wheel: fired %,d events over 30 days of 1 s ticks in %.0f ms%n",
+                firedByAdvance, advanceNanos / 1e6);
+
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+        int executorEvents = Math.min(events, 1_000_000);
+        ScheduledFuture<?>[] futures = new ScheduledFuture<?>[executorEvents];
+        start = System.nanoTime();
+        for (int i = 0; i < executorEvents; i++) {
+            futures[i] = executor.schedule(() -> sink++, MONTH_MILLIS + deadlines[i], TimeUnit.MILLISECONDS);
+        }
+        scheduleNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < executorEvents; i += 10) {
+            futures[i].cancel(false);
+        }
+        cancelNanos = System.nanoTime() - start;
+        executor.shutdownNow();
+        System.out.printf("scheduled executor (%,d tasks): schedule %.0f ns, cancel %.0f ns%n",
+                executorEvents, (double) scheduleNanos / executorEvents, (double) cancelNanos / (executorEvents / 10));
+    }
+
+    private static long usedMemory() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,62 @@
+package com.toolrentals.pos.benchmark;
+
+import com.toolrentals.pos.business.catalog.ToolCatalogIndex;
+import com.toolrentals.pos.business.catalog.ToolCatalogLoader;
+import com.toolrentals.pos.common.enums.ToolType;
+
+import java.io.BufferedWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Measures loading a generated tool catalog file and looking up every SKU in it. Run with
+ * {@code java -cp target/classes:target/test-classes com.toolrentals.pos.benchmark.ToolCatalogLoadBenchmark [skus]}.
+ */
+public class ToolCatalogLoadBenchmark {
+
+    private static final String[] BRANDS = {"Stihl", "Werner", "DeWalt", "Ridgid", "Makita"};
+
+    private static volatile long sink;
+
+    public static void main(String[] args) throws Exception {
+        int skus = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        Path path = Files.createTempFile("tools", ".csv");
+        try {
+            writeCatalog(path, skus);
+            ToolCatalogLoader loader = new ToolCatalogLoader();
+            for (int i = 0; i < 20; i++) {
+                sink += loader.load(path).size();
+            }
+
+            int rounds = 10;
+            long start = System.nanoTime();
+            ToolCatalogIndex index = null;
+            for (int i = 0; i < rounds; i++) {
+                index = loader.load(path);
+            }
+            double loadMillis = (System.nanoTime() - start) / 1e6 / rounds;
+
+            start = System.nanoTime();
+            for (int i = 0; i < skus; i++) {
+                sink += index.findTool("SKU-" + i).getDailyChargeCents();
+            }
+            double lookupNanos = (double) (System.nanoTime() - start) / skus;
+            System.out.printf("%,d SKUs (%,d bytes) loaded in %.1f ms, first lookups %.0f ns each%n", skus, Files.size(path), loadMillis, lookupNanos);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    private static void writeCatalog(Path path, int skus) throws Exception {
+        Random random = new Random(82024);
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write("code,type,brand,dailyCharge,weekdayCharge,weekendCharge,holidayCharge\n");
+            for (int i = 0; i < skus; i++) {
+                writer.write(String.format("SKU-%d,%s,%s,%d.%02d,%b,%b,%b%n", i, ToolType.values()[random.nextInt(ToolType.values().length)],
+                        BRANDS[random.nextInt(BRANDS.length)], random.nextInt(10), random.nextInt(100), random.nextBoolean(),
+                        random.nextBoolean(), random.nextBoolean()));
+            }
+        }
+    }
+}
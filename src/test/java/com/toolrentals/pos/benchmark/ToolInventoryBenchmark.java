@@ -0,0 +1,65 @@
+package com.toolrentals.pos.benchmark;
+
+import com.toolrentals.pos.business.inventory.ToolInventory;
+import com.toolrentals.pos.common.enums.ToolCode;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Measures reserve and release throughput of {@link ToolInventory} as threads are added, with every thread renting
+ * the same tool and with each thread renting its own tool. Run with
+ * {@code java -cp target/classes:target/test-classes com.toolrentals.pos.benchmark.ToolInventoryBenchmark}.
+ */
+public class ToolInventoryBenchmark {
+
+    private static final int OPERATIONS = 5_000_000;
+
+    private static volatile long sink;
+
+    public static void main(String[] args) throws Exception {
+        int maxThreads = Math.min(ToolCode.values().length, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%8s %20s %20s%n", "threads", "same tool ops/s", "own tool ops/s");
+        for (int round = 0; round < 2; round++) {
+            for (int threads = 1; threads <= maxThreads; threads++) {
+                double same = run(threads, true);
+                double own = run(threads, false);
+                if (round == 1) {
+                    System.out.printf("%8d %,20.0f %,20.0f%n", threads, same, own);
+                }
+            }
+        }
+    }
+
+    private static double run(int threads, boolean sameTool) throws Exception {
+        ToolInventory inventory = new ToolInventory();
+        for (ToolCode toolCode : ToolCode.values()) {
+            inventory.setUnits(toolCode, OPERATIONS);
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            ToolCode toolCode = sameTool ? ToolCode.JAKR : ToolCode.values()[t];
+            workers[t] = Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long reserved = 0;
+                for (int i = 0; i < OPERATIONS; i++) {
+                    if (inventory.tryReserve(toolCode)) {
+                        inventory.release(toolCode);
+                        reserved++;
+                    }
+                }
+                sink += reserved;
+            });
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return (double) threads * OPERATIONS * 2 / ((System.nanoTime() - begin) / 1e9);
+    }
+}
@@ -0,0 +1,71 @@
+package com.toolrentals.pos.benchmark;
+
+import com.toolrentals.pos.business.validation.RentalAgreementValidator;
+import com.toolrentals.pos.business.validation.ValidationResult;
+import com.toolrentals.pos.common.model.Tool;
+import com.toolrentals.pos.common.model.WernerLadder;
+
+import java.lang.management.ManagementFactory;
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * Measures checking checkout inputs with the throwing validation against a reused {@link ValidationResult}, for
+ * invalid and valid inputs, with the bytes allocated per check. Run with
+ * {@code java -cp target/classes:target/test-classes com.toolrentals.pos.benchmark.ValidationRejectBenchmark}.
+ */
+public class ValidationRejectBenchmark {
+
+    private static volatile long sink;
+
+    public static void main(String[] args) {
+        RentalAgreementValidator validator = new RentalAgreementValidator();
+        ValidationResult result = new ValidationResult();
+        Tool tool = new WernerLadder();
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        Date tomorrow = cal.getTime();
+
+        // warm up before measuring
+        for (int i = 0; i < 3; i++) {
+            measure(validator, result, tool, tomorrow, 0, false);
+            measure(validator, result, tool, tomorrow, 0, true);
+            measure(validator, result, tool, tomorrow, 3, false);
+            measure(validator, result, tool, tomorrow, 3, true);
+        }
+        System.out.printf("%8s %10s %16s %14s%n", "inputs", "mode", "checks/s", "bytes/check");
+        for (int rentalDays : new int[]{0, 3}) {
+            for (boolean throwing : new boolean[]{true, false}) {
+                double[] measured = measure(validator, result, tool, tomorrow, rentalDays, throwing);
+                System.out.printf("%8s %10s %,16.0f %14.1f%n", rentalDays == 0 ? "invalid" : "valid",
+                        throwing ? "exception" : "result", measured[0], measured[1]);
+            }
+        }
+    }
+
+    /**
+     * @return double[] - the checks per second and the bytes allocated per check.
+     */
+    private static double[] measure(RentalAgreementValidator validator, ValidationResult result, Tool tool, Date checkoutDate,
+                                    int rentalDays, boolean throwing) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        int checks = 1_000_000;
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < checks; i++) {
+            if (throwing) {
+                try {
+                    validator.validateCheckout(tool, rentalDays, checkoutDate, 10);
+                    sink++;
+                } catch (Exception e) {
+                    sink += e.getMessage().length();
+                }
+            } else {
+                sink += validator.checkCheckout(tool, rentalDays, checkoutDate, 10, result) ? 1 : result.getErrorCount();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        return new double[]{checks / (elapsed / 1e9), (double) allocated / checks};
+    }
+}
@@ -0,0 +1,79 @@
+package com.toolrentals.pos.business.cache;
+
+import com.toolrentals.pos.common.enums.ToolCode;
+import com.toolrentals.pos.common.model.Quote;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the bounded LRU behaviour and counters of the QuoteCache.
+ */
+public class QuoteCacheTest {
+
+    @Test
+    public void testHitAndMiss() {
+        QuoteCache cache = new QuoteCache();
+        assertNull(cache.get(ToolCode.CHNS, 20_000, 5, 0));
+        cache.put(quote(ToolCode.CHNS, 20_000, 5, 0));
+        assertNotNull(cache.get(ToolCode.CHNS, 20_000, 5, 0));
+        // any part of the key differing is a different quote
+        assertNull(cache.get(ToolCode.CHNS, 20_000, 7, 0));
+        assertNull(cache.get(ToolCode.CHNS, 20_000, 5, 10));
+        assertNull(cache.get(ToolCode.LADW, 20_000, 5, 0));
+
+        assertEquals(1, cache.getHitCount());
+        assertEquals(4, cache.getMissCount());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        // a single segment makes the eviction order predictable
+        QuoteCache cache = new QuoteCache(1);
+        cache.put(quote(ToolCode.CHNS, 20_000, 5, 0));
+        cache.put(quote(ToolCode.CHNS, 20_000, 7, 0));
+        assertNull(cache.get(ToolCode.CHNS, 20_000, 5, 0));
+        assertNotNull(cache.get(ToolCode.CHNS, 20_000, 7, 0));
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        QuoteCache cache = new QuoteCache(100);
+        for (int day = 0; day < 1_000; day++) {
+            cache.put(quote(ToolCode.JAKD, 20_000 + day, 3, 0));
+        }
+        assertTrue(cache.size() <= 100);
+        assertEquals(1_000 - cache.size(), cache.getEvictionCount());
+    }
+
+    @Test
+    public void testInvalidate() {
+        QuoteCache cache = new QuoteCache();
+        cache.put(quote(ToolCode.CHNS, 20_000, 5, 0));
+        cache.put(quote(ToolCode.LADW, 20_000, 5, 0));
+
+        cache.invalidate(ToolCode.CHNS);
+        assertNull(cache.get(ToolCode.CHNS, 20_000, 5, 0));
+        assertNotNull(cache.get(ToolCode.LADW, 20_000, 5, 0));
+
+        cache.invalidateAll();
+        assertNull(cache.get(ToolCode.LADW, 20_000, 5, 0));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testPutIgnoresQuotePricedBeforeInvalidation() {
+        QuoteCache cache = new QuoteCache();
+        long generation = cache.getGeneration();
+        cache.invalidate(ToolCode.CHNS);
+        cache.put(quote(ToolCode.CHNS, 20_000, 5, 0), generation);
+        assertNull(cache.get(ToolCode.CHNS, 20_000, 5, 0));
+    }
+
+    private Quote quote(ToolCode toolCode, long checkoutEpochDay, int rentalDays, int percentDiscount) {
+        return new Quote(toolCode, checkoutEpochDay, rentalDays, percentDiscount, checkoutEpochDay + rentalDays,
+                rentalDays, null, rentalDays * 149L, 0, rentalDays * 149L);
+    }
+}
@@ -0,0 +1,64 @@
+package com.toolrentals.pos.business.calculator;
+
+import com.toolrentals.pos.business.util.DateUtil;
+import com.toolrentals.pos.common.enums.ToolCode;
+import com.toolrentals.pos.common.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test that the BatchQuoteCalculator prices every row exactly as the step by step RentalChargeCalculator does.
+ */
+public class BatchQuoteCalculatorTest {
+
+    private final BatchQuoteCalculator batchCalculator = new BatchQuoteCalculator();
+    private final RentalChargeCalculator calculator = new RentalChargeCalculator();
+    private final DateUtil dateUtil = new DateUtil();
+    private final Tool[] tools = {new StihlChainsaw(), new WernerLadder(), new DeWaltJackhammer(), new RidgidJackhammer()};
+
+    @Test
+    public void testPriceMatchesRentalChargeCalculator() {
+        Random random = new Random(82024);
+        long firstDay = LocalDate.of(2024, 1, 1).toEpochDay();
+        QuoteBatch batch = new QuoteBatch();
+        for (int i = 0; i < 5_000; i++) {
+            batch.add(ToolCode.values()[random.nextInt(ToolCode.values().length)], 1 + random.nextInt(60),
+                    firstDay + random.nextInt(1500), random.nextInt(101));
+        }
+        batchCalculator.price(batch, tools);
+
+        for (int row = 0; row < batch.size(); row++) {
+            RentalAgreement agreement = new RentalAgreement()
+                    .tool(tools[batch.getToolCode(row).ordinal()])
+                    .rentalDays(batch.getRentalDays(row))
+                    .checkoutDate(dateUtil.fromEpochDay(batch.getCheckoutEpochDay(row)))
+                    .percentDiscount(batch.getDiscountPercent(row));
+            calculator.calculateDailyRates(agreement);
+            calculator.calculateSubtotal(agreement);
+            calculator.calculateDiscount(agreement);
+            calculator.calculateTotal(agreement);
+
+            assertEquals(agreement.getNumberChargeableDays(), batch.getChargeableDays(row), "row " + row);
+            assertEquals(agreement.getSubtotalCents(), batch.getSubtotalCents(row), "row " + row);
+            assertEquals(agreement.getDiscountCents(), batch.getDiscountCents(row), "row " + row);
+            assertEquals(agreement.getTotalCents(), batch.getTotalCents(row), "row " + row);
+        }
+    }
+
+    @Test
+    public void testPriceJuly4thWeek() {
+        QuoteBatch batch = new QuoteBatch(1);
+        // DeWalt Jackhammer, 7 days from July 1st 2024 has 4 chargeable days at 2.99
+        int row = batch.add(ToolCode.JAKD, 7, LocalDate.of(2024, 7, 1).toEpochDay(), 10);
+        batchCalculator.price(batch, tools);
+        assertEquals(LocalDate.of(2024, 7, 8).toEpochDay(), batch.getDueEpochDay(row));
+        assertEquals(4, batch.getChargeableDays(row));
+        assertEquals(1196, batch.getSubtotalCents(row));
+        assertEquals(120, batch.getDiscountCents(row));
+        assertEquals(1076, batch.getTotalCents(row));
+    }
+}
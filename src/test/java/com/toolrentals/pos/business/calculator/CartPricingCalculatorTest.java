@@ -0,0 +1,83 @@
+package com.toolrentals.pos.business.calculator;
+
+import com.toolrentals.pos.business.util.DateUtil;
+import com.toolrentals.pos.common.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test that the CartPricingCalculator prices every line exactly as the RentalChargeCalculator prices it alone.
+ */
+public class CartPricingCalculatorTest {
+
+    private final CartPricingCalculator cartCalculator = new CartPricingCalculator();
+    private final RentalChargeCalculator calculator = new RentalChargeCalculator();
+    private final DateUtil dateUtil = new DateUtil();
+    private final Tool[] tools = {new StihlChainsaw(), new WernerLadder(), new DeWaltJackhammer(), new RidgidJackhammer()};
+
+    @Test
+    public void testPriceMatchesRentalChargeCalculator() {
+        Random random = new Random(82024);
+        long firstDay = LocalDate.of(2024, 1, 1).toEpochDay();
+        for (int c = 0; c < 500; c++) {
+            CartAgreement cart = new CartAgreement()
+                    .checkoutDate(dateUtil.fromEpochDay(firstDay + random.nextInt(1500)))
+                    .percentDiscount(random.nextInt(101));
+            int lines = 1 + random.nextInt(20);
+            for (int i = 0; i < lines; i++) {
+                // few distinct lengths, so lines share segments, with some spanning several years
+                int rentalDays = random.nextInt(10) == 0 ? 1 + random.nextInt(1200) : 1 + random.nextInt(8) * 7;
+                cart.addLine(tools[random.nextInt(tools.length)], rentalDays);
+            }
+            cartCalculator.price(cart);
+
+            long subtotal = 0;
+            for (CartLine line : cart.getLines()) {
+                RentalAgreement agreement = new RentalAgreement()
+                        .tool(line.getTool())
+                        .rentalDays(line.getRentalDays())
+                        .checkoutDate(cart.getCheckoutDate());
+                calculator.calculateDailyRates(agreement);
+                calculator.calculateSubtotal(agreement);
+
+                assertEquals(agreement.getNumberChargeableDays(), line.getNumberChargeableDays(), "cart " + c);
+                assertEquals(agreement.getSubtotalCents(), line.getSubtotalCents(), "cart " + c);
+                assertEquals(dateUtil.addDaysToDate(cart.getCheckoutDate(), line.getRentalDays()), line.getDueDate());
+                subtotal += line.getSubtotalCents();
+            }
+            assertEquals(subtotal, cart.getSubtotalCents());
+            assertEquals(Money.percentOf(subtotal, cart.getPercentDiscount()), cart.getDiscountCents());
+            assertEquals(cart.getSubtotalCents() - cart.getDiscountCents(), cart.getTotalCents());
+        }
+    }
+
+    @Test
+    public void testPriceJuly4thWeek() {
+        // Thursday July 2nd 2020, with Independence Day on a Saturday
+        CartAgreement cart = new CartAgreement()
+                .checkoutDate(dateUtil.fromEpochDay(LocalDate.of(2020, 7, 2).toEpochDay()))
+                .percentDiscount(10)
+                .addLine(new WernerLadder(), 3)
+                .addLine(new StihlChainsaw(), 5)
+                .addLine(new RidgidJackhammer(), 5)
+                .addLine(new RidgidJackhammer(), 5);
+        cartCalculator.price(cart);
+
+        // the ladder is not charged on the holiday: Thursday and Friday at 1.99
+        assertEquals(2, cart.getLines().get(0).getNumberChargeableDays());
+        assertEquals(398, cart.getLines().get(0).getSubtotalCents());
+        // the chainsaw is not charged on weekends: Thursday, Friday and Monday at 1.49
+        assertEquals(3, cart.getLines().get(1).getNumberChargeableDays());
+        assertEquals(447, cart.getLines().get(1).getSubtotalCents());
+        // each jackhammer on weekdays only: Thursday, Friday and Monday at 2.99
+        assertEquals(3, cart.getLines().get(2).getNumberChargeableDays());
+        assertEquals(897, cart.getLines().get(3).getSubtotalCents());
+        assertEquals(398 + 447 + 897 + 897, cart.getSubtotalCents());
+        assertEquals(264, cart.getDiscountCents());
+        assertEquals(2375, cart.getTotalCents());
+    }
+}
@@ -0,0 +1,125 @@
+package com.toolrentals.pos.business.calculator;
+
+import com.toolrentals.pos.business.util.DateUtil;
+import com.toolrentals.pos.common.model.DeWaltJackhammer;
+import com.toolrentals.pos.common.model.StihlChainsaw;
+import com.toolrentals.pos.common.model.Tool;
+import com.toolrentals.pos.common.model.WernerLadder;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Calendar;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the ChargeableDayCounter against a day by day walk of the rental period.
+ */
+public class ChargeableDayCounterTest {
+
+    private static final int MAX_RENTAL_DAYS = 400;
+
+    private final ChargeableDayCounter counter = new ChargeableDayCounter();
+    private final DateUtil dateUtil = new DateUtil();
+
+    @Test
+    public void testCountWeekendDays() {
+        // August 1st, 2024 was a Thursday
+        long thursday = LocalDate.of(2024, 8, 1).toEpochDay();
+        assertEquals(0, counter.countWeekendDays(thursday, 2));
+        assertEquals(1, counter.countWeekendDays(thursday, 3));
+        assertEquals(2, counter.countWeekendDays(thursday, 7));
+        assertEquals(2 * 52 + 1, counter.countWeekendDays(thursday, 7 * 52 + 3));
+    }
+
+    @Test
+    public void testCount() {
+        // July 1st - 7th 2024, Independence Day on a Thursday and one weekend
+        ChargeableDays days = counter.count(new DeWaltJackhammer(), LocalDate.of(2024, 7, 1).toEpochDay(), 7);
+        assertEquals(5, days.getWeekdays());
+        assertEquals(2, days.getWeekendDays());
+        assertEquals(1, days.getHolidays());
+        assertEquals(4, days.getChargeableDays());
+    }
+
+    @Test
+    public void testHolidayOnWeekend() {
+        // Independence Day 2026 is a Saturday, so the ladder loses the day but the chainsaw is not affected
+        long start = LocalDate.of(2026, 7, 4).toEpochDay();
+        assertEquals(0, counter.countChargeableDays(new WernerLadder(), start, 1));
+        assertEquals(0, counter.countChargeableDays(new StihlChainsaw(), start, 1));
+        assertEquals(1, counter.countChargeableDays(new WernerLadder(), start, 2));
+    }
+
+    /**
+     * Every start date across several years and every rental length up to {@link #MAX_RENTAL_DAYS} must agree with
+     * walking the rental period one day at a time.
+     */
+    @Test
+    public void testMatchesDayByDayWalk() {
+        Tool[] tools = {new StihlChainsaw(), new WernerLadder(), new DeWaltJackhammer(), chargesEverything(), chargesNothing()};
+
+        Calendar start = Calendar.getInstance();
+        start.clear();
+        start.set(2023, Calendar.JANUARY, 1);
+        while (start.get(Calendar.YEAR) < 2028) {
+            long startEpochDay = dateUtil.toEpochDay(start.getTime());
+            for (Tool tool : tools) {
+                Calendar cal = (Calendar) start.clone();
+                int expected = 0;
+                for (int rentalDays = 1; rentalDays <= MAX_RENTAL_DAYS; rentalDays++) {
+                    if (isChargeable(tool, cal)) {
+                        expected++;
+                    }
+                    cal.add(Calendar.DAY_OF_MONTH, 1);
+                    assertEquals(expected, counter.countChargeableDays(tool, startEpochDay, rentalDays),
+                            tool.getToolCode() + " from " + start.getTime() + " for " + rentalDays + " days");
+                }
+            }
+            start.add(Calendar.DAY_OF_MONTH, 1);
+        }
+    }
+
+    @Test
+    public void testLongRentalMatchesDayByDayWalk() {
+        Tool tool = new DeWaltJackhammer();
+        Calendar cal = Calendar.getInstance();
+        cal.clear();
+        cal.set(2024, Calendar.MARCH, 13);
+        long startEpochDay = dateUtil.toEpochDay(cal.getTime());
+
+        int expected = 0;
+        for (int i = 0; i < 3000; i++) {
+            if (isChargeable(tool, cal)) {
+                expected++;
+            }
+            cal.add(Calendar.DAY_OF_MONTH, 1);
+        }
+        assertEquals(expected, counter.countChargeableDays(tool, startEpochDay, 3000));
+    }
+
+    /**
+     * The day by day rules used by the original RentalChargeCalculator loop.
+     */
+    private boolean isChargeable(Tool tool, Calendar cal) {
+        if (!tool.isHolidayCharge() && dateUtil.isHoliday(cal)) {
+            return false;
+        }
+        return switch (cal.get(Calendar.DAY_OF_WEEK)) {
+            case Calendar.SATURDAY, Calendar.SUNDAY -> tool.isWeekendCharge();
+            default -> tool.isWeekdayCharge();
+        };
+    }
+
+    private Tool chargesEverything() {
+        Tool tool = new StihlChainsaw();
+        tool.setWeekendCharge(true);
+        return tool;
+    }
+
+    private Tool chargesNothing() {
+        Tool tool = new DeWaltJackhammer();
+        tool.setWeekdayCharge(false);
+        return tool;
+    }
+}
@@ -0,0 +1,75 @@
+package com.toolrentals.pos.business.calculator;
+
+import com.toolrentals.pos.business.inventory.DueDateIndex;
+import com.toolrentals.pos.business.util.DateUtil;
+import com.toolrentals.pos.common.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test that the LateFeeAccrualJob accrues the same late fees on every overdue agreement as calculating them one by one.
+ */
+public class LateFeeAccrualJobTest {
+
+    private final LateFeeCalculator calculator = new LateFeeCalculator();
+    private final DateUtil dateUtil = new DateUtil();
+    private final Tool[] tools = {new StihlChainsaw(), new WernerLadder(), new DeWaltJackhammer(), new RidgidJackhammer()};
+
+    @Test
+    public void testAccrueMatchesLateFeeCalculator() {
+        Random random = new Random(72024);
+        long asOfEpochDay = LocalDate.of(2024, 9, 10).toEpochDay();
+        DueDateIndex index = new DueDateIndex();
+        List<RentalAgreement> agreements = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            // due over the last two years and the next month, so some have been out past several holidays
+            RentalAgreement rentalAgreement = new RentalAgreement()
+                    .tool(tools[random.nextInt(tools.length)])
+                    .dueDate(dateUtil.fromEpochDay(asOfEpochDay - 730 + random.nextInt(760)));
+            index.add(rentalAgreement);
+            agreements.add(rentalAgreement);
+        }
+        // returned, but not yet taken out of the index
+        RentalAgreement returned = agreements.get(0);
+        returned.setReturnDate(dateUtil.fromEpochDay(asOfEpochDay));
+        returned.setLateFeeCents(123);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            LateFeeAccrualJob.AccrualSummary summary = new LateFeeAccrualJob(index, pool).accrue(asOfEpochDay);
+
+            long overdue = 0;
+            long lateFeeCents = 0;
+            for (RentalAgreement rentalAgreement : agreements.subList(1, agreements.size())) {
+                long dueEpochDay = dateUtil.toEpochDay(rentalAgreement.getDueDate());
+                if (dueEpochDay >= asOfEpochDay) {
+                    assertFalse(rentalAgreement.hasLateFee());
+                    continue;
+                }
+                RentalAgreement expected = new RentalAgreement().tool(rentalAgreement.getTool()).dueDate(rentalAgreement.getDueDate());
+                calculator.calculateLateFee(expected, asOfEpochDay);
+                assertEquals(expected.getNumberLateChargeableDays(), rentalAgreement.getNumberLateChargeableDays());
+                assertEquals(expected.getLateFeeCents(), rentalAgreement.getLateFeeCents());
+                overdue++;
+                lateFeeCents += expected.getLateFeeCents();
+            }
+            assertEquals(123, returned.getLateFeeCents());
+            assertEquals(overdue, summary.getAgreements());
+            assertEquals(lateFeeCents, summary.getLateFeeCents());
+
+            // accruing again a day later recalculates rather than adds to the fees
+            LateFeeAccrualJob.AccrualSummary nextDay = new LateFeeAccrualJob(index, pool).accrue(asOfEpochDay + 1);
+            assertTrue(nextDay.getAgreements() >= overdue);
+            assertTrue(nextDay.getLateFeeCents() < 2 * lateFeeCents);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.toolrentals.pos.business.calculator;
+
+import com.toolrentals.pos.business.util.DateUtil;
+import com.toolrentals.pos.common.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test that the LateFeeCalculator charges the days past the due date under each tool's charge rules.
+ */
+public class LateFeeCalculatorTest {
+
+    private final LateFeeCalculator calculator = new LateFeeCalculator();
+    private final DateUtil dateUtil = new DateUtil();
+
+    @Test
+    public void testLateFeeJuly4thWeek() {
+        // due Thursday July 2nd 2020 and returned Tuesday July 7th, with Independence Day on the Saturday
+        long dueEpochDay = LocalDate.of(2020, 7, 2).toEpochDay();
+        long returnEpochDay = LocalDate.of(2020, 7, 7).toEpochDay();
+
+        // the ladder is not charged on the holiday: Thursday, Friday, Sunday and Monday at 1.99
+        RentalAgreement ladder = agreement(new WernerLadder(), dueEpochDay);
+        calculator.calculateLateFee(ladder, returnEpochDay);
+        assertEquals(4, ladder.getNumberLateChargeableDays());
+        assertEquals(796, ladder.getLateFeeCents());
+
+        // the chainsaw is not charged on weekends: Thursday, Friday and Monday at 1.49
+        RentalAgreement chainsaw = agreement(new StihlChainsaw(), dueEpochDay);
+        calculator.calculateLateFee(chainsaw, returnEpochDay);
+        assertEquals(3, chainsaw.getNumberLateChargeableDays());
+        assertEquals(447, chainsaw.getLateFeeCents());
+
+        // the jackhammer on weekdays only: Thursday, Friday and Monday at 2.99
+        RentalAgreement jackhammer = agreement(new RidgidJackhammer(), dueEpochDay);
+        calculator.calculateLateFee(jackhammer, dueEpochDay, returnEpochDay);
+        assertEquals(3, jackhammer.getNumberLateChargeableDays());
+        assertEquals(897, jackhammer.getLateFeeCents());
+    }
+
+    @Test
+    public void testLateFeeLaborDay() {
+        // due Friday August 30th 2024 and returned Wednesday September 4th, with Labor Day on the Monday
+        long dueEpochDay = LocalDate.of(2024, 8, 30).toEpochDay();
+        long returnEpochDay = LocalDate.of(2024, 9, 4).toEpochDay();
+
+        // the jackhammer is not charged on the holiday: Friday and Tuesday at 2.99
+        RentalAgreement jackhammer = agreement(new RidgidJackhammer(), dueEpochDay);
+        calculator.calculateLateFee(jackhammer, returnEpochDay);
+        assertEquals(2, jackhammer.getNumberLateChargeableDays());
+        assertEquals(598, jackhammer.getLateFeeCents());
+
+        // the chainsaw is charged on the holiday: Friday, Monday and Tuesday at 1.49
+        RentalAgreement chainsaw = agreement(new StihlChainsaw(), dueEpochDay);
+        calculator.calculateLateFee(chainsaw, returnEpochDay);
+        assertEquals(3, chainsaw.getNumberLateChargeableDays());
+        assertEquals(447, chainsaw.getLateFeeCents());
+    }
+
+    @Test
+    public void testNoLateFeeWhenReturnedByDueDate() {
+        long dueEpochDay = LocalDate.of(2024, 3, 13).toEpochDay();
+        for (long returnEpochDay : new long[]{dueEpochDay - 2, dueEpochDay}) {
+            RentalAgreement rentalAgreement = agreement(new WernerLadder(), dueEpochDay);
+            calculator.calculateLateFee(rentalAgreement, returnEpochDay);
+            assertEquals(0, rentalAgreement.getNumberLateChargeableDays());
+            assertEquals(0, rentalAgreement.getLateFeeCents());
+        }
+    }
+
+    private RentalAgreement agreement(Tool tool, long dueEpochDay) {
+        return new RentalAgreement().tool(tool).dueDate(dateUtil.fromEpochDay(dueEpochDay));
+    }
+}
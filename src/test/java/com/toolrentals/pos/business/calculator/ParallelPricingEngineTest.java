@@ -0,0 +1,92 @@
+package com.toolrentals.pos.business.calculator;
+
+import com.toolrentals.pos.business.util.DateUtil;
+import com.toolrentals.pos.common.enums.ToolCode;
+import com.toolrentals.pos.common.model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test that the ParallelPricingEngine gives exactly the same results as sequential pricing.
+ */
+public class ParallelPricingEngineTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    // small thresholds so that even modest inputs are split into many tasks
+    private final ParallelPricingEngine engine = new ParallelPricingEngine(pool, 100, 50);
+    private final BatchQuoteCalculator batchCalculator = new BatchQuoteCalculator();
+    private final RentalChargeCalculator calculator = new RentalChargeCalculator();
+    private final Tool[] tools = {new StihlChainsaw(), new WernerLadder(), new DeWaltJackhammer(), new RidgidJackhammer()};
+
+    @AfterEach
+    public void shutdownPool() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testPriceBatchMatchesSequential() {
+        QuoteBatch parallel = createBatch();
+        QuoteBatch sequential = createBatch();
+        engine.priceBatch(parallel, tools);
+        batchCalculator.price(sequential, tools);
+
+        for (int row = 0; row < sequential.size(); row++) {
+            assertEquals(sequential.getChargeableDays(row), parallel.getChargeableDays(row), "row " + row);
+            assertEquals(sequential.getSubtotalCents(row), parallel.getSubtotalCents(row), "row " + row);
+            assertEquals(sequential.getDiscountCents(row), parallel.getDiscountCents(row), "row " + row);
+            assertEquals(sequential.getTotalCents(row), parallel.getTotalCents(row), "row " + row);
+        }
+    }
+
+    @Test
+    public void testLongRentalMatchesSequential() {
+        for (Tool tool : tools) {
+            RentalAgreement parallel = createAgreement(tool);
+            RentalAgreement sequential = createAgreement(tool);
+
+            engine.calculateDailyRates(parallel);
+            engine.calculateSubtotal(parallel);
+            calculator.calculateDailyRates(sequential);
+            calculator.calculateSubtotal(sequential);
+
+            assertEquals(sequential.getNumberChargeableDays(), parallel.getNumberChargeableDays());
+            assertEquals(sequential.getSubtotalCents(), parallel.getSubtotalCents());
+            DailyChargeLedger expected = sequential.getDailyCharges();
+            DailyChargeLedger actual = parallel.getDailyCharges();
+            assertEquals(expected.getStartEpochDay(), actual.getStartEpochDay());
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.getCharge(i), actual.getCharge(i), tool.getToolCode() + " day " + i);
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidThreshold() {
+        assertThrows(IllegalArgumentException.class, () -> new ParallelPricingEngine(pool, 0, 10));
+    }
+
+    private QuoteBatch createBatch() {
+        Random random = new Random(2024);
+        long firstDay = LocalDate.of(2024, 1, 1).toEpochDay();
+        QuoteBatch batch = new QuoteBatch();
+        for (int i = 0; i < 10_000; i++) {
+            batch.add(ToolCode.values()[random.nextInt(ToolCode.values().length)], 1 + random.nextInt(400),
+                    firstDay + random.nextInt(1500), random.nextInt(101));
+        }
+        return batch;
+    }
+
+    private RentalAgreement createAgreement(Tool tool) {
+        return new RentalAgreement()
+                .tool(tool)
+                .rentalDays(3_000)
+                .checkoutDate(new DateUtil().fromEpochDay(LocalDate.of(2024, 6, 15).toEpochDay()));
+    }
+}
@@ -1,13 +1,16 @@
 package com.toolrentals.pos.business.calculator;
 
+import com.toolrentals.pos.common.model.DailyChargeLedger;
 import com.toolrentals.pos.common.model.DeWaltJackhammer;
 import com.toolrentals.pos.common.model.RentalAgreement;
 import com.toolrentals.pos.common.model.StihlChainsaw;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -172,6 +175,34 @@ public class RentalChargeCalculatorTest {
         assertEquals(agreement.getRentalChargesByDate().get(checkoutDate), new BigDecimal("1.49"));
     }
 
+    @Test
+    public void testCalculateDailyRatesLedgerInDayOrder() {
+        // DeWalt Jackhammer over the July 4th week, ledger should hold one charge per day starting at the checkout date
+        Calendar cal = createCalendar(0, 0, 0, 0, 1, Calendar.JULY, 2024);
+        RentalAgreement agreement = new RentalAgreement()
+                .tool(new DeWaltJackhammer())
+                .rentalDays(7)
+                .checkoutDate(cal.getTime());
+        calculator.calculateDailyRates(agreement);
+
+        DailyChargeLedger ledger = agreement.getDailyCharges();
+        assertEquals(LocalDate.of(2024, 7, 1).toEpochDay(), ledger.getStartEpochDay());
+        assertEquals(7, ledger.size());
+        long[] expected = {299, 299, 299, 0, 299, 0, 0};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], ledger.getCharge(i));
+        }
+        assertEquals(299, ledger.getChargeForEpochDay(LocalDate.of(2024, 7, 5).toEpochDay()));
+        assertEquals(1196, ledger.totalCharges());
+
+        // the map view iterates in day order
+        Calendar day = createCalendar(0, 0, 0, 0, 1, Calendar.JULY, 2024);
+        for (Map.Entry<Date, BigDecimal> entry : agreement.getRentalChargesByDate().entrySet()) {
+            assertEquals(day.getTime(), entry.getKey());
+            day.add(Calendar.DAY_OF_MONTH, 1);
+        }
+    }
+
     @Test
     public void testCalculateSubtotal() {
         Calendar cal = createCalendar(0, 0, 0, 0, 1, Calendar.AUGUST, 2024);
@@ -262,7 +293,7 @@ public class RentalChargeCalculatorTest {
                 .subtotal(new BigDecimal(100));
         calculator.calculateTotal(agreement);
         assertTrue(agreement.hasTotal());
-        assertEquals(new BigDecimal(100), agreement.getTotal());
+        assertEquals(new BigDecimal("100.00"), agreement.getTotal());
     }
 
     @Test
@@ -272,7 +303,7 @@ public class RentalChargeCalculatorTest {
                 .subtotal(new BigDecimal(100));
         calculator.calculateTotal(agreement);
         assertTrue(agreement.hasTotal());
-        assertEquals(new BigDecimal(90), agreement.getTotal());
+        assertEquals(new BigDecimal("90.00"), agreement.getTotal());
     }
 
     private Calendar createCalendar(int millisecond, int seconds, int minutes, int hour, int day, int month, int year) {
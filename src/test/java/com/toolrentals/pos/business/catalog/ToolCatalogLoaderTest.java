@@ -0,0 +1,85 @@
+package com.toolrentals.pos.business.catalog;
+
+import com.toolrentals.pos.common.enums.Brand;
+import com.toolrentals.pos.common.enums.ToolCode;
+import com.toolrentals.pos.common.enums.ToolType;
+import com.toolrentals.pos.common.model.Tool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test loading the tool catalog from a file.
+ */
+public class ToolCatalogLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ToolCatalogLoader loader = new ToolCatalogLoader();
+
+    @Test
+    public void testLoad() throws Exception {
+        ToolCatalogIndex index = loader.load(write("code,type,brand,dailyCharge,weekdayCharge,weekendCharge,holidayCharge\r\n"
+                + "# ladders\r\n"
+                + "LADW-12, LADDER, Werner, 2.5, yes, no, 1\r\n"
+                + "\r\n"
+                + "SAW-9,chainsaw,ACME,3.999,N,Y,false"));
+
+        assertEquals(2, index.size());
+        Tool ladder = index.findTool("LADW-12");
+        assertSame(ladder, index.findTool("LADW-12"));
+        assertEquals(ToolType.LADDER, ladder.getToolType());
+        assertEquals(Brand.WERNER, ladder.getBrand());
+        assertEquals(new BigDecimal("2.50"), ladder.getDailyCharge());
+        assertTrue(ladder.isWeekdayCharge());
+        assertFalse(ladder.isWeekendCharge());
+        assertTrue(ladder.isHolidayCharge());
+        assertNull(ladder.getToolCode());
+
+        Tool saw = index.findTool("SAW-9");
+        assertEquals(ToolType.CHAINSAW, saw.getToolType());
+        assertEquals(Brand.UNDEFINED, saw.getBrand());
+        assertEquals(new BigDecimal("4.00"), saw.getDailyCharge());
+
+        assertNull(index.findTool("SAW-10"));
+        assertNull(index.findTool(null));
+    }
+
+    @Test
+    public void testCatalogFromFile() throws Exception {
+        ToolCatalog catalog = ToolCatalog.load(write("JAKR,JACKHAMMER,RIDGID,3.49,true,false,false\nTRL-1,LADDER,Werner,0.99,true,true,true\n"));
+
+        // a loaded tool code replaces the standard tool, and the other standard tools remain
+        assertEquals(new BigDecimal("3.49"), catalog.findTool(ToolCode.JAKR).getDailyCharge());
+        assertSame(catalog.findTool(ToolCode.JAKR), catalog.findTool("JAKR"));
+        assertEquals(new BigDecimal("1.49"), catalog.findTool(ToolCode.CHNS).getDailyCharge());
+        assertEquals(new BigDecimal("0.99"), catalog.findTool("TRL-1").getDailyCharge());
+
+        catalog.updateDailyCharge(ToolCode.JAKR, new BigDecimal("3.99"));
+        assertEquals(new BigDecimal("3.99"), catalog.findTool("JAKR").getDailyCharge());
+    }
+
+    @Test
+    public void testInvalidLines() throws Exception {
+        IOException e = assertThrows(IOException.class, () -> loader.load(write("LADW,LADDER,Werner,1.99,true,true\n")));
+        assertEquals("Tool catalog line 1: expected 7 fields.", e.getMessage());
+        e = assertThrows(IOException.class, () -> loader.load(write("LADW,LADDER,Werner,1.99,true,true,false\nDRL,DRILL,DeWalt,1.99,true,true,false\n")));
+        assertEquals("Tool catalog line 2: unknown tool type.", e.getMessage());
+        e = assertThrows(IOException.class, () -> loader.load(write("LADW,LADDER,Werner,-1.99,true,true,false\n")));
+        assertEquals("Tool catalog line 1: daily charge must be a positive amount.", e.getMessage());
+        e = assertThrows(IOException.class, () -> loader.load(write("LADW,LADDER,Werner,1.99,true,maybe,false\n")));
+        assertEquals("Tool catalog line 1: charge flags must be true or false.", e.getMessage());
+    }
+
+    private Path write(String content) throws IOException {
+        Path path = Files.createTempFile(tempDir, "tools", ".csv");
+        return Files.writeString(path, content);
+    }
+}
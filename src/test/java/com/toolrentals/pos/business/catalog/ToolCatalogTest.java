@@ -0,0 +1,79 @@
+package com.toolrentals.pos.business.catalog;
+
+import com.toolrentals.pos.common.enums.Brand;
+import com.toolrentals.pos.common.enums.ToolCode;
+import com.toolrentals.pos.common.enums.ToolType;
+import com.toolrentals.pos.common.model.Tool;
+import com.toolrentals.pos.common.model.WernerLadder;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the ToolCatalog flyweights and copy-on-write updates.
+ */
+public class ToolCatalogTest {
+
+    private final ToolCatalog catalog = new ToolCatalog();
+
+    @Test
+    public void testFindToolIsShared() {
+        Tool chainsaw = catalog.findTool(ToolCode.CHNS);
+        assertSame(chainsaw, catalog.findTool(ToolCode.CHNS));
+        assertEquals(ToolType.CHAINSAW, chainsaw.getToolType());
+        assertEquals(Brand.STIHL, chainsaw.getBrand());
+        assertEquals(new BigDecimal("1.49"), chainsaw.getDailyCharge());
+        assertNull(catalog.findTool((ToolCode) null));
+    }
+
+    @Test
+    public void testCatalogToolsAreImmutable() {
+        Tool ladder = catalog.findTool(ToolCode.LADW);
+        assertThrows(UnsupportedOperationException.class, () -> ladder.setDailyCharge(BigDecimal.ONE));
+        assertThrows(UnsupportedOperationException.class, () -> ladder.setWeekendCharge(false));
+    }
+
+    @Test
+    public void testUpdateDailyCharge() {
+        List<ToolCode> changed = new ArrayList<>();
+        catalog.addChangeListener(changed::add);
+        Tool before = catalog.findTool(ToolCode.JAKD);
+
+        catalog.updateDailyCharge(ToolCode.JAKD, new BigDecimal("3.49"));
+
+        Tool after = catalog.findTool(ToolCode.JAKD);
+        assertNotSame(before, after);
+        // the instance already handed out keeps its old charge
+        assertEquals(new BigDecimal("2.99"), before.getDailyCharge());
+        assertEquals(new BigDecimal("3.49"), after.getDailyCharge());
+        assertFalse(after.isWeekendCharge());
+        assertEquals(List.of(ToolCode.JAKD), changed);
+    }
+
+    @Test
+    public void testRemoveChangeListener() {
+        List<ToolCode> changed = new ArrayList<>();
+        Consumer<ToolCode> listener = changed::add;
+        catalog.addChangeListener(listener);
+        catalog.updateDailyCharge(ToolCode.JAKD, new BigDecimal("3.49"));
+        catalog.removeChangeListener(listener);
+        catalog.updateDailyCharge(ToolCode.JAKR, new BigDecimal("3.49"));
+        assertEquals(List.of(ToolCode.JAKD), changed);
+    }
+
+    @Test
+    public void testPutTool() {
+        WernerLadder ladder = new WernerLadder();
+        ladder.setHolidayCharge(true);
+        catalog.putTool(ladder);
+        assertTrue(catalog.findTool(ToolCode.LADW).isHolidayCharge());
+        // the catalog holds a copy, so changing the original has no effect
+        ladder.setHolidayCharge(false);
+        assertTrue(catalog.findTool(ToolCode.LADW).isHolidayCharge());
+    }
+}
@@ -0,0 +1,104 @@
+package com.toolrentals.pos.business.clock;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test that business clocks hand out the day and start of day of their time zone, and move on to the next day.
+ */
+public class BusinessClockTest {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    @Test
+    public void testCachedClockTicksAtMidnight() {
+        MutableClock source = new MutableClock(LocalDateTime.of(2024, 3, 9, 23, 59, 59));
+        try (CachedBusinessClock clock = new CachedBusinessClock(source)) {
+            assertEquals(LocalDate.of(2024, 3, 9).toEpochDay(), clock.getTodayEpochDay());
+            assertEquals(startOfDay(2024, 3, 9), clock.getStartOfTodayMillis());
+
+            // the same day until the clock ticks past midnight
+            source.set(LocalDateTime.of(2024, 3, 10, 0, 0, 1));
+            assertEquals(LocalDate.of(2024, 3, 9).toEpochDay(), clock.getTodayEpochDay());
+            clock.tick();
+            assertEquals(LocalDate.of(2024, 3, 10).toEpochDay(), clock.getTodayEpochDay());
+            assertEquals(startOfDay(2024, 3, 10), clock.getStartOfTodayMillis());
+
+            // a day only 23 hours long, as the clocks go forward
+            source.set(LocalDateTime.of(2024, 3, 10, 23, 30));
+            clock.tick();
+            assertEquals(LocalDate.of(2024, 3, 10).toEpochDay(), clock.getTodayEpochDay());
+            source.set(LocalDateTime.of(2024, 3, 11, 0, 0));
+            clock.tick();
+            assertEquals(LocalDate.of(2024, 3, 11).toEpochDay(), clock.getTodayEpochDay());
+            assertEquals(startOfDay(2024, 3, 10) + 23 * 3_600_000L, clock.getStartOfTodayMillis());
+
+            // a clock set back moves back a day
+            source.set(LocalDateTime.of(2024, 3, 10, 12, 0));
+            clock.tick();
+            assertEquals(LocalDate.of(2024, 3, 10).toEpochDay(), clock.getTodayEpochDay());
+        }
+    }
+
+    @Test
+    public void testSystemClock() {
+        BusinessClock clock = BusinessClock.system();
+        assertSame(clock, BusinessClock.system());
+        // allowing for midnight passing while checking
+        long before = LocalDate.now().toEpochDay();
+        long today = clock.getTodayEpochDay();
+        assertTrue(today >= before && today <= LocalDate.now().toEpochDay());
+        assertEquals(LocalDate.ofEpochDay(today).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                clock.getStartOfTodayMillis());
+    }
+
+    @Test
+    public void testFixedClock() {
+        FixedBusinessClock clock = new FixedBusinessClock(LocalDate.of(2024, 3, 9), NEW_YORK);
+        assertEquals(LocalDate.of(2024, 3, 9).toEpochDay(), clock.getTodayEpochDay());
+        assertEquals(startOfDay(2024, 3, 9), clock.getStartOfTodayMillis());
+
+        clock.setToday(LocalDate.of(2020, 7, 4));
+        assertEquals(LocalDate.of(2020, 7, 4).toEpochDay(), clock.getTodayEpochDay());
+        assertEquals(startOfDay(2020, 7, 4), clock.getStartOfTodayMillis());
+    }
+
+    private static long startOfDay(int year, int month, int day) {
+        return LocalDate.of(year, month, day).atStartOfDay(NEW_YORK).toInstant().toEpochMilli();
+    }
+
+    /**
+     * A clock in New York that stays on a set time until it is moved.
+     */
+    private static class MutableClock extends Clock {
+
+        private volatile Instant instant;
+
+        private MutableClock(LocalDateTime time) {
+            set(time);
+        }
+
+        private void set(LocalDateTime time) {
+            instant = time.atZone(NEW_YORK).toInstant();
+        }
+
+        public ZoneId getZone() {
+            return NEW_YORK;
+        }
+
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
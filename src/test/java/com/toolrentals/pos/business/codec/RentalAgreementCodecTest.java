@@ -0,0 +1,166 @@
+package com.toolrentals.pos.business.codec;
+
+import com.toolrentals.pos.business.util.DateUtil;
+import com.toolrentals.pos.common.enums.Brand;
+import com.toolrentals.pos.common.enums.ToolType;
+import com.toolrentals.pos.common.model.CatalogTool;
+import com.toolrentals.pos.common.model.DailyChargeLedger;
+import com.toolrentals.pos.common.model.RentalAgreement;
+import com.toolrentals.pos.common.model.Tool;
+import com.toolrentals.pos.service.RentalAgreementSvcImpl;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Calendar;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test encoding rental agreements and decoding them back.
+ */
+public class RentalAgreementCodecTest {
+
+    private final RentalAgreementCodec codec = new RentalAgreementCodec();
+    private final RentalAgreementSvcImpl svc = new RentalAgreementSvcImpl();
+    private final DateUtil dateUtil = new DateUtil();
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        for (ByteBuffer buffer : new ByteBuffer[]{ByteBuffer.allocate(4_096), ByteBuffer.allocateDirect(4_096)}) {
+            RentalAgreement[] agreements = {
+                    checkout(svc.findTool("LADW"), 5, 10),
+                    checkout(svc.findTool("CHNS"), 30, 0),
+                    checkout(svc.findTool("JAKR"), 9, 100),
+                    checkout(new CatalogTool("LADW-8FT-ÉCHELLE", null, ToolType.LADDER, Brand.UNDEFINED, new BigDecimal("12.34"), true, false, true), 3, 5)};
+            for (RentalAgreement rentalAgreement : agreements) {
+                codec.encode(rentalAgreement, buffer);
+            }
+            buffer.flip();
+            for (RentalAgreement rentalAgreement : agreements) {
+                assertAgreement(rentalAgreement, codec.decode(buffer));
+            }
+            assertFalse(buffer.hasRemaining());
+        }
+    }
+
+    @Test
+    public void testSmallerThanJavaSerialization() throws Exception {
+        RentalAgreement rentalAgreement = checkout(svc.findTool("JAKD"), 60, 20);
+        ByteBuffer buffer = ByteBuffer.allocate(4_096);
+        int encoded = codec.encode(rentalAgreement, buffer);
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+            out.writeObject(rentalAgreement);
+        }
+        // a 60 day ledger is about 2 runs a week, the weekdays and the uncharged weekend
+        assertTrue(encoded < 128, "encoded in " + encoded + " bytes");
+        assertTrue(encoded * 10 < serialized.size());
+    }
+
+    @Test
+    public void testUnsetFieldsStayUnset() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        assertEquals(2, codec.encode(new RentalAgreement(), buffer));
+        buffer.flip();
+        RentalAgreement decoded = codec.decode(buffer);
+        assertFalse(decoded.hasTool());
+        assertFalse(decoded.hasRentalDays());
+        assertFalse(decoded.hasCheckoutDate());
+        assertFalse(decoded.hasDueDate());
+        assertNull(decoded.getDailyCharges());
+        assertFalse(decoded.hasSubtotal());
+        assertFalse(decoded.hasPercentageDiscount());
+        assertFalse(decoded.hasBookedUnit());
+        assertFalse(decoded.hasDiscount());
+        assertFalse(decoded.hasTotal());
+        assertFalse(decoded.hasNumberChargeableDays());
+        assertFalse(decoded.hasReturnDate());
+        assertNull(decoded.getNumberLateChargeableDays());
+        assertFalse(decoded.hasLateFee());
+    }
+
+    @Test
+    public void testReturnedRoundTrip() throws Exception {
+        RentalAgreement rentalAgreement = checkout(svc.findTool("CHNS"), 3, 10).bookedUnit(2);
+        Calendar cal = Calendar.getInstance();
+        cal.setTime(rentalAgreement.getDueDate());
+        cal.add(Calendar.DAY_OF_MONTH, 7);
+        svc.checkin(rentalAgreement, cal.getTime());
+        ByteBuffer buffer = ByteBuffer.allocate(4_096);
+        codec.encode(rentalAgreement, buffer);
+        buffer.flip();
+
+        RentalAgreement decoded = codec.decode(buffer);
+        assertAgreement(rentalAgreement, decoded);
+        assertEquals(dateUtil.toEpochDay(rentalAgreement.getReturnDate()), dateUtil.toEpochDay(decoded.getReturnDate()));
+        assertEquals(rentalAgreement.getNumberLateChargeableDays(), decoded.getNumberLateChargeableDays());
+        assertEquals(rentalAgreement.getLateFeeCents(), decoded.getLateFeeCents());
+        assertEquals(2, decoded.getBookedUnit());
+    }
+
+    @Test
+    public void testUnknownFieldsAreSkipped() throws Exception {
+        RentalAgreement rentalAgreement = checkout(svc.findTool("LADW"), 7, 15);
+        ByteBuffer buffer = ByteBuffer.allocate(4_096);
+        codec.encode(rentalAgreement, buffer);
+        // a later version appending a varint field and a bytes field before the closing tag
+        buffer.position(buffer.position() - 1);
+        RentalAgreementCodec.putVarint(buffer, RentalAgreementCodec.tag(99, RentalAgreementCodec.VARINT));
+        RentalAgreementCodec.putVarint(buffer, Long.MAX_VALUE);
+        RentalAgreementCodec.putVarint(buffer, RentalAgreementCodec.tag(1_000, RentalAgreementCodec.BYTES));
+        RentalAgreementCodec.putVarint(buffer, 3);
+        buffer.put(new byte[]{1, 2, 3});
+        RentalAgreementCodec.putVarint(buffer, 0);
+        buffer.put((byte) 42);
+        buffer.flip();
+
+        assertAgreement(rentalAgreement, codec.decode(buffer));
+        assertEquals(42, buffer.get());
+    }
+
+    @Test
+    public void testUnsupportedVersion() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{2, 0});
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(buffer));
+    }
+
+    private void assertAgreement(RentalAgreement expected, RentalAgreement actual) {
+        Tool expectedTool = expected.getTool();
+        CatalogTool actualTool = (CatalogTool) actual.getTool();
+        assertEquals(expectedTool instanceof CatalogTool catalogTool ? catalogTool.getCode() : expectedTool.getToolCode().name(), actualTool.getCode());
+        assertEquals(expectedTool.getToolCode(), actualTool.getToolCode());
+        assertEquals(expectedTool.getToolType(), actualTool.getToolType());
+        assertEquals(expectedTool.getBrand(), actualTool.getBrand());
+        assertEquals(expectedTool.getDailyChargeCents(), actualTool.getDailyChargeCents());
+        assertEquals(expectedTool.isWeekdayCharge(), actualTool.isWeekdayCharge());
+        assertEquals(expectedTool.isWeekendCharge(), actualTool.isWeekendCharge());
+        assertEquals(expectedTool.isHolidayCharge(), actualTool.isHolidayCharge());
+        assertEquals(expected.getRentalDays(), actual.getRentalDays());
+        assertEquals(dateUtil.toEpochDay(expected.getCheckoutDate()), dateUtil.toEpochDay(actual.getCheckoutDate()));
+        assertEquals(dateUtil.toEpochDay(expected.getDueDate()), dateUtil.toEpochDay(actual.getDueDate()));
+        DailyChargeLedger expectedLedger = expected.getDailyCharges();
+        DailyChargeLedger actualLedger = actual.getDailyCharges();
+        assertEquals(expectedLedger.getStartEpochDay(), actualLedger.getStartEpochDay());
+        assertEquals(expectedLedger.size(), actualLedger.size());
+        for (int day = 0; day < expectedLedger.size(); day++) {
+            assertEquals(expectedLedger.getCharge(day), actualLedger.getCharge(day));
+        }
+        assertEquals(expected.getSubtotalCents(), actual.getSubtotalCents());
+        assertEquals(expected.getPercentDiscount(), actual.getPercentDiscount());
+        assertEquals(expected.getDiscountCents(), actual.getDiscountCents());
+        assertEquals(expected.getTotalCents(), actual.getTotalCents());
+        assertEquals(expected.getNumberChargeableDays(), actual.getNumberChargeableDays());
+    }
+
+    private RentalAgreement checkout(Tool tool, int rentalDays, int percentDiscount) throws Exception {
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        RentalAgreement rentalAgreement = svc.checkout(tool, rentalDays, cal.getTime(), percentDiscount);
+        // itemized, so the ledger is encoded too
+        svc.calculateDailyRentalCharges(rentalAgreement);
+        return rentalAgreement;
+    }
+}
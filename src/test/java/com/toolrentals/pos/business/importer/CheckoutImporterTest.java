@@ -0,0 +1,229 @@
+package com.toolrentals.pos.business.importer;
+
+import com.toolrentals.pos.CheckoutProcess;
+import com.toolrentals.pos.business.catalog.ToolCatalog;
+import com.toolrentals.pos.business.inventory.AvailabilityCalendar;
+import com.toolrentals.pos.business.inventory.DueDateIndex;
+import com.toolrentals.pos.business.inventory.ToolInventory;
+import com.toolrentals.pos.business.journal.DurabilityPolicy;
+import com.toolrentals.pos.business.journal.RentalJournal;
+import com.toolrentals.pos.business.util.DateUtil;
+import com.toolrentals.pos.common.enums.ToolCode;
+import com.toolrentals.pos.common.model.RentalAgreement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test CheckoutImporter.
+ */
+public class CheckoutImporterTest {
+
+    @TempDir
+    Path dir;
+
+    private Path input;
+    private Path accepted;
+    private Path rejected;
+    private ToolInventory toolInventory;
+    private CheckoutProcess checkoutProcess;
+    private CheckoutImporter importer;
+    // a Wednesday in the future, clear of holidays
+    private final LocalDate wednesday = LocalDate.of(2099, 11, 1).with(TemporalAdjusters.nextOrSame(DayOfWeek.WEDNESDAY));
+
+    @BeforeEach
+    public void setUp() {
+        input = dir.resolve("checkouts.csv");
+        accepted = dir.resolve("accepted.csv");
+        rejected = dir.resolve("rejected.csv");
+        toolInventory = new ToolInventory();
+        checkoutProcess = new CheckoutProcess(new ToolCatalog(), toolInventory);
+        importer = new CheckoutImporter(checkoutProcess, 2);
+    }
+
+    @Test
+    public void testImport() throws Exception {
+        String shortDate = wednesday.format(DateTimeFormatter.ofPattern("MM/dd/yy"));
+        Files.writeString(input, "toolCode,rentalDays,checkoutDate,discountPercent\r\n"
+                + "LADW,3," + wednesday + ",10\r\n"
+                + "\n"
+                + "# a comment\n"
+                + "\"CHNS\", 5 ,\"" + shortDate + "\",25\n"
+                + "jakr,1," + wednesday + ",\n"
+                + "JAKD,9," + wednesday + ",0");
+
+        CheckoutImporter.ImportSummary summary = importer.importCheckouts(input, accepted, rejected);
+        assertEquals(7, summary.getLines());
+        assertEquals(4, summary.getAccepted());
+        assertEquals(0, summary.getRejected());
+
+        List<String> lines = Files.readAllLines(accepted);
+        assertEquals("line,toolCode,rentalDays,checkoutDate,dueDate,chargeableDays,subtotal,discountPercent,discount,total", lines.get(0));
+        // Wednesday to Saturday, all charged for a ladder
+        assertEquals("2,LADW,3," + wednesday + "," + wednesday.plusDays(3) + ",3,5.97,10,0.60,5.37", lines.get(1));
+        // weekdays only for a chainsaw: Thursday, Friday and Monday
+        assertEquals("5,CHNS,5," + wednesday + "," + wednesday.plusDays(5) + ",3,4.47,25,1.12,3.35", lines.get(2));
+        assertEquals("6,JAKR,1," + wednesday + "," + wednesday.plusDays(1) + ",1,2.99,0,0.00,2.99", lines.get(3));
+        assertEquals(5, lines.size());
+        assertEquals(537 + 335 + 299 + lastTotal(lines.get(4)), summary.getTotalCents());
+        assertEquals(List.of("line,reason"), Files.readAllLines(rejected));
+    }
+
+    @Test
+    public void testRejectedRows() throws Exception {
+        Files.writeString(input, "LADW,3," + wednesday + ",10\n"
+                + "NOPE,3," + wednesday + ",10\n"
+                + "LADW,three," + wednesday + ",10\n"
+                + "LADW,3,02/30/99,10\n"
+                + "LADW,3,tomorrow,10\n"
+                + "LADW,3," + wednesday + ",ten\n"
+                + "LADW,0," + wednesday + ",10\n"
+                + "LADW,3,2000-01-03,10\n"
+                + "LADW,3," + wednesday + ",101\n"
+                + "LADW,3," + wednesday + "\n"
+                + "LADW,3," + wednesday + ",10,extra\n"
+                + "LADW,0,2000-01-03,101\n");
+
+        CheckoutImporter.ImportSummary summary = importer.importCheckouts(input, accepted, rejected);
+        assertEquals(1, summary.getAccepted());
+        assertEquals(11, summary.getRejected());
+        assertEquals(List.of("line,reason",
+                "2,\"Unknown tool code NOPE.\"",
+                "3,\"Rental days must be a whole number.\"",
+                "4,\"Checkout date must be yyyy-MM-dd or MM/dd/yy.\"",
+                "5,\"Checkout date must be yyyy-MM-dd or MM/dd/yy.\"",
+                "6,\"Percent discount must be a whole number.\"",
+                "7,\"Must rent tool for at least 1 day.\"",
+                "8,\"Checkout cannot be prior to current date.\"",
+                "9,\"Percent discount must be between 0 and 100.\"",
+                "10,\"Expected 4 fields.\"",
+                "11,\"Expected 4 fields.\"",
+                // every reason is given at once
+                "12,\"Must rent tool for at least 1 day. Checkout cannot be prior to current date. "
+                        + "Percent discount must be between 0 and 100.\""), Files.readAllLines(rejected));
+    }
+
+    @Test
+    public void testReservesUnits() throws Exception {
+        toolInventory.setUnits(ToolCode.JAKR, 2);
+        Files.writeString(input, "JAKR,2," + wednesday + ",0\n"
+                + "JAKR,2," + wednesday + ",0\n"
+                + "JAKR,2," + wednesday.plusDays(7) + ",0\n");
+
+        CheckoutImporter.ImportSummary summary = importer.importCheckouts(input, accepted, rejected);
+        assertEquals(2, summary.getAccepted());
+        assertEquals(1, summary.getRejected());
+        assertEquals(0, toolInventory.getAvailable(ToolCode.JAKR));
+        assertEquals("3,\"No JAKR is available to rent.\"", Files.readAllLines(rejected).get(1));
+    }
+
+    @Test
+    public void testAcceptedRowsCanBeCheckedIn() throws Exception {
+        toolInventory.setUnits(ToolCode.JAKR, 2);
+        AvailabilityCalendar availabilityCalendar = new AvailabilityCalendar();
+        availabilityCalendar.setUnits(ToolCode.JAKR, 2);
+        checkoutProcess.setAvailabilityCalendar(availabilityCalendar);
+        DueDateIndex dueDateIndex = new DueDateIndex();
+        checkoutProcess.setDueDateIndex(dueDateIndex);
+        RentalJournal rentalJournal = new RentalJournal(dir.resolve("rentals.journal"), DurabilityPolicy.osManaged());
+        checkoutProcess.setRentalJournal(rentalJournal);
+        Files.writeString(input, "JAKR,2," + wednesday + ",0\n"
+                + "JAKR,2," + wednesday + ",0\n"
+                + "JAKR,2," + wednesday + ",0\n"
+                + "JAKR,2," + wednesday.plusDays(7) + ",0\n");
+
+        CheckoutImporter.ImportSummary summary = importer.importCheckouts(input, accepted, rejected);
+        assertEquals(3, summary.getAccepted());
+        assertEquals(1, summary.getRejected());
+        assertTrue(Files.readAllLines(rejected).get(1).startsWith("3,\"No JAKR is available from "));
+        // booked ahead, so the units stay in until the rentals start
+        assertEquals(3, availabilityCalendar.getBookings(ToolCode.JAKR));
+        assertEquals(2, toolInventory.getAvailable(ToolCode.JAKR));
+        assertEquals(3, rentalJournal.getRecordCount());
+        assertEquals(3, dueDateIndex.size());
+
+        // an imported agreement is checked in as any other, giving back its booking
+        RentalAgreement first = dueDateIndex.dueOnOrBefore(wednesday.plusDays(2).toEpochDay()).next();
+        checkoutProcess.checkin(first, new DateUtil().fromEpochDay(wednesday.toEpochDay()));
+        assertEquals(2, availabilityCalendar.getBookings(ToolCode.JAKR));
+        assertEquals(2, dueDateIndex.size());
+        assertEquals(4, rentalJournal.getRecordCount());
+        rentalJournal.close();
+    }
+
+    @Test
+    public void testUnjournaledRowsAreRejected() throws Exception {
+        toolInventory.setUnits(ToolCode.JAKR, 3);
+        DueDateIndex dueDateIndex = new DueDateIndex();
+        checkoutProcess.setDueDateIndex(dueDateIndex);
+        // the journal fails to write every 5 day rental
+        RentalJournal rentalJournal = new RentalJournal(dir.resolve("rentals.journal"), DurabilityPolicy.osManaged()) {
+            @Override
+            public CompletableFuture<Long> append(RentalAgreement rentalAgreement) throws InterruptedException {
+                if (rentalAgreement.getRentalDays() == 5) {
+                    return CompletableFuture.failedFuture(new IOException("No space left on device"));
+                }
+                return super.append(rentalAgreement);
+            }
+        };
+        checkoutProcess.setRentalJournal(rentalJournal);
+        Files.writeString(input, "JAKR,2," + wednesday + ",0\n"
+                + "JAKR,5," + wednesday + ",0\n"
+                + "JAKR,3," + wednesday + ",0\n");
+
+        CheckoutImporter.ImportSummary summary = importer.importCheckouts(input, accepted, rejected);
+        assertEquals(2, summary.getAccepted());
+        assertEquals(1, summary.getRejected());
+        List<String> acceptedLines = Files.readAllLines(accepted);
+        assertEquals(3, acceptedLines.size());
+        assertTrue(acceptedLines.get(1).startsWith("1,JAKR,2,"));
+        assertTrue(acceptedLines.get(2).startsWith("3,JAKR,3,"));
+        assertEquals("2,\"The checkout could not be journaled: No space left on device\"", Files.readAllLines(rejected).get(1));
+        // the rejected row gave its unit back
+        assertEquals(1, toolInventory.getAvailable(ToolCode.JAKR));
+        assertEquals(2, dueDateIndex.size());
+        assertEquals(2, rentalJournal.getRecordCount());
+        rentalJournal.close();
+    }
+
+    @Test
+    public void testLargeFile() throws Exception {
+        // spans many reads, batches and output flushes, with one line longer than the read buffer
+        StringBuilder csv = new StringBuilder();
+        int rows = 20_000;
+        for (int i = 0; i < rows; i++) {
+            csv.append("LADW,").append(1 + i % 10).append(',').append(wednesday).append(",0\n");
+            if (i == rows / 2) {
+                csv.append("LADW,1,").append("9".repeat(CheckoutImporter.BUFFER_SIZE)).append(",0\n");
+            }
+        }
+        Files.writeString(input, csv);
+
+        CheckoutImporter.ImportSummary summary = new CheckoutImporter(checkoutProcess).importCheckouts(input, accepted, rejected);
+        assertEquals(rows + 1, summary.getLines());
+        assertEquals(rows, summary.getAccepted());
+        assertEquals(1, summary.getRejected());
+        assertEquals(List.of("line,reason", (rows / 2 + 2) + ",\"Line is longer than " + CheckoutImporter.BUFFER_SIZE + " bytes.\""),
+                Files.readAllLines(rejected));
+        List<String> lines = Files.readAllLines(accepted);
+        assertEquals(rows + 1, lines.size());
+        assertTrue(lines.get(rows).startsWith((rows + 1) + ",LADW,"), lines.get(rows));
+    }
+
+    private static long lastTotal(String line) {
+        String total = line.substring(line.lastIndexOf(',') + 1);
+        return Long.parseLong(total.replace(".", ""));
+    }
+}
@@ -0,0 +1,101 @@
+package com.toolrentals.pos.business.inventory;
+
+import com.toolrentals.pos.common.enums.ToolCode;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test booking tool units ahead against the availability calendar.
+ */
+public class AvailabilityCalendarTest {
+
+    private final AvailabilityCalendar calendar = new AvailabilityCalendar();
+
+    @Test
+    public void testBook() {
+        assertFalse(calendar.isAvailable(ToolCode.CHNS, 100, 1));
+        calendar.setUnits(ToolCode.CHNS, 2);
+
+        assertEquals(0, calendar.book(ToolCode.CHNS, 100, 5));
+        assertEquals(1, calendar.book(ToolCode.CHNS, 102, 5));
+        // both units are booked on day 104, but the first is free again from day 105
+        assertFalse(calendar.isAvailable(ToolCode.CHNS, 104, 1));
+        assertEquals(-1, calendar.book(ToolCode.CHNS, 95, 10));
+        assertEquals(0, calendar.book(ToolCode.CHNS, 105, 2));
+        assertEquals(0, calendar.book(ToolCode.CHNS, 98, 2));
+        assertEquals(0, calendar.findFreeUnit(ToolCode.CHNS, 107, 30));
+        assertEquals(-1, calendar.findFreeUnit(ToolCode.CHNS, 106, 1));
+        assertEquals(4, calendar.getBookings(ToolCode.CHNS));
+
+        assertTrue(calendar.cancel(ToolCode.CHNS, 1, 102));
+        assertFalse(calendar.cancel(ToolCode.CHNS, 1, 102));
+        assertTrue(calendar.isAvailable(ToolCode.CHNS, 104, 1));
+        assertThrows(IllegalArgumentException.class, () -> calendar.setUnits(ToolCode.CHNS, 1));
+    }
+
+    @Test
+    public void testTrim() {
+        calendar.setUnits(ToolCode.JAKR, 1);
+        assertEquals(0, calendar.book(ToolCode.JAKR, 100, 10));
+        assertFalse(calendar.isAvailable(ToolCode.JAKR, 104, 1));
+
+        // returned on day 104, so free from that day on
+        assertTrue(calendar.trim(ToolCode.JAKR, 0, 100, 104));
+        assertTrue(calendar.isAvailable(ToolCode.JAKR, 104, 6));
+        assertFalse(calendar.isAvailable(ToolCode.JAKR, 103, 1));
+        // not shortened by a return on or after its end
+        assertFalse(calendar.trim(ToolCode.JAKR, 0, 100, 104));
+        assertFalse(calendar.trim(ToolCode.JAKR, 0, 99, 100));
+
+        // ended on its first day is cancelled
+        assertTrue(calendar.trim(ToolCode.JAKR, 0, 100, 100));
+        assertEquals(0, calendar.getBookings(ToolCode.JAKR));
+    }
+
+    @Test
+    public void testAddBookingsAndPrune() {
+        calendar.setUnits(ToolCode.LADW, 1);
+        calendar.addBookings(ToolCode.LADW, 0, new long[]{50, 10, 30}, new int[]{5, 10, 20});
+        assertFalse(calendar.isAvailable(ToolCode.LADW, 19, 1));
+        assertTrue(calendar.isAvailable(ToolCode.LADW, 20, 10));
+        assertFalse(calendar.isAvailable(ToolCode.LADW, 20, 11));
+        assertThrows(IllegalArgumentException.class, () -> calendar.addBookings(ToolCode.LADW, 0, new long[]{48}, new int[]{3}));
+
+        assertEquals(2, calendar.pruneBefore(50));
+        assertEquals(1, calendar.getBookings(ToolCode.LADW));
+        assertTrue(calendar.isAvailable(ToolCode.LADW, 10, 40));
+    }
+
+    @Test
+    public void testMatchesDayByDayBookings() {
+        // compare against a simple per day occupancy table
+        int units = 3;
+        int days = 2_000;
+        boolean[][] booked = new boolean[units][days];
+        calendar.setUnits(ToolCode.JAKD, units);
+        Random random = new Random(82024);
+        for (int i = 0; i < 5_000; i++) {
+            int start = random.nextInt(days - 40);
+            int length = 1 + random.nextInt(40);
+            int expectedUnit = -1;
+            for (int unit = 0; unit < units && expectedUnit < 0; unit++) {
+                boolean free = true;
+                for (int day = start; day < start + length && free; day++) {
+                    free = !booked[unit][day];
+                }
+                if (free) {
+                    expectedUnit = unit;
+                }
+            }
+            assertEquals(expectedUnit, calendar.book(ToolCode.JAKD, start, length));
+            if (expectedUnit >= 0) {
+                for (int day = start; day < start + length; day++) {
+                    booked[expectedUnit][day] = true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.toolrentals.pos.business.inventory;
+
+import com.toolrentals.pos.business.util.DateUtil;
+import com.toolrentals.pos.common.model.RentalAgreement;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test finding open rental agreements by due date.
+ */
+public class DueDateIndexTest {
+
+    private final DateUtil dateUtil = new DateUtil();
+
+    @Test
+    public void testDueOnOrBefore() {
+        DueDateIndex index = new DueDateIndex();
+        RentalAgreement dueDay10 = agreement(10);
+        RentalAgreement dueDay12 = agreement(12);
+        RentalAgreement alsoDueDay10 = agreement(10);
+        RentalAgreement dueDay15 = agreement(15);
+        for (RentalAgreement rentalAgreement : new RentalAgreement[]{dueDay12, dueDay10, dueDay15, alsoDueDay10}) {
+            assertTrue(index.add(rentalAgreement));
+        }
+        assertFalse(index.add(dueDay10));
+        assertEquals(4, index.size());
+
+        assertEquals(List.of(), collect(index.dueOnOrBefore(9)));
+        assertEquals(List.of(dueDay10, alsoDueDay10), collect(index.dueOnOrBefore(10)));
+        assertEquals(List.of(dueDay10, alsoDueDay10, dueDay12), collect(index.dueOnOrBefore(14)));
+        assertEquals(List.of(dueDay12, dueDay15), collect(index.dueBetween(11, 16)));
+
+        List<RentalAgreement> consumed = new ArrayList<>();
+        assertEquals(4, index.forEachDueOnOrBefore(100, consumed::add));
+        assertEquals(List.of(dueDay10, alsoDueDay10, dueDay12, dueDay15), consumed);
+    }
+
+    @Test
+    public void testRemove() {
+        DueDateIndex index = new DueDateIndex();
+        RentalAgreement first = agreement(20);
+        RentalAgreement second = agreement(20);
+        index.add(first);
+        index.add(second);
+
+        assertTrue(index.remove(first));
+        assertFalse(index.remove(first));
+        assertFalse(index.contains(first));
+        assertTrue(index.contains(second));
+        assertEquals(List.of(second), collect(index.dueOnOrBefore(20)));
+
+        // removing while streaming the report leaves the rest of the iteration intact
+        index.add(first);
+        Iterator<RentalAgreement> due = index.dueOnOrBefore(20);
+        assertSame(second, due.next());
+        index.remove(second);
+        assertSame(first, due.next());
+        assertFalse(due.hasNext());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testForEachDueBefore() {
+        DueDateIndex index = new DueDateIndex();
+        Random random = new Random(23);
+        Set<RentalAgreement> expected = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < 50_000; i++) {
+            long dueEpochDay = random.nextInt(1_000);
+            RentalAgreement rentalAgreement = agreement(dueEpochDay);
+            index.add(rentalAgreement);
+            if (dueEpochDay < 600) {
+                expected.add(rentalAgreement);
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // every agreement due before the day exactly once, with its due day, however the ranges are split
+            ConcurrentHashMap<RentalAgreement, Long> consumed = new ConcurrentHashMap<>();
+            long count = index.forEachDueBefore(600, pool, (rentalAgreement, dueEpochDay) -> {
+                assertNull(consumed.put(rentalAgreement, dueEpochDay));
+            });
+            assertEquals(expected.size(), count);
+            assertEquals(expected.size(), consumed.size());
+            consumed.forEach((rentalAgreement, dueEpochDay) -> {
+                assertTrue(expected.contains(rentalAgreement));
+                assertEquals(dateUtil.toEpochDay(rentalAgreement.getDueDate()), dueEpochDay);
+            });
+
+            assertEquals(0, index.forEachDueBefore(0, pool, (rentalAgreement, dueEpochDay) -> fail()));
+            assertEquals(0, new DueDateIndex().forEachDueBefore(600, pool, (rentalAgreement, dueEpochDay) -> fail()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testNoDueDate() {
+        assertThrows(IllegalArgumentException.class, () -> new DueDateIndex().add(new RentalAgreement()));
+    }
+
+    private RentalAgreement agreement(long dueEpochDay) {
+        RentalAgreement rentalAgreement = new RentalAgreement();
+        rentalAgreement.setDueDate(dateUtil.fromEpochDay(dueEpochDay));
+        return rentalAgreement;
+    }
+
+    private List<RentalAgreement> collect(Iterator<RentalAgreement> iterator) {
+        List<RentalAgreement> collected = new ArrayList<>();
+        iterator.forEachRemaining(collected::add);
+        return collected;
+    }
+}
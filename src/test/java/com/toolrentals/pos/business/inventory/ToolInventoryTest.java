@@ -0,0 +1,109 @@
+package com.toolrentals.pos.business.inventory;
+
+import com.toolrentals.pos.common.enums.ToolCode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test reserving and releasing tool units, including from many threads at once.
+ */
+public class ToolInventoryTest {
+
+    private final ToolInventory inventory = new ToolInventory();
+
+    @Test
+    public void testUnlimitedByDefault() {
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(inventory.tryReserve(ToolCode.CHNS));
+        }
+        inventory.release(ToolCode.CHNS);
+        assertEquals(ToolInventory.UNLIMITED, inventory.getAvailable(ToolCode.CHNS));
+    }
+
+    @Test
+    public void testReserveAndRelease() {
+        inventory.setUnits(ToolCode.LADW, 2);
+        assertTrue(inventory.tryReserve(ToolCode.LADW));
+        assertTrue(inventory.tryReserve(ToolCode.LADW));
+        assertFalse(inventory.tryReserve(ToolCode.LADW));
+        assertEquals(0, inventory.getAvailable(ToolCode.LADW));
+
+        // buying another ladder makes one available while both are still rented out
+        inventory.setUnits(ToolCode.LADW, 3);
+        assertEquals(1, inventory.getAvailable(ToolCode.LADW));
+
+        inventory.release(ToolCode.LADW);
+        inventory.release(ToolCode.LADW);
+        assertEquals(3, inventory.getAvailable(ToolCode.LADW));
+        assertThrows(IllegalStateException.class, () -> inventory.release(ToolCode.LADW));
+        assertThrows(IllegalArgumentException.class, () -> inventory.setUnits(ToolCode.LADW, -1));
+    }
+
+    @Test
+    public void testUnitsRentedWhileUnlimited() {
+        assertTrue(inventory.tryReserve(ToolCode.JAKD));
+        assertTrue(inventory.tryReserve(ToolCode.JAKD));
+        assertEquals(2, inventory.getRentedOut(ToolCode.JAKD));
+
+        // the jackhammers rented before the tool was stocked stay reserved
+        inventory.setUnits(ToolCode.JAKD, 2);
+        assertEquals(0, inventory.getAvailable(ToolCode.JAKD));
+        assertFalse(inventory.tryReserve(ToolCode.JAKD));
+        inventory.release(ToolCode.JAKD);
+        assertEquals(1, inventory.getAvailable(ToolCode.JAKD));
+        inventory.release(ToolCode.JAKD);
+        assertEquals(2, inventory.getAvailable(ToolCode.JAKD));
+        assertThrows(IllegalStateException.class, () -> inventory.release(ToolCode.JAKD));
+    }
+
+    @Test
+    public void testNoOversellUnderContention() throws Exception {
+        int units = 10_000;
+        int threads = 8;
+        int attemptsPerThread = 5_000;
+        inventory.setUnits(ToolCode.JAKR, units);
+        inventory.setUnits(ToolCode.JAKD, units);
+
+        AtomicInteger reservedJakr = new AtomicInteger();
+        AtomicInteger reservedJakd = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    if (inventory.tryReserve(ToolCode.JAKR)) {
+                        reservedJakr.incrementAndGet();
+                    }
+                    // returns race with reservations of the other jackhammer
+                    if (inventory.tryReserve(ToolCode.JAKD)) {
+                        reservedJakd.incrementAndGet();
+                        if (i % 2 == 0) {
+                            inventory.release(ToolCode.JAKD);
+                            reservedJakd.decrementAndGet();
+                        }
+                    }
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(units, reservedJakr.get());
+        assertEquals(0, inventory.getAvailable(ToolCode.JAKR));
+        assertEquals(units - reservedJakd.get(), inventory.getAvailable(ToolCode.JAKD));
+        assertTrue(inventory.getAvailable(ToolCode.JAKD) >= 0);
+    }
+}
@@ -0,0 +1,166 @@
+package com.toolrentals.pos.business.journal;
+
+import com.toolrentals.pos.business.util.DateUtil;
+import com.toolrentals.pos.common.model.RentalAgreement;
+import com.toolrentals.pos.service.RentalAgreementSvcImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test appending rental agreements to the journal and reading them back.
+ */
+public class RentalJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final RentalAgreementSvcImpl svc = new RentalAgreementSvcImpl();
+    private final DateUtil dateUtil = new DateUtil();
+
+    @Test
+    public void testAppendAndReopen() throws Exception {
+        for (DurabilityPolicy policy : new DurabilityPolicy[]{DurabilityPolicy.everyRecord(), DurabilityPolicy.every(Duration.ofMillis(5)), DurabilityPolicy.osManaged()}) {
+            Path path = Files.createTempFile(tempDir, "rentals", ".journal");
+            List<RentalAgreement> agreements = new ArrayList<>();
+            RentalJournal journal = new RentalJournal(path, policy);
+            List<CompletableFuture<Long>> appended = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                RentalAgreement rentalAgreement = checkout(i % 2 == 0 ? "LADW" : "JAKR", 1 + i, i % 101);
+                agreements.add(rentalAgreement);
+                appended.add(journal.append(rentalAgreement));
+            }
+            for (int i = 0; i < appended.size(); i++) {
+                assertEquals(i, appended.get(i).get(5, TimeUnit.SECONDS));
+            }
+            journal.close();
+            assertThrows(IllegalStateException.class, () -> journal.append(agreements.get(0)));
+
+            RentalJournal reopened = new RentalJournal(path, policy);
+            assertEquals(100, reopened.getRecordCount());
+            assertEquals(100L, reopened.append(agreements.get(0)).get(5, TimeUnit.SECONDS));
+            List<JournalRecord> records = new ArrayList<>();
+            reopened.read(0, reopened.getRecordCount(), records::add);
+            reopened.close();
+
+            assertEquals(101, records.size());
+            for (int i = 0; i < 100; i++) {
+                assertRecord(i, agreements.get(i), records.get(i));
+            }
+            assertRecord(100, agreements.get(0), records.get(100));
+        }
+    }
+
+    @Test
+    public void testTornRecordIsDropped() throws Exception {
+        Path path = Files.createTempFile(tempDir, "rentals", ".journal");
+        RentalJournal journal = new RentalJournal(path, DurabilityPolicy.everyRecord());
+        for (int i = 0; i < 10; i++) {
+            journal.append(checkout("CHNS", 2 + i, 0));
+        }
+        journal.close();
+
+        // a crash that tore record 5 but wrote records 6 - 9
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3}), 5L * JournalRecord.SIZE + 50);
+        }
+
+        RentalJournal reopened = new RentalJournal(path, DurabilityPolicy.everyRecord());
+        assertEquals(5, reopened.getRecordCount());
+        assertEquals(5L, reopened.append(checkout("JAKD", 9, 0)).get(5, TimeUnit.SECONDS));
+        reopened.close();
+
+        RentalJournal recovered = new RentalJournal(path, DurabilityPolicy.everyRecord());
+        assertEquals(6, recovered.getRecordCount());
+        List<JournalRecord> records = new ArrayList<>();
+        recovered.read(5, 6, records::add);
+        recovered.close();
+        assertEquals("JAKD", records.get(0).getToolCode());
+    }
+
+    @Test
+    public void testRecordsAfterLostPageAreCleared() throws Exception {
+        Path path = Files.createTempFile(tempDir, "rentals", ".journal");
+        RentalJournal journal = new RentalJournal(path, DurabilityPolicy.everyRecord());
+        for (int i = 0; i < 100; i++) {
+            journal.append(checkout("LADW", 1 + i % 10, 0));
+        }
+        journal.close();
+
+        // a crash that lost the 4 KB page of records 32 - 63 but wrote the records after it
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4_096), 32L * JournalRecord.SIZE);
+        }
+
+        RentalJournal reopened = new RentalJournal(path, DurabilityPolicy.everyRecord());
+        assertEquals(32, reopened.getRecordCount());
+        CompletableFuture<Long> last = null;
+        for (int i = 0; i < 32; i++) {
+            last = reopened.append(checkout("JAKD", 3, 0));
+        }
+        assertEquals(63L, last.get(5, TimeUnit.SECONDS));
+        reopened.close();
+
+        // the records written before the crash after the lost page do not come back once the gap is filled
+        RentalJournal recovered = new RentalJournal(path, DurabilityPolicy.everyRecord());
+        assertEquals(64, recovered.getRecordCount());
+        recovered.close();
+    }
+
+    @Test
+    public void testRecordOutOfPlaceIsDropped() throws Exception {
+        Path path = Files.createTempFile(tempDir, "rentals", ".journal");
+        RentalJournal journal = new RentalJournal(path, DurabilityPolicy.everyRecord());
+        for (int i = 0; i < 10; i++) {
+            journal.append(checkout("CHNS", 2 + i, 0));
+        }
+        journal.close();
+
+        // an intact record 3 found at the position of record 5
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer record = ByteBuffer.allocate(JournalRecord.SIZE);
+            channel.read(record, 3L * JournalRecord.SIZE);
+            channel.write(record.flip(), 5L * JournalRecord.SIZE);
+        }
+
+        RentalJournal reopened = new RentalJournal(path, DurabilityPolicy.everyRecord());
+        assertEquals(5, reopened.getRecordCount());
+        reopened.close();
+    }
+
+    private void assertRecord(long sequence, RentalAgreement rentalAgreement, JournalRecord record) {
+        assertEquals(sequence, record.getSequence());
+        assertEquals(rentalAgreement.getTool().getToolCode().name(), record.getToolCode());
+        assertEquals(rentalAgreement.getTool().getToolType(), record.getToolType());
+        assertEquals(rentalAgreement.getTool().getBrand(), record.getBrand());
+        assertEquals(rentalAgreement.getTool().isWeekendCharge(), record.isWeekendCharge());
+        assertEquals(rentalAgreement.getRentalDays(), record.getRentalDays());
+        assertEquals(dateUtil.toEpochDay(rentalAgreement.getCheckoutDate()), record.getCheckoutEpochDay());
+        assertEquals(dateUtil.toEpochDay(rentalAgreement.getDueDate()), record.getDueEpochDay());
+        assertEquals(rentalAgreement.getPercentDiscount(), record.getPercentDiscount());
+        assertEquals(rentalAgreement.getNumberChargeableDays(), record.getNumberChargeableDays());
+        assertEquals(rentalAgreement.getTool().getDailyChargeCents(), record.getDailyChargeCents());
+        assertEquals(rentalAgreement.getSubtotalCents(), record.getSubtotalCents());
+        assertEquals(rentalAgreement.getDiscountCents(), record.getDiscountCents());
+        assertEquals(rentalAgreement.getTotalCents(), record.getTotalCents());
+    }
+
+    private RentalAgreement checkout(String code, int rentalDays, int percentDiscount) throws Exception {
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, rentalDays);
+        return svc.checkout(svc.findTool(code), rentalDays, cal.getTime(), percentDiscount);
+    }
+}
@@ -0,0 +1,168 @@
+package com.toolrentals.pos.business.journal;
+
+import com.toolrentals.pos.business.inventory.ToolInventory;
+import com.toolrentals.pos.business.util.DateUtil;
+import com.toolrentals.pos.common.enums.JournalRecordType;
+import com.toolrentals.pos.common.enums.ToolCode;
+import com.toolrentals.pos.common.model.RentalAgreement;
+import com.toolrentals.pos.service.RentalAgreementSvcImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Calendar;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test rebuilding the rental state from snapshots and the journal.
+ */
+public class RentalStateTest {
+
+    private static final String[] CODES = {"LADW", "CHNS", "JAKR", "JAKD"};
+
+    @TempDir
+    Path tempDir;
+
+    private final RentalAgreementSvcImpl svc = new RentalAgreementSvcImpl();
+    private final DateUtil dateUtil = new DateUtil();
+    private RentalAgreement lastCheckout;
+
+    @Test
+    public void testRecoverMatchesFullReplay() throws Exception {
+        Path path = tempDir.resolve("rentals.journal");
+        RentalStateStore store = new RentalStateStore(tempDir.resolve("snapshots"), ForkJoinPool.commonPool(), 16);
+        RentalJournal journal = new RentalJournal(path, DurabilityPolicy.osManaged());
+        append(journal, 0, 200);
+
+        RentalState checkpointed = store.checkpoint(journal);
+        assertEquals(200, checkpointed.getAppliedRecords());
+        assertState(replayAll(journal), checkpointed);
+
+        append(journal, 200, 75);
+        journal.close();
+
+        RentalJournal reopened = new RentalJournal(path, DurabilityPolicy.osManaged());
+        assertEquals(200, store.loadLatest().getAppliedRecords());
+        RentalState recovered = store.recover(reopened);
+        assertEquals(275, recovered.getAppliedRecords());
+        assertState(replayAll(reopened), recovered);
+        reopened.close();
+    }
+
+    @Test
+    public void testDamagedSnapshotIsSkipped() throws Exception {
+        Path snapshots = tempDir.resolve("snapshots");
+        RentalStateStore store = new RentalStateStore(snapshots);
+        RentalJournal journal = new RentalJournal(tempDir.resolve("rentals.journal"), DurabilityPolicy.osManaged());
+        append(journal, 0, 30);
+        store.checkpoint(journal);
+        append(journal, 30, 30);
+        store.checkpoint(journal);
+        append(journal, 60, 30);
+        Path newest = store.save(store.recover(journal));
+        journal.close();
+
+        try (Stream<Path> files = Files.list(snapshots)) {
+            // only the two newest snapshots are kept
+            assertEquals(2, files.count());
+        }
+        assertEquals(90, store.loadLatest().getAppliedRecords());
+
+        try (FileChannel channel = FileChannel.open(newest, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3}), 20);
+        }
+        assertEquals(60, store.loadLatest().getAppliedRecords());
+    }
+
+    @Test
+    public void testOpenRentalsAndRestoreInventory() throws Exception {
+        RentalState state = new RentalState();
+        long today = dateUtil.toEpochDay(Calendar.getInstance().getTime());
+        ByteBuffer buffer = ByteBuffer.allocate(JournalRecord.SIZE);
+        RentalAgreement[] rentalAgreements = new RentalAgreement[5];
+        for (int i = 0; i < 5; i++) {
+            rentalAgreements[i] = checkout("LADW", 1 + i, 0);
+            buffer.clear();
+            // the first two are long overdue
+            JournalRecord.encode(i, rentalAgreements[i], today - 40, today - 30 + 10 * i, buffer);
+            state.apply(JournalRecord.decode(buffer, 0));
+        }
+        assertEquals(5, state.getOpenRentals("LADW"));
+
+        // one overdue rental and one not yet due are returned
+        for (int i : new int[]{1, 3}) {
+            svc.checkin(rentalAgreements[i], dateUtil.addDaysToDate(rentalAgreements[i].getDueDate(), 2));
+            buffer.clear();
+            JournalRecord.encode(5 + i, JournalRecordType.CHECKIN, rentalAgreements[i], today - 40, today - 30 + 10 * i, today, buffer);
+            JournalRecord record = JournalRecord.decode(buffer, 0);
+            assertEquals(JournalRecordType.CHECKIN, record.getType());
+            assertEquals(today, record.getReturnEpochDay());
+            assertEquals(rentalAgreements[i].getLateFeeCents(), record.getLateFeeCents());
+            state.apply(record);
+        }
+        assertEquals(3, state.getOpenRentals("LADW"));
+        assertEquals(2, state.getToolState("LADW").getReturns());
+        assertEquals(5, state.getToolState("LADW").getAgreements());
+        assertEquals(rentalAgreements[1].getLateFeeCents() + rentalAgreements[3].getLateFeeCents(),
+                state.getToolState("LADW").getLateFeeCents());
+        assertEquals(0, state.getOpenRentals("CHNS"));
+
+        ToolInventory toolInventory = new ToolInventory();
+        toolInventory.setUnits(ToolCode.LADW, 2);
+        assertEquals(1, state.restoreInventory(toolInventory));
+        assertEquals(0, toolInventory.getAvailable(ToolCode.LADW));
+    }
+
+    private RentalState replayAll(RentalJournal journal) throws Exception {
+        RentalState state = new RentalState();
+        journal.read(0, journal.getRecordCount(), state::apply);
+        return state;
+    }
+
+    private void assertState(RentalState expected, RentalState actual) {
+        assertEquals(expected.getToolCodes(), actual.getToolCodes());
+        assertEquals(expected.getTotalRevenueCents(), actual.getTotalRevenueCents());
+        for (String toolCode : expected.getToolCodes()) {
+            RentalState.ToolState expectedTool = expected.getToolState(toolCode);
+            RentalState.ToolState actualTool = actual.getToolState(toolCode);
+            assertEquals(expectedTool.getAgreements(), actualTool.getAgreements());
+            assertEquals(expectedTool.getRentalDays(), actualTool.getRentalDays());
+            assertEquals(expectedTool.getChargeableDays(), actualTool.getChargeableDays());
+            assertEquals(expectedTool.getSubtotalCents(), actualTool.getSubtotalCents());
+            assertEquals(expectedTool.getDiscountCents(), actualTool.getDiscountCents());
+            assertEquals(expectedTool.getTotalCents(), actualTool.getTotalCents());
+            assertEquals(expectedTool.getReturns(), actualTool.getReturns());
+            assertEquals(expectedTool.getLateFeeCents(), actualTool.getLateFeeCents());
+            assertEquals(expected.getOpenRentals(toolCode), actual.getOpenRentals(toolCode));
+        }
+    }
+
+    private void append(RentalJournal journal, int first, int count) throws Exception {
+        Long last = null;
+        for (int i = first; i < first + count; i++) {
+            if (i % 3 == 2) {
+                // every third record checks in the agreement before it, a day late
+                svc.checkin(lastCheckout, dateUtil.addDaysToDate(lastCheckout.getDueDate(), 1));
+                last = journal.appendCheckin(lastCheckout).get(5, TimeUnit.SECONDS);
+            } else {
+                lastCheckout = checkout(CODES[i % CODES.length], 1 + i % 30, i % 50);
+                last = journal.append(lastCheckout).get(5, TimeUnit.SECONDS);
+            }
+        }
+        assertEquals(first + count - 1, last);
+    }
+
+    private RentalAgreement checkout(String code, int rentalDays, int percentDiscount) throws Exception {
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        return svc.checkout(svc.findTool(code), rentalDays, cal.getTime(), percentDiscount);
+    }
+}
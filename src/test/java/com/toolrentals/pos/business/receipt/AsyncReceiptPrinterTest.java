@@ -0,0 +1,150 @@
+package com.toolrentals.pos.business.receipt;
+
+import com.toolrentals.pos.common.model.RentalAgreement;
+import com.toolrentals.pos.service.RentalAgreementSvcImpl;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the asynchronous receipt printer.
+ */
+public class AsyncReceiptPrinterTest {
+
+    private final RentalAgreementSvcImpl svc = new RentalAgreementSvcImpl();
+    private final ReceiptRenderer renderer = new ReceiptRenderer(StandardCharsets.UTF_8, Locale.US);
+
+    @Test
+    public void testPrintsInOrderAndFlushesOnClose() throws Exception {
+        CollectingReceiptSink sink = new CollectingReceiptSink(StandardCharsets.UTF_8);
+        AsyncReceiptPrinter printer = new AsyncReceiptPrinter(renderer, sink);
+        List<String> expected = new ArrayList<>();
+        List<CompletableFuture<Void>> delivered = new ArrayList<>();
+        for (int rentalDays = 1; rentalDays <= 50; rentalDays++) {
+            RentalAgreement rentalAgreement = checkout(rentalDays);
+            StringBuilder receipt = new StringBuilder();
+            renderer.render(rentalAgreement, receipt);
+            expected.add(receipt.toString());
+            delivered.add(printer.print(rentalAgreement));
+        }
+        printer.close();
+
+        assertEquals(expected, sink.getReceipts());
+        for (CompletableFuture<Void> future : delivered) {
+            assertTrue(future.isDone());
+        }
+        assertThrows(IllegalStateException.class, () -> printer.print(checkout(1)));
+    }
+
+    @Test
+    public void testBackpressure() throws Exception {
+        CountDownLatch printing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AsyncReceiptPrinter printer = new AsyncReceiptPrinter(renderer, receipt -> {
+            printing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+        }, 2, 1);
+        RentalAgreement rentalAgreement = checkout(3);
+
+        // one receipt held by the printer and two queued fill it up
+        printer.print(rentalAgreement);
+        assertTrue(printing.await(5, TimeUnit.SECONDS));
+        printer.print(rentalAgreement);
+        printer.print(rentalAgreement);
+        assertEquals(2, printer.getQueuedReceipts());
+
+        CountDownLatch queued = new CountDownLatch(1);
+        Thread.ofVirtual().start(() -> {
+            try {
+                printer.print(rentalAgreement);
+                queued.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertFalse(queued.await(200, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+        assertTrue(queued.await(5, TimeUnit.SECONDS));
+        printer.close();
+        assertEquals(0, printer.getQueuedReceipts());
+    }
+
+    @Test
+    public void testFailedPrint() throws Exception {
+        AsyncReceiptPrinter printer = new AsyncReceiptPrinter(renderer, receipt -> {
+            throw new IOException("Printer out of paper.");
+        });
+        CompletableFuture<Void> delivered = printer.print(checkout(2));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> delivered.get(5, TimeUnit.SECONDS));
+        assertEquals("Printer out of paper.", e.getCause().getMessage());
+        printer.close();
+    }
+
+    @Test
+    public void testPrintRentalAgreementAsync() throws Exception {
+        CollectingReceiptSink sink = new CollectingReceiptSink(StandardCharsets.UTF_8);
+        svc.setAsyncReceiptPrinter(new AsyncReceiptPrinter(renderer, sink));
+        assertThrows(Exception.class, () -> svc.printRentalAgreementAsync(new RentalAgreement()));
+
+        svc.printRentalAgreementAsync(checkout(4)).get(5, TimeUnit.SECONDS);
+        svc.shutdownAsyncPrinting();
+        assertEquals(1, sink.getReceipts().size());
+    }
+
+    @Test
+    public void testPrintRentalAgreementAsyncAfterShutdown() throws Exception {
+        CollectingReceiptSink sink = new CollectingReceiptSink(StandardCharsets.UTF_8);
+        svc.setReceiptSink(sink);
+        svc.printRentalAgreementAsync(checkout(2)).get(5, TimeUnit.SECONDS);
+        svc.shutdownAsyncPrinting();
+
+        // a new printer is started for receipts queued after the shutdown
+        svc.printRentalAgreementAsync(checkout(3)).get(5, TimeUnit.SECONDS);
+        svc.shutdownAsyncPrinting();
+        assertEquals(2, sink.getReceipts().size());
+    }
+
+    @Test
+    public void testPrintRentalAgreementAsyncDuringShutdown() throws Exception {
+        CollectingReceiptSink sink = new CollectingReceiptSink(StandardCharsets.UTF_8);
+        svc.setReceiptSink(sink);
+        // shut down after the printer is fetched, before the receipt is queued on it
+        svc.setAsyncReceiptPrinter(new AsyncReceiptPrinter(renderer, sink) {
+            @Override
+            public CompletableFuture<Void> print(RentalAgreement rentalAgreement) throws InterruptedException {
+                try {
+                    svc.shutdownAsyncPrinting();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                return super.print(rentalAgreement);
+            }
+        });
+
+        svc.printRentalAgreementAsync(checkout(3)).get(5, TimeUnit.SECONDS);
+        svc.shutdownAsyncPrinting();
+        assertEquals(1, sink.getReceipts().size());
+    }
+
+    private RentalAgreement checkout(int rentalDays) throws Exception {
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        return svc.checkout(svc.findTool("LADW"), rentalDays, cal.getTime(), 10);
+    }
+}
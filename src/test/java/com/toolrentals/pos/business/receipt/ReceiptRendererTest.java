@@ -0,0 +1,132 @@
+package com.toolrentals.pos.business.receipt;
+
+import com.toolrentals.pos.common.model.RentalAgreement;
+import com.toolrentals.pos.common.model.StihlChainsaw;
+import com.toolrentals.pos.common.model.Tool;
+import com.toolrentals.pos.service.RentalAgreementSvcImpl;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test that rendered receipts match the text printed with printf.
+ */
+public class ReceiptRendererTest {
+
+    private final RentalAgreementSvcImpl svc = new RentalAgreementSvcImpl();
+
+    @Test
+    public void testMatchesPrintf() throws Exception {
+        Tool expensiveTool = new StihlChainsaw();
+        expensiveTool.setDailyCharge(new BigDecimal("1234.56"));
+        for (Locale locale : new Locale[]{Locale.US, Locale.GERMANY, Locale.FRANCE, Locale.forLanguageTag("hi-IN"), Locale.forLanguageTag("ar-EG")}) {
+            ReceiptRenderer renderer = new ReceiptRenderer(StandardCharsets.UTF_8, locale);
+            for (RentalAgreement rentalAgreement : new RentalAgreement[]{
+                    checkout(svc.findTool("LADW"), 5, 10),
+                    checkout(svc.findTool("JAKR"), 9, 0),
+                    checkout(expensiveTool, 4000, 33)}) {
+                StringBuilder rendered = new StringBuilder();
+                renderer.render(rentalAgreement, rendered);
+                assertEquals(printf(rentalAgreement, locale), rendered.toString(), locale.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testSinks() throws Exception {
+        RentalAgreement rentalAgreement = checkout(svc.findTool("CHNS"), 3, 50);
+        ReceiptRenderer renderer = new ReceiptRenderer(StandardCharsets.UTF_8, Locale.getDefault(Locale.Category.FORMAT));
+        String expected = printf(rentalAgreement, Locale.getDefault(Locale.Category.FORMAT));
+
+        CollectingReceiptSink collected = new CollectingReceiptSink(StandardCharsets.UTF_8);
+        renderer.print(rentalAgreement, collected);
+        renderer.print(rentalAgreement, collected);
+        assertEquals(List.of(expected, expected), collected.getReceipts());
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        renderer.print(rentalAgreement, new OutputStreamReceiptSink(stream));
+        ByteArrayOutputStream channel = new ByteArrayOutputStream();
+        renderer.print(rentalAgreement, new ChannelReceiptSink(Channels.newChannel(channel)));
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), stream.toByteArray());
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), channel.toByteArray());
+    }
+
+    @Test
+    public void testPrintRentalAgreement() throws Exception {
+        RentalAgreement rentalAgreement = checkout(svc.findTool("JAKD"), 6, 100);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        svc.setReceiptRenderer(new ReceiptRenderer(StandardCharsets.UTF_8, Locale.US));
+        svc.setReceiptSink(receipt -> out.write(receipt.array(), receipt.position(), receipt.remaining()));
+        svc.printRentalAgreement(rentalAgreement);
+        assertEquals(printf(rentalAgreement, Locale.US), out.toString(StandardCharsets.UTF_8));
+
+        // the receipt buffer is reused for the next receipt
+        ByteBuffer[] last = new ByteBuffer[1];
+        svc.setReceiptSink(receipt -> last[0] = receipt);
+        svc.printRentalAgreement(rentalAgreement);
+        ByteBuffer first = last[0];
+        svc.printRentalAgreement(rentalAgreement);
+        assertSame(first, last[0]);
+    }
+
+    @Test
+    public void testPrintOnVirtualThreads() throws Exception {
+        RentalAgreement rentalAgreement = checkout(svc.findTool("LADW"), 4, 20);
+        ReceiptRenderer renderer = new ReceiptRenderer(StandardCharsets.UTF_8, Locale.US);
+        CollectingReceiptSink collected = new CollectingReceiptSink(StandardCharsets.UTF_8);
+        int receipts = 4 * ReceiptRenderer.POOLED_BUFFERS;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < receipts; i++) {
+                executor.submit(() -> {
+                    renderer.print(rentalAgreement, collected);
+                    return null;
+                });
+            }
+        }
+        assertEquals(receipts, collected.getReceipts().size());
+        collected.getReceipts().forEach(receipt -> assertEquals(printf(rentalAgreement, Locale.US), receipt));
+
+        // a thread per receipt does not keep a buffer per thread
+        assertTrue(renderer.getPooledBuffers() >= 1);
+        assertTrue(renderer.getPooledBuffers() <= ReceiptRenderer.POOLED_BUFFERS);
+    }
+
+    private RentalAgreement checkout(Tool tool, int rentalDays, int daysFromToday) throws Exception {
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, daysFromToday);
+        return svc.checkout(tool, rentalDays, cal.getTime(), 17);
+    }
+
+    private String printf(RentalAgreement rentalAgreement, Locale locale) {
+        // the receipt as RentalAgreementSvcImpl used to print it
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+        SimpleDateFormat dateFormat = new SimpleDateFormat("MM/dd/yy", locale);
+        out.printf(locale, "Tool code: %s%n", rentalAgreement.getTool().getToolCode());
+        out.printf(locale, "Tool type: %s%n", rentalAgreement.getTool().getToolType());
+        out.printf(locale, "Tool brand: %s%n", rentalAgreement.getTool().getBrand());
+        out.printf(locale, "Rental days: %,d%n", rentalAgreement.getRentalDays());
+        out.printf(locale, "Checkout date: %s%n", dateFormat.format(rentalAgreement.getCheckoutDate()));
+        out.printf(locale, "Due date: %s%n", dateFormat.format(rentalAgreement.getDueDate()));
+        out.printf(locale, "Daily rental charge: $%,.2f%n", rentalAgreement.getTool().getDailyCharge());
+        out.printf(locale, "Charge days: %d%n", rentalAgreement.getNumberChargeableDays());
+        out.printf(locale, "Pre-discount charge: $%,.2f%n", rentalAgreement.getSubtotal());
+        out.printf(locale, "Discount percent: %d%%%n", rentalAgreement.getPercentDiscount());
+        out.printf(locale, "Discount amount: $%,.2f%n", rentalAgreement.getDiscount());
+        out.printf(locale, "Final charge: $%,.2f%n", rentalAgreement.getTotal());
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,123 @@
+package com.toolrentals.pos.business.scheduler;
+
+import com.toolrentals.pos.common.enums.RentalEvent;
+import com.toolrentals.pos.common.model.RentalAgreement;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test firing and cancelling rental events on the timing wheel, driven by hand and by its own clock.
+ */
+public class TimingWheelSchedulerTest {
+
+    private final Queue<ScheduledEvent> fired = new ConcurrentLinkedQueue<>();
+
+    @Test
+    public void testFiresAtDeadline() throws Exception {
+        TimingWheelScheduler scheduler = new TimingWheelScheduler(fired::add, Duration.ofSeconds(1), 0, 16);
+        RentalAgreement rentalAgreement = new RentalAgreement();
+        // on the lowest level, one level up, and three levels up
+        ScheduledEvent soon = scheduler.schedule(rentalAgreement, RentalEvent.DUE_REMINDER, 10_000);
+        ScheduledEvent later = scheduler.schedule(rentalAgreement, RentalEvent.LATE_NOTICE, 100_500);
+        ScheduledEvent muchLater = scheduler.schedule(rentalAgreement, RentalEvent.LATE_NOTICE, 300_000_000);
+        assertEquals(3, scheduler.getScheduledEvents());
+
+        assertEquals(0, scheduler.advanceTo(9_999));
+        assertEquals(1, scheduler.advanceTo(10_000));
+        assertTrue(soon.isFired());
+        // fires on the first tick at or after the deadline
+        assertEquals(0, scheduler.advanceTo(100_999));
+        assertEquals(1, scheduler.advanceTo(101_000));
+        assertEquals(0, scheduler.advanceTo(299_999_999));
+        assertEquals(1, scheduler.advanceTo(300_000_000));
+        assertEquals(0, scheduler.getScheduledEvents());
+
+        // already due
+        ScheduledEvent overdue = scheduler.schedule(rentalAgreement, RentalEvent.LATE_NOTICE, 5_000);
+        assertEquals(1, scheduler.advanceTo(300_000_000));
+        scheduler.close();
+
+        assertEquals(List.of(soon, later, muchLater, overdue), new ArrayList<>(fired));
+        assertFalse(muchLater.cancel());
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        TimingWheelScheduler scheduler = new TimingWheelScheduler(fired::add, Duration.ofSeconds(1), 0, 16);
+        ScheduledEvent beforeLinked = scheduler.schedule(new RentalAgreement(), RentalEvent.DUE_REMINDER, 70_000);
+        assertTrue(beforeLinked.cancel());
+        assertFalse(beforeLinked.cancel());
+        ScheduledEvent linked = scheduler.schedule(new RentalAgreement(), RentalEvent.DUE_REMINDER, 70_000);
+        ScheduledEvent kept = scheduler.schedule(new RentalAgreement(), RentalEvent.LATE_NOTICE, 70_000);
+        assertEquals(0, scheduler.advanceTo(1_000));
+        assertTrue(linked.cancel());
+        assertEquals(1, scheduler.getScheduledEvents());
+
+        assertEquals(1, scheduler.advanceTo(70_000));
+        scheduler.close();
+        assertTrue(beforeLinked.isCancelled());
+        assertEquals(List.of(kept), new ArrayList<>(fired));
+    }
+
+    @Test
+    public void testRandomDeadlines() throws Exception {
+        Random random = new Random(19);
+        TimingWheelScheduler scheduler = new TimingWheelScheduler(fired::add, Duration.ofMillis(1), 0, 100);
+        List<ScheduledEvent> events = new ArrayList<>();
+        int expected = 0;
+        for (int i = 0; i < 20_000; i++) {
+            ScheduledEvent event = scheduler.schedule(null, RentalEvent.DUE_REMINDER, random.nextInt(2_000_000));
+            events.add(event);
+            if (i % 5 == 0) {
+                event.cancel();
+            } else {
+                expected++;
+            }
+        }
+
+        long now = 0;
+        int firedSoFar = 0;
+        while (now < 2_000_000) {
+            now += random.nextInt(50_000);
+            firedSoFar += scheduler.advanceTo(now);
+            // every event due by now has fired, and none due later
+            int due = 0;
+            for (ScheduledEvent event : events) {
+                boolean isDue = event.getDeadlineMillis() <= now;
+                if (!event.isCancelled()) {
+                    assertEquals(isDue, event.isFired());
+                    due += isDue ? 1 : 0;
+                }
+            }
+            assertEquals(due, firedSoFar);
+        }
+        scheduler.close();
+        assertEquals(expected, firedSoFar);
+        assertEquals(expected, fired.size());
+        for (ScheduledEvent event : fired) {
+            assertTrue(event.isFired());
+        }
+    }
+
+    @Test
+    public void testStartedTicker() throws Exception {
+        CountDownLatch latch = new CountDownLatch(2);
+        TimingWheelScheduler scheduler = new TimingWheelScheduler(event -> latch.countDown(), Duration.ofMillis(10), System.currentTimeMillis(), 16);
+        scheduler.start();
+        scheduler.schedule(new RentalAgreement(), RentalEvent.DUE_REMINDER, System.currentTimeMillis() + 50);
+        scheduler.schedule(new RentalAgreement(), RentalEvent.LATE_NOTICE, System.currentTimeMillis() + 100);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        scheduler.close();
+        assertThrows(IllegalStateException.class, () -> scheduler.schedule(new RentalAgreement(), RentalEvent.DUE_REMINDER, 0));
+    }
+}
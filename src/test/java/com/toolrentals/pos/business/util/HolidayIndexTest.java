@@ -0,0 +1,47 @@
+package com.toolrentals.pos.business.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Calendar;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the functions in the HolidayIndex class.
+ */
+public class HolidayIndexTest {
+
+    private final HolidayIndex holidayIndex = new HolidayIndex();
+    private final DateUtil dateUtil = new DateUtil();
+
+    @Test
+    public void testIsHoliday() {
+        assertTrue(holidayIndex.isHoliday(LocalDate.of(2023, 9, 4)), "September 4, 2023 should be Labor Day");
+        assertTrue(holidayIndex.isHoliday(LocalDate.of(2024, 7, 4)), "July 4, 2024 should be Independence Day");
+        assertTrue(holidayIndex.isHoliday(LocalDate.of(2025, 9, 1)), "September 1, 2025 should be Labor Day");
+        assertFalse(holidayIndex.isHoliday(LocalDate.of(2024, 9, 9)), "September 9, 2024 should not be a holiday");
+        assertFalse(holidayIndex.isHoliday(LocalDate.of(2024, 12, 31)), "December 31, 2024 should not be a holiday");
+    }
+
+    @Test
+    public void testIsHolidayOutsideIndexedYears() {
+        assertTrue(holidayIndex.isHoliday(LocalDate.of(1776, 7, 4)));
+        assertTrue(holidayIndex.isHoliday(LocalDate.of(2400, 9, 4)));
+        assertFalse(holidayIndex.isHoliday(LocalDate.of(2400, 9, 5)));
+    }
+
+    /**
+     * Every day of a range of years must agree with the day by day holiday checks in DateUtil.
+     */
+    @Test
+    public void testMatchesDateUtil() {
+        Calendar cal = Calendar.getInstance();
+        cal.clear();
+        cal.set(1995, Calendar.JANUARY, 1);
+        while (cal.get(Calendar.YEAR) < 2060) {
+            assertEquals(dateUtil.isHoliday(cal), holidayIndex.isHoliday(cal), cal.getTime().toString());
+            cal.add(Calendar.DAY_OF_MONTH, 1);
+        }
+    }
+}
@@ -1,16 +1,23 @@
 package com.toolrentals.pos.business.validation;
 
+import com.toolrentals.pos.business.clock.FixedBusinessClock;
+import com.toolrentals.pos.common.enums.ToolCode;
+import com.toolrentals.pos.common.enums.ValidationError;
 import com.toolrentals.pos.common.model.DeWaltJackhammer;
 import com.toolrentals.pos.common.model.RentalAgreement;
 import com.toolrentals.pos.common.model.Tool;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class RentalAgreementValidatorTest {
 
@@ -297,6 +304,65 @@ public class RentalAgreementValidatorTest {
         );
     }
 
+    @Test
+    public void testCheckCheckoutCollectsEveryError() {
+        ValidationResult result = new ValidationResult();
+        Calendar yesterday = Calendar.getInstance();
+        yesterday.add(Calendar.DAY_OF_MONTH, -1);
+        assertFalse(validator.checkCheckout(null, 0, yesterday.getTime(), 101, result));
+        assertEquals(4, result.getErrorCount());
+        assertEquals(ValidationError.NO_TOOL, result.getError(0));
+        assertEquals(ValidationError.TOO_FEW_RENTAL_DAYS, result.getError(1));
+        assertEquals(ValidationError.CHECKOUT_BEFORE_TODAY, result.getError(2));
+        assertEquals(ValidationError.DISCOUNT_OUT_OF_RANGE, result.getError(3));
+        assertEquals("Must select a tool. Must rent tool for at least 1 day. Checkout cannot be prior to current date. "
+                + "Percent discount must be between 0 and 100.", result.getMessages());
+
+        // the result is cleared for each check
+        assertFalse(validator.checkCheckout(new DeWaltJackhammer(), 3, null, 10, result));
+        assertEquals(1, result.getErrorCount());
+        assertTrue(result.contains(ValidationError.NO_CHECKOUT_DATE));
+        assertFalse(result.contains(ValidationError.NO_TOOL));
+        assertThrows(IndexOutOfBoundsException.class, () -> result.getError(1));
+
+        assertTrue(validator.checkCheckout(new DeWaltJackhammer(), 3, new Date(), 10, result));
+        assertTrue(result.isValid());
+        assertEquals("", result.getMessages());
+    }
+
+    @Test
+    public void testCheckCheckoutAsOfFixedDay() {
+        // a checkout validated as of the day it was made, then as of the day after
+        FixedBusinessClock clock = new FixedBusinessClock(LocalDate.of(2020, 7, 2));
+        RentalAgreementValidator pastValidator = new RentalAgreementValidator();
+        pastValidator.setBusinessClock(clock);
+        ValidationResult result = new ValidationResult();
+        Calendar cal = Calendar.getInstance();
+        cal.set(2020, Calendar.JULY, 2, 17, 30);
+        assertTrue(pastValidator.checkCheckout(new DeWaltJackhammer(), 3, cal.getTime(), 10, result));
+        assertTrue(pastValidator.checkQuote(ToolCode.JAKD, 3, LocalDate.of(2020, 7, 2).toEpochDay(), 10,
+                clock.getTodayEpochDay(), result));
+
+        clock.setToday(LocalDate.of(2020, 7, 3));
+        assertFalse(pastValidator.checkCheckout(new DeWaltJackhammer(), 3, cal.getTime(), 10, result));
+        assertTrue(result.contains(ValidationError.CHECKOUT_BEFORE_TODAY));
+        assertThrows(Exception.class, () -> pastValidator.validateCheckoutDate(cal.getTime()));
+    }
+
+    @Test
+    public void testCheckQuote() {
+        ValidationResult result = new ValidationResult();
+        long today = LocalDate.now().toEpochDay();
+        assertTrue(validator.checkQuote(ToolCode.LADW, 1, today, 100, today, result));
+        assertFalse(validator.checkQuote(ToolCode.LADW, 1, today - 1, -1, today, result));
+        assertEquals(2, result.getErrorCount());
+        assertEquals(ValidationError.CHECKOUT_BEFORE_TODAY, result.getError(0));
+        assertEquals(ValidationError.DISCOUNT_OUT_OF_RANGE, result.getError(1));
+        assertFalse(validator.checkQuote(null, 1, today, 0, today, result));
+        assertEquals(ValidationError.NO_TOOL, result.getError(0));
+        assertEquals(1, result.getErrorCount());
+    }
+
     private RentalAgreement createRentalAgreement(Tool tool, HashMap<Date, BigDecimal> chargesByDate, Date checkoutDate, Date dueDate, Integer chargeableDays, BigDecimal subtotal, Integer percentDiscount, BigDecimal discount) {
         return new RentalAgreement()
                 .tool(tool)
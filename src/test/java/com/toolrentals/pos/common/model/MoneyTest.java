@@ -0,0 +1,49 @@
+package com.toolrentals.pos.common.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the fixed point arithmetic in the Money class.
+ */
+public class MoneyTest {
+
+    @Test
+    public void testConversions() {
+        assertEquals(299, Money.fromBigDecimal(new BigDecimal("2.99")));
+        assertEquals(300, Money.fromBigDecimal(new BigDecimal("2.995")));
+        assertEquals(10000, Money.fromBigDecimal(new BigDecimal(100)));
+        assertEquals(Money.UNSET, Money.fromBigDecimal(null));
+        assertEquals(new BigDecimal("2.99"), Money.toBigDecimal(299));
+        assertNull(Money.toBigDecimal(Money.UNSET));
+    }
+
+    /**
+     * The percentage must match the BigDecimal discount calculation previously used by the RentalChargeCalculator.
+     */
+    @Test
+    public void testPercentOfMatchesBigDecimal() {
+        for (long cents = 0; cents <= 20_000; cents += 7) {
+            BigDecimal amount = BigDecimal.valueOf(cents, 2);
+            for (int percent = 0; percent <= 100; percent++) {
+                BigDecimal rate = new BigDecimal(percent).divide(new BigDecimal(100), 2, RoundingMode.HALF_UP);
+                BigDecimal expected = amount.multiply(rate).setScale(2, RoundingMode.HALF_UP);
+                assertEquals(expected, Money.toBigDecimal(Money.percentOf(cents, percent)), cents + " cents at " + percent + "%");
+            }
+        }
+    }
+
+    @Test
+    public void testPercentOfRoundsHalfUp() {
+        // 10% of 11.95 is 1.195, which rounds up to 1.20
+        assertEquals(120, Money.percentOf(1195, 10));
+        // 10% of 11.94 is 1.194, which rounds down to 1.19
+        assertEquals(119, Money.percentOf(1194, 10));
+        // negative amounts round away from zero, like BigDecimal
+        assertEquals(-120, Money.percentOf(-1195, 10));
+    }
+}
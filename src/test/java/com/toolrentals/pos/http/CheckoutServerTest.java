@@ -0,0 +1,152 @@
+package com.toolrentals.pos.http;
+
+import com.toolrentals.pos.CheckoutProcess;
+import com.toolrentals.pos.business.catalog.ToolCatalog;
+import com.toolrentals.pos.business.inventory.ToolInventory;
+import com.toolrentals.pos.common.enums.ToolCode;
+import com.toolrentals.pos.service.RentalAgreementSvcImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test CheckoutServer.
+ */
+public class CheckoutServerTest {
+
+    private final AtomicBoolean jammed = new AtomicBoolean();
+    private ToolInventory toolInventory;
+    private CheckoutServer server;
+    private HttpClient client;
+    private String checkoutDate;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        toolInventory = new ToolInventory();
+        toolInventory.setUnits(ToolCode.JAKR, 1);
+        RentalAgreementSvcImpl rentalAgreementSvc = new RentalAgreementSvcImpl();
+        rentalAgreementSvc.setReceiptSink(receipt -> {
+            if (jammed.get()) {
+                throw new IOException("Printer jammed.");
+            }
+        });
+        CheckoutProcess checkoutProcess = new CheckoutProcess(new ToolCatalog(), toolInventory, rentalAgreementSvc);
+        server = new CheckoutServer(checkoutProcess, new InetSocketAddress("localhost", 0));
+        server.start();
+        client = HttpClient.newHttpClient();
+        // a Wednesday in the future, clear of holidays
+        checkoutDate = LocalDate.of(2099, 11, 1).with(TemporalAdjusters.nextOrSame(DayOfWeek.WEDNESDAY)).toString();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+        client.close();
+    }
+
+    @Test
+    public void testQuote() throws Exception {
+        HttpResponse<String> response = post("/quote",
+                "{\"toolCode\": \"LADW\", \"rentalDays\": 3, \"checkoutDate\": \"" + checkoutDate + "\", \"discountPercent\": 10}");
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("application/json"));
+        String body = response.body();
+        assertTrue(body.contains("\"toolCode\":\"LADW\""), body);
+        assertTrue(body.contains("\"checkoutDate\":\"" + checkoutDate + "\""), body);
+        assertTrue(body.contains("\"dueDate\":\"" + LocalDate.parse(checkoutDate).plusDays(3) + "\""), body);
+        // Wednesday to Saturday, all charged for a ladder
+        assertTrue(body.contains("\"chargeableDays\":3,\"subtotal\":5.97,\"discountPercent\":10,\"discount\":0.60,\"total\":5.37"), body);
+    }
+
+    @Test
+    public void testQuoteDoesNotReserve() throws Exception {
+        String request = "{\"toolCode\": \"JAKR\", \"rentalDays\": 2, \"checkoutDate\": \"" + checkoutDate + "\", \"discountPercent\": 0}";
+        assertEquals(200, post("/quote", request).statusCode());
+        assertEquals(1, toolInventory.getAvailable(ToolCode.JAKR));
+    }
+
+    @Test
+    public void testCheckout() throws Exception {
+        String request = "{\"toolCode\": \"JAKR\", \"rentalDays\": 2, \"checkoutDate\": \"" + checkoutDate + "\", \"discountPercent\": 0}";
+        HttpResponse<String> response = post("/checkout", request);
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"toolType\":\"JACKHAMMER\""), response.body());
+        assertEquals(0, toolInventory.getAvailable(ToolCode.JAKR));
+
+        // the only unit is out
+        response = post("/checkout", request);
+        assertEquals(409, response.statusCode());
+        assertEquals("{\"error\":\"No JAKR is available to rent.\"}", response.body());
+    }
+
+    @Test
+    public void testServerFailure() throws Exception {
+        jammed.set(true);
+        String request = "{\"toolCode\": \"JAKR\", \"rentalDays\": 2, \"checkoutDate\": \"" + checkoutDate + "\", \"discountPercent\": 0}";
+        HttpResponse<String> response = post("/checkout", request);
+        // no fault of the request, and no detail of the server is given away
+        assertEquals(500, response.statusCode());
+        assertEquals("{\"error\":\"The request could not be processed.\"}", response.body());
+        assertEquals(1, toolInventory.getAvailable(ToolCode.JAKR));
+    }
+
+    @Test
+    public void testInvalidRequests() throws Exception {
+        // validation messages are passed on, with the code of every error found
+        HttpResponse<String> response = post("/quote",
+                "{\"toolCode\": \"LADW\", \"rentalDays\": 0, \"checkoutDate\": \"" + checkoutDate + "\"}");
+        assertEquals(400, response.statusCode());
+        assertEquals("{\"error\":\"Must rent tool for at least 1 day.\",\"codes\":[\"TOO_FEW_RENTAL_DAYS\"]}", response.body());
+        response = post("/checkout", "{\"rentalDays\": 0, \"discountPercent\": 101}");
+        assertEquals(400, response.statusCode());
+        assertEquals("{\"error\":\"Must select a tool.\",\"codes\":[\"NO_TOOL\",\"TOO_FEW_RENTAL_DAYS\",\"NO_CHECKOUT_DATE\","
+                + "\"DISCOUNT_OUT_OF_RANGE\"]}", response.body());
+
+        assertEquals(400, post("/quote", "{\"toolCode\": \"NOPE\", \"rentalDays\": 1, \"checkoutDate\": \"" + checkoutDate + "\"}").statusCode());
+        assertEquals(400, post("/checkout", "{\"toolCode\": \"NOPE\", \"rentalDays\": 1, \"checkoutDate\": \"" + checkoutDate + "\"}").statusCode());
+        assertEquals(400, post("/quote", "{\"toolCode\": \"LADW\", \"rentalDays\": 1, \"checkoutDate\": \"July 4th\"}").statusCode());
+        assertEquals(400, post("/quote", "{\"toolCode\": \"LADW\" \"rentalDays\": 1}").statusCode());
+        assertEquals(400, post("/quote", "").statusCode());
+    }
+
+    @Test
+    public void testUnknownFieldsSkipped() throws Exception {
+        HttpResponse<String> response = post("/quote", "{\"customer\": {\"name\": \"A\", \"tags\": [1, 2.5, true, null]}, "
+                + "\"toolCode\": \"CHNS\", \"rentalDays\": 1, \"checkoutDate\": \"" + checkoutDate + "\", \"discountPercent\": 0}");
+        assertEquals(200, response.statusCode());
+    }
+
+    @Test
+    public void testMethodAndPath() throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/quote")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, response.statusCode());
+        assertEquals("POST", response.headers().firstValue("Allow").orElse(null));
+        assertEquals(404, post("/quote/extra", "{}").statusCode());
+    }
+
+    private HttpResponse<String> post(String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getPort() + path);
+    }
+}
@@ -0,0 +1,132 @@
+package com.toolrentals.pos.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test JsonReader and JsonWriter.
+ */
+public class JsonReaderTest {
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        JsonWriter writer = new JsonWriter().beginObject()
+                .name("text").value("quote \" slash \\ tab \t é € \uD83D\uDD27")
+                .name("missing").value((String) null)
+                .name("count").value(-42)
+                .name("amounts").beginArray().cents(1999).cents(-5).cents(0).endArray()
+                .endObject();
+        assertEquals("{\"text\":\"quote \\\" slash \\\\ tab \\u0009 é € \uD83D\uDD27\",\"missing\":null,\"count\":-42,"
+                + "\"amounts\":[19.99,-0.05,0.00]}", writer.toString());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeTo(out);
+        assertEquals(writer.size(), out.size());
+
+        JsonReader reader = reader(out.toString(StandardCharsets.UTF_8));
+        reader.beginObject();
+        assertTrue(reader.hasNext());
+        assertEquals("text", reader.nextName());
+        assertEquals("quote \" slash \\ tab \t é € \uD83D\uDD27", reader.nextString());
+        assertTrue(reader.hasNext());
+        assertEquals("missing", reader.nextName());
+        assertNull(reader.nextString());
+        assertTrue(reader.hasNext());
+        assertEquals("count", reader.nextName());
+        assertEquals(-42, reader.nextLong());
+        assertTrue(reader.hasNext());
+        assertEquals("amounts", reader.nextName());
+        reader.skipValue();
+        assertFalse(reader.hasNext());
+        reader.endObject();
+        reader.endDocument();
+    }
+
+    @Test
+    public void testEscapes() throws Exception {
+        JsonReader reader = reader(" [ \"\\u0041\\n\\/\\b\" , \"\" ] ");
+        reader.beginArray();
+        assertTrue(reader.hasNext());
+        assertEquals("A\n/\b", reader.nextString());
+        assertTrue(reader.hasNext());
+        assertEquals("", reader.nextString());
+        assertFalse(reader.hasNext());
+        reader.endArray();
+        reader.endDocument();
+    }
+
+    @Test
+    public void testLongDocument() throws Exception {
+        // values spanning the read buffer
+        StringBuilder json = new StringBuilder("{");
+        for (int i = 0; i < 200; i++) {
+            json.append(i == 0 ? "" : ",").append("\"field").append(i).append("\":").append(i * 1_000_003L);
+        }
+        JsonReader reader = reader(json.append('}').toString());
+        reader.beginObject();
+        for (int i = 0; i < 200; i++) {
+            assertTrue(reader.hasNext());
+            assertEquals("field" + i, reader.nextName());
+            assertEquals(i * 1_000_003L, reader.nextLong());
+        }
+        assertFalse(reader.hasNext());
+        reader.endObject();
+
+        JsonReader limited = new JsonReader(new ByteArrayInputStream(json.toString().getBytes(StandardCharsets.UTF_8)), 100);
+        assertThrows(IOException.class, () -> {
+            limited.beginObject();
+            while (limited.hasNext()) {
+                limited.nextName();
+                limited.skipValue();
+            }
+        });
+    }
+
+    @Test
+    public void testMalformed() {
+        assertMalformed("{\"a\" 1}");
+        assertMalformed("{\"a\": 1 \"b\": 2}");
+        assertMalformed("{\"a\": 1.5}");
+        assertMalformed("{\"a\": 99999999999999999999}");
+        assertMalformed("{\"a\": \"unterminated}");
+        assertMalformed("{\"a\": \"\\x\"}");
+        assertMalformed("{\"a\": tru}");
+        assertMalformed("{\"a\": 1} {}");
+        assertMalformed("");
+
+        IOException e = assertThrows(IOException.class, () -> {
+            JsonReader reader = reader("{\"a\": }");
+            reader.beginObject();
+            reader.hasNext();
+            reader.nextName();
+            reader.skipValue();
+        });
+        assertEquals("Malformed JSON at byte 6: expected a value.", e.getMessage());
+    }
+
+    private static void assertMalformed(String json) {
+        assertThrows(IOException.class, () -> {
+            JsonReader reader = reader(json);
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("a".equals(reader.nextName())) {
+                    reader.nextLong();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            reader.endDocument();
+        }, json);
+    }
+
+    private static JsonReader reader(String json) {
+        return new JsonReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), Long.MAX_VALUE);
+    }
+}
@@ -1,15 +1,27 @@
 package com.toolrentals.pos.service;
 
+import com.toolrentals.pos.business.scheduler.ScheduledEvent;
+import com.toolrentals.pos.business.scheduler.TimingWheelScheduler;
+import com.toolrentals.pos.business.util.DateUtil;
+import com.toolrentals.pos.business.validation.ValidationResult;
+import com.toolrentals.pos.common.enums.RentalEvent;
 import com.toolrentals.pos.common.enums.ToolCode;
+import com.toolrentals.pos.common.enums.ValidationError;
+import com.toolrentals.pos.common.model.CartAgreement;
+import com.toolrentals.pos.common.model.CartLine;
 import com.toolrentals.pos.common.model.DeWaltJackhammer;
+import com.toolrentals.pos.common.model.QuoteBatch;
 import com.toolrentals.pos.common.model.RentalAgreement;
 import com.toolrentals.pos.common.model.Tool;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -345,4 +357,196 @@ public class RentalAgreementSvcTest {
         assertEquals(new BigDecimal("10.76"), rentalAgreement.getTotal());
     }
 
+    @Test
+    public void testQuoteBatch() {
+        assertThrows(
+                Exception.class,
+                () -> svc.quoteBatch(null),
+                "Must supply a batch of quotes."
+        );
+
+        long today = LocalDate.now().toEpochDay();
+        QuoteBatch batch = new QuoteBatch();
+        batch.add(ToolCode.LADW, 5, today, 0);
+        batch.add(ToolCode.CHNS, 0, today, 0);
+        assertThrows(
+                Exception.class,
+                () -> svc.quoteBatch(batch),
+                "Quote 1: Must rent tool for at least 1 day."
+        );
+
+        QuoteBatch validBatch = new QuoteBatch();
+        int row = validBatch.add(ToolCode.LADW, 14, today, 25);
+        assertDoesNotThrow(
+                () -> svc.quoteBatch(validBatch)
+        );
+        // a ladder is charged every day except holidays, and two weeks cannot contain both holidays
+        assertTrue(validBatch.getChargeableDays(row) >= 13);
+        assertEquals(validBatch.getSubtotalCents(row) - validBatch.getDiscountCents(row), validBatch.getTotalCents(row));
+    }
+
+    @Test
+    public void testCheckout() throws Exception {
+        assertThrows(
+                Exception.class,
+                () -> svc.checkout(null, 5, new Date(), 0),
+                "Must select a tool."
+        );
+        assertThrows(
+                Exception.class,
+                () -> svc.checkout(svc.findTool(ToolCode.LADW), 5, new Date(), 101),
+                "Percent discount must be between 0 and 100."
+        );
+
+        // the fused checkout matches the individual steps, across weekends and the July and September holidays
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        for (ToolCode toolCode : ToolCode.values()) {
+            for (int rentalDays : new int[]{1, 4, 9, 75, 400}) {
+                Tool tool = svc.findTool(toolCode);
+                Date checkoutDate = cal.getTime();
+                RentalAgreement fused = svc.checkout(tool, rentalDays, checkoutDate, 15);
+
+                RentalAgreement stepped = svc.createRentalAgreement();
+                svc.assignToolToRentalAgreement(stepped, tool);
+                svc.assignRentalDaysToRentalAgreement(stepped, rentalDays);
+                svc.assignCheckoutDateToRentalAgreement(stepped, checkoutDate);
+                svc.assignPercentDiscount(stepped, 15);
+                svc.calculateDueDate(stepped);
+                svc.calculateDailyRentalCharges(stepped);
+                svc.calculateSubtotal(stepped);
+                svc.calculateDiscountAmount(stepped);
+                svc.calculateTotal(stepped);
+
+                assertEquals(stepped.getDueDate(), fused.getDueDate());
+                assertEquals(stepped.getNumberChargeableDays(), fused.getNumberChargeableDays());
+                // the daily charges are itemized only on request
+                assertNull(fused.getDailyCharges());
+                svc.calculateDailyRentalCharges(fused);
+                assertEquals(stepped.getRentalChargesByDate(), fused.getRentalChargesByDate());
+                assertEquals(stepped.getSubtotal(), fused.getSubtotal());
+                assertEquals(stepped.getDiscount(), fused.getDiscount());
+                assertEquals(stepped.getTotal(), fused.getTotal());
+                cal.add(Calendar.DAY_OF_MONTH, 37);
+            }
+        }
+    }
+
+
+    @Test
+    public void testCheckoutWithValidationResult() throws Exception {
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        ValidationResult result = new ValidationResult();
+        assertNull(svc.checkout(svc.findTool(ToolCode.JAKD), 0, cal.getTime(), -5, result));
+        assertEquals(2, result.getErrorCount());
+        assertEquals(ValidationError.TOO_FEW_RENTAL_DAYS, result.getError(0));
+        assertEquals(ValidationError.DISCOUNT_OUT_OF_RANGE, result.getError(1));
+        assertFalse(svc.checkCheckout(svc.findTool(ToolCode.JAKD), 0, cal.getTime(), -5, result));
+
+        // the throwing checkout reports the first error
+        Exception e = assertThrows(Exception.class, () -> svc.checkout(svc.findTool(ToolCode.JAKD), 0, cal.getTime(), -5));
+        assertEquals("Must rent tool for at least 1 day.", e.getMessage());
+
+        RentalAgreement rentalAgreement = svc.checkout(svc.findTool(ToolCode.JAKD), 5, cal.getTime(), 10, result);
+        assertTrue(result.isValid());
+        RentalAgreement expected = svc.checkout(svc.findTool(ToolCode.JAKD), 5, cal.getTime(), 10);
+        assertEquals(expected.getNumberChargeableDays(), rentalAgreement.getNumberChargeableDays());
+        assertEquals(expected.getTotalCents(), rentalAgreement.getTotalCents());
+    }
+
+    @Test
+    public void testScheduleReminders() throws Exception {
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        RentalAgreement rentalAgreement = svc.checkout(svc.findTool(ToolCode.LADW), 3, cal.getTime(), 0);
+        assertEquals(List.of(), svc.scheduleReminders(rentalAgreement));
+        assertThrows(
+                Exception.class,
+                () -> svc.scheduleReminders(new RentalAgreement()),
+                "Must complete rental agreement."
+        );
+
+        TimingWheelScheduler scheduler = new TimingWheelScheduler(event -> {});
+        svc.setReminderScheduler(scheduler, Duration.ofHours(24), Duration.ofHours(2));
+        long dueMillis = rentalAgreement.getDueDate().getTime();
+        List<ScheduledEvent> events = svc.scheduleReminders(rentalAgreement);
+        assertEquals(2, events.size());
+        assertEquals(RentalEvent.DUE_REMINDER, events.get(0).getRentalEvent());
+        assertEquals(dueMillis - Duration.ofHours(24).toMillis(), events.get(0).getDeadlineMillis());
+        assertEquals(RentalEvent.LATE_NOTICE, events.get(1).getRentalEvent());
+        // sent two hours into the day after the due date
+        DateUtil dateUtil = new DateUtil();
+        long lateMillis = dateUtil.fromEpochDay(dateUtil.toEpochDay(rentalAgreement.getDueDate()) + 1).getTime();
+        assertEquals(lateMillis + Duration.ofHours(2).toMillis(), events.get(1).getDeadlineMillis());
+        assertTrue(events.get(1).getDeadlineMillis() > dueMillis + Duration.ofHours(2).toMillis());
+        assertSame(rentalAgreement, events.get(1).getRentalAgreement());
+
+        // a one day rental is due before a reminder 24 hours ahead could be sent
+        RentalAgreement oneDay = svc.checkout(svc.findTool(ToolCode.LADW), 1, cal.getTime(), 0);
+        assertEquals(1, svc.scheduleReminders(oneDay).size());
+        assertEquals(3, scheduler.getScheduledEvents());
+        scheduler.close();
+    }
+
+    @Test
+    public void testPriceCart() throws Exception {
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        assertThrows(Exception.class, () -> svc.priceCart(null), "Must create a cart.");
+        assertThrows(Exception.class, () -> svc.priceCart(new CartAgreement().checkoutDate(cal.getTime()).percentDiscount(0)),
+                "Must add a tool to the cart.");
+        assertThrows(Exception.class, () -> svc.priceCart(new CartAgreement().percentDiscount(0).addLine(svc.findTool(ToolCode.LADW), 1)),
+                "Must select a checkout date.");
+        assertThrows(Exception.class, () -> svc.priceCart(new CartAgreement().checkoutDate(cal.getTime()).percentDiscount(101)
+                .addLine(svc.findTool(ToolCode.LADW), 1)), "Percent discount must be between 0 and 100.");
+        Exception e = assertThrows(Exception.class, () -> svc.priceCart(new CartAgreement().checkoutDate(cal.getTime()).percentDiscount(0)
+                .addLine(svc.findTool(ToolCode.LADW), 1).addLine(svc.findTool(ToolCode.CHNS), 0)));
+        assertEquals("Line 2: Must rent tool for at least 1 day.", e.getMessage());
+
+        CartAgreement cart = new CartAgreement().checkoutDate(cal.getTime()).percentDiscount(20)
+                .addLine(svc.findTool(ToolCode.LADW), 4)
+                .addLine(svc.findTool(ToolCode.JAKD), 9);
+        svc.priceCart(cart);
+        long subtotal = 0;
+        for (CartLine line : cart.getLines()) {
+            RentalAgreement rentalAgreement = svc.checkout(line.getTool(), line.getRentalDays(), cal.getTime(), 20);
+            assertEquals(rentalAgreement.getNumberChargeableDays(), line.getNumberChargeableDays());
+            assertEquals(rentalAgreement.getSubtotalCents(), line.getSubtotalCents());
+            assertEquals(rentalAgreement.getDueDate(), line.getDueDate());
+            subtotal += rentalAgreement.getSubtotalCents();
+        }
+        assertEquals(subtotal, cart.getSubtotalCents());
+        assertTrue(cart.hasTotal());
+    }
+
+    @Test
+    public void testCheckin() throws Exception {
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        Date checkoutDate = cal.getTime();
+        RentalAgreement onTime = svc.checkout(svc.findTool(ToolCode.CHNS), 3, checkoutDate, 10);
+        assertEquals("Must complete rental agreement.",
+                assertThrows(Exception.class, () -> svc.checkin(new RentalAgreement(), checkoutDate)).getMessage());
+        assertEquals("Must select a return date.",
+                assertThrows(Exception.class, () -> svc.checkin(onTime, null)).getMessage());
+        assertEquals("Return cannot be prior to checkout date.",
+                assertThrows(Exception.class, () -> svc.checkin(onTime, new Date())).getMessage());
+        assertFalse(onTime.hasReturnDate());
+
+        svc.checkin(onTime, onTime.getDueDate());
+        assertEquals(onTime.getDueDate(), onTime.getReturnDate());
+        assertEquals(0, onTime.getNumberLateChargeableDays());
+        assertEquals(0, onTime.getLateFeeCents());
+        assertEquals("Rental agreement has already been returned.",
+                assertThrows(Exception.class, () -> svc.checkin(onTime, onTime.getDueDate())).getMessage());
+
+        // a week late is 5 weekdays at the chainsaw's 1.49, with no discount on the late fee
+        RentalAgreement late = svc.checkout(svc.findTool(ToolCode.CHNS), 3, checkoutDate, 10);
+        cal.setTime(late.getDueDate());
+        cal.add(Calendar.DAY_OF_MONTH, 7);
+        svc.checkin(late, cal.getTime());
+        assertEquals(5, late.getNumberLateChargeableDays());
+        assertEquals(new BigDecimal("7.45"), late.getLateFee());
+    }
 }